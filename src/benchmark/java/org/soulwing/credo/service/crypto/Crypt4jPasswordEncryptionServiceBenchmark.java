@@ -0,0 +1,65 @@
+/*
+ * File created on May 9, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.soulwing.credo.Password;
+
+/**
+ * Benchmarks for {@link Crypt4jPasswordEncryptionService}.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class Crypt4jPasswordEncryptionServiceBenchmark {
+
+  private Crypt4jPasswordEncryptionService service;
+
+  private Password password = new Password("benchmark".toCharArray());
+
+  private String encrypted;
+
+  @Setup
+  public void setUp() {
+    service = new Crypt4jPasswordEncryptionService();
+    service.init();
+    encrypted = service.encrypt(password);
+  }
+
+  @Benchmark
+  public String encrypt() {
+    return service.encrypt(password);
+  }
+
+  @Benchmark
+  public boolean validate() {
+    return service.validate(password, encrypted);
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * File created on May 9, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.bc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.KeyPair;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.soulwing.credo.service.crypto.CertificateWrapper;
+import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
+import org.soulwing.credo.service.pem.bc.BcPemObjectBuilderFactory;
+import org.soulwing.credo.testing.BenchmarkFixtures;
+
+/**
+ * Benchmarks for {@link BcCredentialBag}.
+ * <p>
+ * Each bundle contains a private key followed by a certificate chain 
+ * of the parameterized length.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BcCredentialBagBenchmark {
+
+  @Param({ "1", "10", "100" })
+  public int bundleSize;
+
+  private final PemObjectBuilderFactory objectBuilderFactory =
+      new BcPemObjectBuilderFactory();
+
+  private byte[] bundle;
+
+  @Setup
+  public void setUp() throws IOException {
+    KeyPair keyPair = BenchmarkFixtures.newKeyPair(2048);
+    bundle = BenchmarkFixtures.newBundle(keyPair, bundleSize)
+        .getBytes("UTF-8");
+  }
+
+  @Benchmark
+  public int addAllObjects() throws IOException {
+    BcCredentialBag bag = new BcCredentialBag(objectBuilderFactory);
+    return bag.addAllObjects(new ByteArrayInputStream(bundle));
+  }
+
+  @Benchmark
+  public List<CertificateWrapper> findAuthorityCertificates() 
+      throws IOException {
+    BcCredentialBag bag = new BcCredentialBag(objectBuilderFactory);
+    bag.addAllObjects(new ByteArrayInputStream(bundle));
+    PrivateKeyWrapper privateKey = bag.findPrivateKey();
+    CertificateWrapper certificate = bag.findSubjectCertificate(privateKey);
+    return bag.findAuthorityCertificates(certificate);
+  }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.bc;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.soulwing.credo.testing.BenchmarkFixtures;
+
+/**
+ * Benchmarks comparing the time needed to encrypt and decrypt a private
+ * key using each of the {@link BcPKCS8EncryptionScheme} implementations.
+ * <p>
+ * The PBES2 scheme is first calibrated for the unlock latency given by
+ * the {@code targetLatency} parameter (in milliseconds).
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BcPKCS8EncryptionSchemeBenchmark {
+
+  private static final char[] PASSWORD = "benchmark".toCharArray();
+
+  @Param({ "openssl", "pbes2" })
+  public String scheme;
+
+  @Param({ "250" })
+  public long targetLatency;
+
+  private BcPKCS8EncryptionScheme encryptionScheme;
+
+  private PrivateKeyInfo keyInfo;
+
+  private PKCS8EncryptedPrivateKeyInfo encryptedKeyInfo;
+
+  @Setup
+  public void setUp() {
+    keyInfo = PrivateKeyInfo.getInstance(
+        BenchmarkFixtures.newKeyPair(2048).getPrivate().getEncoded());
+    if ("pbes2".equals(scheme)) {
+      encryptionScheme = new BcPBES2PKCS8EncryptionScheme();
+      encryptionScheme.calibrate(targetLatency);
+    }
+    else {
+      encryptionScheme = new BcOpenSSLPKCS8EncryptionScheme();
+    }
+    encryptedKeyInfo = encryptionScheme.encrypt(keyInfo, PASSWORD);
+  }
+
+  @Benchmark
+  public PKCS8EncryptedPrivateKeyInfo encrypt() {
+    return encryptionScheme.encrypt(keyInfo, PASSWORD);
+  }
+
+  @Benchmark
+  public PrivateKeyInfo decrypt() throws Exception {
+    return encryptionScheme.decrypt(encryptedKeyInfo, PASSWORD);
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * File created on May 9, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.soulwing.credo.service.crypto.KeyPairWrapper;
+import org.soulwing.credo.service.crypto.SecretKeyWrapper;
+import org.soulwing.credo.service.pem.bc.BcPemObjectBuilderFactory;
+import org.soulwing.credo.testing.BenchmarkFixtures;
+
+/**
+ * Benchmarks for {@link JcaKeyGeneratorService}.
+ * <p>
+ * Key pairs are generated inline (as on a miss in the key pair pool) 
+ * at each of the parameterized key sizes.  Secret keys are generated
+ * using each of the available strategies; secret key generation is the
+ * dominant cost of creating a user profile or group.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JcaKeyGeneratorServiceBenchmark {
+
+  @Param({ "1024", "2048", "4096" })
+  public int keySize;
+
+  @Param({ "direct", "pbkdf2" })
+  public String secretKeyStrategy;
+
+  private JcaKeyGeneratorService service;
+
+  @Setup
+  public void setUp() {
+    service = new JcaKeyGeneratorService();
+    service.objectBuilderFactory = new BcPemObjectBuilderFactory();
+    service.keyPairPool = new InlineKeyPairPool(keySize);
+    service.secretKeyStrategy = newSecretKeyStrategy();
+  }
+
+  private JcaSecretKeyGeneratorStrategy newSecretKeyStrategy() {
+    if ("pbkdf2".equals(secretKeyStrategy)) {
+      JcaPBKDF2SecretKeyGeneratorStrategy strategy = 
+          new JcaPBKDF2SecretKeyGeneratorStrategy();
+      strategy.init();
+      return strategy;
+    }
+    return new JcaDirectSecretKeyGeneratorStrategy();
+  }
+
+  @Benchmark
+  public KeyPairWrapper generateKeyPair() {
+    return service.generateKeyPair();
+  }
+
+  @Benchmark
+  public SecretKeyWrapper generateSecretKey() {
+    return service.generateSecretKey();
+  }
+
+  /**
+   * A {@link KeyPairPool} that always generates a new key pair of a fixed
+   * size.
+   */
+  private static class InlineKeyPairPool implements KeyPairPool {
+
+    private final int keySize;
+
+    public InlineKeyPairPool(int keySize) {
+      this.keySize = keySize;
+    }
+
+    @Override
+    public KeyPair take(int keySize) {
+      return BenchmarkFixtures.newKeyPair(this.keySize);
+    }
+
+    @Override
+    public void replenish(int keySize) {
+    }
+
+    @Override
+    public int getDepth(int keySize) {
+      return 0;
+    }
+
+    @Override
+    public long getHitCount() {
+      return 0;
+    }
+
+    @Override
+    public long getMissCount() {
+      return 0;
+    }
+
+  }
+
+}
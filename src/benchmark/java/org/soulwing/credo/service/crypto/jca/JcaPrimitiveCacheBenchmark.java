@@ -0,0 +1,97 @@
+/*
+ * File created on May 11, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.soulwing.credo.testing.BenchmarkFixtures;
+
+/**
+ * Benchmarks comparing {@link JcaPrimitiveCache} with obtaining a new
+ * primitive via {@code getInstance} for each operation.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class JcaPrimitiveCacheBenchmark {
+
+  private static final String TRANSFORM = "AES/CBC/PKCS5Padding";
+
+  private static final byte[] PLAINTEXT = new byte[64];
+
+  private X509EncodedKeySpec publicKeySpec;
+
+  private SecretKey secretKey;
+
+  @Setup
+  public void setUp() throws Exception {
+    publicKeySpec = new X509EncodedKeySpec(
+        BenchmarkFixtures.newKeyPair(2048).getPublic().getEncoded());
+    secretKey = KeyGenerator.getInstance("AES").generateKey();
+  }
+
+  @Benchmark
+  public PublicKey keyFactoryGetInstance() throws Exception {
+    return KeyFactory.getInstance("RSA").generatePublic(publicKeySpec);
+  }
+
+  @Benchmark
+  public PublicKey keyFactoryCached() throws Exception {
+    return JcaPrimitiveCache.getKeyFactory("RSA")
+        .generatePublic(publicKeySpec);
+  }
+
+  @Benchmark
+  public byte[] cipherGetInstance() throws Exception {
+    Cipher cipher = Cipher.getInstance(TRANSFORM);
+    cipher.init(Cipher.ENCRYPT_MODE, secretKey);
+    return cipher.doFinal(PLAINTEXT);
+  }
+
+  @Benchmark
+  public byte[] cipherCached() throws Exception {
+    Cipher cipher = JcaPrimitiveCache.getCipher(TRANSFORM);
+    try {
+      cipher.init(Cipher.ENCRYPT_MODE, secretKey);
+      return cipher.doFinal(PLAINTEXT);
+    }
+    finally {
+      JcaPrimitiveCache.release(cipher);
+    }
+  }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * File created on May 9, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.soulwing.credo.service.crypto.SecretKeyWrapper;
+import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
+import org.soulwing.credo.service.pem.bc.BcPemObjectBuilderFactory;
+import org.soulwing.credo.testing.BenchmarkFixtures;
+
+/**
+ * Benchmarks for {@link JcaRSASecretKeyEncryptionService}.
+ *
+ * @author Carl Harris
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JcaRSASecretKeyEncryptionServiceBenchmark {
+
+  @Param({ "1024", "2048", "4096" })
+  public int keySize;
+
+  private JcaRSASecretKeyEncryptionService service;
+
+  private SecretKeyWrapper secretKey;
+
+  private KeyPair keyPair;
+
+  @Setup
+  public void setUp() {
+    PemObjectBuilderFactory objectBuilderFactory = 
+        new BcPemObjectBuilderFactory();
+    JcaKeyGeneratorService generator = new JcaKeyGeneratorService();
+    generator.objectBuilderFactory = objectBuilderFactory;
+    generator.secretKeyStrategy = new JcaDirectSecretKeyGeneratorStrategy();
+    service = new JcaRSASecretKeyEncryptionService();
+    service.objectBuilderFactory = objectBuilderFactory;
+    secretKey = generator.generateSecretKey();
+    keyPair = BenchmarkFixtures.newKeyPair(keySize);
+  }
+
+  @Benchmark
+  public SecretKeyWrapper encrypt() {
+    return service.encrypt(secretKey, keyPair.getPublic());
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * File created on May 9, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.testing;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.Security;
+import java.util.Date;
+
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.util.io.pem.PemObject;
+import org.bouncycastle.util.io.pem.PemWriter;
+
+/**
+ * Static utility methods that create the keys and PEM content used as
+ * benchmark inputs.
+ *
+ * @author Carl Harris
+ */
+public class BenchmarkFixtures {
+
+  private static final long VALIDITY = 365L * 24 * 60 * 60 * 1000;
+
+  static {
+    Security.addProvider(new BouncyCastleProvider());
+  }
+
+  /**
+   * Generates an RSA key pair.
+   * @param keySize key size in bits
+   * @return key pair
+   */
+  public static KeyPair newKeyPair(int keySize) {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+      generator.initialize(keySize);
+      return generator.generateKeyPair();
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * Creates a PEM encoded certificate for the given key pair.
+   * @param keyPair subject (and signer) key pair
+   * @param subject subject (and issuer) name
+   * @return PEM encoded certificate
+   */
+  public static String newCertificate(KeyPair keyPair, String subject) {
+    StringWriter writer = new StringWriter();
+    try (PemWriter pemWriter = new PemWriter(writer)) {
+      writeCertificate(pemWriter, keyPair, subject, subject, 0);
+    }
+    catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Creates a PEM encoded bundle containing the private key of the given
+   * key pair followed by a chain of certificates.
+   * <p>
+   * The first certificate in the chain is the subject certificate for
+   * {@code keyPair}; each subsequent certificate is the issuer of its 
+   * predecessor, and the last is self-signed.
+   * @param keyPair subject key pair
+   * @param chainLength number of certificates in the chain
+   * @return PEM encoded bundle
+   */
+  public static String newBundle(KeyPair keyPair, int chainLength) {
+    StringWriter writer = new StringWriter();
+    writer.write(newPrivateKey(keyPair));
+    try (PemWriter pemWriter = new PemWriter(writer)) {
+      for (int i = 0; i < chainLength; i++) {
+        String issuer = i < chainLength - 1 ? "CN=cert-" + (i + 1) 
+            : "CN=cert-" + i;
+        writeCertificate(pemWriter, keyPair, "CN=cert-" + i, issuer, i);
+      }
+    }
+    catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+    return writer.toString();
+  }
+
+  /**
+   * Creates a PEM encoded (traditional OpenSSL format) private key.
+   * @param keyPair subject key pair
+   * @return PEM encoded private key
+   */
+  public static String newPrivateKey(KeyPair keyPair) {
+    StringWriter writer = new StringWriter();
+    try (PemWriter pemWriter = new PemWriter(writer)) {
+      PrivateKeyInfo keyInfo = PrivateKeyInfo.getInstance(
+          keyPair.getPrivate().getEncoded());
+      pemWriter.writeObject(new PemObject("RSA PRIVATE KEY",
+          keyInfo.parsePrivateKey().toASN1Primitive().getEncoded()));
+    }
+    catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+    return writer.toString();
+  }
+
+  private static void writeCertificate(PemWriter pemWriter, KeyPair keyPair,
+      String subject, String issuer, int serial) throws IOException {
+    try {
+      Date notBefore = new Date();
+      Date notAfter = new Date(notBefore.getTime() + VALIDITY);
+      ContentSigner signer = new JcaContentSignerBuilder("SHA256withRSA")
+          .build(keyPair.getPrivate());
+      X509CertificateHolder certificate = new JcaX509v3CertificateBuilder(
+          new X500Name(issuer), BigInteger.valueOf(serial + 1), notBefore, 
+          notAfter, new X500Name(subject), keyPair.getPublic()).build(signer);
+      pemWriter.writeObject(new PemObject("CERTIFICATE", 
+          certificate.getEncoded()));
+    }
+    catch (OperatorCreationException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+}
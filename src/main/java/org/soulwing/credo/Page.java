@@ -0,0 +1,60 @@
+/*
+ * File created on May 8, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo;
+
+import java.util.List;
+
+/**
+ * A page of items retrieved in response to a {@link PageRequest}.
+ *
+ * @author Carl Harris
+ */
+public class Page<T> {
+
+  private final List<T> items;
+  private final Long nextCursor;
+
+  /**
+   * Constructs a new instance.
+   * @param items the items on the page
+   * @param nextCursor cursor for the following page or {@code null} if this 
+   *    is the last page
+   */
+  public Page(List<T> items, Long nextCursor) {
+    this.items = items;
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Gets the items on this page.
+   * @return list of items
+   */
+  public List<T> getItems() {
+    return items;
+  }
+
+  /**
+   * Gets the cursor that identifies the following page.
+   * @return cursor or {@code null} if this is the last page
+   */
+  public Long getNextCursor() {
+    return nextCursor;
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * File created on May 8, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo;
+
+/**
+ * A request for a page of items from a larger sorted list.
+ * <p>
+ * Pages are located using a keyset cursor rather than an offset; the
+ * cursor is the unique identifier of the last item on the preceding page.
+ * Items are ordered by the selected sort key and then by identifier, so
+ * that the position of the cursor is unambiguous.
+ *
+ * @author Carl Harris
+ */
+public class PageRequest {
+
+  /**
+   * Keys by which a list of items may be sorted.
+   */
+  public enum SortKey {
+    NAME,
+    EXPIRATION,
+    DATE_CREATED;
+  }
+
+  private final SortKey sortKey;
+  private final boolean descending;
+  private final String filter;
+  private final Long cursor;
+  private final int pageSize;
+
+  /**
+   * Constructs a new instance.
+   * @param sortKey key by which the items are to be sorted
+   * @param descending flag indicating whether the sort order is descending
+   * @param filter text that must appear in the name or in some tag of 
+   *    each item, or {@code null} to include all items
+   * @param cursor identifier of the last item on the preceding page or
+   *    {@code null} to request the first page
+   * @param pageSize maximum number of items on the page
+   */
+  public PageRequest(SortKey sortKey, boolean descending, String filter,
+      Long cursor, int pageSize) {
+    if (sortKey == null) {
+      throw new NullPointerException("sort key is required");
+    }
+    if (pageSize <= 0) {
+      throw new IllegalArgumentException("page size must be positive");
+    }
+    this.sortKey = sortKey;
+    this.descending = descending;
+    this.filter = filter;
+    this.cursor = cursor;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Gets the key by which the items are to be sorted.
+   * @return sort key
+   */
+  public SortKey getSortKey() {
+    return sortKey;
+  }
+
+  /**
+   * Gets a flag indicating whether the items are to be sorted in 
+   * descending order.
+   * @return flag state
+   */
+  public boolean isDescending() {
+    return descending;
+  }
+
+  /**
+   * Gets the filter text.
+   * @return filter text or {@code null} if no filter is to be applied
+   */
+  public String getFilter() {
+    return filter;
+  }
+
+  /**
+   * Gets the identifier of the last item on the preceding page.
+   * @return cursor or {@code null} if the first page is requested
+   */
+  public Long getCursor() {
+    return cursor;
+  }
+
+  /**
+   * Gets the maximum number of items on the page.
+   * @return page size
+   */
+  public int getPageSize() {
+    return pageSize;
+  }
+
+}
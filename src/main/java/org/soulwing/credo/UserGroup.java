@@ -43,6 +43,15 @@ public interface UserGroup extends Owned {
    */
   Long getId();
   
+  /**
+   * Gets the version of the group.
+   * <p>
+   * The version changes each time the persistent state of the group is
+   * updated.
+   * @return group version or {@code null} if the group is transient
+   */
+  Long getVersion();
+  
   /**
    * Gets the name of the group.
    * @return group name
@@ -61,4 +61,10 @@ public interface UserProfile {
    */
   String getPrivateKey();
   
+  /**
+   * Sets the user's encrypted, PEM encoded private key.
+   * @param privateKey the private key to set
+   */
+  void setPrivateKey(String privateKey);
+  
 }
@@ -28,6 +28,7 @@ import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.Lob;
@@ -51,7 +52,11 @@ import org.soulwing.credo.UserGroup;
  * @author Carl Harris
  */
 @Entity
-@Table(name = "credential")
+@Table(name = "credential", indexes = {
+    @Index(columnList = "name, id"),
+    @Index(columnList = "expiration, id"),
+    @Index(columnList = "owner_id, expiration")
+})
 public class CredentialEntity extends AbstractEntity implements Credential {
 
   private static final long serialVersionUID = 641502440794773525L;
@@ -26,6 +26,7 @@ import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.Lob;
@@ -49,7 +50,10 @@ import org.soulwing.credo.UserGroup;
  * @author Carl Harris
  */
 @Entity
-@Table(name = "credential_request")
+@Table(name = "credential_request", indexes = {
+    @Index(columnList = "name, id"),
+    @Index(columnList = "date_created, id")
+})
 public class CredentialRequestEntity extends AbstractEntity 
     implements CredentialRequest {
 
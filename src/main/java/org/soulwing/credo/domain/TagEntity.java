@@ -18,6 +18,7 @@
  */
 package org.soulwing.credo.domain;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
@@ -30,6 +31,7 @@ import org.soulwing.credo.Tag;
  * @author Carl Harris
  */
 @Entity
+@Cacheable
 @Table(name ="tag")
 public class TagEntity extends AbstractEntity implements Tag {
 
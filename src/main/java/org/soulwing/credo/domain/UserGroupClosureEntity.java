@@ -0,0 +1,103 @@
+/*
+ * File created on May 7, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * An entry in the transitive closure of the group ownership hierarchy.
+ * <p>
+ * There is an entry for every pair of groups in which one (the ancestor)
+ * is the owner, the owner's owner, etc, of the other (the descendant),
+ * including a reflexive entry of depth zero for each group.  This allows
+ * the ancestors or descendants of a group to be found using an
+ * equality join, regardless of the depth of the hierarchy.
+ * <p>
+ * Entries are maintained by {@link UserGroupEntity} as its owner changes.
+ *
+ * @author Carl Harris
+ */
+@Entity
+@Table(name = "user_group_closure",
+    uniqueConstraints = @UniqueConstraint(
+        columnNames = { "ancestor_id", "descendant_id" }),
+    indexes = @Index(columnList = "descendant_id, depth"))
+public class UserGroupClosureEntity extends AbstractEntity {
+
+  private static final long serialVersionUID = -3817259470372468513L;
+
+  @ManyToOne(optional = false)
+  private UserGroupEntity ancestor;
+
+  @ManyToOne(optional = false)
+  private UserGroupEntity descendant;
+
+  @Column(name = "depth", nullable = false)
+  private int depth;
+
+  /**
+   * Constructs a new instance.
+   */
+  protected UserGroupClosureEntity() {
+  }
+
+  /**
+   * Constructs a new instance.
+   * @param ancestor the ancestor group
+   * @param descendant the descendant group
+   * @param depth number of ownership steps from {@code descendant} to
+   *    {@code ancestor}
+   */
+  UserGroupClosureEntity(UserGroupEntity ancestor,
+      UserGroupEntity descendant, int depth) {
+    this.ancestor = ancestor;
+    this.descendant = descendant;
+    this.depth = depth;
+  }
+
+  /**
+   * Gets the {@code ancestor} property.
+   * @return
+   */
+  public UserGroupEntity getAncestor() {
+    return ancestor;
+  }
+
+  /**
+   * Gets the {@code descendant} property.
+   * @return
+   */
+  public UserGroupEntity getDescendant() {
+    return descendant;
+  }
+
+  /**
+   * Gets the {@code depth} property.
+   * @return
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+}
@@ -18,9 +18,17 @@
  */
 package org.soulwing.credo.domain;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
+import javax.persistence.Cacheable;
+import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -40,6 +48,7 @@ import org.soulwing.credo.UserGroupMember;
  * @author Carl Harris
  */
 @Entity
+@Cacheable
 @Table(name = "user_group")
 public class UserGroupEntity extends AbstractEntity implements UserGroup {
 
@@ -60,6 +69,14 @@ public class UserGroupEntity extends AbstractEntity implements UserGroup {
   @OneToMany(mappedBy = "group", fetch = FetchType.LAZY)
   private Set<UserGroupMemberEntity> members;
   
+  @OneToMany(mappedBy = "descendant", fetch = FetchType.LAZY,
+      cascade = { CascadeType.PERSIST, CascadeType.REMOVE },
+      orphanRemoval = true)
+  private Set<UserGroupClosureEntity> ancestors = new HashSet<>();
+  
+  @OneToMany(mappedBy = "ancestor", fetch = FetchType.LAZY)
+  private Set<UserGroupClosureEntity> descendants = new HashSet<>();
+  
   @Column(name = "ancestry_path", nullable = false)
   private String ancestryPath = PATH_DELIMITER;
   
@@ -78,6 +95,7 @@ public class UserGroupEntity extends AbstractEntity implements UserGroup {
    * Constructs a new instance.
    */
   public UserGroupEntity() {    
+    addSelfClosure();
   }
   
   /**
@@ -89,6 +107,16 @@ public class UserGroupEntity extends AbstractEntity implements UserGroup {
       name = null;
     }
     this.name = name;
+    addSelfClosure();
+  }
+  
+  /**
+   * Adds the reflexive entry for this group to the ownership closure.
+   */
+  private void addSelfClosure() {
+    UserGroupClosureEntity self = new UserGroupClosureEntity(this, this, 0);
+    ancestors.add(self);
+    descendants.add(self);
   }
   
   /**
@@ -137,6 +165,9 @@ public class UserGroupEntity extends AbstractEntity implements UserGroup {
 
   /**
    * {@inheritDoc}
+   * <p>
+   * When the owner changes, the ownership closure, ancestry path, and 
+   * ancestor count are updated for this group and all of its descendants.
    */
   @Override
   public void setOwner(UserGroup owner) {
@@ -144,12 +175,66 @@ public class UserGroupEntity extends AbstractEntity implements UserGroup {
       throw new IllegalArgumentException("unsupported group type: "
           + owner.getClass().getName());
     }
-    if (owner.getId() == null) {
+    if (owner != null && owner.getId() == null) {
       throw new IllegalArgumentException("transient owner not supported");
     }
-  
+    if (owner == this.owner || owner != null && owner.equals(this.owner)) {
+      return;
+    }
+    
+    List<UserGroupClosureEntity> subtree = new ArrayList<>(descendants);
+    for (UserGroupClosureEntity entry : subtree) {
+      if (entry.getDescendant().equals(owner)) {
+        throw new IllegalArgumentException(
+            "group cannot be owned by itself or its descendant");
+      }
+    }
+    
     this.owner = (UserGroupEntity) owner;
+    
+    Collections.sort(subtree, new Comparator<UserGroupClosureEntity>() {
+      @Override
+      public int compare(UserGroupClosureEntity a, UserGroupClosureEntity b) {
+        return Integer.compare(a.getDepth(), b.getDepth());
+      }
+    });
+    
+    for (UserGroupClosureEntity entry : subtree) {
+      entry.getDescendant().updateAncestry(entry.getDepth(), this.owner);
+    }
+  }
 
+  /**
+   * Updates the ancestry of this group after an ancestor has been moved
+   * to a new owner.
+   * <p>
+   * This method must be invoked for the moved group and each of its 
+   * descendants in order of increasing depth, so that the ancestry path
+   * of a group's owner is updated before that of the group itself.
+   * Both sides of each closure entry that is removed or added are 
+   * updated, so that the descendants of every affected ancestor remain
+   * accurate for a subsequent change of owner.
+   * @param depth number of ownership steps from this group to the 
+   *    moved group
+   * @param newOwner the new owner of the moved group (may be {@code null})
+   */
+  private void updateAncestry(int depth, UserGroupEntity newOwner) {
+    Iterator<UserGroupClosureEntity> i = ancestors.iterator();
+    while (i.hasNext()) {
+      UserGroupClosureEntity entry = i.next();
+      if (entry.getDepth() > depth) {
+        entry.getAncestor().descendants.remove(entry);
+        i.remove();
+      }
+    }
+    if (newOwner != null) {
+      for (UserGroupClosureEntity entry : newOwner.ancestors) {
+        UserGroupClosureEntity closure = new UserGroupClosureEntity(
+            entry.getAncestor(), this, entry.getDepth() + depth + 1);
+        entry.getAncestor().descendants.add(closure);
+        ancestors.add(closure);
+      }
+    }
     setAncestryPath(owner);
     setAncestorCount(owner);
   }
@@ -212,7 +297,7 @@ public class UserGroupEntity extends AbstractEntity implements UserGroup {
    * @param owner the owner that is the basis for this group's ancestry
    */
   private void setAncestorCount(UserGroup owner) {
-    this.ancestorCount = owner.getAncestorCount() + 1;
+    this.ancestorCount = owner != null ? owner.getAncestorCount() + 1 : 0;
   }
   
   /**
@@ -20,6 +20,7 @@ package org.soulwing.credo.domain;
 
 import java.util.Date;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -39,6 +40,7 @@ import org.soulwing.credo.UserProfile;
  * @author Carl Harris
  */
 @Entity
+@Cacheable
 @Table(name = "user_group_member")
 public class UserGroupMemberEntity extends AbstractEntity
     implements UserGroupMember {
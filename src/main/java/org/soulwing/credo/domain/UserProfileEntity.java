@@ -20,6 +20,7 @@ package org.soulwing.credo.domain;
 
 import java.util.Date;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Lob;
@@ -35,6 +36,7 @@ import org.soulwing.credo.UserProfile;
  * @author Carl Harris
  */
 @Entity
+@Cacheable
 @Table(name = "user_profile")
 public class UserProfileEntity extends AbstractEntity implements UserProfile {
 
@@ -136,9 +138,9 @@ public class UserProfileEntity extends AbstractEntity implements UserProfile {
   }
 
   /**
-   * Sets the PEM-encoded encrypted private key.
-   * @param privateKey the private key to set
+   * {@inheritDoc}
    */
+  @Override
   public void setPrivateKey(String privateKey) {
     this.privateKey = privateKey;
   }
@@ -0,0 +1,111 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.endpoints;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.soulwing.credo.service.credential.ExportDownload;
+import org.soulwing.credo.service.credential.ExportJob;
+import org.soulwing.credo.service.credential.ExportService;
+
+/**
+ * An endpoint that provides the status of the user's export jobs and
+ * the content of completed jobs.
+ * <p>
+ * A client polls {@code /exports/{id}} until the job is complete, and then
+ * uses the download token in the response to fetch the content from
+ * {@code /exports/downloads/{token}}.  A token can be used only once.
+ * If a job fails because the server is too busy, the status includes
+ * a {@code retryAfter} hint (in seconds).
+ *
+ * @author Carl Harris
+ */
+@Path("/exports")
+public class ExportsEndpoint {
+
+  static final String CONTENT_DISPOSITION_HEADER = "Content-Disposition";
+  
+  @Inject
+  protected ExportService exportService;
+  
+  @GET
+  @Path("/{id}")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getJob(@PathParam("id") String id) {
+    ExportJob job = exportService.findExportJob(id);
+    if (job == null) {
+      return Response.status(Response.Status.NOT_FOUND).build();
+    }
+    Map<String, Object> status = new LinkedHashMap<>();
+    status.put("id", job.getId());
+    status.put("state", job.getState().name());
+    status.put("token", job.getDownloadToken());
+    if (job.getRetryAfter() > 0) {
+      status.put("retryAfter", job.getRetryAfter());
+    }
+    return Response.ok(status).cacheControl(noCache()).build();
+  }
+  
+  @GET
+  @Path("/downloads/{token}")
+  public Response download(@PathParam("token") String token) {
+    final ExportDownload download = exportService.claimExportDownload(token);
+    if (download == null) {
+      return Response.status(Response.Status.NOT_FOUND).build();
+    }
+    String contentType = download.getContentType();
+    if (download.getCharacterEncoding() != null) {
+      contentType += ";charset=" + download.getCharacterEncoding();
+    }
+    StreamingOutput output = new StreamingOutput() {
+      @Override
+      public void write(OutputStream outputStream) throws IOException {
+        download.writeContent(outputStream);
+      }
+    };
+    return Response.ok(output, contentType)
+        .header(CONTENT_DISPOSITION_HEADER, 
+            "attachment; filename=\"" + download.getFileName() + "\"")
+        .header("Content-Length", download.getSize())
+        .cacheControl(noCache())
+        .build();
+  }
+
+  private CacheControl noCache() {
+    CacheControl cacheControl = new CacheControl();
+    cacheControl.setPrivate(true);
+    cacheControl.setNoCache(true);
+    cacheControl.setNoStore(true);
+    return cacheControl;
+  }
+  
+}
@@ -18,37 +18,75 @@
  */
 package org.soulwing.credo.endpoints;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
 import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 
-import org.soulwing.credo.Tag;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
 import org.soulwing.credo.service.TagService;
 
 /**
  * An endpoint that provides access to tags used to label credentials.
+ * <p>
+ * When a {@code prefix} query parameter is given, only the tags that begin
+ * with the prefix (ignoring case) are returned, up to a limit that may be
+ * specified using the {@code limit} query parameter.  Each response carries
+ * an entity tag derived from its content, so that a client can revalidate
+ * a cached response using {@code If-None-Match}.
  *
  * @author Carl Harris
  */
 @Path("/tags")
 public class TagsEndpoint {
 
+  static final int DEFAULT_LIMIT = 20;
+
+  static final int MAX_LIMIT = 100;
+
+  static final int MAX_AGE = 30;
+
   @Inject
   protected TagService tagService;
   
   @GET
   @Produces(MediaType.APPLICATION_JSON)
-  public Collection<String> getTags() {
-    Collection<String> tags = new ArrayList<>();
-    for (Tag tag : tagService.findAllTags()) {      
-      tags.add(tag.getText());
+  public Response getTags(@QueryParam("prefix") String prefix,
+      @QueryParam("limit") Integer limit, @Context Request request) {
+    List<String> tags = prefix == null ?
+        tagService.findTagsByPrefix("", 
+            limit == null ? Integer.MAX_VALUE : limit(limit))
+        : tagService.findTagsByPrefix(prefix, 
+            limit == null ? DEFAULT_LIMIT : limit(limit));
+
+    EntityTag entityTag = new EntityTag(
+        DigestUtils.sha1Hex(StringUtils.join(tags, '\n')));
+    
+    CacheControl cacheControl = new CacheControl();
+    cacheControl.setPrivate(true);
+    cacheControl.setMaxAge(MAX_AGE);
+    cacheControl.setMustRevalidate(true);
+
+    ResponseBuilder builder = request.evaluatePreconditions(entityTag);
+    if (builder == null) {
+      builder = Response.ok(tags);
     }
-    return tags;
+    return builder.tag(entityTag).cacheControl(cacheControl).build();
+  }
+
+  private int limit(int limit) {
+    return Math.max(1, Math.min(limit, MAX_LIMIT));
   }
 
 }
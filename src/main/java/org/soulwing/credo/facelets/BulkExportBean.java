@@ -0,0 +1,401 @@
+/*
+ * File created on May 14, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.facelets;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.enterprise.context.Conversation;
+import javax.enterprise.context.ConversationScoped;
+import javax.faces.context.FacesContext;
+import javax.faces.event.AjaxBehaviorEvent;
+import javax.faces.event.ValueChangeEvent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.Validate;
+import org.soulwing.credo.Credential;
+import org.soulwing.credo.Password;
+import org.soulwing.credo.service.Errors;
+import org.soulwing.credo.service.GroupAccessException;
+import org.soulwing.credo.service.PassphraseException;
+import org.soulwing.credo.service.credential.BulkExportRequest;
+import org.soulwing.credo.service.credential.ExportException;
+import org.soulwing.credo.service.credential.ExportFormat;
+import org.soulwing.credo.service.credential.ExportJob;
+import org.soulwing.credo.service.credential.ExportService;
+import org.soulwing.credo.service.credential.NoSuchCredentialException;
+
+/**
+ * A bean that supports the Bulk Export Credentials interaction.
+ * <p>
+ * The credentials to export are identified by the (multi-valued) 
+ * {@value #ID_PARAMETER} request parameter.
+ *
+ * @author Carl Harris
+ */
+@Named
+@ConversationScoped
+public class BulkExportBean implements Serializable {
+
+  private static final long serialVersionUID = -6326262581409218836L;
+
+  static final String ID_PARAMETER = "id";
+  
+  static final String PASSWORD_OUTCOME_ID = "password";
+  static final String CANCEL_OUTCOME_ID = "cancel";
+  static final String PREPARED_OUTCOME_ID = "prepared";
+  static final String FAILURE_OUTCOME_ID = "failure";
+ 
+  @Inject
+  protected Conversation conversation;
+  
+  @Inject
+  protected ExportService exportService;
+  
+  @Inject
+  protected FacesContext facesContext;
+  
+  @Inject
+  protected Errors errors;
+  
+  @Inject
+  protected PasswordFormEditor passwordEditor;
+
+  private BulkExportRequest request;
+  
+  private ExportJob job;
+
+  private Password passphraseAgain;
+
+  private ExportFormat selectedFormat;
+  
+  /**
+   * Gets the names of the credentials to export.
+   * @return credential names
+   */
+  public List<String> getNames() {
+    List<String> names = new ArrayList<>();
+    if (request == null) return names;
+    for (Credential credential : request.getCredentials()) {
+      names.add(credential.getName());
+    }
+    return names;
+  }
+  
+  /**
+   * Gets the archive file name.
+   * @return file name
+   */
+  public String getFileName() {
+    if (request == null) return null;
+    return request.getFileName();
+  }
+  
+  /**
+   * Sets the archive file name.
+   * @param fileName the file name to set
+   */
+  public void setFileName(String fileName){
+    Validate.notNull(request, "request not prepared");
+    request.setFileName(fileName);
+  }
+  
+  /**
+   * Gets the supported export formats.
+   * @return export formats
+   */
+  public Collection<ExportFormat> getSupportedFormats() {
+    return exportService.getFormats();
+  }
+
+  /**
+   * Gets the supported variants for the selected export format.
+   * @return supported variants
+   */
+  public Collection<ExportFormat.Variant> getSupportedVariants() {
+    return selectedFormat.getVariants();
+  }
+  
+  /**
+   * Gets the supported archive variants.
+   * @return supported archive variants
+   */
+  public Collection<ExportFormat.Variant> getSupportedArchiveVariants() {
+    return exportService.getArchiveVariants();
+  }
+  
+  /**
+   * Gets the export format identifier.
+   * @return format identifier or {@code null} if none has been set
+   */
+  public String getFormat() {
+    if (request == null) return null;
+    return request.getFormat();
+  }
+
+  /**
+   * Sets the export format identifier.
+   * @param format the format identifier to set
+   */
+  public void setFormat(String format) {
+    Validate.notNull(request, "request not prepared");
+    request.setFormat(format);
+  }
+  
+  /**
+   * Gets the export format variant identifier.
+   * @return variant identifier or {@code null} if none has been set
+   */
+  public String getVariant() {
+    if (request == null) return null;
+    return request.getVariant();    
+  }
+  
+  /**
+   * Sets the export format variant identifier.
+   * @param variant the variant identifier to set
+   */
+  public void setVariant(String variant) {
+    Validate.notNull(request, "request not prepared");
+    request.setVariant(variant);
+  }
+  
+  /**
+   * Gets the archive variant identifier.
+   * @return variant identifier or {@code null} if none has been set
+   */
+  public String getArchiveVariant() {
+    if (request == null) return null;
+    return request.getArchiveVariant();    
+  }
+  
+  /**
+   * Sets the archive variant identifier.
+   * @param archiveVariant the variant identifier to set
+   */
+  public void setArchiveVariant(String archiveVariant) {
+    Validate.notNull(request, "request not prepared");
+    request.setArchiveVariant(archiveVariant);
+  }
+  
+  /**
+   * A listener method that is invoked when a format is selected.
+   * @param event subject event
+   */
+  public void formatSelected(ValueChangeEvent event) {
+    selectedFormat = exportService.getDefaultFormat();
+    if (event != null) {
+      selectedFormat = exportService.findFormat(
+          (String) event.getNewValue());
+    }
+    setVariant(selectedFormat.getDefaultVariant().getId());
+  }
+
+  /**
+   * Tests whether the selected format requires a passphrase.
+   * @return {@code true} if a passphrase is required
+   */
+  public boolean isPassphraseRequired() {
+    if (selectedFormat == null) return false;
+    return selectedFormat.isPassphraseRequired();
+  }
+
+  /**
+   * Gets the export passphrase.
+   * @return the export passphrase or {@code null} if none has been set
+   */
+  public Password getExportPassphrase() { 
+    if (request == null) return null;
+    return request.getExportPassphrase();
+  }
+
+  /**
+   * Sets the export passphrase.
+   * @param exportPassphrase the passphrase to set
+   */
+  public void setExportPassphrase(Password exportPassphrase) {
+    Validate.notNull(request, "request not prepared");
+    request.setExportPassphrase(exportPassphrase);
+  }
+
+  /**
+   * Gets the export passphrase validation property.
+   * @return validation property value or {@code null} if none has been set
+   */
+  public Password getExportPassphraseAgain() { 
+    if (request == null) return null;
+    return passphraseAgain;
+  }
+
+  /**
+   * Sets the export passphrase validation property.
+   * @param passphraseAgain the validation property value to set
+   */
+  public void setExportPassphraseAgain(Password passphraseAgain) {
+    Validate.notNull(request, "request not prepared");
+    this.passphraseAgain = passphraseAgain;
+  }
+
+  /**
+   * Generates a random export passphrase.
+   * @param event source event
+   */
+  public void generateExportPassphrase(AjaxBehaviorEvent event) {
+    Password passphrase = exportService.generatePassphrase();
+    setExportPassphrase(passphrase);
+    setExportPassphraseAgain(passphrase);
+  }
+  
+  /**
+   * Gets the editor that supports the password entry form.
+   * @return editor
+   */
+  public PasswordFormEditor getPasswordEditor() {
+    return passwordEditor;
+  }
+  
+  /**
+   * Gets the bulk export request.
+   * <p>
+   * This method is exposed to support unit testing.
+   * @return export request
+   */
+  BulkExportRequest getExportRequest() {
+    return request;
+  }
+
+  /**
+   * Sets the bulk export request.
+   * <p> 
+   * This method is exposed to support unit testing.
+   * @param request the export request to set
+   */
+  void setExportRequest(BulkExportRequest request) {
+    this.request = request;
+  }
+
+  /**
+   * Gets the export job.
+   * <p>
+   * This method is exposed to support unit testing.
+   * @return export job
+   */
+  ExportJob getExportJob() {
+    return job;
+  }
+  
+  /**
+   * Sets the export job.
+   * <p>
+   * This method is exposed to support unit testing.
+   * @param job the export job to set
+   */
+  void setExportJob(ExportJob job) {
+    this.job = job;
+  }
+  
+  /**
+   * Gets the identifier of the submitted export job.
+   * @return job identifier or {@code null} if no job has been submitted
+   */
+  public String getJobId() {
+    if (job == null) return null;
+    return job.getId();
+  }
+
+  /**
+   * Gets the conversation associated with the receiver.
+   * @return conversation
+   */
+  public Conversation getConversation() {
+    return conversation;
+  }
+
+  /**
+   * Creates the bulk export request.
+   * @return outcome ID
+   */
+  public String createExportRequest() {
+    String[] values = facesContext.getExternalContext()
+        .getRequestParameterValuesMap().get(ID_PARAMETER);
+    if (values == null || values.length == 0) {
+      errors.addError("id", "credentialIdIsRequired");
+      return null;
+    }
+    try {
+      List<Long> ids = new ArrayList<>(values.length);
+      for (String value : values) {
+        ids.add(Long.valueOf(value));
+      }
+      request = exportService.newBulkExportRequest(ids);
+      request.setProtectionParameters(passwordEditor);
+      setFormat(exportService.getDefaultFormat().getId());
+      formatSelected(null);
+      setArchiveVariant(exportService.getDefaultArchiveVariant().getId());
+      if (conversation.isTransient()) {
+        conversation.begin();
+      }
+    }
+    catch (NumberFormatException ex) {
+      errors.addError("id", "credentialIdIsRequired");
+    }
+    catch (NoSuchCredentialException ex) {
+      errors.addError("credentialNotFound",
+          StringUtils.join(values, ", "));
+    }
+    return null;
+  }
+  
+  /**
+   * Prepares the exported credentials for download.
+   * @return outcome ID
+   */
+  public String prepareDownload() {
+    Validate.notNull(request, "request not created");
+    try {
+      job = exportService.submitBulkExport(request, errors);
+      return PREPARED_OUTCOME_ID;
+    }
+    catch (PassphraseException ex) {
+      return PASSWORD_OUTCOME_ID;
+    }
+    catch (GroupAccessException ex) {
+      return FAILURE_OUTCOME_ID;
+    }
+    catch (ExportException ex) {
+      return FAILURE_OUTCOME_ID;
+    }
+  }
+
+  /**
+   * Cancels the export/download.
+   * @return outcome ID
+   */
+  public String cancel() {
+    if (!conversation.isTransient()) {
+      conversation.end();
+    }
+    return CANCEL_OUTCOME_ID;
+  }
+  
+}
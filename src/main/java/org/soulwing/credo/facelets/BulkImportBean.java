@@ -0,0 +1,222 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.facelets;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+
+import javax.enterprise.context.Conversation;
+import javax.enterprise.context.ConversationScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.servlet.http.Part;
+
+import org.soulwing.credo.Password;
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.service.Errors;
+import org.soulwing.credo.service.GroupAccessException;
+import org.soulwing.credo.service.PassphraseException;
+import org.soulwing.credo.service.credential.BulkImportReport;
+import org.soulwing.credo.service.credential.BulkImportRequest;
+import org.soulwing.credo.service.credential.BulkImportService;
+import org.soulwing.credo.service.credential.ImportException;
+import org.soulwing.credo.service.group.NoSuchGroupException;
+
+/**
+ * A bean that supports the Bulk Import Credentials interaction.
+ *
+ * @author Carl Harris
+ */
+@Named
+@ConversationScoped
+public class BulkImportBean implements Serializable {
+
+  private static final long serialVersionUID = 4415872066318893020L;
+
+  static final String REPORT_OUTCOME_ID = "report";
+  
+  static final String CANCEL_OUTCOME_ID = "cancel";
+  
+  @Inject
+  protected Conversation conversation;
+  
+  @Inject
+  protected BulkImportService importService;
+  
+  @Inject
+  protected Errors errors;
+  
+  @Inject
+  protected PasswordFormEditor passwordEditor;
+  
+  private final PartContent archive = new PartContent();
+  
+  private final BulkImportRequest request = new BulkImportRequest();
+
+  private BulkImportReport report;
+  
+  /**
+   * Gets the uploaded archive.
+   * @return archive part
+   */
+  public Part getArchive() {
+    return archive.getPart();
+  }
+  
+  /**
+   * Sets the uploaded archive.
+   * @param part the archive part to set
+   */
+  public void setArchive(Part part) {
+    archive.setPart(part);
+  }
+  
+  /**
+   * Gets the passphrase for the private keys in the archive.
+   * @return passphrase
+   */
+  public Password getPassphrase() {
+    return request.getPassphrase();
+  }
+  
+  /**
+   * Sets the passphrase for the private keys in the archive.
+   * @param passphrase the passphrase to set
+   */
+  public void setPassphrase(Password passphrase) {
+    request.setPassphrase(passphrase);
+  }
+  
+  /**
+   * Gets the name of the group that will own the imported credentials.
+   * @return group name
+   */
+  public String getOwner() {
+    if (passwordEditor.getGroupName() == null) {
+      return UserGroup.SELF_GROUP_NAME;
+    }
+    return passwordEditor.getGroupName();
+  }
+  
+  /**
+   * Sets the name of the group that will own the imported credentials.
+   * @param owner the group name to set
+   */
+  public void setOwner(String owner) {
+    passwordEditor.setGroupName(owner);
+  }
+  
+  /**
+   * Gets the note for the imported credentials.
+   * @return note
+   */
+  public String getNote() {
+    return request.getNote();
+  }
+  
+  /**
+   * Sets the note for the imported credentials.
+   * @param note the note to set
+   */
+  public void setNote(String note) {
+    request.setNote(note);
+  }
+  
+  /**
+   * Gets the tags for the imported credentials.
+   * @return array of tag text
+   */
+  public String[] getTags() {
+    return request.getTags();
+  }
+  
+  /**
+   * Sets the tags for the imported credentials.
+   * @param tags the tags to set
+   */
+  public void setTags(String[] tags) {
+    request.setTags(tags);
+  }
+  
+  /**
+   * Gets the editor that supports the password field.
+   * @return editor
+   */
+  public PasswordFormEditor getPasswordEditor() {
+    return passwordEditor;
+  }
+  
+  /**
+   * Gets the report of the completed import.
+   * @return report or {@code null} if the import has not been completed
+   */
+  public BulkImportReport getReport() {
+    return report;
+  }
+  
+  /**
+   * Action that is fired when the form containing the archive to import 
+   * has been submitted.
+   * @return outcome ID
+   */
+  public String upload() {
+    if (!archive.isLoadable()) {
+      errors.addError("archive", "bulkImportArchiveRequired");
+      return null;
+    }
+    request.setProtectionParameters(passwordEditor);
+    try (InputStream inputStream = archive.getInputStream()) {
+      report = importService.importArchive(archive.getName(), inputStream,
+          request, errors);
+      if (conversation.isTransient()) {
+        conversation.begin();
+      }
+      return REPORT_OUTCOME_ID;
+    }
+    catch (IOException ex) {
+      errors.addError("archive", "importReadError", archive.getName());
+      return null;
+    }
+    catch (ImportException ex) {
+      return null;
+    }
+    catch (NoSuchGroupException ex) {
+      return null;
+    }
+    catch (GroupAccessException ex) {
+      return null;
+    }
+    catch (PassphraseException ex) {
+      return null;
+    }
+  }
+  
+  /**
+   * Action that is fired when any form in the interaction is canceled.
+   * @return outcome ID
+   */
+  public String cancel() {
+    if (!conversation.isTransient()) {
+      conversation.end();
+    }
+    return CANCEL_OUTCOME_ID;
+  }
+  
+}
@@ -26,8 +26,10 @@ import javax.inject.Named;
 
 import org.apache.commons.lang.Validate;
 import org.soulwing.credo.Password;
+import org.soulwing.credo.service.Errors;
 import org.soulwing.credo.service.UserProfilePreparation;
 import org.soulwing.credo.service.UserProfileService;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
 
 /**
  * A bean that supports the Create User Profile interaction.
@@ -48,6 +50,9 @@ public class CreateUserProfileBean {
   @Inject
   protected UserProfileService userProfileService;
 
+  @Inject
+  protected Errors errors;
+
   private UserProfilePreparation preparation;
   private Password passwordAgain;
 
@@ -141,12 +146,19 @@ public class CreateUserProfileBean {
 
   /**
    * Creates the user profile specified in the form.
-   * @return outcome ID
+   * @return outcome ID or {@code null} if the server is too busy to 
+   *    create the profile
    */
   public String createProfile() {
     Validate.notNull(preparation, "not prepared");
-    userProfileService.createProfile(preparation);
-    return SUCCESS_OUTCOME_ID;
+    try {
+      userProfileService.createProfile(preparation);
+      return SUCCESS_OUTCOME_ID;
+    }
+    catch (CryptoOverloadException ex) {
+      errors.addError("cryptoBusy", ex.getRetryAfter());
+      return null;
+    }
   }
   
   /**
@@ -25,31 +25,59 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.soulwing.credo.CredentialRequest;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.service.request.CredentialRequestService;
 
 /**
- * A bean that supports a view containing a table of credentials.
+ * A bean that supports a view containing a table of credential requests.
+ * <p>
+ * The table displays one page of the credential requests accessible to
+ * the user.
  *
  * @author Carl Harris
  */
 @Named
 @RequestScoped
-public class CredentialRequestTableBean {
+public class CredentialRequestTableBean 
+    extends PagedTableBean<CredentialRequest> {
 
   @Inject
   protected CredentialRequestService requestService;
 
-  private List<CredentialRequest> requests;
-  
   /**
-   * Gets the collection of credentials to display in the table.
-   * @return credential list
+   * Gets the credential requests on the page to display in the table.
+   * @return list of requests
    */
   public List<CredentialRequest> getRequests() {
-    if (requests == null) {
-      requests = requestService.findAllRequests();
-    }
-    return requests;
+    return getItems();
   }
-  
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected String defaultColumn() {
+    return "name";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected SortKey sortKey(String column) {
+    if ("name".equals(column)) return SortKey.NAME;
+    if ("created".equals(column)) return SortKey.DATE_CREATED;
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Page<CredentialRequest> findPage(PageRequest request) {
+    return requestService.findRequests(request);
+  }
+
 }
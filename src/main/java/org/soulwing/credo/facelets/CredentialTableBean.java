@@ -25,31 +25,57 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.soulwing.credo.Credential;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.service.credential.CredentialService;
 
 /**
  * A bean that supports a view containing a table of credentials.
+ * <p>
+ * The table displays one page of the credentials accessible to the user.
  *
  * @author Carl Harris
  */
 @Named
 @RequestScoped
-public class CredentialTableBean {
+public class CredentialTableBean extends PagedTableBean<Credential> {
 
   @Inject
   protected CredentialService credentialService;
 
-  private List<Credential> credentials;
-  
   /**
-   * Gets the collection of credentials to display in the table.
-   * @return credential list
+   * Gets the credentials on the page to display in the table.
+   * @return list of credentials
    */
   public List<Credential> getCredentials() {
-    if (credentials == null) {
-      credentials = credentialService.findAllCredentials();
-    }
-    return credentials;
+    return getItems();
   }
-  
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected String defaultColumn() {
+    return "name";
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected SortKey sortKey(String column) {
+    if ("name".equals(column)) return SortKey.NAME;
+    if ("expiration".equals(column)) return SortKey.EXPIRATION;
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Page<Credential> findPage(PageRequest request) {
+    return credentialService.findCredentials(request);
+  }
+
 }
@@ -18,7 +18,6 @@
  */
 package org.soulwing.credo.facelets;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Date;
@@ -26,8 +25,6 @@ import java.util.Set;
 
 import javax.enterprise.context.Conversation;
 import javax.enterprise.context.ConversationScoped;
-import javax.faces.context.ExternalContext;
-import javax.faces.context.FacesContext;
 import javax.faces.event.AjaxBehaviorEvent;
 import javax.faces.event.ValueChangeEvent;
 import javax.inject.Inject;
@@ -41,7 +38,7 @@ import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.credential.ExportException;
 import org.soulwing.credo.service.credential.ExportFormat;
-import org.soulwing.credo.service.credential.ExportPreparation;
+import org.soulwing.credo.service.credential.ExportJob;
 import org.soulwing.credo.service.credential.ExportRequest;
 import org.soulwing.credo.service.credential.ExportService;
 import org.soulwing.credo.service.credential.NoSuchCredentialException;
@@ -61,8 +58,6 @@ public class ExportCredentialBean implements Serializable {
   static final String CANCEL_OUTCOME_ID = "cancel";
   static final String PREPARED_OUTCOME_ID = "prepared";
   static final String FAILURE_OUTCOME_ID = "failure";
-  
-  static final String CONTENT_DISPOSITION_HEADER = "Content-Disposition";
  
   @Inject
   protected Conversation conversation;
@@ -70,9 +65,6 @@ public class ExportCredentialBean implements Serializable {
   @Inject
   protected ExportService exportService;
   
-  @Inject
-  protected FacesContext facesContext;
-  
   @Inject
   protected Errors errors;
   
@@ -83,7 +75,7 @@ public class ExportCredentialBean implements Serializable {
     
   private ExportRequest request;
   
-  private ExportPreparation preparation;
+  private ExportJob job;
 
   private Password passphraseAgain;
 
@@ -379,25 +371,34 @@ public class ExportCredentialBean implements Serializable {
   }
 
   /**
-   * Gets the export preparation.
+   * Gets the export job.
    * <p>
    * This method is exposed to support unit testing.
-   * @return export preparation
+   * @return export job
    */
-  ExportPreparation getExportPreparation() {
-    return preparation;
+  ExportJob getExportJob() {
+    return job;
   }
   
   /**
-   * Sets the export preparation.
+   * Sets the export job.
    * <p>
    * This method is exposed to support unit testing.
-   * @param preparation the preparation to set
+   * @param job the export job to set
    */
-  void setExportPreparation(ExportPreparation preparation) {
-    this.preparation = preparation;
+  void setExportJob(ExportJob job) {
+    this.job = job;
   }
   
+  /**
+   * Gets the identifier of the submitted export job.
+   * @return job identifier or {@code null} if no job has been submitted
+   */
+  public String getJobId() {
+    if (job == null) return null;
+    return job.getId();
+  }
+
   /**
    * Gets the conversation associated with the receiver.
    * @return
@@ -438,7 +439,7 @@ public class ExportCredentialBean implements Serializable {
   public String prepareDownload() {
     Validate.notNull(request, "request not created");
     try {
-      preparation = exportService.prepareExport(request, errors);
+      job = exportService.submitExport(request, errors);
       return PREPARED_OUTCOME_ID;
     }
     catch (PassphraseException ex) {
@@ -452,34 +453,6 @@ public class ExportCredentialBean implements Serializable {
     }
   }
 
-  /**
-   * Downloads the prepared exported credential.
-   */
-  public void download() {
-    Validate.notNull(preparation, "download not prepared");
-    
-    ExternalContext externalContext = facesContext.getExternalContext();
-    externalContext.setResponseContentType(preparation.getContentType());
-    externalContext.setResponseHeader(CONTENT_DISPOSITION_HEADER,
-        "attachment; filename=\"" + preparation.getFileName() + "\"");
-    
-    String encoding = preparation.getCharacterEncoding();
-    if (encoding != null) {
-      externalContext.setResponseCharacterEncoding(encoding);    
-    }
-    
-    try {
-      preparation.writeContent(externalContext.getResponseOutputStream());
-      facesContext.responseComplete();
-      conversation.setTimeout(60000);      
-    }
-    catch (IOException ex) {
-      conversation.end();
-      // FIXME
-      throw new RuntimeException(ex);
-    }
-  }
-
   /**
    * Cancels the export/download.
    * @return outcome ID
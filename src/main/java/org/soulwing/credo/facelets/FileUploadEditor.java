@@ -18,7 +18,6 @@
  */
 package org.soulwing.credo.facelets;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -95,22 +94,21 @@ public class FileUploadEditor implements Serializable {
 
   /**
    * Produces a list containing the files that were uploaded by the user.
+   * <p>
+   * The content of each file is parsed when it is first imported; the
+   * parsed content is retained by the file models in the returned list.
    * @return list of file content models
-   * @throws IOException
    */
-  public List<FileContentModel> fileList() throws IOException {
+  public List<FileContentModel> fileList() {
     if (files == null || files.isEmpty()) {
       files = new ArrayList<FileContentModel>();
       if (file0.isLoadable()) {
-        file0.load();
         files.add(file0);
       }
       if (file1.isLoadable()) {
-        file1.load();
         files.add(file1);
       }
       if (file2.isLoadable()) {
-        file2.load();
         files.add(file2);
       }
     }
@@ -18,7 +18,6 @@
  */
 package org.soulwing.credo.facelets;
 
-import java.io.IOException;
 import java.io.Serializable;
 
 import javax.enterprise.context.Conversation;
@@ -193,9 +192,6 @@ public class ImportCredentialBean implements Serializable {
     catch (ImportException ex) {
       return null;
     }
-    catch (IOException ex) {
-      throw new RuntimeException(ex);
-    }
   }
 
   /**
@@ -18,7 +18,6 @@
  */
 package org.soulwing.credo.facelets;
 
-import java.io.IOException;
 import java.io.Serializable;
 
 import javax.enterprise.context.Conversation;
@@ -252,23 +251,12 @@ public class ImportSignedCertificateBean implements Serializable {
       return RESTART_OUTCOME_ID;
     }
     catch (PassphraseException ex) {
-      try {
-        // make sure uploaded content is held in the conversation
-        fileUploadEditor.fileList();
-        
-        passwordEditor.setGroupName(request.getOwner().getName());
-        return PASSWORD1_OUTCOME_ID;
-      }
-      catch (IOException iex) {
-        throw new RuntimeException(ex);
-      }
+      passwordEditor.setGroupName(request.getOwner().getName());
+      return PASSWORD1_OUTCOME_ID;
     }
     catch (GroupAccessException ex) {
       return FAILURE_OUTCOME_ID;
     }
-    catch (IOException ex) {
-      throw new RuntimeException(ex);
-    }
   }
 
   /**
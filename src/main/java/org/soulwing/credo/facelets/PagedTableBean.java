@@ -0,0 +1,194 @@
+/*
+ * File created on May 8, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.facelets;
+
+import java.util.List;
+
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
+
+/**
+ * An abstract base for beans that support a view containing a table
+ * that displays one page of a sorted and filtered list at a time.
+ * <p>
+ * The sort column, sort order, filter text and page cursor are bound to
+ * view parameters, so that each page of the table has a bookmarkable URL.
+ * The page is retrieved (at most once) when the table is first rendered.
+ *
+ * @author Carl Harris
+ */
+public abstract class PagedTableBean<T> {
+
+  public static final String ASCENDING = "asc";
+
+  public static final String DESCENDING = "desc";
+
+  static final int PAGE_SIZE = 50;
+
+  private String sort;
+  private String order;
+  private String filter;
+  private Long after;
+  private Page<T> page;
+
+  /**
+   * Gets the name of the column by which the table is sorted.
+   * @return column name or {@code null} if the default column is to be used
+   */
+  public String getSort() {
+    return sort;
+  }
+
+  /**
+   * Sets the name of the column by which the table is sorted.
+   * @param sort the column name to set
+   */
+  public void setSort(String sort) {
+    this.sort = sort;
+  }
+
+  /**
+   * Gets the sort order.
+   * @return {@value #ASCENDING} or {@value #DESCENDING}
+   */
+  public String getOrder() {
+    return DESCENDING.equals(order) ? DESCENDING : ASCENDING;
+  }
+
+  /**
+   * Sets the sort order.
+   * @param order the order to set
+   */
+  public void setOrder(String order) {
+    this.order = order;
+  }
+
+  /**
+   * Gets the filter text.
+   * @return filter text
+   */
+  public String getFilter() {
+    return filter;
+  }
+
+  /**
+   * Sets the filter text.
+   * @param filter the filter text to set
+   */
+  public void setFilter(String filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * Gets the cursor of the page to display.
+   * @return cursor or {@code null} to display the first page
+   */
+  public Long getAfter() {
+    return after;
+  }
+
+  /**
+   * Sets the cursor of the page to display.
+   * @param after the cursor to set
+   */
+  public void setAfter(Long after) {
+    this.after = after;
+  }
+
+  /**
+   * Gets a flag indicating whether the first page is displayed.
+   * @return flag state
+   */
+  public boolean isFirstPage() {
+    return after == null;
+  }
+
+  /**
+   * Gets the cursor of the page that follows the displayed page.
+   * @return cursor or {@code null} if the last page is displayed
+   */
+  public Long getNextCursor() {
+    return getPage().getNextCursor();
+  }
+
+  /**
+   * Gets the sort order to use for a link on the header of the given column.
+   * @param column name of the subject column
+   * @return {@value #DESCENDING} if the table is currently sorted in 
+   *    ascending order on {@code column}, otherwise {@value #ASCENDING}
+   */
+  public String nextOrder(String column) {
+    if (column.equals(getSortColumn()) && !isDescending()) {
+      return DESCENDING;
+    }
+    return ASCENDING;
+  }
+
+  /**
+   * Gets the name of the column by which the table is sorted.
+   * @return column name; never {@code null}
+   */
+  public String getSortColumn() {
+    return sort != null && sortKey(sort) != null ? sort : defaultColumn();
+  }
+
+  /**
+   * Gets the items on the displayed page.
+   * @return list of items
+   */
+  protected List<T> getItems() {
+    return getPage().getItems();
+  }
+
+  private Page<T> getPage() {
+    if (page == null) {
+      page = findPage(new PageRequest(sortKey(getSortColumn()), isDescending(), 
+          filter, after, PAGE_SIZE));
+    }
+    return page;
+  }
+
+  private boolean isDescending() {
+    return DESCENDING.equals(order);
+  }
+
+  /**
+   * Gets the name of the column by which the table is sorted when no 
+   * sortable column is specified.
+   * @return column name
+   */
+  protected abstract String defaultColumn();
+
+  /**
+   * Gets the sort key corresponding to a column name.
+   * @param column name of the column
+   * @return sort key for {@code column} or {@code null} if the table 
+   *    cannot be sorted on {@code column}
+   */
+  protected abstract SortKey sortKey(String column);
+
+  /**
+   * Finds a page of items to display.
+   * @param request page request
+   * @return page of items
+   */
+  protected abstract Page<T> findPage(PageRequest request);
+
+}
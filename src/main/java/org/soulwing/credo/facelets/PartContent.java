@@ -18,19 +18,24 @@
  */
 package org.soulwing.credo.facelets;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 
 import javax.servlet.http.Part;
 
-import org.apache.commons.lang.Validate;
 import org.soulwing.credo.service.FileContentModel;
+import org.soulwing.credo.service.FileExpiredException;
+import org.soulwing.credo.service.crypto.CredentialBag;
 
 /**
  * A {@link FileContentModel} that wraps a {@link Part}.
+ * <p>
+ * The uploaded content is read directly from the part; only the credential
+ * objects parsed from it are held by the receiver.  Neither the part nor 
+ * the parsed content survives serialization of the receiver; only the
+ * name of the file is retained, so that the user can be asked to upload
+ * it again.
  *
  * @author Carl Harris
  */
@@ -38,10 +43,11 @@ public class PartContent implements FileContentModel, Serializable {
   
   private static final long serialVersionUID = -8172871818481456381L;
 
-  private byte[] content;
+  private transient CredentialBag content;
   
   private transient Part part;
   
+  private String name;
   
   /**
    * Gets the {@link Part} delegate.
@@ -57,6 +63,7 @@ public class PartContent implements FileContentModel, Serializable {
    */
   public void setPart(Part part) {
     this.part = part;
+    this.name = part != null ? part.getSubmittedFileName() : null;
     this.content = null;
   }
 
@@ -65,17 +72,35 @@ public class PartContent implements FileContentModel, Serializable {
    */
   @Override
   public String getName() {
-    if (part == null) return null;
-    return part.getSubmittedFileName();
+    return name;
   }
 
   /**
    * {@inheritDoc}
+   * @throws FileExpiredException if the part is no longer available
    */
   @Override
   public InputStream getInputStream() throws IOException {
-    Validate.notNull(content, "content not loaded");
-    return new ByteArrayInputStream(content);
+    if (part == null) {
+      throw new FileExpiredException();
+    }
+    return part.getInputStream();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public CredentialBag getContent() {
+    return content;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setContent(CredentialBag content) {
+    this.content = content;
   }
 
   /**
@@ -86,24 +111,4 @@ public class PartContent implements FileContentModel, Serializable {
     return part != null;
   }
   
-  /**
-   * Loads the uploaded content.
-   * @throws IOException
-   */
-  public void load() throws IOException {
-    if (content != null) return;
-    Validate.notNull(part, "part not set");
-    try (InputStream inputStream = part.getInputStream(); 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-      byte[] buf = new byte[8192];
-      int numRead = inputStream.read(buf);
-      while (numRead != -1) {
-        outputStream.write(buf, 0, numRead);
-        numRead = inputStream.read(buf);
-      }
-      outputStream.flush();
-      this.content = outputStream.toByteArray();
-    }
-  }
-  
 }
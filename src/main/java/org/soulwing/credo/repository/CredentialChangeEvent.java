@@ -0,0 +1,73 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.repository;
+
+import org.soulwing.credo.Credential;
+
+/**
+ * An event fired when a credential is added to, updated in, or removed 
+ * from the {@link CredentialRepository}.
+ * <p>
+ * Observers that maintain state derived from the repository (such as a
+ * cache) should generally observe this event only after the transaction 
+ * in which it was fired completes successfully.
+ *
+ * @author Carl Harris
+ */
+public class CredentialChangeEvent {
+
+  /**
+   * Types of change.
+   */
+  public enum Type {
+    ADDED,
+    UPDATED,
+    REMOVED;
+  }
+
+  private final Type type;
+  private final Credential credential;
+
+  /**
+   * Constructs a new instance.
+   * @param type type of change
+   * @param credential the subject credential
+   */
+  public CredentialChangeEvent(Type type, Credential credential) {
+    this.type = type;
+    this.credential = credential;
+  }
+
+  /**
+   * Gets the type of change.
+   * @return change type
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Gets the subject credential.
+   * @return credential
+   */
+  public Credential getCredential() {
+    return credential;
+  }
+
+}
@@ -19,9 +19,13 @@
 package org.soulwing.credo.repository;
 
 import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
 import org.soulwing.credo.Credential;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.UserGroup;
 
 /**
@@ -63,11 +67,67 @@ public interface CredentialRepository {
   /**
    * Finds all credentials in the repository that are accessible to the given
    * user.
+   * <p>
+   * A user may access the credentials owned by any group of which the user
+   * is a member, and by any descendant of such a group.  The accessible
+   * credentials are retrieved in a single query.
    * @param loginName login name of the subject user 
    * @return list of credentials
    */
   List<Credential> findAllByLoginName(String loginName);
   
+  /**
+   * Finds a page of the credentials in the repository that are accessible to 
+   * the given user.
+   * <p>
+   * Accessibility is determined as for {@link #findAllByLoginName(String)}.
+   * The page is located using the cursor of the request rather than an 
+   * offset, so the cost of retrieving a page does not depend on its 
+   * position in the list.
+   * @param loginName login name of the subject user
+   * @param request page request; the sort key must be
+   *    {@link SortKey#NAME} or {@link SortKey#EXPIRATION}
+   * @return page of credentials
+   * @throws IllegalArgumentException if the requested sort key is not
+   *    supported
+   */
+  Page<Credential> findPageByLoginName(String loginName, PageRequest request);
+  
+  /**
+   * Finds a page of the credentials accessible to the given user that
+   * expire within a given interval.
+   * <p>
+   * Accessibility is determined as for {@link #findAllByLoginName(String)}.
+   * The interval is located using the index on the expiration date, and 
+   * pages are located as for 
+   * {@link #findPageByLoginName(String, PageRequest)}.
+   * @param loginName login name of the subject user
+   * @param from inclusive start of the interval
+   * @param until exclusive end of the interval
+   * @param request page request; the sort key must be
+   *    {@link SortKey#NAME} or {@link SortKey#EXPIRATION}
+   * @return page of credentials
+   * @throws IllegalArgumentException if the requested sort key is not
+   *    supported
+   */
+  Page<Credential> findPageExpiringByLoginName(String loginName, 
+      Date from, Date until, PageRequest request);
+  
+  /**
+   * Finds the expiration dates of the credentials accessible to the given 
+   * user that expire within a given interval.
+   * <p>
+   * Only the expiration dates are retrieved, so this is much less costly
+   * than retrieving the credentials themselves when only the number of
+   * credentials expiring within an interval is needed.
+   * @param loginName login name of the subject user
+   * @param from inclusive start of the interval
+   * @param until exclusive end of the interval
+   * @return expiration dates in ascending order
+   */
+  List<Date> findExpirationsByLoginName(String loginName, Date from, 
+      Date until);
+  
   /**
    * Finds all credentials in the repository whose owner is contained in the
    * given collection. 
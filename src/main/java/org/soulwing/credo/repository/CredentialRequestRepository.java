@@ -22,6 +22,9 @@ import java.util.Collection;
 import java.util.List;
 
 import org.soulwing.credo.CredentialRequest;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.UserGroup;
 
 /**
@@ -63,11 +66,33 @@ public interface CredentialRequestRepository {
   /**
    * Finds all credential requests in the repository that are accessible to 
    * the given user.
+   * <p>
+   * A user may access the requests owned by any group of which the user
+   * is a member, and by any descendant of such a group.  The accessible
+   * requests are retrieved in a single query.
    * @param loginName login name of the subject user 
    * @return list of requests
    */
   List<CredentialRequest> findAllByLoginName(String loginName);
   
+  /**
+   * Finds a page of the requests in the repository that are accessible to 
+   * the given user.
+   * <p>
+   * Accessibility is determined as for {@link #findAllByLoginName(String)}.
+   * The page is located using the cursor of the request rather than an 
+   * offset, so the cost of retrieving a page does not depend on its 
+   * position in the list.
+   * @param loginName login name of the subject user
+   * @param request page request; the sort key must be
+   *    {@link SortKey#NAME} or {@link SortKey#DATE_CREATED}
+   * @return page of requests
+   * @throws IllegalArgumentException if the requested sort key is not
+   *    supported
+   */
+  Page<CredentialRequest> findPageByLoginName(String loginName,
+      PageRequest request);
+  
   /**
    * Finds all credential requests in the repository whose owner is contained 
    * in the given collection. 
@@ -21,19 +21,21 @@ package org.soulwing.credo.repository;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 
 import org.soulwing.credo.Credential;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.CredentialCertificate;
-import org.soulwing.credo.Tag;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.domain.CredentialEntity;
 import org.soulwing.credo.security.Restricted;
@@ -47,9 +49,22 @@ import org.soulwing.credo.security.Restricted.Restriction;
 @ApplicationScoped
 public class JpaCredentialRepository implements CredentialRepository {
 
+  private final KeysetPageQuery<Credential> pageQuery =
+      new KeysetPageQuery<>(Credential.class,
+          "CredentialEntity", "findCredentialsByIds")
+          .sortKey(SortKey.NAME, "name")
+          .sortKey(SortKey.EXPIRATION, "expiration")
+          .rangeProperty("expiration");
+
   @PersistenceContext
   protected EntityManager entityManager;
   
+  @Inject
+  protected TagRepository tagRepository;
+  
+  @Inject
+  protected Event<CredentialChangeEvent> changeEvent;
+  
   /**
    * {@inheritDoc}
    */
@@ -60,26 +75,13 @@ public class JpaCredentialRepository implements CredentialRepository {
       throw new IllegalArgumentException("unsupported credential type: "
           + credential.getClass().getName());
     }
-    Set<Tag> tags = new LinkedHashSet<>();
-    
-    for (Tag tag : credential.getTags()) {
-      tags.add(mergeIfNecessary(tag));
-    }
-    credential.setTags(tags);
+    credential.setTags(tagRepository.attachAll(credential.getTags()));
     Date now = new Date();
     ((CredentialEntity) credential).setDateCreated(now);
     ((CredentialEntity) credential).setDateModified(now);
     entityManager.persist(credential);
-  }
-
-  private Tag mergeIfNecessary(Tag tag) {
-    try {
-      tag = entityManager.merge(tag);
-    }
-    catch (IllegalArgumentException ex) {
-      assert true;
-    }
-    return tag;
+    changeEvent.fire(new CredentialChangeEvent(
+        CredentialChangeEvent.Type.ADDED, credential));
   }
 
   /**
@@ -88,7 +90,10 @@ public class JpaCredentialRepository implements CredentialRepository {
   @Override
   @Restricted(Restriction.OWNER)
   public Credential update(Credential credential) {
-    return entityManager.merge(credential);
+    Credential updated = entityManager.merge(credential);
+    changeEvent.fire(new CredentialChangeEvent(
+        CredentialChangeEvent.Type.UPDATED, updated));
+    return updated;
   }
 
   /**
@@ -102,6 +107,8 @@ public class JpaCredentialRepository implements CredentialRepository {
     }
     entityManager.remove(credential);
     entityManager.remove(credential.getPrivateKey());
+    changeEvent.fire(new CredentialChangeEvent(
+        CredentialChangeEvent.Type.REMOVED, credential));
   }
 
   /**
@@ -130,7 +137,39 @@ public class JpaCredentialRepository implements CredentialRepository {
     query.setParameter("loginName", loginName);
     return query.getResultList();
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Page<Credential> findPageByLoginName(String loginName, 
+      PageRequest request) {
+    return pageQuery.execute(entityManager, loginName, request);
+  }
   
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Page<Credential> findPageExpiringByLoginName(String loginName,
+      Date from, Date until, PageRequest request) {
+    return pageQuery.execute(entityManager, loginName, request, from, until);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<Date> findExpirationsByLoginName(String loginName, Date from,
+      Date until) {
+    TypedQuery<Date> query = entityManager.createNamedQuery(
+        "findCredentialExpirationsByLoginName", Date.class);
+    query.setParameter("loginName", loginName);
+    query.setParameter("from", from);
+    query.setParameter("until", until);
+    return query.getResultList();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -21,18 +21,19 @@ package org.soulwing.credo.repository;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 
 import org.soulwing.credo.CredentialRequest;
-import org.soulwing.credo.Tag;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.domain.CredentialRequestEntity;
 import org.soulwing.credo.security.Restricted;
@@ -47,9 +48,18 @@ import org.soulwing.credo.security.Restricted.Restriction;
 public class JpaCredentialRequestRepository 
     implements CredentialRequestRepository {
 
+  private final KeysetPageQuery<CredentialRequest> pageQuery =
+      new KeysetPageQuery<>(CredentialRequest.class,
+          "CredentialRequestEntity", "findRequestsByIds")
+          .sortKey(SortKey.NAME, "name")
+          .sortKey(SortKey.DATE_CREATED, "dateCreated");
+
   @PersistenceContext
   protected EntityManager entityManager;
   
+  @Inject
+  protected TagRepository tagRepository;
+  
   /**
    * {@inheritDoc}
    */
@@ -60,28 +70,13 @@ public class JpaCredentialRequestRepository
       throw new IllegalArgumentException("unsupported request type: "
           + request.getClass().getName());
     }
-    Set<Tag> tags = new LinkedHashSet<>();
-    
-    for (Tag tag : request.getTags()) {
-      tags.add(mergeIfNecessary(tag));
-    }
-    request.setTags(tags);
+    request.setTags(tagRepository.attachAll(request.getTags()));
     Date now = new Date();
     ((CredentialRequestEntity) request).setDateCreated(now);
     ((CredentialRequestEntity) request).setDateModified(now);
     entityManager.persist(request);
   }
 
-  private Tag mergeIfNecessary(Tag tag) {
-    try {
-      tag = entityManager.merge(tag);
-    }
-    catch (IllegalArgumentException ex) {
-      assert true;
-    }
-    return tag;
-  }
-
   /**
    * {@inheritDoc}
    */
@@ -133,6 +128,15 @@ public class JpaCredentialRequestRepository
     return query.getResultList();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Page<CredentialRequest> findPageByLoginName(String loginName, 
+      PageRequest request) {
+    return pageQuery.execute(entityManager, loginName, request);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -19,6 +19,11 @@
 package org.soulwing.credo.repository;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.persistence.EntityManager;
@@ -73,4 +78,75 @@ public class JpaTagRepository implements TagRepository {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Collection<Tag> findAllByTagText(Collection<String> texts) {
+    if (texts.isEmpty()) return Collections.emptyList();
+    TypedQuery<Tag> query = 
+        entityManager.createNamedQuery("findTagsByText", Tag.class);
+    query.setParameter("texts", texts);
+    return query.getResultList();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void addAll(Collection<? extends Tag> tags) {
+    for (Tag tag : tags) {
+      entityManager.persist(tag);
+    }
+    entityManager.flush();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<Tag> attachAll(Collection<? extends Tag> tags) {
+    Map<String, Tag> attached = new LinkedHashMap<>();
+    Set<String> unresolved = new LinkedHashSet<>();
+    for (Tag tag : tags) {
+      Tag managed = findManaged(tag);
+      attached.put(tag.getText(), managed);
+      if (managed == null) {
+        unresolved.add(tag.getText());
+      }
+    }
+    if (!unresolved.isEmpty()) {
+      for (Tag tag : findAllByTagText(unresolved)) {
+        attached.put(tag.getText(), tag);
+        unresolved.remove(tag.getText());
+      }
+      for (String text : unresolved) {
+        Tag tag = newTag(text);
+        entityManager.persist(tag);
+        attached.put(text, tag);
+      }
+    }
+    return new LinkedHashSet<>(attached.values());
+  }
+
+  /**
+   * Finds the managed instance of the given tag without querying by text.
+   * <p>
+   * A detached tag is found by its identifier, which is satisfied by the
+   * persistence context when the tag has already been loaded.
+   * @param tag the subject tag
+   * @return managed instance or {@code null} if {@code tag} has not yet
+   *    been persisted
+   */
+  private Tag findManaged(Tag tag) {
+    if (!(tag instanceof TagEntity)) {
+      throw new IllegalArgumentException("unsupported tag type: "
+          + tag.getClass().getName());
+    }
+    if (entityManager.contains(tag)) return tag;
+    Long id = ((TagEntity) tag).getId();
+    if (id == null) return null;
+    return entityManager.find(TagEntity.class, id);
+  }
+
 }
@@ -18,7 +18,6 @@
  */
 package org.soulwing.credo.repository;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -190,42 +189,17 @@ public class JpaUserGroupMemberRepository
 
     // We can't use a typed query here because we have more than one 
     // item in the select clause, in order to allow sorting.
-    Query query = null;
-
-    if (group.getOwner() == null) {
-      query = entityManager.createNamedQuery(
-          "findGroupMemberWithGroupAndLoginName");
-    }
-    else {
-      query = entityManager.createNamedQuery(
-          "findGroupMemberWithGroupAndLoginNameIncludingAncestors");
-      query.setParameter("ancestors", makeAncestorList(group));
-    }
-
+    Query query = entityManager.createNamedQuery(
+        "findGroupMemberWithGroupAndLoginNameIncludingAncestors");
     query.setParameter("groupId", group.getId());
     query.setParameter("loginName", loginName);
+    query.setMaxResults(1);
 
-    List results = query.getResultList();
+    List<?> results = query.getResultList();
     if (results.isEmpty()) return null;
     
-    if (group.getOwner() == null) {
-      return (UserGroupMember) results.get(0);
-    }
-    
     Object[] row = (Object[]) results.get(0);
     return (UserGroupMember) row[0];
   }
 
-  private List<Long> makeAncestorList(UserGroup group) {
-    List<Long> ancestors = new ArrayList<>();
-    String path = group.getAncestryPath();
-    String[] ids = path.length() < 2 ?
-        new String[0] : path.substring(1, path.length() - 1).split("/");
-    for (String id : ids) {
-      ancestors.add(Long.valueOf(id));
-    }
-    return ancestors;
-  }
-
-
 }
@@ -18,7 +18,10 @@
  */
 package org.soulwing.credo.repository;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -139,6 +142,17 @@ public class JpaUserGroupRepository implements UserGroupRepository {
     return query.getResultList();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<UserGroup> findAccessibleByLoginName(String loginName) {
+    TypedQuery<UserGroup> query = entityManager.createNamedQuery(
+        "findGroupsAccessibleByLoginName", UserGroup.class);
+    query.setParameter("loginName", loginName);
+    return query.getResultList();
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -157,9 +171,20 @@ public class JpaUserGroupRepository implements UserGroupRepository {
   public List<UserGroup> findDescendants(UserGroup group) {
     TypedQuery<UserGroup> query = entityManager.createNamedQuery(
         "findGroupDescendants", UserGroup.class);
-    query.setParameter("pattern", String.format("%%%s%d%s%%",
-        UserGroup.PATH_DELIMITER, group.getId(), UserGroup.PATH_DELIMITER));
+    query.setParameter("groupId", group.getId());
     return query.getResultList();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<Long> findIdsInUse(Collection<Long> groupIds) {
+    if (groupIds.isEmpty()) return Collections.emptySet();
+    TypedQuery<Long> query = entityManager.createNamedQuery(
+        "findGroupIdsInUse", Long.class);
+    query.setParameter("groupIds", groupIds);
+    return new HashSet<>(query.getResultList());
+  }
+
 }
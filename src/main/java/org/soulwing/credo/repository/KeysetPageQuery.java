@@ -0,0 +1,254 @@
+/*
+ * File created on May 8, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+import javax.persistence.TypedQuery;
+
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
+import org.soulwing.credo.domain.AbstractEntity;
+
+/**
+ * A query that retrieves a page of the owned entities that are accessible
+ * to a user, using keyset pagination.
+ * <p>
+ * A page is retrieved in two phases.  The first query selects only the 
+ * identifiers of the entities on the page, using the sort key and
+ * identifier of the cursor entity to seek past the preceding pages.  The
+ * second (named) query fetches the entities having those identifiers along
+ * with their owners and tags.  This avoids both the cost of skipping an
+ * offset and the cartesian product of a tag fetch join in a query that
+ * applies the page limit.
+ *
+ * @author Carl Harris
+ */
+class KeysetPageQuery<T> {
+
+  private final Map<SortKey, String> sortProperties = new HashMap<>();
+
+  private final Class<T> resultType;
+  private final String entityName;
+  private final String fetchQueryName;
+
+  private String rangeProperty;
+
+  /**
+   * Constructs a new instance.
+   * @param resultType type of the entities on a page
+   * @param entityName JPQL name of the entity
+   * @param fetchQueryName name of the query that fetches the entities
+   *    whose identifiers are given by the {@code ids} parameter
+   */
+  public KeysetPageQuery(Class<T> resultType, String entityName, 
+      String fetchQueryName) {
+    this.resultType = resultType;
+    this.entityName = entityName;
+    this.fetchQueryName = fetchQueryName;
+  }
+
+  /**
+   * Adds a sort key supported by this query.
+   * @param sortKey the sort key
+   * @param property name of the (non-null) entity property corresponding 
+   *    to {@code sortKey}
+   * @return this query
+   */
+  public KeysetPageQuery<T> sortKey(SortKey sortKey, String property) {
+    sortProperties.put(sortKey, property);
+    return this;
+  }
+
+  /**
+   * Sets the property used to restrict the range of entities on a page.
+   * @param property name of the (non-null) entity property whose value
+   *    must lie within the bounds given at execution
+   * @return this query
+   */
+  public KeysetPageQuery<T> rangeProperty(String property) {
+    this.rangeProperty = property;
+    return this;
+  }
+
+  /**
+   * Executes this query.
+   * @param entityManager entity manager
+   * @param loginName login name of the user to whom the entities must
+   *    be accessible
+   * @param request page request
+   * @return page of entities
+   */
+  public Page<T> execute(EntityManager entityManager, String loginName,
+      PageRequest request) {
+    return execute(entityManager, loginName, request, null, null);
+  }
+
+  /**
+   * Executes this query, including only those entities whose range 
+   * property lies within the given bounds.
+   * @param entityManager entity manager
+   * @param loginName login name of the user to whom the entities must
+   *    be accessible
+   * @param request page request
+   * @param lowerBound inclusive lower bound for the range property or
+   *    {@code null} if there is no lower bound
+   * @param upperBound exclusive upper bound for the range property or
+   *    {@code null} if there is no upper bound
+   * @return page of entities
+   */
+  public Page<T> execute(EntityManager entityManager, String loginName,
+      PageRequest request, Object lowerBound, Object upperBound) {
+    if (rangeProperty == null 
+        && (lowerBound != null || upperBound != null)) {
+      throw new IllegalStateException("range property not set");
+    }
+    String property = sortProperties.get(request.getSortKey());
+    if (property == null) {
+      throw new IllegalArgumentException("unsupported sort key: "
+          + request.getSortKey());
+    }
+    
+    Object anchor = null;
+    if (request.getCursor() != null) {
+      anchor = findSortValue(entityManager, property, request.getCursor());
+    }
+    
+    String filter = request.getFilter() != null ?
+        request.getFilter().trim() : null;
+    boolean filtered = filter != null && !filter.isEmpty();
+    
+    TypedQuery<Long> query = entityManager.createQuery(
+        idQuery(property, request.isDescending(), filtered, anchor != null,
+            lowerBound != null, upperBound != null), Long.class);
+    query.setParameter("loginName", loginName);
+    if (filtered) {
+      query.setParameter("filter", likePattern(filter));
+    }
+    if (lowerBound != null) {
+      query.setParameter("lowerBound", lowerBound);
+    }
+    if (upperBound != null) {
+      query.setParameter("upperBound", upperBound);
+    }
+    if (anchor != null) {
+      query.setParameter("anchor", anchor);
+      query.setParameter("cursor", request.getCursor());
+    }
+    query.setMaxResults(request.getPageSize() + 1);
+    List<Long> ids = query.getResultList();
+
+    Long nextCursor = null;
+    if (ids.size() > request.getPageSize()) {
+      ids = ids.subList(0, request.getPageSize());
+      nextCursor = ids.get(ids.size() - 1);
+    }
+    return new Page<T>(fetch(entityManager, ids), nextCursor);
+  }
+
+  /**
+   * Finds the value of the sort property for the cursor entity.
+   * <p>
+   * If the cursor entity no longer exists, the first page will be 
+   * retrieved.
+   */
+  private Object findSortValue(EntityManager entityManager, String property,
+      Long cursor) {
+    TypedQuery<Object> query = entityManager.createQuery(
+        "select e." + property + " from " + entityName + " e"
+        + " where e.id = :cursor", Object.class);
+    query.setParameter("cursor", cursor);
+    try {
+      return query.getSingleResult();
+    }
+    catch (NoResultException ex) {
+      return null;
+    }
+  }
+
+  private String idQuery(String property, boolean descending, 
+      boolean filtered, boolean anchored, boolean lowerBounded,
+      boolean upperBounded) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("select e.id from ").append(entityName).append(" e")
+        .append(" where exists (")
+        .append("select gm from UserGroupMemberEntity gm")
+        .append(" inner join gm.user u")
+        .append(" inner join gm.group g")
+        .append(" inner join g.descendants d")
+        .append(" where u.loginName = :loginName")
+        .append(" and d.descendant = e.owner)");
+    if (filtered) {
+      sb.append(" and (lower(e.name) like :filter escape '!'")
+          .append(" or exists (")
+          .append("select t.id from ").append(entityName).append(" e2")
+          .append(" inner join e2.tags t")
+          .append(" where e2 = e and lower(t.text) like :filter escape '!'))");
+    }
+    if (lowerBounded) {
+      sb.append(" and e.").append(rangeProperty).append(" >= :lowerBound");
+    }
+    if (upperBounded) {
+      sb.append(" and e.").append(rangeProperty).append(" < :upperBound");
+    }
+    if (anchored) {
+      String op = descending ? " < " : " > ";
+      sb.append(" and (e.").append(property).append(op).append(":anchor")
+          .append(" or (e.").append(property).append(" = :anchor")
+          .append(" and e.id").append(op).append(":cursor))");
+    }
+    String direction = descending ? " desc" : " asc";
+    sb.append(" order by e.").append(property).append(direction)
+        .append(", e.id").append(direction);
+    return sb.toString();
+  }
+
+  private String likePattern(String filter) {
+    return "%" + filter.toLowerCase()
+        .replace("!", "!!")
+        .replace("%", "!%")
+        .replace("_", "!_") + "%";
+  }
+
+  private List<T> fetch(EntityManager entityManager, List<Long> ids) {
+    if (ids.isEmpty()) return new ArrayList<>();
+    TypedQuery<T> query = entityManager.createNamedQuery(fetchQueryName,
+        resultType);
+    query.setParameter("ids", ids);
+    Map<Long, T> entities = new HashMap<>();
+    for (T entity : query.getResultList()) {
+      entities.put(((AbstractEntity) entity).getId(), entity);
+    }
+    List<T> results = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      T entity = entities.get(id);
+      if (entity != null) {
+        results.add(entity);
+      }
+    }
+    return results;
+  }
+
+}
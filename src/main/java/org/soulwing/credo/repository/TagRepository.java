@@ -19,6 +19,7 @@
 package org.soulwing.credo.repository;
 
 import java.util.Collection;
+import java.util.Set;
 
 import org.soulwing.credo.Tag;
 import org.soulwing.credo.TagFactory;
@@ -43,4 +44,38 @@ public interface TagRepository extends TagFactory {
    */
   Tag findByTagText(String text);
   
+  /**
+   * Finds all tags whose text exactly matches one of the given values.
+   * @param texts the text values to match
+   * @return collection of matching tags (in no particular order); 
+   *    values that match no tag are simply omitted
+   */
+  Collection<Tag> findAllByTagText(Collection<String> texts);
+  
+  /**
+   * Adds the given new tags to the repository.
+   * <p>
+   * The tags are flushed to the database before this method returns, so
+   * that a tag whose text is already in use causes an exception here
+   * rather than at commit.
+   * @param tags the tags to add
+   * @throws javax.persistence.PersistenceException if a tag cannot be
+   *    added
+   */
+  void addAll(Collection<? extends Tag> tags);
+  
+  /**
+   * Gets the persistent instances of the given tags that are managed in
+   * the current persistence context.
+   * <p>
+   * Tags that are already managed are returned as-is.  The remaining tags
+   * are found using a single query; any that do not exist are added.
+   * Tags obtained from {@link org.soulwing.credo.service.TagService} 
+   * always exist, so only callers that create tags directly (using
+   * {@link #newTag(String)}) should rely on the latter behavior.
+   * @param tags the subject tags
+   * @return set of managed tags in the same order as {@code tags}
+   */
+  Set<Tag> attachAll(Collection<? extends Tag> tags);
+  
 }
@@ -67,6 +67,10 @@ public interface UserGroupMemberRepository {
   
   /**
    * Finds a group member for the given group and login name.
+   * <p>
+   * The group and its owner ancestors are searched; if the user is a
+   * member of more than one of them, the member of the group nearest to
+   * {@code group} is returned.
    * @param group the subject group
    * @param loginName the subject user's login name
    * @return matching group member or {@code null} if no such member exists
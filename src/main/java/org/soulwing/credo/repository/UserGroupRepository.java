@@ -18,7 +18,9 @@
  */
 package org.soulwing.credo.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.UserGroupFactory;
@@ -75,6 +77,17 @@ public interface UserGroupRepository extends UserGroupFactory {
    */
   List<UserGroup> findByLoginName(String loginName);
 
+  /**
+   * Finds the groups that are accessible to the given user.
+   * <p>
+   * A group is accessible to a user that is a member of the group or
+   * of any of its owner ancestors.  The groups are found in a single query.
+   * @param loginName login name of the subject user
+   * @return list of groups for which the user with {@code loginName} is
+   *    a member, together with all of their descendants
+   */
+  List<UserGroup> findAccessibleByLoginName(String loginName);
+
   /**
    * Finds the groups are owned by the given owner.
    * @param owner the group owner to match
@@ -89,4 +102,15 @@ public interface UserGroupRepository extends UserGroupFactory {
    */
   List<UserGroup> findDescendants(UserGroup group);
 
+  /**
+   * Finds the groups (among those given) that are in use as the owner of
+   * at least one credential or credential request.
+   * <p>
+   * The determination is made for all of the given groups in a single
+   * query.
+   * @param groupIds unique identifiers of the subject groups
+   * @return the subset of {@code groupIds} whose groups are in use
+   */
+  Set<Long> findIdsInUse(Collection<Long> groupIds);
+
 }
@@ -0,0 +1,68 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.security;
+
+import org.soulwing.credo.UserGroup;
+
+/**
+ * A short-lived cache of decisions that a user is a member of a group
+ * (or one of its owner ancestors).
+ * <p>
+ * Entries are identified by login name, group ID and group version; a 
+ * decision cached for a group is not returned once the persistent state
+ * of the group has changed.  Components that change group membership
+ * in other ways must evict the affected entries.
+ *
+ * @author Carl Harris
+ */
+public interface MembershipCache {
+
+  /**
+   * Determines whether the given user is known to be a member of the 
+   * given group.
+   * @param loginName login name of the subject user
+   * @param group the subject group
+   * @return {@code true} if a decision that the user is a member of the
+   *    current version of {@code group} is cached
+   */
+  boolean isMember(String loginName, UserGroup group);
+
+  /**
+   * Records a decision that the given user is a member of the given group.
+   * @param loginName login name of the subject user
+   * @param group the subject group
+   */
+  void putMember(String loginName, UserGroup group);
+
+  /**
+   * Removes all decisions for the given group from the cache.
+   * @param group the subject group
+   */
+  void evict(UserGroup group);
+
+  /**
+   * Removes all decisions from the cache.
+   * <p>
+   * Because membership of a group implies membership of the groups it
+   * owns, a change to the membership or owner of a group should clear 
+   * the cache rather than evicting only the affected group.
+   */
+  void clear();
+
+}
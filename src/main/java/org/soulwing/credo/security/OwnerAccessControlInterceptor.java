@@ -39,6 +39,10 @@ import org.soulwing.credo.service.UserContextService;
 /**
  * An interceptor that validates the owner property of an object to 
  * ensure that the logged-in user is a member of the specified owner group.
+ * <p>
+ * Each decision that the user is a member is put into the 
+ * {@link MembershipCache}, so that repeated checks for the same group 
+ * need neither merge the group nor query its members.
  *
  * @author Carl Harris
  */
@@ -56,6 +60,9 @@ public class OwnerAccessControlInterceptor {
   @Inject
   protected UserGroupMemberRepository memberRepository;
   
+  @Inject
+  protected MembershipCache membershipCache;
+  
   @PersistenceContext
   protected EntityManager entityManager;
   
@@ -76,9 +83,13 @@ public class OwnerAccessControlInterceptor {
   }
 
   private void validateOwner(Owned owned) throws OwnerAccessControlException {
-    UserGroup owner = entityManager.merge(owned.getOwner());
+    String loginName = userContextService.getLoginName();
+    UserGroup owner = owned.getOwner();
+    if (owner != null && membershipCache.isMember(loginName, owner)) {
+      return;
+    }
+    owner = entityManager.merge(owner);
     if (owner != null) {
-      String loginName = userContextService.getLoginName();
       String groupName = owner.getName();
       if (logger.isTraceEnabled()) {
         logger.trace(String.format(
@@ -93,6 +104,7 @@ public class OwnerAccessControlInterceptor {
             loginName, groupName, owned));
         throw new OwnerAccessControlException(groupName, loginName);
       }
+      membershipCache.putMember(loginName, owner);
     }
   }
   
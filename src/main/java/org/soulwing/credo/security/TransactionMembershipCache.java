@@ -0,0 +1,126 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.security;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.transaction.TransactionScoped;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.service.TimeOfDayService;
+
+/**
+ * A {@link MembershipCache} whose entries last no longer than the 
+ * transaction in which they were made.
+ * <p>
+ * Membership checks made repeatedly within a transaction (e.g. for each
+ * credential in a list) need query the repository only once for each
+ * group.  Entries also expire after a short period, so that a long 
+ * running transaction does not rely on a stale decision indefinitely.
+ * Since a transaction is associated with a single thread, the cache is
+ * not synchronized.
+ *
+ * @author Carl Harris
+ */
+@TransactionScoped
+public class TransactionMembershipCache 
+    implements MembershipCache, Serializable {
+
+  private static final long serialVersionUID = -6230927365381716436L;
+
+  static final long MAX_AGE = 30000L;
+
+  @Inject
+  protected TimeOfDayService timeOfDayService;
+
+  private final Map<Long, Map<String, Entry>> entries = new HashMap<>();
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isMember(String loginName, UserGroup group) {
+    if (group.getId() == null) return false;
+    Map<String, Entry> members = entries.get(group.getId());
+    if (members == null) return false;
+    Entry entry = members.get(loginName);
+    if (entry == null) return false;
+    long now = timeOfDayService.getCurrent().getTime();
+    if (!ObjectUtils.equals(entry.version, group.getVersion())
+        || now - entry.time >= MAX_AGE) {
+      members.remove(loginName);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void putMember(String loginName, UserGroup group) {
+    if (group.getId() == null) return;
+    Map<String, Entry> members = entries.get(group.getId());
+    if (members == null) {
+      members = new HashMap<>();
+      entries.put(group.getId(), members);
+    }
+    members.put(loginName, new Entry(group.getVersion(), 
+        timeOfDayService.getCurrent().getTime()));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void evict(UserGroup group) {
+    if (group.getId() == null) return;
+    entries.remove(group.getId());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * A cached decision and the group version to which it corresponds.
+   */
+  private static class Entry implements Serializable {
+
+    private static final long serialVersionUID = 3374869517398426121L;
+
+    private final Long version;
+    private final long time;
+
+    public Entry(Long version, long time) {
+      this.version = version;
+      this.time = time;
+    }
+
+  }
+
+}
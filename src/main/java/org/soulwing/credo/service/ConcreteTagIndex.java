@@ -0,0 +1,214 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.repository.TagRepository;
+
+/**
+ * A concrete {@link TagIndex} implementation.
+ * <p>
+ * The index is an array of tag text sorted without regard to case, so
+ * that the tags beginning with a given prefix are found by a binary search
+ * followed by a scan of adjacent elements.  The array is never modified;
+ * each update replaces it with a new array, so that searches need not 
+ * hold a lock.
+ * <p>
+ * Tags added by other means (e.g. by another server instance) are 
+ * picked up when the index is periodically reloaded.
+ *
+ * @author Carl Harris
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ConcreteTagIndex implements TagIndex {
+
+  static final long RELOAD_INTERVAL = 600000L;
+
+  /**
+   * Orders text without regard to case, breaking ties using the natural
+   * order, so that distinct text values never compare as equal.
+   */
+  static final Comparator<String> ORDER = new Comparator<String>() {
+    @Override
+    public int compare(String a, String b) {
+      int result = String.CASE_INSENSITIVE_ORDER.compare(a, b);
+      return result != 0 ? result : a.compareTo(b);
+    }
+  };
+
+  private final Lock lock = new ReentrantLock();
+
+  @Inject
+  protected TagRepository tagRepository;
+
+  @Inject
+  protected TimeOfDayService timeOfDayService;
+
+  private volatile Snapshot snapshot;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> findByPrefix(String prefix, int limit) {
+    String[] texts = getSnapshot().texts;
+    List<String> matches = new ArrayList<>();
+    int i = lowerBound(texts, prefix);
+    while (i < texts.length && matches.size() < limit
+        && texts[i].regionMatches(true, 0, prefix, 0, prefix.length())) {
+      matches.add(texts[i++]);
+    }
+    return matches;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void addAll(Collection<String> texts) {
+    lock.lock();
+    try {
+      Snapshot snapshot = this.snapshot;
+      if (snapshot == null) return;
+      Set<String> additions = new TreeSet<>(ORDER);
+      for (String text : texts) {
+        if (Arrays.binarySearch(snapshot.texts, text, ORDER) < 0) {
+          additions.add(text);
+        }
+      }
+      if (additions.isEmpty()) return;
+      String[] merged = Arrays.copyOf(snapshot.texts,
+          snapshot.texts.length + additions.size());
+      int i = snapshot.texts.length;
+      for (String text : additions) {
+        merged[i++] = text;
+      }
+      Arrays.sort(merged, ORDER);
+      this.snapshot = new Snapshot(merged, snapshot.loadTime);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void reload() {
+    snapshot = null;
+  }
+
+  /**
+   * Gets the current snapshot of the index, loading it if necessary.
+   * <p>
+   * When the snapshot is due to be reloaded while another thread is 
+   * already reloading it, the existing snapshot is returned rather than
+   * waiting for the reload to finish.
+   * @return snapshot
+   */
+  private Snapshot getSnapshot() {
+    Snapshot snapshot = this.snapshot;
+    long now = timeOfDayService.getCurrent().getTime();
+    if (snapshot != null && now - snapshot.loadTime < RELOAD_INTERVAL) {
+      return snapshot;
+    }
+    if (snapshot != null && !lock.tryLock()) {
+      return snapshot;
+    }
+    if (snapshot == null) {
+      lock.lock();
+    }
+    try {
+      if (this.snapshot == snapshot) {
+        this.snapshot = load(now);
+      }
+      return this.snapshot;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  private Snapshot load(long now) {
+    Collection<Tag> tags = tagRepository.findAll();
+    String[] texts = new String[tags.size()];
+    int i = 0;
+    for (Tag tag : tags) {
+      texts[i++] = tag.getText();
+    }
+    Arrays.sort(texts, ORDER);
+    return new Snapshot(texts, now);
+  }
+
+  /**
+   * Finds the index of the first element of the given array that is not
+   * less than the given prefix, ignoring case.
+   * @param texts sorted array of text
+   * @param prefix the subject prefix
+   * @return index of the first element not less than {@code prefix} or 
+   *    the length of {@code texts} if there is no such element
+   */
+  private static int lowerBound(String[] texts, String prefix) {
+    int low = 0;
+    int high = texts.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (String.CASE_INSENSITIVE_ORDER.compare(texts[mid], prefix) < 0) {
+        low = mid + 1;
+      }
+      else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * An immutable snapshot of the index.
+   */
+  private static class Snapshot {
+
+    private final String[] texts;
+    private final long loadTime;
+
+    public Snapshot(String[] texts, long loadTime) {
+      this.texts = texts;
+      this.loadTime = loadTime;
+    }
+
+  }
+
+}
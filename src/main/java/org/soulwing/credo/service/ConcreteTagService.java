@@ -18,8 +18,12 @@
  */
 package org.soulwing.credo.service;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ejb.ConcurrencyManagement;
@@ -27,6 +31,7 @@ import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.Singleton;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 
 import org.soulwing.credo.Tag;
@@ -34,6 +39,20 @@ import org.soulwing.credo.repository.TagRepository;
 
 /**
  * A concrete {@link TagService} implementation.
+ * <p>
+ * Tags are resolved using a single query for all of the given text values.
+ * Any tags that do not yet exist are added by the {@link TagWriter} in a 
+ * transaction of their own, before any tag is added to the caller's 
+ * persistence context, so the resolved tags are always persistent and a
+ * conflicting insert never affects the caller's transaction.  Should 
+ * another transaction concurrently add one of the same tags, the write is
+ * retried after finding the tags that were added.  Because the tags are 
+ * found again in the caller's transaction after they have been added, 
+ * this relies on read committed transaction isolation.
+ * <p>
+ * Tags are found by prefix using the {@link TagIndex}.  A 
+ * {@link TagsAddedEvent} is fired for the tags that are added, so that 
+ * the index is updated only after the caller's transaction commits.
  *
  * @author Carl Harris
  */
@@ -42,9 +61,20 @@ import org.soulwing.credo.repository.TagRepository;
 @TransactionAttribute(TransactionAttributeType.REQUIRED)
 public class ConcreteTagService implements TagService {
 
+  static final int MAX_ATTEMPTS = 3;
+  
   @Inject
   protected TagRepository tagRepository;
   
+  @Inject
+  protected TagWriter tagWriter;
+
+  @Inject
+  protected TagIndex tagIndex;
+  
+  @Inject
+  protected Event<TagsAddedEvent> tagsAddedEvent;
+  
   /**
    * {@inheritDoc}
    */
@@ -53,21 +83,56 @@ public class ConcreteTagService implements TagService {
     return tagRepository.findAll();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<String> findTagsByPrefix(String prefix, int limit) {
+    return tagIndex.findByPrefix(prefix, limit);
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public Set<? extends Tag> resolve(String[] tags) {
-    Set<Tag> tagSet = new LinkedHashSet<>();
-    for (String text : tags) {
-      Tag tag = tagRepository.findByTagText(text);
-      if (tag == null) {
-        tag = tagRepository.newTag(text);
+    Set<String> texts = new LinkedHashSet<>(Arrays.asList(tags));
+    Map<String, Tag> resolved = new HashMap<>();
+    findTags(texts, resolved);
+    if (resolved.size() == texts.size()) {
+      return orderedTags(texts, resolved);
+    }
+
+    Set<String> added = new LinkedHashSet<>(texts);
+    added.removeAll(resolved.keySet());
+    int attempts = 0;
+    while (resolved.size() < texts.size()) {
+      if (attempts++ == MAX_ATTEMPTS) {
+        throw new IllegalStateException("cannot add tags");
       }
-      tagSet.add(tag);
+      Set<String> missing = new LinkedHashSet<>(texts);
+      missing.removeAll(resolved.keySet());
+      tagWriter.addAllIfAbsent(missing);
+      findTags(missing, resolved);
+    }
+
+    tagsAddedEvent.fire(new TagsAddedEvent(added));
+    return orderedTags(texts, resolved);
+  }
+
+  private Set<Tag> orderedTags(Collection<String> texts,
+      Map<String, Tag> tags) {
+    Set<Tag> tagSet = new LinkedHashSet<>();
+    for (String text : texts) {
+      tagSet.add(tags.get(text));
     }
     return tagSet;
   }
 
+  private void findTags(Collection<String> texts, Map<String, Tag> tags) {
+    for (Tag tag : tagRepository.findAllByTagText(texts)) {
+      tags.put(tag.getText(), tag);
+    }
+  }
 
 }
@@ -0,0 +1,84 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import javax.persistence.PersistenceException;
+
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.repository.TagRepository;
+
+/**
+ * A concrete {@link TagWriter} implementation.
+ * <p>
+ * The unique constraint on tag text ensures that concurrent transactions
+ * cannot both add a tag with the same text; the transaction that loses 
+ * the race is rolled back and the caller can simply find the tag that
+ * was added by the winner.
+ *
+ * @author Carl Harris
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ConcreteTagWriter implements TagWriter {
+
+  @Inject
+  protected TagRepository tagRepository;
+  
+  @Resource
+  protected SessionContext sessionContext;
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+  public boolean addAllIfAbsent(Collection<String> texts) {
+    Set<String> missing = new LinkedHashSet<>(texts);
+    for (Tag tag : tagRepository.findAllByTagText(texts)) {
+      missing.remove(tag.getText());
+    }
+    List<Tag> tags = new ArrayList<>(missing.size());
+    for (String text : missing) {
+      tags.add(tagRepository.newTag(text));
+    }
+    try {
+      tagRepository.addAll(tags);
+      return true;
+    }
+    catch (PersistenceException ex) {
+      sessionContext.setRollbackOnly();
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.UserProfile;
+import org.soulwing.credo.repository.UserGroupRepository;
+import org.soulwing.credo.repository.UserProfileRepository;
+
+/**
+ * A concrete {@link UserContextSnapshot} implementation.
+ * <p>
+ * The snapshot is taken on first use using two queries: one for the 
+ * user's profile and one for all of the groups accessible to the user.
+ *
+ * @author Carl Harris
+ */
+@RequestScoped
+public class ConcreteUserContextSnapshot implements UserContextSnapshot {
+
+  @Inject
+  protected UserContextService userContextService;
+
+  @Inject
+  protected UserProfileRepository profileRepository;
+
+  @Inject
+  protected UserGroupRepository groupRepository;
+
+  private final Map<String, Long> groupIds = new HashMap<>();
+
+  private Long profileId;
+
+  private boolean loaded;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long getProfileId() {
+    load();
+    return profileId;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Long getGroupId(String groupName) {
+    load();
+    return groupIds.get(groupName);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<Long> getGroupIds() {
+    load();
+    return Collections.unmodifiableSet(new HashSet<>(groupIds.values()));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void invalidate() {
+    loaded = false;
+  }
+
+  private void load() {
+    if (loaded) return;
+    String loginName = userContextService.getLoginName();
+    UserProfile profile = profileRepository.findByLoginName(loginName);
+    groupIds.clear();
+    profileId = null;
+    if (profile != null) {
+      profileId = profile.getId();
+      for (UserGroup group : 
+          groupRepository.findAccessibleByLoginName(loginName)) {
+        groupIds.put(group.getName(), group.getId());
+      }
+    }
+    loaded = true;
+  }
+
+}
@@ -21,6 +21,8 @@ package org.soulwing.credo.service;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
@@ -30,6 +32,7 @@ import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 
 import org.apache.commons.lang.Validate;
+import org.soulwing.credo.Password;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.UserGroupMember;
 import org.soulwing.credo.UserGroupMemberBuilderFactory;
@@ -38,16 +41,20 @@ import org.soulwing.credo.UserProfileBuilderFactory;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
 import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.repository.UserProfileRepository;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
 import org.soulwing.credo.service.crypto.KeyGeneratorService;
 import org.soulwing.credo.service.crypto.KeyPairWrapper;
-import org.soulwing.credo.service.crypto.PKCS8EncryptionService;
 import org.soulwing.credo.service.crypto.PasswordEncryptionService;
+import org.soulwing.credo.service.crypto.ProfileKeyEncryptionService;
 import org.soulwing.credo.service.crypto.PublicKeyWrapper;
 import org.soulwing.credo.service.crypto.SecretKeyEncryptionService;
 import org.soulwing.credo.service.crypto.WrappedWith;
 
 /**
  * A concrete {@link UserProfileService} implementation.
+ * <p>
+ * The keys for a new profile are generated and encrypted using the
+ * {@link CryptoExecutionService}.
  *
  * @author Carl Harris
  */
@@ -74,27 +81,31 @@ public class ConcreteUserProfileService
   
   @Inject
   protected UserContextService userContextService;
+
+  @Inject
+  protected UserContextSnapshot userContextSnapshot;
   
   @Inject
   protected PasswordEncryptionService passwordEncryptionService;
   
   @Inject
-  protected PKCS8EncryptionService privateKeyEncryptionService;
+  protected ProfileKeyEncryptionService privateKeyEncryptionService;
   
-  @Inject @WrappedWith(WrappedWith.Type.RSA)
+  @Inject @WrappedWith(WrappedWith.Type.PUBLIC)
   protected SecretKeyEncryptionService secretKeyEncryptionService;
   
   @Inject
   protected KeyGeneratorService keyGeneratorService;
   
+  @Inject
+  protected CryptoExecutionService cryptoExecutionService;
+  
   /**
    * {@inheritDoc}
    */
   @Override
   public boolean isNewUser() {
-    UserProfile profile = profileRepository.findByLoginName(
-        userContextService.getLoginName());
-    return profile == null;
+    return userContextSnapshot.getProfileId() == null;
   }
 
   /**
@@ -102,10 +113,12 @@ public class ConcreteUserProfileService
    */
   @Override
   public UserProfile getLoggedInUserProfile() {
-    String loginName = userContextService.getLoginName();
-    UserProfile profile = profileRepository.findByLoginName(loginName);
+    Long profileId = userContextSnapshot.getProfileId();
+    UserProfile profile = profileId != null ?
+        profileRepository.findById(profileId) : null;
     if (profile == null) {
-      throw new IllegalStateException("no such user: " + loginName);
+      throw new IllegalStateException("no such user: " 
+          + userContextService.getLoginName());
     }
     return profile;
   }
@@ -137,18 +150,14 @@ public class ConcreteUserProfileService
   @Override
   public void createProfile(UserProfilePreparation preparation) {
     Validate.notNull(preparation.getPassword(), "password is required");
-    KeyPairWrapper keyPair = keyGeneratorService.generateKeyPair();    
-    PublicKeyWrapper publicKey = keyPair.getPublic();
+    ProfileKeys keys = generateKeys(preparation.getPassword());
     
     UserProfile user = profileBuilderFactory.newProfileBuilder()
         .setLoginName(preparation.getLoginName())
         .setFullName(preparation.getFullName())
-        .setPassword(passwordEncryptionService.encrypt(
-            preparation.getPassword()))
-        .setPublicKey(publicKey.getContent())
-        .setPrivateKey(privateKeyEncryptionService.encrypt(
-            keyPair.getPrivate(), 
-            preparation.getPassword()).getContent())
+        .setPassword(keys.password)
+        .setPublicKey(keys.publicKey)
+        .setPrivateKey(keys.privateKey)
         .build();
     
     UserGroup group = groupRepository.newGroup(UserGroup.SELF_GROUP_NAME);
@@ -156,14 +165,52 @@ public class ConcreteUserProfileService
     UserGroupMember groupMember = groupMemberBuilderFactory.newBuilder()
         .setUser(user)
         .setGroup(group)
-        .setSecretKey(secretKeyEncryptionService.encrypt(
-            keyGeneratorService.generateSecretKey(), 
-            publicKey.derive()).getContent())
+        .setSecretKey(keys.secretKey)
         .build();
     
     profileRepository.add(user);
     groupRepository.add(group);
     groupMemberRepository.add(groupMember);
+    userContextSnapshot.invalidate();
+  }
+
+  /**
+   * Generates and encrypts the keys for a new profile.
+   * @param password the user's password
+   * @return encoded keys
+   */
+  private ProfileKeys generateKeys(final Password password) {
+    try {
+      return cryptoExecutionService.execute(new Callable<ProfileKeys>() {
+        @Override
+        public ProfileKeys call() {
+          KeyPairWrapper keyPair = keyGeneratorService.generateKeyPair();    
+          PublicKeyWrapper publicKey = keyPair.getPublic();
+          ProfileKeys keys = new ProfileKeys();
+          keys.password = passwordEncryptionService.encrypt(password);
+          keys.publicKey = publicKey.getContent();
+          keys.privateKey = privateKeyEncryptionService.encrypt(
+              keyPair.getPrivate(), password).getContent();
+          keys.secretKey = secretKeyEncryptionService.encrypt(
+              keyGeneratorService.generateSecretKey(), 
+              publicKey.derive()).getContent();
+          return keys;
+        }
+      });
+    }
+    catch (ExecutionException ex) {
+      throw new RuntimeException(ex.getCause());
+    }
+  }
+  
+  /**
+   * The encoded keys for a new profile.
+   */
+  private static class ProfileKeys {
+    private String password;
+    private String publicKey;
+    private String privateKey;
+    private String secretKey;
   }
 
 }
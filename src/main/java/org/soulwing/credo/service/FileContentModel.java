@@ -21,8 +21,14 @@ package org.soulwing.credo.service;
 import java.io.IOException;
 import java.io.InputStream;
 
+import org.soulwing.credo.service.crypto.CredentialBag;
+
 /**
  * A model that describes the contents of a file-like entity. 
+ * <p>
+ * The raw content of the file is read (at most once) using the input 
+ * stream, and the credential objects parsed from it are thereafter held 
+ * by the model as its {@code content} property.
  *
  * @author Carl Harris
  */
@@ -37,8 +43,25 @@ public interface FileContentModel {
   /**
    * Gets an input stream that can be used to retrieve the receiver's content.
    * @return input stream
+   * @throws FileExpiredException if the uploaded content is no longer
+   *    available and must be uploaded again
    * @throws IOException
    */
   InputStream getInputStream() throws IOException;
   
+  /**
+   * Gets the credential objects that were parsed from the receiver's
+   * input stream.
+   * @return parsed content or {@code null} if the content has not yet
+   *    been parsed
+   */
+  CredentialBag getContent();
+  
+  /**
+   * Sets the credential objects that were parsed from the receiver's 
+   * input stream.
+   * @param content the parsed content to set
+   */
+  void setContent(CredentialBag content);
+  
 }
@@ -0,0 +1,34 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.io.IOException;
+
+/**
+ * An exception thrown when the content of an uploaded file is no longer
+ * available (e.g. after the user's session has been passivated or moved
+ * to another node) and the file must be uploaded again.
+ *
+ * @author Carl Harris
+ */
+public class FileExpiredException extends IOException {
+
+  private static final long serialVersionUID = -6107385538014624071L;
+
+}
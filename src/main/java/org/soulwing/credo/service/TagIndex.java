@@ -0,0 +1,61 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.ejb.Local;
+
+/**
+ * An in-memory index of the text of all tags, ordered so that the tags
+ * that begin with a given prefix can be found without a query.
+ * <p>
+ * The index is loaded when first used and is updated incrementally as
+ * tags are added.
+ *
+ * @author Carl Harris
+ */
+@Local
+public interface TagIndex {
+
+  /**
+   * Finds the text of the tags that begin with the given prefix, ignoring
+   * case.
+   * @param prefix the subject prefix; the empty string matches every tag
+   * @param limit maximum number of results to return
+   * @return list of matching tag text in ascending order (ignoring case);
+   *    contains at most {@code limit} elements
+   */
+  List<String> findByPrefix(String prefix, int limit);
+
+  /**
+   * Adds the given tag text values to the index.
+   * <p>
+   * Values that are already in the index are ignored.
+   * @param texts the text of tags that have been added
+   */
+  void addAll(Collection<String> texts);
+
+  /**
+   * Discards the index contents, so that it will be reloaded when next used.
+   */
+  void reload();
+
+}
@@ -0,0 +1,49 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+/**
+ * A bean that adds the text of new tags to the {@link TagIndex} once the
+ * transaction that resolved them has committed, so that a tag is not 
+ * offered as a completion when the entity for which it was added was 
+ * never saved.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class TagIndexUpdater {
+
+  @Inject
+  protected TagIndex tagIndex;
+
+  /**
+   * Notifies the receiver that tags have been added.
+   * @param event the event
+   */
+  public void onTagsAdded(@Observes(
+      during = TransactionPhase.AFTER_SUCCESS) TagsAddedEvent event) {
+    tagIndex.addAll(event.getTexts());
+  }
+
+}
@@ -19,6 +19,7 @@
 package org.soulwing.credo.service;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import javax.ejb.Local;
@@ -39,6 +40,15 @@ public interface TagService {
    */
   Collection<Tag> findAllTags();
 
+  /**
+   * Finds the text of the tags that begin with the given prefix, ignoring
+   * case.
+   * @param prefix the subject prefix; the empty string matches every tag
+   * @param limit maximum number of results to return
+   * @return list of matching tag text in ascending order (ignoring case)
+   */
+  List<String> findTagsByPrefix(String prefix, int limit);
+
   /**
    * Resolves the tag strings in the given array into a set of {@link Tag}
    * objects.
@@ -0,0 +1,47 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.util.Collection;
+
+import javax.ejb.Local;
+
+/**
+ * A component that adds new tags in a transaction of its own.
+ * <p>
+ * This allows {@link TagService} to recover when a concurrent transaction
+ * adds a tag with the same text, without affecting the transaction of
+ * the caller.
+ *
+ * @author Carl Harris
+ */
+@Local
+public interface TagWriter {
+
+  /**
+   * Adds tags for each of the given text values that does not match an
+   * existing tag.
+   * @param texts the subject text values
+   * @return {@code true} if all missing tags were added, {@code false} if
+   *    the tags could not be added because one or more of them was added
+   *    concurrently by another transaction
+   */
+  boolean addAllIfAbsent(Collection<String> texts);
+  
+}
@@ -0,0 +1,53 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.util.Collection;
+
+/**
+ * An event fired by the {@link TagService} when tags are added while 
+ * resolving the tags for an entity.
+ * <p>
+ * Observers that maintain state derived from the tags (such as the 
+ * {@link TagIndex}) should generally observe this event only after the 
+ * transaction in which it was fired completes successfully.
+ *
+ * @author Carl Harris
+ */
+public class TagsAddedEvent {
+
+  private final Collection<String> texts;
+
+  /**
+   * Constructs a new instance.
+   * @param texts text of the tags that were added
+   */
+  public TagsAddedEvent(Collection<String> texts) {
+    this.texts = texts;
+  }
+
+  /**
+   * Gets the text of the tags that were added.
+   * @return collection of tag text
+   */
+  public Collection<String> getTexts() {
+    return texts;
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.util.Set;
+
+/**
+ * A snapshot of the identity and group memberships of the logged-in user,
+ * taken once for each request.
+ * <p>
+ * The snapshot holds only unique identifiers, so that the corresponding
+ * entities can be found by ID in the persistence context (or the 
+ * second-level cache) of the caller's transaction.  It is populated when 
+ * first used, and records only what is accessible to the user; a group
+ * that is not in the snapshot might still exist (e.g. because it was
+ * added after the snapshot was taken), so a caller should fall back to
+ * the repository when a group cannot be found in the snapshot.
+ *
+ * @author Carl Harris
+ */
+public interface UserContextSnapshot {
+
+  /**
+   * Gets the unique identifier of the logged-in user's profile.
+   * @return profile ID or {@code null} if the user has no profile
+   */
+  Long getProfileId();
+
+  /**
+   * Gets the unique identifier of a group that is accessible to the
+   * logged-in user.
+   * @param groupName name of the subject group; the 
+   *    {@link org.soulwing.credo.UserGroup#SELF_GROUP_NAME} matches the
+   *    user's self group
+   * @return group ID or {@code null} if the snapshot contains no group
+   *    named {@code groupName}
+   */
+  Long getGroupId(String groupName);
+
+  /**
+   * Gets the unique identifiers of all groups that are accessible to the
+   * logged-in user; i.e. the groups for which the user is a member and all
+   * of their descendants.
+   * @return set of group IDs
+   */
+  Set<Long> getGroupIds();
+
+  /**
+   * Discards the snapshot, so that it will be taken again when next used.
+   * <p>
+   * This method should be invoked after any change that affects the 
+   * logged-in user's profile or the groups that are accessible to the user.
+   */
+  void invalidate();
+
+}
@@ -18,7 +18,7 @@
  */
 package org.soulwing.credo.service.archive;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
@@ -28,16 +28,22 @@ import java.io.Writer;
 
 /**
  * An abstract base for {@link ArchiveBuilder} implementations.
+ * <p>
+ * Entry content is encoded as it is added and written to the stream
+ * provided by the subclass, so that an archive can be written to its 
+ * target output stream without buffering the entire archive in memory.
  *
  * @author Carl Harris
  */
 abstract class AbstractArchiveBuilder implements ArchiveBuilder {
 
-  protected final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+  private static final int BUFFER_SIZE = 8192;
   
-  private ByteArrayOutputStream content;
+  private final char[] buf = new char[BUFFER_SIZE];
   
-  private String charset;
+  private boolean entryInProgress;
+  
+  private Writer writer;
   
   /**
    * {@inheritDoc}
@@ -46,9 +52,20 @@ abstract class AbstractArchiveBuilder implements ArchiveBuilder {
   public final ArchiveBuilder beginEntry(String name, String charset)
       throws IOException {
     assertEntryInProgress(false);
-    this.charset = charset;
-    this.content = new ByteArrayOutputStream();
     onBeginEntry(name, charset);
+    writer = new OutputStreamWriter(getEntryOutputStream(), charset);
+    entryInProgress = true;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public final ArchiveBuilder beginEntry(String name) throws IOException {
+    assertEntryInProgress(false);
+    onBeginEntry(name, null);
+    entryInProgress = true;
     return this;
   }
 
@@ -62,7 +79,14 @@ abstract class AbstractArchiveBuilder implements ArchiveBuilder {
   public final ArchiveBuilder addContent(Reader content)
       throws IOException {
     assertEntryInProgress(true);
-    writeContent(content, charset);
+    if (writer == null) {
+      throw new IllegalStateException("entry has no character encoding");
+    }
+    int numRead = content.read(buf);
+    while (numRead != -1) {
+      writer.write(buf, 0, numRead);
+      numRead = content.read(buf);
+    }
     return this;
   }
 
@@ -74,57 +98,85 @@ abstract class AbstractArchiveBuilder implements ArchiveBuilder {
     return addContent(new StringReader(content));
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public final ArchiveBuilder addContent(byte[] content) throws IOException {
+    assertEntryInProgress(true);
+    if (writer != null) {
+      writer.flush();
+    }
+    getEntryOutputStream().write(content);
+    return this;
+  }
+
   /**
    * {@inheritDoc}
    */
   @Override
   public final ArchiveBuilder endEntry() throws IOException {
     assertEntryInProgress(true);
-    content.flush();
-    content.close();
-    byte[] buf = content.toByteArray();
-    beforeWriteEntry(buf);
-    getOutputStream().write(buf);
+    if (writer != null) {
+      // don't close the writer; that would close the archive stream
+      writer.flush();
+      writer = null;
+    }
+    entryInProgress = false;
     onEndEntry();
-    charset = null;
     return this;
   }
 
-  protected void beforeWriteEntry(byte[] content) throws IOException {    
-  }
-  
   protected abstract void onEndEntry() throws IOException;
   
   /**
    * {@inheritDoc}
    */
   @Override
-  public byte[] build() throws IOException {
+  public final void finish() throws IOException {
     assertEntryInProgress(false);
-    onBuild();
-    return buffer.toByteArray();
+    onFinish();
   }
 
-  protected abstract void onBuild() throws IOException;
+  protected abstract void onFinish() throws IOException;
   
-  protected abstract OutputStream getOutputStream();
+  /**
+   * Gets the output stream to which the content of the current entry is
+   * to be written.
+   * @return output stream
+   */
+  protected abstract OutputStream getEntryOutputStream();
   
-  private void writeContent(Reader reader, String charset) throws IOException {
-    Writer writer = new OutputStreamWriter(content, charset);
-    char[] buf = new char[8192];
-    int numRead = reader.read(buf);
-    while (numRead != -1) {
-      writer.write(buf, 0, numRead);
-      numRead = reader.read(buf);
-    }
-    writer.flush();
-  }
-
   private void assertEntryInProgress(boolean state) {
-    if (state != (charset != null)) {
+    if (state != entryInProgress) {
       throw new IllegalStateException("illegal entry state");
     }
   }
 
+  /**
+   * An output stream filter that flushes but does not close the
+   * underlying stream when closed.
+   * <p>
+   * This allows a builder to close the chain of streams it creates in 
+   * order to write trailing content, without closing the target stream 
+   * provided by the caller.
+   */
+  protected static class UnclosableOutputStream extends FilterOutputStream {
+
+    public UnclosableOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+    }
+
+  }
 
 }
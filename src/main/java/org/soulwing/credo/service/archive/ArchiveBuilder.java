@@ -23,6 +23,9 @@ import java.io.Reader;
 
 /**
  * A builder for a archive resource (e.g. a ZIP archive).
+ * <p>
+ * A builder writes the archive to the output stream it was created with
+ * as entries are added.
  *
  * @author Carl Harris
  */
@@ -37,6 +40,17 @@ public interface ArchiveBuilder {
    */
   ArchiveBuilder beginEntry(String name, String charset) throws IOException;
   
+  /**
+   * Begins a new binary entry in the receiver.
+   * <p>
+   * Content may be added to a binary entry only using 
+   * {@link #addContent(byte[])}.
+   * @param name name for the entry
+   * @return the recevier
+   * @throws IOException
+   */
+  ArchiveBuilder beginEntry(String name) throws IOException;
+  
   /**
    * Adds content to the current entry of the receiver.
    * @param content the content to add
@@ -52,6 +66,14 @@ public interface ArchiveBuilder {
    * @throws IOException
    */
   ArchiveBuilder addContent(String content) throws IOException;
+
+  /**
+   * Adds binary content to the current entry of the receiver.
+   * @param content the content to add
+   * @return the receiver
+   * @throws IOException
+   */
+  ArchiveBuilder addContent(byte[] content) throws IOException;
   
 
   /**
@@ -62,9 +84,12 @@ public interface ArchiveBuilder {
   ArchiveBuilder endEntry() throws IOException;
   
   /**
-   * Builds the archive represented by the receiver's configuration.
-   * @return byte array containing archive content
+   * Finishes the archive represented by the receiver's configuration.
+   * <p>
+   * Any trailing content required by the archive format is written and
+   * the output stream is flushed.  The output stream is not closed.
+   * @throws IOException
    */ 
-  byte[] build() throws IOException;
+  void finish() throws IOException;
   
 }
@@ -18,6 +18,8 @@
  */
 package org.soulwing.credo.service.archive;
 
+import java.io.OutputStream;
+
 /**
  * A factory that produces {@link ArchiveBuilder} objects. 
  *
@@ -27,8 +29,9 @@ public interface ArchiveBuilderFactory {
 
   /**
    * Creates a new archive builder.
-   * @return
+   * @param outputStream the stream to which the archive will be written
+   * @return builder
    */
-  ArchiveBuilder newBuilder();
+  ArchiveBuilder newBuilder(OutputStream outputStream);
   
 }
@@ -18,6 +18,7 @@
  */
 package org.soulwing.credo.service.archive;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -28,6 +29,10 @@ import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 
 /**
  * An {@link ArchiveBuilder} that builds TAR.GZ archives.
+ * <p>
+ * A TAR entry header must specify the size of the entry, so the content 
+ * of each entry is buffered until the entry is ended.  The archive itself
+ * is compressed and written to the target stream entry by entry.
  *
  * @author Carl Harris
  */
@@ -39,18 +44,20 @@ public class TarGzipArchiveBuilder extends AbstractArchiveBuilder {
   private static final String GROUP_NAME = "daemon";
   private static final int MODE = TarArchiveEntry.DEFAULT_FILE_MODE & 0777400;
 
+  private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+  
   private final ArchiveOutputStream tos;
   
   private TarArchiveEntry entry;
 
-  public TarGzipArchiveBuilder() {
-    try {
-    }
-    catch (Exception ex) {
-      throw new RuntimeException(ex);
-    }
+  /**
+   * Constructs a new instance.
+   * @param outputStream the stream to which the archive will be written
+   */
+  public TarGzipArchiveBuilder(OutputStream outputStream) {
     try {
-      tos = new TarArchiveOutputStream(new GzipCompressorOutputStream(buffer));
+      tos = new TarArchiveOutputStream(new GzipCompressorOutputStream(
+          new UnclosableOutputStream(outputStream)));
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
@@ -63,27 +70,27 @@ public class TarGzipArchiveBuilder extends AbstractArchiveBuilder {
     entry.setIds(USER_ID, GROUP_ID);
     entry.setNames(USER_NAME, GROUP_NAME);
     entry.setMode(MODE);
-  }
-
-  @Override
-  protected void beforeWriteEntry(byte[] content) throws IOException {
-    entry.setSize(content.length);
-    tos.putArchiveEntry(entry);
+    content.reset();
   }
 
   @Override
   protected void onEndEntry() throws IOException {
+    entry.setSize(content.size());
+    tos.putArchiveEntry(entry);
+    content.writeTo(tos);
     tos.closeArchiveEntry();
+    content.reset();
   }
 
   @Override
-  protected void onBuild() throws IOException {
+  protected void onFinish() throws IOException {
+    // closing writes the TAR and GZIP trailers, but not the target stream
     tos.close();
   }
 
   @Override
-  protected OutputStream getOutputStream() {
-    return tos;
+  protected OutputStream getEntryOutputStream() {
+    return content;
   }
 
 }
@@ -25,12 +25,22 @@ import java.util.zip.ZipOutputStream;
 
 /**
  * An {@link ArchiveBuilder} that builds ZIP archives.
+ * <p>
+ * Entry content is compressed and written directly to the target stream.
  *
  * @author Carl Harris
  */
 public class ZipArchiveBuilder extends AbstractArchiveBuilder {
 
-  private final ZipOutputStream zos = new ZipOutputStream(buffer);
+  private final ZipOutputStream zos;
+  
+  /**
+   * Constructs a new instance.
+   * @param outputStream the stream to which the archive will be written
+   */
+  public ZipArchiveBuilder(OutputStream outputStream) {
+    this.zos = new ZipOutputStream(outputStream);
+  }
   
   /**
    * {@inheritDoc}
@@ -54,12 +64,13 @@ public class ZipArchiveBuilder extends AbstractArchiveBuilder {
    * {@inheritDoc}
    */
   @Override
-  public void onBuild() throws IOException {
-    zos.close();
+  public void onFinish() throws IOException {
+    zos.finish();
+    zos.flush();
   }
 
   @Override
-  protected OutputStream getOutputStream() {
+  protected OutputStream getEntryOutputStream() {
     return zos;
   }
 
@@ -18,6 +18,8 @@
  */
 package org.soulwing.credo.service.archive;
 
+import java.io.OutputStream;
+
 import javax.enterprise.context.ApplicationScoped;
 
 /**
@@ -34,8 +36,8 @@ public class ZipArchiveBuilderFactory implements ArchiveBuilderFactory {
    * {@inheritDoc}
    */
   @Override
-  public ArchiveBuilder newBuilder() {
-    return new ZipArchiveBuilder();
+  public ArchiveBuilder newBuilder(OutputStream outputStream) {
+    return new ZipArchiveBuilder(outputStream);
   }
 
 }
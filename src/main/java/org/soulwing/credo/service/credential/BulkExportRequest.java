@@ -0,0 +1,132 @@
+/*
+ * File created on May 14, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.util.List;
+
+import org.soulwing.credo.Credential;
+import org.soulwing.credo.Password;
+import org.soulwing.credo.service.ProtectionParameters;
+
+/**
+ * An object that describes a request to export several credentials in
+ * a single archive.
+ * <p>
+ * Each credential is exported using the same format, variant, and 
+ * export passphrase, into its own directory of the archive.
+ *
+ * @author Carl Harris
+ */
+public interface BulkExportRequest {
+
+  /**
+   * Gets the credentials to be exported.
+   * @return credentials
+   */
+  List<Credential> getCredentials();
+  
+  /**
+   * Gets the base filename to assign to the archive.
+   * @return file name
+   */
+  String getFileName();
+  
+  /**
+   * Sets the base filename to assign to the archive.
+   * @param fileName the file name to set
+   */
+  void setFileName(String fileName);
+  
+  /**
+   * Gets the filename to assign to the archive with the default suffix 
+   * appended, if needed.
+   * @param suffix the default suffix to append
+   * @return filename
+   */
+  String getSuffixedFileName(String suffix);
+  
+  /**
+   * Gets the passphrase that will be used to protect each exported
+   * credential.
+   * @return export passphrase or {@code null} if none has been set
+   */
+  Password getExportPassphrase();
+  
+  /**
+   * Sets the passphrase that will be used to protect each exported
+   * credential.
+   * @param exportPassphrase the export passphrase to set
+   */
+  void setExportPassphrase(Password exportPassphrase);
+
+  /**
+   * Gets the format for the exported credentials.
+   * @return export format identifier
+   */
+  String getFormat();
+  
+  /**
+   * Sets the format for the exported credentials.
+   * @param format the export format to set
+   */
+  void setFormat(String format);
+
+  /**
+   * Gets the format variant for the exported credentials.
+   * @return format variant identifier
+   */
+  String getVariant();
+  
+  /**
+   * Sets the format variant for the exported credentials.
+   * @param variant the format variant to set
+   */
+  void setVariant(String variant);
+  
+  /**
+   * Gets the variant of the archive that will contain the exported
+   * credentials.
+   * @return archive variant identifier (see 
+   *    {@link ExportService#getArchiveVariants()})
+   */
+  String getArchiveVariant();
+  
+  /**
+   * Sets the variant of the archive that will contain the exported
+   * credentials.
+   * @param archiveVariant the archive variant to set
+   */
+  void setArchiveVariant(String archiveVariant);
+  
+  /**
+   * Gets the protection parameters assigned to this request.
+   * <p>
+   * Only the password is used; the owner group of each credential is
+   * determined by the credential itself.
+   * @return parameters object or {@code null} if none has been set
+   */
+  ProtectionParameters getProtectionParameters();
+  
+  /**
+   * Sets the protection parameters assigned to this request.
+   * @param parameters the parameters object to set
+   */
+  void setProtectionParameters(ProtectionParameters parameters);
+  
+}
@@ -0,0 +1,172 @@
+/*
+ * File created on May 14, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.soulwing.credo.Credential;
+import org.soulwing.credo.Password;
+import org.soulwing.credo.service.ProtectionParameters;
+
+/**
+ * A concrete {@link BulkExportRequest} implementation.
+ *
+ * @author Carl Harris
+ */
+public class BulkExportRequestBean 
+    implements Serializable, BulkExportRequest {
+
+  private static final long serialVersionUID = 5172730491862243418L;
+
+  static final String DEFAULT_FILE_NAME = "credentials";
+  
+  private final List<Credential> credentials;
+  
+  private Password exportPassphrase;
+  private String fileName = DEFAULT_FILE_NAME;  
+  private String format;
+  private String variant;
+  private String archiveVariant;
+  private ProtectionParameters protectionParameters;
+  
+  /**
+   * Constructs a new instance.
+   * @param credentials
+   */
+  public BulkExportRequestBean(List<Credential> credentials) {
+    this.credentials = credentials;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<Credential> getCredentials() {
+    return credentials;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setFileName(String fileName) {
+    this.fileName = fileName;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getSuffixedFileName(String suffix) {
+    if (fileName.indexOf('.') != -1) {
+      return fileName;
+    }
+    return fileName + suffix;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Password getExportPassphrase() {
+    return exportPassphrase;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setExportPassphrase(Password exportPassphrase) {
+    this.exportPassphrase = exportPassphrase;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getFormat() {    
+    return format;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setFormat(String format) {
+    this.format = format;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getVariant() {
+    return variant;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setVariant(String variant) {
+    this.variant = variant;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getArchiveVariant() {
+    return archiveVariant;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setArchiveVariant(String archiveVariant) {
+    this.archiveVariant = archiveVariant;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ProtectionParameters getProtectionParameters() {
+    return protectionParameters;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setProtectionParameters(ProtectionParameters parameters) {
+    this.protectionParameters = parameters;
+  }
+  
+}
@@ -0,0 +1,75 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A report of the results of a bulk import.
+ *
+ * @author Carl Harris
+ */
+public class BulkImportReport implements Serializable {
+
+  private static final long serialVersionUID = 8811375287734802361L;
+
+  private final List<BulkImportResult> results = new ArrayList<>();
+
+  private int importedCount;
+  
+  /**
+   * Gets the results for each item, in the order in which the items were
+   * read.
+   * @return list of results
+   */
+  public List<BulkImportResult> getResults() {
+    return Collections.unmodifiableList(results);
+  }
+  
+  /**
+   * Gets the number of items that were imported.
+   * @return count of imported items
+   */
+  public int getImportedCount() {
+    return importedCount;
+  }
+  
+  /**
+   * Gets the number of items that failed to import.
+   * @return count of failed items
+   */
+  public int getFailedCount() {
+    return results.size() - importedCount;
+  }
+  
+  /**
+   * Adds a result to the receiver.
+   * @param result the result to add
+   */
+  void addResult(BulkImportResult result) {
+    results.add(result);
+    if (result.getStatus() == BulkImportResult.Status.IMPORTED) {
+      importedCount++;
+    }
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.Serializable;
+
+import org.soulwing.credo.Password;
+import org.soulwing.credo.service.ProtectionParameters;
+
+/**
+ * A request to import many credentials at once.
+ * <p>
+ * The tags, note, and protection parameters of the request apply to every
+ * credential that is imported.
+ *
+ * @author Carl Harris
+ */
+public class BulkImportRequest implements Serializable {
+
+  private static final long serialVersionUID = 2514389076224470715L;
+
+  private Password passphrase;
+  private String[] tags = new String[0];
+  private String note;
+  private ProtectionParameters protectionParameters;
+
+  /**
+   * Gets the passphrase for the private keys in the imported content.
+   * @return passphrase (which may be {@code null} or empty)
+   */
+  public Password getPassphrase() {
+    return passphrase;
+  }
+
+  /**
+   * Sets the passphrase for the private keys in the imported content.
+   * @param passphrase the passphrase to set
+   */
+  public void setPassphrase(Password passphrase) {
+    this.passphrase = passphrase;
+  }
+
+  /**
+   * Gets the tags to apply to each imported credential.
+   * @return array of tag text
+   */
+  public String[] getTags() {
+    return tags;
+  }
+
+  /**
+   * Sets the tags to apply to each imported credential.
+   * @param tags the tags to set
+   */
+  public void setTags(String[] tags) {
+    this.tags = tags;
+  }
+
+  /**
+   * Gets the note to apply to each imported credential.
+   * @return note
+   */
+  public String getNote() {
+    return note;
+  }
+
+  /**
+   * Sets the note to apply to each imported credential.
+   * @param note the note to set
+   */
+  public void setNote(String note) {
+    this.note = note;
+  }
+
+  /**
+   * Gets the parameters used to protect the private key of each imported
+   * credential.
+   * @return protection parameters
+   */
+  public ProtectionParameters getProtectionParameters() {
+    return protectionParameters;
+  }
+
+  /**
+   * Sets the parameters used to protect the private key of each imported
+   * credential.
+   * @param protectionParameters the protection parameters to set
+   */
+  public void setProtectionParameters(
+      ProtectionParameters protectionParameters) {
+    this.protectionParameters = protectionParameters;
+  }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.Serializable;
+
+/**
+ * The result of importing a single item of a bulk import.
+ *
+ * @author Carl Harris
+ */
+public class BulkImportResult implements Serializable {
+
+  private static final long serialVersionUID = -4472297811906513032L;
+
+  public enum Status {
+    IMPORTED,
+    FAILED;
+  }
+  
+  private final String itemName;
+  private final Status status;
+  private final String credentialName;
+  private final String message;
+  private final Object[] args;
+
+  /**
+   * Constructs a new instance.
+   * @param itemName name of the imported item
+   * @param status import status
+   * @param credentialName name of the imported credential (if any)
+   * @param message message key describing the reason for failure (if any)
+   * @param args arguments for {@code message}
+   */
+  public BulkImportResult(String itemName, Status status,
+      String credentialName, String message, Object... args) {
+    this.itemName = itemName;
+    this.status = status;
+    this.credentialName = credentialName;
+    this.message = message;
+    this.args = args;
+  }
+
+  /**
+   * Gets the name of the imported item.
+   * <p>
+   * The name is derived from the directory or file names of the item's
+   * files.
+   * @return item name
+   */
+  public String getItemName() {
+    return itemName;
+  }
+
+  /**
+   * Gets the import status.
+   * @return status
+   */
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Gets the name of the imported credential.
+   * @return credential name or {@code null} if the item was not imported
+   */
+  public String getCredentialName() {
+    return credentialName;
+  }
+
+  /**
+   * Gets the key of the message that describes the reason the item was
+   * not imported.
+   * @return message key or {@code null} if the item was imported
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * Gets the arguments for the message.
+   * @return message arguments
+   */
+  public Object[] getArgs() {
+    return args;
+  }
+
+}
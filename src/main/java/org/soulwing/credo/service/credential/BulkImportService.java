@@ -0,0 +1,86 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.File;
+import java.io.InputStream;
+
+import javax.ejb.Local;
+
+import org.soulwing.credo.service.Errors;
+import org.soulwing.credo.service.GroupAccessException;
+import org.soulwing.credo.service.PassphraseException;
+import org.soulwing.credo.service.group.NoSuchGroupException;
+
+/**
+ * A service that imports many credentials at once.
+ * <p>
+ * The content to import is given as an archive or a directory.  The files
+ * in each directory (or files at the top level with the same base name)
+ * are imported as a single credential.  Items that cannot be imported 
+ * are reported as failures without preventing the import of other items.
+ *
+ * @author Carl Harris
+ */
+@Local
+public interface BulkImportService {
+
+  /**
+   * Imports the credentials contained in an archive.
+   * @param archiveName name of the archive; a ZIP, TAR, or gzip-compressed
+   *    TAR archive is identified by its suffix
+   * @param inputStream input stream from which the archive will be read
+   * @param request import request
+   * @param errors an errors object that will be updated if an error 
+   *    prevents the import of all items
+   * @return report of the results for each item in the archive
+   * @throws ImportException if the archive cannot be read
+   * @throws NoSuchGroupException if the specified protection group does
+   *    not exist and cannot be created
+   * @throws GroupAccessException if the logged-in user is not a member of 
+   *    the specified protection group
+   * @throws PassphraseException if the password given in the protection
+   *    parameters is incorrect
+   */
+  BulkImportReport importArchive(String archiveName, InputStream inputStream,
+      BulkImportRequest request, Errors errors) 
+      throws ImportException, NoSuchGroupException, GroupAccessException,
+      PassphraseException;
+
+  /**
+   * Imports the credentials contained in a directory.
+   * @param directory the directory on the server that contains the 
+   *    content to import
+   * @param request import request
+   * @param errors an errors object that will be updated if an error 
+   *    prevents the import of all items
+   * @return report of the results for each item in the directory
+   * @throws ImportException if the directory cannot be read
+   * @throws NoSuchGroupException if the specified protection group does
+   *    not exist and cannot be created
+   * @throws GroupAccessException if the logged-in user is not a member of 
+   *    the specified protection group
+   * @throws PassphraseException if the password given in the protection
+   *    parameters is incorrect
+   */
+  BulkImportReport importDirectory(File directory, BulkImportRequest request,
+      Errors errors) throws ImportException, NoSuchGroupException, 
+      GroupAccessException, PassphraseException;
+
+}
@@ -0,0 +1,428 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.EJBException;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soulwing.credo.Credential;
+import org.soulwing.credo.Password;
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.service.Errors;
+import org.soulwing.credo.service.GroupAccessException;
+import org.soulwing.credo.service.NoContentException;
+import org.soulwing.credo.service.PassphraseException;
+import org.soulwing.credo.service.TagService;
+import org.soulwing.credo.service.credential.BulkImportResult.Status;
+import org.soulwing.credo.service.crypto.CredentialBag;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
+import org.soulwing.credo.service.crypto.ObjectLimitException;
+import org.soulwing.credo.service.group.NoSuchGroupException;
+import org.soulwing.credo.service.importer.CredentialImporter;
+import org.soulwing.credo.service.importer.CredentialImporterFactory;
+
+/**
+ * A concrete {@link BulkImportService} implementation.
+ * <p>
+ * Items are processed in batches of {@link #BATCH_SIZE}.  The items of
+ * a batch are parsed and validated using the {@link CryptoExecutionService},
+ * with no more than {@link #MAX_CONCURRENT_IMPORTS} in flight at any given
+ * time, and the content of each item is discarded once it has been parsed.
+ * The credentials for the valid items of the batch are then saved
+ * by the {@link BulkImportWriter} in a transaction of their own, so that
+ * no transaction spans the entire import.  The tags of the request are
+ * resolved (and any new tags added) just once for all batches.
+ * <p>
+ * The limits on file size and the number of objects in each file are
+ * shared with {@link ImportServiceBean}.  The number of files in an
+ * archive or directory and their total size can be limited using the 
+ * {@code import/maxBulkFileCount} and {@code import/maxBulkSize} 
+ * environment entries.
+ *
+ * @author Carl Harris
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class BulkImportServiceBean implements BulkImportService {
+
+  private static final Logger logger = 
+      LoggerFactory.getLogger(BulkImportServiceBean.class);
+  
+  static final int BATCH_SIZE = 50;
+  
+  static final int MAX_CONCURRENT_IMPORTS = 4;
+  
+  static final int MAX_FILE_COUNT = 50000;
+  
+  static final long MAX_TOTAL_SIZE = 67108864;
+
+  @Resource(name = "import/maxFileSize")
+  protected long maxFileSize = ImportServiceBean.MAX_FILE_SIZE;
+  
+  @Resource(name = "import/maxObjectCount")
+  protected int maxObjectCount = ImportServiceBean.MAX_OBJECT_COUNT;
+
+  @Resource(name = "import/maxBulkFileCount")
+  protected int maxFileCount = MAX_FILE_COUNT;
+  
+  @Resource(name = "import/maxBulkSize")
+  protected long maxTotalSize = MAX_TOTAL_SIZE;
+  
+  @Inject
+  protected Instance<CredentialBag> bags;
+
+  @Inject
+  protected CredentialImporterFactory importerFactory;
+  
+  @Inject
+  protected TagService tagService;
+  
+  @Inject
+  protected BulkImportWriter writer;
+  
+  @Inject
+  protected CryptoExecutionService cryptoExecutionService;
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public BulkImportReport importArchive(String archiveName,
+      InputStream inputStream, BulkImportRequest request, Errors errors)
+      throws ImportException, NoSuchGroupException, GroupAccessException,
+      PassphraseException {
+    if (!ImportItemReader.isSupportedArchive(archiveName)) {
+      errors.addError("bulkImportUnsupportedArchive", archiveName);
+      throw new ImportException();
+    }
+    ImportItemReader reader = new ImportItemReader(maxFileSize, 
+        maxFileCount, maxTotalSize);
+    try {
+      reader.readArchive(archiveName, inputStream);
+    }
+    catch (IOException ex) {
+      readFailed(reader, archiveName, ex, errors);
+    }
+    return importItems(reader.getItems(), request, errors);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+  public BulkImportReport importDirectory(File directory,
+      BulkImportRequest request, Errors errors) throws ImportException,
+      NoSuchGroupException, GroupAccessException, PassphraseException {
+    if (!directory.isDirectory()) {
+      errors.addError("bulkImportNoSuchDirectory", directory);
+      throw new ImportException();
+    }
+    ImportItemReader reader = new ImportItemReader(maxFileSize, 
+        maxFileCount, maxTotalSize);
+    try {
+      reader.readDirectory(directory);
+    }
+    catch (IOException ex) {
+      readFailed(reader, directory.toString(), ex, errors);
+    }
+    return importItems(reader.getItems(), request, errors);
+  }
+
+  private void readFailed(ImportItemReader reader, String sourceName,
+      IOException ex, Errors errors) throws ImportException {
+    if (ex instanceof FileSizeLimitException) {
+      errors.addError("importFileTooLarge", reader.getFileName(), 
+          maxFileSize);
+    }
+    else if (ex instanceof ObjectLimitException) {
+      errors.addError("bulkImportTooManyFiles", sourceName, maxFileCount);
+    }
+    else if (ex instanceof TotalSizeLimitException) {
+      errors.addError("bulkImportTooLarge", sourceName, maxTotalSize);
+    }
+    else {
+      logger.debug("error reading " + sourceName, ex);
+      errors.addError("importReadError", sourceName);
+    }
+    throw new ImportException();
+  }
+
+  private BulkImportReport importItems(Collection<ImportItem> items,
+      BulkImportRequest request, Errors errors) throws ImportException,
+      NoSuchGroupException, GroupAccessException, PassphraseException {
+    if (items.isEmpty()) {
+      errors.addError("bulkImportNoItems");
+      throw new ImportException();
+    }
+    
+    Set<? extends Tag> tags = tagService.resolve(request.getTags());
+    BulkImportReport report = new BulkImportReport();
+    Iterator<ImportItem> i = items.iterator();
+    while (i.hasNext()) {
+      List<ImportTask> tasks = new ArrayList<>(BATCH_SIZE);
+      while (i.hasNext() && tasks.size() < BATCH_SIZE) {
+        tasks.add(newImportTask(i.next(), request));
+      }
+      runImportTasks(tasks, errors);
+      saveCredentials(tasks, tags, request, report, errors);
+    }
+    return report;
+  }
+
+  private ImportTask newImportTask(ImportItem item, 
+      BulkImportRequest request) {
+    return new ImportTask(item, bags.get(), importerFactory.newImporter(),
+        request.getPassphrase(), maxObjectCount, maxFileSize);
+  }
+  
+  /**
+   * Runs the given import tasks using the crypto execution service, no 
+   * more than {@link #MAX_CONCURRENT_IMPORTS} at a time.
+   * @param tasks the tasks to run
+   * @param errors errors object that will be updated if the tasks are 
+   *    not admitted
+   * @throws ImportException if the tasks are not admitted, or if 
+   *    interrupted while waiting for the tasks to complete
+   */
+  private void runImportTasks(List<ImportTask> tasks, Errors errors) 
+      throws ImportException {
+    try {
+      cryptoExecutionService.executeAll(tasks, MAX_CONCURRENT_IMPORTS);
+    }
+    catch (CryptoOverloadException ex) {
+      errors.addError("cryptoBusy", new Object[] { ex.getRetryAfter() });
+      throw new ImportException();
+    }
+    catch (ExecutionException ex) {
+      // tasks do not throw checked exceptions, so we were interrupted
+      throw new ImportException();
+    }
+  }
+
+  /**
+   * Saves the credentials for the successfully imported items of a batch
+   * and adds the result for each item of the batch to the report.
+   */
+  private void saveCredentials(List<ImportTask> tasks,
+      Set<? extends Tag> tags, BulkImportRequest request,
+      BulkImportReport report, Errors errors) 
+      throws NoSuchGroupException, GroupAccessException, 
+      PassphraseException {
+    List<ImportDetails> details = new ArrayList<>(tasks.size());
+    for (ImportTask task : tasks) {
+      if (task.getDetails() != null) {
+        task.getDetails().setNote(request.getNote());
+        details.add(task.getDetails());
+      }
+    }
+    
+    List<Credential> credentials = new ArrayList<>();
+    String failure = null;
+    if (!details.isEmpty()) {
+      try {
+        credentials = writer.saveCredentials(details, tags,
+            request.getProtectionParameters(), errors);
+      }
+      catch (EJBException ex) {
+        logger.error("error saving imported credentials", ex);
+        failure = "bulkImportSaveFailed";
+      }
+    }
+    
+    Iterator<Credential> i = credentials.iterator();
+    for (ImportTask task : tasks) {
+      String itemName = task.getItem().getName();
+      if (task.getDetails() == null) {
+        report.addResult(new BulkImportResult(itemName, Status.FAILED, null, 
+            task.getErrors().getMessage(), task.getErrors().getArgs()));
+      }
+      else if (failure != null) {
+        report.addResult(new BulkImportResult(itemName, Status.FAILED, null,
+            failure));
+      }
+      else {
+        report.addResult(new BulkImportResult(itemName, Status.IMPORTED,
+            i.next().getName(), null));
+      }
+    }
+  }
+
+  /**
+   * A task that parses and validates the content of a single item.
+   */
+  private static class ImportTask implements Callable<ImportDetails> {
+
+    private final ItemErrors errors = new ItemErrors();
+    private final ImportItem item;
+    private final CredentialBag bag;
+    private final CredentialImporter importer;
+    private final Password passphrase;
+    private final int maxObjectCount;
+    private final long maxFileSize;
+    
+    private ImportDetails details;
+    
+    public ImportTask(ImportItem item, CredentialBag bag,
+        CredentialImporter importer, Password passphrase, 
+        int maxObjectCount, long maxFileSize) {
+      this.item = item;
+      this.bag = bag;
+      this.importer = importer;
+      this.passphrase = passphrase;
+      this.maxObjectCount = maxObjectCount;
+      this.maxFileSize = maxFileSize;
+    }
+
+    public ImportItem getItem() {
+      return item;
+    }
+
+    public ItemErrors getErrors() {
+      return errors;
+    }
+    
+    public ImportDetails getDetails() {
+      return details;
+    }
+    
+    @Override
+    public ImportDetails call() {
+      try {
+        for (int i = 0; i < item.getContents().size(); i++) {
+          loadContent(item.getFileNames().get(i), 
+              item.getContents().get(i));
+        }
+        importer.loadContent(bag);
+        details = importer.validateAndImport(passphrase, errors);
+      }
+      catch (NoContentException ex) {
+        errors.addError("importNoContent", item.getName());
+      }
+      catch (ImportException ex) {
+        errors.addError("bulkImportInvalidItem", item.getName());
+      }
+      catch (PassphraseException ex) {
+        errors.addError("bulkImportPassphraseRequired", item.getName());
+      }
+      catch (RuntimeException ex) {
+        // a malformed item must not prevent the import of other items
+        logger.warn("error importing " + item.getName(), ex);
+        errors.addError("bulkImportInvalidItem", item.getName());
+      }
+      finally {
+        // the parsed objects are retained in the bag
+        item.discardContents();
+      }
+      return details;
+    }
+
+    private void loadContent(String fileName, byte[] content) 
+        throws ImportException {
+      try (InputStream inputStream = new ByteArrayInputStream(content)) {
+        bag.addAllObjects(inputStream, maxObjectCount, maxFileSize);
+      }
+      catch (ObjectLimitException ex) {
+        errors.addError("importTooManyObjects", fileName, maxObjectCount);
+        throw new ImportException();
+      }
+      catch (IOException ex) {
+        errors.addError("importReadError", fileName);
+        throw new ImportException();
+      }
+    }
+
+  }
+  
+  /**
+   * An {@link Errors} implementation that retains the first error
+   * reported for an item.
+   */
+  private static class ItemErrors implements Errors {
+
+    private static final long serialVersionUID = 6036563993651398247L;
+
+    private String message;
+    private Object[] args;
+    
+    public String getMessage() {
+      return message;
+    }
+    
+    public Object[] getArgs() {
+      return args;
+    }
+    
+    @Override
+    public boolean hasErrors() {
+      return message != null;
+    }
+
+    @Override
+    public boolean hasWarnings() {
+      return false;
+    }
+
+    @Override
+    public void addError(String message, Object... args) {
+      if (this.message != null) return;
+      this.message = message;
+      this.args = args;
+    }
+
+    @Override
+    public void addError(String clientId, String message, Object... args) {
+      addError(message, args);
+    }
+
+    @Override
+    public void addWarning(String message, Object... args) {
+    }
+
+    @Override
+    public void addWarning(String clientId, String message, 
+        Object... args) {
+    }
+    
+  }
+  
+}
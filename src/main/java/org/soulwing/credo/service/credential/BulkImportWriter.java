@@ -0,0 +1,66 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.ejb.Local;
+
+import org.soulwing.credo.Credential;
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.service.Errors;
+import org.soulwing.credo.service.GroupAccessException;
+import org.soulwing.credo.service.PassphraseException;
+import org.soulwing.credo.service.ProtectionParameters;
+import org.soulwing.credo.service.group.NoSuchGroupException;
+
+/**
+ * A writer that saves a batch of imported credentials.
+ * <p>
+ * This is a separate component from {@link BulkImportService} so that
+ * each batch is saved in a transaction of its own.
+ *
+ * @author Carl Harris
+ */
+@Local
+public interface BulkImportWriter {
+
+  /**
+   * Creates, protects, and saves a credential for each of the given
+   * import details in a new transaction.
+   * @param details details of the imported credentials
+   * @param tags resolved tags to apply to each credential
+   * @param protection protection parameters for the private keys
+   * @param errors an errors object that will be updated if an error 
+   *    prevents the batch from being saved
+   * @return the saved credentials, in the same order as {@code details}
+   * @throws NoSuchGroupException if the specified protection group does
+   *    not exist and cannot be created
+   * @throws GroupAccessException if the logged-in user is not a member of 
+   *    the specified protection group
+   * @throws PassphraseException if the password given in the protection
+   *    parameters is incorrect
+   */
+  List<Credential> saveCredentials(List<ImportDetails> details,
+      Set<? extends Tag> tags, ProtectionParameters protection, 
+      Errors errors) throws NoSuchGroupException, GroupAccessException,
+      PassphraseException;
+
+}
@@ -0,0 +1,126 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.soulwing.credo.Credential;
+import org.soulwing.credo.CredentialBuilderFactory;
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.repository.CredentialRepository;
+import org.soulwing.credo.security.OwnerAccessControlException;
+import org.soulwing.credo.service.Errors;
+import org.soulwing.credo.service.GroupAccessException;
+import org.soulwing.credo.service.PassphraseException;
+import org.soulwing.credo.service.ProtectionParameters;
+import org.soulwing.credo.service.UserAccessException;
+import org.soulwing.credo.service.group.GroupResolver;
+import org.soulwing.credo.service.group.NoSuchGroupException;
+import org.soulwing.credo.service.protect.CredentialProtectionService;
+
+/**
+ * A {@link BulkImportWriter} implemented as a singleton EJB.
+ * <p>
+ * A batch is saved entirely or not at all; the transaction is marked 
+ * for rollback before any of the checked exceptions of 
+ * {@link #saveCredentials} is thrown.
+ *
+ * @author Carl Harris
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class BulkImportWriterBean implements BulkImportWriter {
+
+  @Inject
+  protected CredentialRepository credentialRepository;
+  
+  @Inject
+  protected CredentialBuilderFactory credentialBuilderFactory;
+  
+  @Inject
+  protected GroupResolver groupResolver;
+  
+  @Inject
+  protected CredentialProtectionService credentialProtectionService;
+  
+  @Resource
+  protected SessionContext sessionContext;
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+  public List<Credential> saveCredentials(List<ImportDetails> details,
+      Set<? extends Tag> tags, ProtectionParameters protection, 
+      Errors errors) throws NoSuchGroupException, GroupAccessException,
+      PassphraseException {
+    CredentialAssembler assembler = 
+        new CredentialAssembler(credentialBuilderFactory);
+    List<Credential> credentials = new ArrayList<>(details.size());
+    try {
+      UserGroup owner = groupResolver.resolveGroup(
+          protection.getGroupName(), errors);
+      for (ImportDetails item : details) {
+        Credential credential = assembler.assemble(item, tags);
+        credential.setOwner(owner);
+        credentialProtectionService.protect(credential, 
+            item.getPrivateKey(), protection);
+        credentialRepository.add(credential);
+        credentials.add(credential);
+      }
+      return credentials;
+    }
+    catch (UserAccessException ex) {
+      sessionContext.setRollbackOnly();
+      errors.addError("password", "passwordIncorrect");
+      throw new PassphraseException();
+    }
+    catch (GroupAccessException ex) {
+      sessionContext.setRollbackOnly();
+      errors.addError("owner", "groupAccessDenied", 
+          protection.getGroupName());
+      throw ex;
+    }
+    catch (NoSuchGroupException ex) {
+      sessionContext.setRollbackOnly();
+      errors.addError("owner", "credentialOwnerNotFound", 
+          protection.getGroupName());
+      throw ex;
+    }
+    catch (OwnerAccessControlException ex) {
+      sessionContext.setRollbackOnly();
+      errors.addError("groupAccessDenied", new Object[] { ex.getGroupName() });
+      throw new GroupAccessException(ex.getGroupName());
+    }
+  }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
+import javax.inject.Inject;
+
+import org.soulwing.credo.repository.CredentialChangeEvent;
+import org.soulwing.credo.repository.CredentialRepository;
+import org.soulwing.credo.service.TimeOfDayService;
+
+/**
+ * A concrete {@link ExpirationSummaryCache}.
+ * <p>
+ * Each summary is computed using a single query that retrieves only the 
+ * expiration dates within the longest window.  Because the credentials 
+ * accessible to a user depend on the group hierarchy, a change to any 
+ * credential invalidates every cached summary; the change is observed
+ * only after the transaction that made it has committed, so that a
+ * summary is never recomputed from uncommitted state.  Summaries that 
+ * were being computed when a change was observed are not cached.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class ConcreteExpirationSummaryCache 
+    implements ExpirationSummaryCache {
+
+  static final long DEFAULT_TIME_TO_LIVE = 300;
+
+  private final ConcurrentMap<String, Entry> entries = 
+      new ConcurrentHashMap<>();
+
+  private final AtomicLong generation = new AtomicLong();
+
+  @Resource(name = "credential/expirationSummaryTimeToLive")
+  protected long timeToLive = DEFAULT_TIME_TO_LIVE;
+
+  @Inject
+  protected CredentialRepository credentialRepository;
+
+  @Inject
+  protected TimeOfDayService timeOfDayService;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ExpirationSummary getSummary(String loginName) {
+    long currentGeneration = generation.get();
+    Date now = timeOfDayService.getCurrent();
+    Entry entry = entries.get(loginName);
+    if (entry != null && entry.generation == currentGeneration
+        && now.getTime() - entry.summary.getDateComputed().getTime()
+            < timeToLive * 1000) {
+      return entry.summary;
+    }
+
+    ExpirationSummary summary = new ExpirationSummary(now,
+        credentialRepository.findExpirationsByLoginName(loginName, now,
+            ExpirationWindow.longest().getEnd(now)));
+
+    Entry newEntry = new Entry(currentGeneration, summary);
+    entries.put(loginName, newEntry);
+    if (generation.get() != currentGeneration) {
+      entries.remove(loginName, newEntry);
+    }
+    return summary;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void clear() {
+    generation.incrementAndGet();
+    entries.clear();
+  }
+
+  /**
+   * Notifies the receiver that a credential has changed.
+   * @param event the change event
+   */
+  public void onCredentialChange(@Observes(
+      during = TransactionPhase.AFTER_SUCCESS) CredentialChangeEvent event) {
+    clear();
+  }
+
+  /**
+   * A cached summary and the generation in which it was computed.
+   */
+  private static class Entry {
+
+    private final long generation;
+    private final ExpirationSummary summary;
+
+    public Entry(long generation, ExpirationSummary summary) {
+      this.generation = generation;
+      this.summary = summary;
+    }
+
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.soulwing.credo.Credential;
+import org.soulwing.credo.CredentialBuilder;
+import org.soulwing.credo.CredentialBuilderFactory;
+import org.soulwing.credo.CredentialCertificate;
+import org.soulwing.credo.CredentialCertificateBuilder;
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.service.crypto.CertificateWrapper;
+
+/**
+ * An object that assembles a {@link Credential} from the details of
+ * an import.
+ *
+ * @author Carl Harris
+ */
+class CredentialAssembler {
+
+  private final CredentialBuilderFactory credentialBuilderFactory;
+
+  /**
+   * Constructs a new instance.
+   * @param credentialBuilderFactory factory for credential builders
+   */
+  public CredentialAssembler(
+      CredentialBuilderFactory credentialBuilderFactory) {
+    this.credentialBuilderFactory = credentialBuilderFactory;
+  }
+
+  /**
+   * Assembles a credential.
+   * @param details details of the imported credential
+   * @param tags resolved tags for the credential
+   * @return credential
+   */
+  public Credential assemble(ImportDetails details,
+      Set<? extends Tag> tags) {
+    CredentialBuilder builder = credentialBuilderFactory.newCredentialBuilder()
+        .setName(details.getName())
+        .setIssuer(details.getIssuerCommonName())
+        .setNote(details.getNote())
+        .setTags(tags)
+        .setExpiration(details.getNotAfter())
+        .setPrivateKey(details.getPrivateKey().getContent());
+    
+    for (CertificateWrapper certificate : details.getCertificates()) {
+      builder.addCertificate(createCertificate(certificate));
+    }
+    return builder.build();
+  }
+  
+  private CredentialCertificate createCertificate(
+      CertificateWrapper certificate) {
+    try {
+      CredentialCertificateBuilder builder =
+          credentialBuilderFactory.newCertificateBuilder();
+      builder.setSubject(certificate.getSubject());
+      builder.setIssuer(certificate.getIssuer());
+      builder.setSerialNumber(certificate.getSerialNumber());
+      builder.setNotBefore(certificate.getNotBefore());
+      builder.setNotAfter(certificate.getNotAfter());
+      builder.setContent(certificate.getContent());
+      return builder.build();
+    }
+    catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+}
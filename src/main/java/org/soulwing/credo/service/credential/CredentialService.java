@@ -23,6 +23,8 @@ import java.util.List;
 import javax.ejb.Local;
 
 import org.soulwing.credo.Credential;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
 
 /**
  * A service that provides access to the credentials managed by the 
@@ -38,5 +40,31 @@ public interface CredentialService {
    * @return list of credentials
    */
   List<Credential> findAllCredentials();
+
+  /**
+   * Finds a page of the credentials accessible to the logged-in user.
+   * @param request page request
+   * @return page of credentials
+   */
+  Page<Credential> findCredentials(PageRequest request);
+
+  /**
+   * Finds a page of the credentials accessible to the logged-in user that
+   * expire within the given window.
+   * @param window the expiration window
+   * @param request page request
+   * @return page of credentials
+   */
+  Page<Credential> findExpiringCredentials(ExpirationWindow window,
+      PageRequest request);
+  
+  /**
+   * Gets a summary of the number of credentials accessible to the 
+   * logged-in user that expire within each window.
+   * <p>
+   * The summary may have been computed a short time ago.
+   * @return expiration summary
+   */
+  ExpirationSummary getExpirationSummary();
   
 }
@@ -18,7 +18,7 @@
  */
 package org.soulwing.credo.service.credential;
 
-import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import javax.ejb.ConcurrencyManagement;
@@ -29,9 +29,10 @@ import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 
 import org.soulwing.credo.Credential;
-import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
 import org.soulwing.credo.repository.CredentialRepository;
-import org.soulwing.credo.repository.UserGroupRepository;
+import org.soulwing.credo.service.TimeOfDayService;
 import org.soulwing.credo.service.UserContextService;
 
 /**
@@ -47,24 +48,50 @@ public class CredentialServiceBean implements CredentialService {
   protected CredentialRepository credentialRepository;
   
   @Inject
-  protected UserGroupRepository groupRepository;
+  protected UserContextService userContextService;
   
   @Inject
-  protected UserContextService userContextService;
+  protected TimeOfDayService timeOfDayService;
+  
+  @Inject
+  protected ExpirationSummaryCache expirationSummaryCache;
   
   /**
    * {@inheritDoc}
    */
   @Override
   public List<Credential> findAllCredentials() {
-    List<UserGroup> allGroups = new ArrayList<>();
-    List<UserGroup> groups = groupRepository.findByLoginName(
+    return credentialRepository.findAllByLoginName(
+        userContextService.getLoginName());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Page<Credential> findCredentials(PageRequest request) {
+    return credentialRepository.findPageByLoginName(
+        userContextService.getLoginName(), request);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Page<Credential> findExpiringCredentials(ExpirationWindow window,
+      PageRequest request) {
+    Date now = timeOfDayService.getCurrent();
+    return credentialRepository.findPageExpiringByLoginName(
+        userContextService.getLoginName(), now, window.getEnd(now), request);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ExpirationSummary getExpirationSummary() {
+    return expirationSummaryCache.getSummary(
         userContextService.getLoginName());
-    allGroups.addAll(groups);
-    for (UserGroup group : groups) {
-      allGroups.addAll(groupRepository.findDescendants(group));
-    }
-    return credentialRepository.findAllByOwners(allGroups);
   }
 
 }
@@ -0,0 +1,78 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A summary of the number of credentials accessible to a user that expire
+ * within each {@link ExpirationWindow}.
+ * <p>
+ * The windows are nested; a credential that expires within 15 days is
+ * also counted in the 30, 60, and 90 day windows.
+ *
+ * @author Carl Harris
+ */
+public class ExpirationSummary {
+
+  private final Map<ExpirationWindow, Integer> counts = 
+      new EnumMap<>(ExpirationWindow.class);
+
+  private final Date dateComputed;
+
+  /**
+   * Constructs a new instance.
+   * @param dateComputed the start of each window
+   * @param expirations expiration dates of the credentials that expire 
+   *    within the longest window, in ascending order
+   */
+  public ExpirationSummary(Date dateComputed, List<Date> expirations) {
+    this.dateComputed = dateComputed;
+    int count = 0;
+    for (ExpirationWindow window : ExpirationWindow.values()) {
+      Date end = window.getEnd(dateComputed);
+      while (count < expirations.size() 
+          && expirations.get(count).before(end)) {
+        count++;
+      }
+      counts.put(window, count);
+    }
+  }
+
+  /**
+   * Gets the date at which this summary was computed.
+   * @return date computed
+   */
+  public Date getDateComputed() {
+    return dateComputed;
+  }
+
+  /**
+   * Gets the number of credentials that expire within the given window.
+   * @param window the subject window
+   * @return number of credentials
+   */
+  public int getCount(ExpirationWindow window) {
+    return counts.get(window);
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+/**
+ * A cache of {@link ExpirationSummary} objects for the application's
+ * users.
+ * <p>
+ * A summary is recomputed on demand when there is no cached summary for
+ * a user, when the cached summary is older than a configured time to live, 
+ * or when any credential has been added, updated, or removed since the 
+ * summary was computed.
+ * <p>
+ * Any implementation of this interface must be thread safe.
+ *
+ * @author Carl Harris
+ */
+public interface ExpirationSummaryCache {
+
+  /**
+   * Gets the expiration summary for the given user.
+   * @param loginName login name of the subject user
+   * @return expiration summary
+   */
+  ExpirationSummary getSummary(String loginName);
+
+  /**
+   * Discards all cached summaries.
+   */
+  void clear();
+
+}
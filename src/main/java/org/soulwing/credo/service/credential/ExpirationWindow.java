@@ -0,0 +1,71 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * A window of time, starting now, in which a credential may expire.
+ *
+ * @author Carl Harris
+ */
+public enum ExpirationWindow {
+
+  DAYS_15(15),
+  DAYS_30(30),
+  DAYS_60(60),
+  DAYS_90(90);
+
+  private final int days;
+
+  private ExpirationWindow(int days) {
+    this.days = days;
+  }
+
+  /**
+   * Gets the length of this window.
+   * @return number of days
+   */
+  public int getDays() {
+    return days;
+  }
+
+  /**
+   * Gets the (exclusive) end of this window.
+   * @param start start of the window
+   * @return date that is {@link #getDays()} days after {@code start}
+   */
+  public Date getEnd(Date start) {
+    Calendar calendar = Calendar.getInstance();
+    calendar.setTime(start);
+    calendar.add(Calendar.DAY_OF_MONTH, days);
+    return calendar.getTime();
+  }
+
+  /**
+   * Gets the longest window.
+   * @return window
+   */
+  public static ExpirationWindow longest() {
+    ExpirationWindow[] windows = values();
+    return windows[windows.length - 1];
+  }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+/**
+ * An object that represents an export that is prepared asynchronously.
+ * <p>
+ * When the job is complete, its content can be obtained (once) using the
+ * job's download token.
+ *
+ * @author Carl Harris
+ */
+public interface ExportJob {
+
+  /**
+   * States of an export job.
+   */
+  enum State {
+    PENDING,
+    RUNNING,
+    COMPLETE,
+    FAILED
+  }
+  
+  /**
+   * Gets the unique identifier for this job.
+   * @return job identifier
+   */
+  String getId();
+  
+  /**
+   * Gets the current state of this job.
+   * @return job state
+   */
+  State getState();
+  
+  /**
+   * Gets the token that can be used to download the exported content.
+   * @return download token or {@code null} if the job is not complete
+   */
+  String getDownloadToken();
+  
+  /**
+   * Gets the number of seconds after which a job that failed because the
+   * server was too busy could reasonably be submitted again.
+   * @return retry delay in seconds or zero if the job did not fail for 
+   *    this reason
+   */
+  long getRetryAfter();
+  
+}
@@ -21,6 +21,8 @@ package org.soulwing.credo.service.credential;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.soulwing.credo.service.archive.ArchiveBuilder;
+
 /**
  * An object that represents the result of acting upon a request to
  * export a credential.
@@ -55,4 +57,17 @@ public interface ExportPreparation {
    */
   void writeContent(OutputStream outputStream) throws IOException;
   
+  /**
+   * Writes the exported content as one or more entries of an archive.
+   * <p>
+   * This method supports exporting several credentials in a single
+   * archive.
+   * @param directory name of the archive directory that will contain the
+   *    entries
+   * @param archiveBuilder the target archive builder
+   * @throws IOException
+   */
+  void writeEntries(String directory, ArchiveBuilder archiveBuilder)
+      throws IOException;
+  
 }
@@ -94,4 +94,98 @@ public interface ExportService {
   ExportPreparation prepareExport(ExportRequest request, Errors errors)
       throws ExportException, PassphraseException, GroupAccessException;
   
+  /**
+   * Creates a new request to export several credentials in a single
+   * archive.
+   * @param credentialIds persistent identifiers of the credentials to be
+   *    exported
+   * @return bulk export request
+   * @throws NoSuchCredentialException if any of {@code credentialIds} does 
+   *    not refer to an extant credential
+   */
+  BulkExportRequest newBulkExportRequest(Collection<Long> credentialIds)
+      throws NoSuchCredentialException;
+  
+  /**
+   * Gets the collection of supported variants for the archive produced
+   * by a bulk export.
+   * @return archive variants
+   */
+  Collection<ExportFormat.Variant> getArchiveVariants();
+  
+  /**
+   * Gets the default variant for the archive produced by a bulk export.
+   * @return archive variant
+   */
+  ExportFormat.Variant getDefaultArchiveVariant();
+  
+  /**
+   * Performs the work required to export several credentials in a single
+   * archive.
+   * @param request the bulk export request to act upon
+   * @param errors errors object that will be updated if an error occurs
+   * @return export preparation for the archive
+   * @throws ExportException if an error occurs in performing the request
+   * @throws PassphraseException if the password provided in the request's
+   *    protection parameters is incorrect
+   * @throws GroupAccessException is the user identified in the request's
+   *    protection parameters is not a member of the owner group of every
+   *    credential in the request
+   */
+  ExportPreparation prepareBulkExport(BulkExportRequest request, 
+      Errors errors) 
+      throws ExportException, PassphraseException, GroupAccessException;
+  
+  /**
+   * Submits a job that will export a credential in the background.
+   * <p>
+   * The private key of the credential is unprotected before this method
+   * returns; the remaining work is performed by the job.
+   * @param request the export request to act upon
+   * @param errors errors object that will be updated if an error occurs
+   * @return export job
+   * @throws ExportException if an error occurs in performing the request
+   * @throws PassphraseException if the credential requires a passphrase 
+   *    but the provided credential was not provided or incorrect
+   * @throws GroupAccessException is the user identified in the request's
+   *    protection parameters is not a member of the credential's owner group
+   */
+  ExportJob submitExport(ExportRequest request, Errors errors)
+      throws ExportException, PassphraseException, GroupAccessException;
+  
+  /**
+   * Submits a job that will export several credentials in a single
+   * archive in the background.
+   * <p>
+   * The private keys of the credentials are unprotected before this method
+   * returns; the remaining work is performed by the job.
+   * @param request the bulk export request to act upon
+   * @param errors errors object that will be updated if an error occurs
+   * @return export job
+   * @throws ExportException if an error occurs in performing the request
+   * @throws PassphraseException if the password provided in the request's
+   *    protection parameters is incorrect
+   * @throws GroupAccessException is the user identified in the request's
+   *    protection parameters is not a member of the owner group of every
+   *    credential in the request
+   */
+  ExportJob submitBulkExport(BulkExportRequest request, Errors errors) 
+      throws ExportException, PassphraseException, GroupAccessException;
+  
+  /**
+   * Finds an export job submitted by the logged in user.
+   * @param jobId identifier of the job
+   * @return job or {@code null} if there is no such job
+   */
+  ExportJob findExportJob(String jobId);
+  
+  /**
+   * Claims the content of a completed export job submitted by the logged 
+   * in user.
+   * @param token download token of the job
+   * @return download or {@code null} if {@code token} is not valid (e.g.
+   *    the content has already been downloaded or the job has expired)
+   */
+  ExportDownload claimExportDownload(String token);
+  
 }
@@ -18,8 +18,13 @@
  */
 package org.soulwing.credo.service.credential;
 
-import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
@@ -37,15 +42,35 @@ import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.ProtectionParameters;
 import org.soulwing.credo.service.UserAccessException;
+import org.soulwing.credo.service.UserContextService;
 import org.soulwing.credo.service.credential.ExportFormat.Variant;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
 import org.soulwing.credo.service.crypto.PasswordGenerator;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.exporter.BulkExporter;
 import org.soulwing.credo.service.exporter.CredentialExporter;
 import org.soulwing.credo.service.exporter.CredentialExporterRegistry;
+import org.soulwing.credo.service.exporter.ExportSpool;
 import org.soulwing.credo.service.protect.CredentialProtectionService;
 
 /**
  * A concrete {@link ExportService} implementation.
+ * <p>
+ * The private keys of the requested credentials are unprotected on the 
+ * calling thread, since doing so requires access to the user's context 
+ * and the persistence context.  The exporters, which perform the more 
+ * expensive work of encrypting each key for export, are then invoked on
+ * the {@link CryptoExecutionService}; in a bulk export, no more than 
+ * {@link #MAX_CONCURRENT_EXPORTS} are submitted at any given time.
+ * <p>
+ * An export may instead be submitted as a job; in this case only the 
+ * private keys are unprotected on the calling thread, and the exporters
+ * are invoked from the {@link ExportSpool}, which writes the content to
+ * an encrypted temporary file that is later copied to the client.  The
+ * login name of the requesting user is captured when the job is submitted,
+ * so that the per-user limit of the {@link CryptoExecutionService} also
+ * applies to jobs.
  * 
  * @author Carl Harris
  */
@@ -53,6 +78,8 @@ import org.soulwing.credo.service.protect.CredentialProtectionService;
 @ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class ExportServiceBean implements ExportService {
 
+  static final int MAX_CONCURRENT_EXPORTS = 4;
+
   @Inject
   protected CredentialRepository credentialRepository;
 
@@ -65,6 +92,18 @@ public class ExportServiceBean implements ExportService {
   @Inject
   protected PasswordGenerator passwordGenerator;
   
+  @Inject
+  protected BulkExporter bulkExporter;
+  
+  @Inject
+  protected CryptoExecutionService cryptoExecutionService;
+  
+  @Inject
+  protected ExportSpool exportSpool;
+  
+  @Inject
+  protected UserContextService userContextService;
+  
   /**
    * {@inheritDoc}
    */
@@ -124,7 +163,55 @@ public class ExportServiceBean implements ExportService {
   @TransactionAttribute(TransactionAttributeType.REQUIRED)
   public ExportPreparation prepareExport(ExportRequest request, Errors errors)
       throws ExportException, GroupAccessException, PassphraseException {
+    ExportTask task = newExportTask(request, errors);
+    try {
+      return runExportTask(userContextService.getLoginName(), task);
+    }
+    catch (PassphraseException ex) {
+      errors.addError("password", "passwordIncorrect");
+      throw new PassphraseException();
+    }
+    catch (CryptoOverloadException ex) {
+      errors.addError("cryptoBusy", new Object[] { ex.getRetryAfter() });
+      throw new ExportException();
+    }
+  }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public ExportJob submitExport(ExportRequest request, Errors errors)
+      throws ExportException, PassphraseException, GroupAccessException {
+    final ExportTask task = newExportTask(request, errors);
+    final String owner = userContextService.getLoginName();
+    try {
+      return exportSpool.submit(owner, new Callable<ExportPreparation>() {
+        @Override
+        public ExportPreparation call() throws Exception {
+          return runExportTask(owner, task);
+        }
+      });
+    }
+    catch (CryptoOverloadException ex) {
+      errors.addError("cryptoBusy", new Object[] { ex.getRetryAfter() });
+      throw new ExportException();
+    }
+  }
+
+  /**
+   * Creates a task that exports the credential specified in a request.
+   * <p>
+   * The credential's private key is unprotected on the calling thread.
+   * @param request the export request
+   * @param errors errors object that will be updated if an error occurs
+   * @return export task
+   * @throws GroupAccessException
+   * @throws PassphraseException
+   */
+  private ExportTask newExportTask(ExportRequest request, Errors errors)
+      throws GroupAccessException, PassphraseException {
     try {
       Credential credential = request.getCredential();
       ProtectionParametersWrapper protection =
@@ -133,7 +220,9 @@ public class ExportServiceBean implements ExportService {
       PrivateKeyWrapper privateKey =
           protectionService.unprotect(credential, protection);
       CredentialExporter exporter = exporterRegistry.findExporter(request);
-      return exporter.exportCredential(request, privateKey);
+      // the certificates will be accessed outside of the transaction 
+      credential.getCertificates().size();
+      return new ExportTask(exporter, request, privateKey);
     }
     catch (OwnerAccessControlException|GroupAccessException ex) {
       String groupName = (ex instanceof OwnerAccessControlException) ?
@@ -142,13 +231,287 @@ public class ExportServiceBean implements ExportService {
       errors.addError("groupAccessDenied", new Object[] { groupName });
       throw new GroupAccessException(groupName);
     }
-    catch (PassphraseException|UserAccessException ex) {
+    catch (UserAccessException ex) {
       errors.addError("password", "passwordIncorrect");
       throw new PassphraseException();
     }
-    catch (IOException ex) {
-      throw new RuntimeException(ex);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public BulkExportRequest newBulkExportRequest(
+      Collection<Long> credentialIds) throws NoSuchCredentialException {
+    List<Credential> credentials = new ArrayList<>(credentialIds.size());
+    for (Long credentialId : credentialIds) {
+      Credential credential = credentialRepository.findById(credentialId);
+      if (credential == null) {
+        throw new NoSuchCredentialException();
+      }
+      // the certificates will be accessed outside of the transaction 
+      credential.getCertificates().size();
+      credentials.add(credential);
+    }
+    return new BulkExportRequestBean(credentials);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Collection<Variant> getArchiveVariants() {
+    return bulkExporter.getVariants();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Variant getDefaultArchiveVariant() {
+    return bulkExporter.getDefaultVariant();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public ExportPreparation prepareBulkExport(BulkExportRequest request,
+      Errors errors) 
+      throws ExportException, PassphraseException, GroupAccessException {
+    BulkExportTask task = newBulkExportTask(request, errors);
+    try {
+      return task.call();
+    }
+    catch (CryptoOverloadException ex) {
+      errors.addError("cryptoBusy", new Object[] { ex.getRetryAfter() });
+      throw new ExportException();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public ExportJob submitBulkExport(BulkExportRequest request, 
+      Errors errors) 
+      throws ExportException, PassphraseException, GroupAccessException {
+    BulkExportTask task = newBulkExportTask(request, errors);
+    try {
+      return exportSpool.submit(task.owner, task);
+    }
+    catch (CryptoOverloadException ex) {
+      errors.addError("cryptoBusy", new Object[] { ex.getRetryAfter() });
+      throw new ExportException();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ExportJob findExportJob(String jobId) {
+    return exportSpool.findJob(userContextService.getLoginName(), jobId);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ExportDownload claimExportDownload(String token) {
+    return exportSpool.claim(userContextService.getLoginName(), token);
+  }
+
+  /**
+   * Creates a task that exports the credentials specified in a bulk
+   * request.
+   * <p>
+   * The credentials' private keys are unprotected on the calling thread.
+   * @param request the bulk export request
+   * @param errors errors object that will be updated if an error occurs
+   * @return export task
+   * @throws GroupAccessException
+   * @throws PassphraseException
+   */
+  private BulkExportTask newBulkExportTask(BulkExportRequest request,
+      Errors errors) throws GroupAccessException, PassphraseException {
+    List<PrivateKeyWrapper> privateKeys;
+    try {
+      privateKeys = protectionService.unprotect(request.getCredentials(),
+          request.getProtectionParameters().getPassword());
+    }
+    catch (OwnerAccessControlException|GroupAccessException ex) {
+      String groupName = (ex instanceof OwnerAccessControlException) ?
+          ((OwnerAccessControlException) ex).getGroupName()
+          : ((GroupAccessException) ex).getGroupName();          
+      errors.addError("groupAccessDenied", new Object[] { groupName });
+      throw new GroupAccessException(groupName);
+    }
+    catch (UserAccessException ex) {
+      errors.addError("password", "passwordIncorrect");
+      throw new PassphraseException();
+    }
+
+    List<String> directories = new ArrayList<>();
+    List<Callable<ExportPreparation>> tasks = new ArrayList<>();
+    for (int i = 0; i < privateKeys.size(); i++) {
+      ExportRequest exportRequest = newExportRequest(request, 
+          request.getCredentials().get(i), directories);
+      CredentialExporter exporter = 
+          exporterRegistry.findExporter(exportRequest);
+      tasks.add(new ExportTask(exporter, exportRequest, privateKeys.get(i)));
+    }
+    return new BulkExportTask(userContextService.getLoginName(), request, 
+        directories, tasks);
+  }
+
+  /**
+   * Creates a request to export a single credential of a bulk export.
+   * @param request the bulk export request
+   * @param credential the credential to export
+   * @param directories archive directory names assigned to the credentials
+   *    preceding {@code credential}; the directory assigned to 
+   *    {@code credential} will be appended
+   * @return export request
+   */
+  private ExportRequest newExportRequest(BulkExportRequest request,
+      Credential credential, List<String> directories) {
+    ExportRequestBean exportRequest = new ExportRequestBean(credential);
+    String directory = exportRequest.getFileName();
+    if (directories.contains(directory)) {
+      directory = directory + "-" + credential.getId();
+    }
+    directories.add(directory);
+    exportRequest.setFileName(directory);
+    exportRequest.setFormat(request.getFormat());
+    exportRequest.setVariant(request.getVariant());
+    exportRequest.setExportPassphrase(request.getExportPassphrase());
+    exportRequest.setProtectionParameters(request.getProtectionParameters());
+    return exportRequest;
+  }
+
+  /**
+   * Runs the given export task using the crypto execution service.
+   * @param owner login name of the user for whom the task is run
+   * @param task the task to run
+   * @return export preparation produced by the task
+   * @throws ExportException
+   * @throws PassphraseException
+   */
+  private ExportPreparation runExportTask(String owner, 
+      Callable<ExportPreparation> task) 
+      throws ExportException, PassphraseException {
+    try {
+      return cryptoExecutionService.execute(owner, task);
+    }
+    catch (ExecutionException ex) {
+      throw exportFailure(ex);
+    }
+  }
+
+  /**
+   * Runs the given export tasks using the crypto execution service, no 
+   * more than {@link #MAX_CONCURRENT_EXPORTS} at a time.
+   * <p>
+   * As each task completes, the next is submitted in its place, so the
+   * export does not wait on the slowest task of each group.
+   * @param owner login name of the user for whom the tasks are run
+   * @param tasks the tasks to run
+   * @return export preparations produced by the tasks, in the same order
+   * @throws ExportException
+   * @throws PassphraseException
+   */
+  private List<ExportPreparation> runExportTasks(String owner,
+      List<Callable<ExportPreparation>> tasks) 
+      throws ExportException, PassphraseException {
+    try {
+      return cryptoExecutionService.executeAll(owner, tasks, 
+          MAX_CONCURRENT_EXPORTS);
+    }
+    catch (ExecutionException ex) {
+      throw exportFailure(ex);
+    }
+  }
+
+  /**
+   * Translates the cause of a failed export task.
+   * @param ex the exception thrown by the crypto execution service
+   * @return exception for the caller to throw, if the cause is not itself
+   *    an exception declared by the caller
+   * @throws ExportException
+   * @throws PassphraseException
+   */
+  private RuntimeException exportFailure(ExecutionException ex)
+      throws ExportException, PassphraseException {
+    Throwable cause = ex.getCause();
+    if (cause instanceof InterruptedException) {
+      throw new ExportException();
+    }
+    if (cause instanceof ExportException) {
+      throw (ExportException) cause;
+    }
+    if (cause instanceof PassphraseException) {
+      throw (PassphraseException) cause;
+    }
+    return new RuntimeException(cause);
+  }
+
+  /**
+   * A task that exports a single credential of a bulk export.
+   */
+  private static class ExportTask implements Callable<ExportPreparation> {
+
+    private final CredentialExporter exporter;
+    private final ExportRequest request;
+    private final PrivateKeyWrapper privateKey;
+
+    public ExportTask(CredentialExporter exporter, ExportRequest request,
+        PrivateKeyWrapper privateKey) {
+      this.exporter = exporter;
+      this.request = request;
+      this.privateKey = privateKey;
+    }
+
+    @Override
+    public ExportPreparation call() throws Exception {
+      return exporter.exportCredential(request, privateKey);
+    }
+
+  }
+
+  /**
+   * A task that exports the credentials of a bulk export and assembles
+   * the resulting archive.
+   */
+  private class BulkExportTask implements Callable<ExportPreparation> {
+    
+    private final String owner;
+    private final BulkExportRequest request;
+    private final List<String> directories;
+    private final List<Callable<ExportPreparation>> tasks;
+    
+    public BulkExportTask(String owner, BulkExportRequest request, 
+        List<String> directories, List<Callable<ExportPreparation>> tasks) {
+      this.owner = owner;
+      this.request = request;
+      this.directories = directories;
+      this.tasks = tasks;
+    }
+
+    @Override
+    public ExportPreparation call() 
+        throws ExportException, PassphraseException {
+      List<ExportPreparation> results = runExportTasks(owner, tasks);
+      Map<String, ExportPreparation> preparations = new LinkedHashMap<>();
+      for (int i = 0; i < results.size(); i++) {
+        preparations.put(directories.get(i), results.get(i));
+      }
+      return bulkExporter.exportCredentials(request, preparations);
     }
+    
   }
 
   /**
@@ -1,5 +1,5 @@
 /*
- * File created on Apr 17, 2014 
+ * File created on May 15, 2014
  *
  * Copyright (c) 2014 Virginia Polytechnic Institute and State University
  *
@@ -16,23 +16,18 @@
  * limitations under the License.
  *
  */
-package org.soulwing.credo.service;
+package org.soulwing.credo.service.credential;
 
-import java.io.Serializable;
-
-import javax.ejb.Timer;
+import java.io.IOException;
 
 /**
- * A delegate for a timer callback.
+ * An exception thrown when the content of an uploaded file exceeds the 
+ * configured size limit.
  *
  * @author Carl Harris
  */
-public interface TimerDelegate extends Serializable {
+public class FileSizeLimitException extends IOException {
+
+  private static final long serialVersionUID = 7742012954165013215L;
 
-  /**
-   * Notifies the recipient that the timer has expired.
-   * @param timer the subject timer
-   */
-  void timeout(Timer timer);
-  
 }
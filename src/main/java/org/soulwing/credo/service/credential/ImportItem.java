@@ -0,0 +1,90 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An item of a bulk import; i.e. the files that together contain the
+ * content of a single credential.
+ *
+ * @author Carl Harris
+ */
+class ImportItem {
+
+  private final String name;
+  
+  private final List<String> fileNames = new ArrayList<>();
+  
+  private final List<byte[]> contents = new ArrayList<>();
+
+  /**
+   * Constructs a new instance.
+   * @param name item name
+   */
+  public ImportItem(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Gets the item name.
+   * @return name
+   */
+  public String getName() {
+    return name;
+  }
+  
+  /**
+   * Gets the names of the files in this item.
+   * @return list of file names
+   */
+  public List<String> getFileNames() {
+    return fileNames;
+  }
+  
+  /**
+   * Gets the contents of the files in this item.
+   * @return list of file contents in the same order as the file names
+   */
+  public List<byte[]> getContents() {
+    return contents;
+  }
+  
+  /**
+   * Adds a file to this item.
+   * @param fileName name of the file
+   * @param content content of the file
+   */
+  public void addFile(String fileName, byte[] content) {
+    fileNames.add(fileName);
+    contents.add(content);
+  }
+
+  /**
+   * Discards the contents of the files in this item, once they are no
+   * longer needed.
+   * <p>
+   * The file names are retained.
+   */
+  public void discardContents() {
+    contents.clear();
+  }
+  
+}
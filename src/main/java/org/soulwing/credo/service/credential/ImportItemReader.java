@@ -0,0 +1,267 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.soulwing.credo.service.crypto.ObjectLimitException;
+
+/**
+ * A reader that groups the files of an archive or directory into 
+ * {@link ImportItem} objects.
+ * <p>
+ * Files in the same directory belong to the same item, which is named
+ * for the directory.  Files at the top level belong to the same item if
+ * they have the same name apart from the extension (e.g. 
+ * {@code www.key} and {@code www.crt}).  Hidden files and directories
+ * are ignored.
+ *
+ * @author Carl Harris
+ */
+class ImportItemReader {
+
+  private static final String[] ARCHIVE_SUFFIXES = 
+      { ".zip", ".tar", ".tar.gz", ".tgz" };
+  
+  private static final String MAC_OS_X_METADATA = "__MACOSX";
+  
+  private final Map<String, ImportItem> items = new LinkedHashMap<>();
+
+  private final long maxFileSize;
+
+  private final int maxFileCount;
+  
+  private final long maxTotalSize;
+  
+  private int fileCount;
+  
+  private long totalSize;
+  
+  private String fileName;
+  
+  /**
+   * Constructs a new instance.
+   * @param maxFileSize maximum size of any file that will be read
+   * @param maxFileCount maximum number of files that will be read
+   * @param maxTotalSize maximum total size of the files that will be read
+   */
+  public ImportItemReader(long maxFileSize, int maxFileCount, 
+      long maxTotalSize) {
+    this.maxFileSize = maxFileSize;
+    this.maxFileCount = maxFileCount;
+    this.maxTotalSize = maxTotalSize;
+  }
+
+  /**
+   * Tests whether the given file name identifies an archive of a supported
+   * type.
+   * @param archiveName the subject file name
+   * @return {@code true} if the archive can be read by this reader
+   */
+  public static boolean isSupportedArchive(String archiveName) {
+    if (archiveName == null) return false;
+    String name = archiveName.toLowerCase();
+    for (String suffix : ARCHIVE_SUFFIXES) {
+      if (name.endsWith(suffix)) return true;
+    }
+    return false;
+  }
+  
+  /**
+   * Gets the items that have been read.
+   * @return collection of items in the order in which they were first
+   *    encountered
+   */
+  public Collection<ImportItem> getItems() {
+    return items.values();
+  }
+
+  /**
+   * Gets the name of the file that was most recently read.
+   * <p>
+   * When a read operation fails, this is the name of the file on which
+   * it failed.
+   * @return file name or {@code null} if no file has been read
+   */
+  public String getFileName() {
+    return fileName;
+  }
+  
+  /**
+   * Reads the files contained in an archive.
+   * @param archiveName name of the archive; the suffix determines the 
+   *    archive type
+   * @param inputStream input stream from which the archive will be read
+   * @throws FileSizeLimitException if a file in the archive is larger
+   *    than the configured limit
+   * @throws ObjectLimitException if the archive contains more files than
+   *    the configured limit
+   * @throws TotalSizeLimitException if the total size of the files in
+   *    the archive is larger than the configured limit
+   * @throws IOException
+   */
+  public void readArchive(String archiveName, InputStream inputStream)
+      throws IOException {
+    try (ArchiveInputStream archive = newArchiveInputStream(archiveName,
+        inputStream)) {
+      ArchiveEntry entry = archive.getNextEntry();
+      while (entry != null) {
+        if (!entry.isDirectory() && !isIgnored(entry.getName())) {
+          addFile(entry.getName(), archive);
+        }
+        entry = archive.getNextEntry();
+      }
+    }
+  }
+  
+  private ArchiveInputStream newArchiveInputStream(String archiveName,
+      InputStream inputStream) throws IOException {
+    String name = archiveName.toLowerCase();
+    if (name.endsWith(".zip")) {
+      return new ZipArchiveInputStream(inputStream);
+    }
+    if (name.endsWith(".tar")) {
+      return new TarArchiveInputStream(inputStream);
+    }
+    if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+      return new TarArchiveInputStream(
+          new GzipCompressorInputStream(inputStream));
+    }
+    throw new IllegalArgumentException("unsupported archive type: "
+        + archiveName);
+  }
+  
+  /**
+   * Reads the files contained in a directory and its subdirectories.
+   * @param directory the subject directory
+   * @throws FileSizeLimitException if a file in the directory is larger
+   *    than the configured limit
+   * @throws ObjectLimitException if the directory contains more files than
+   *    the configured limit
+   * @throws TotalSizeLimitException if the total size of the files in
+   *    the directory is larger than the configured limit
+   * @throws IOException
+   */
+  public void readDirectory(File directory) throws IOException {
+    final Path root = directory.toPath();
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir,
+          BasicFileAttributes attrs) throws IOException {
+        if (!dir.equals(root) && isIgnored(dir.getFileName().toString())) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+          throws IOException {
+        if (attrs.isRegularFile() 
+            && !isIgnored(file.getFileName().toString())) {
+          try (InputStream inputStream = Files.newInputStream(file)) {
+            addFile(root.relativize(file).toString(), inputStream);
+          }
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+  
+  private void addFile(String path, InputStream inputStream)
+      throws IOException {
+    fileName = normalize(path);
+    if (++fileCount > maxFileCount) {
+      throw new ObjectLimitException();
+    }
+    // the archive stream must not be closed after reading an entry
+    InputStream limitedStream = new LimitedInputStream(inputStream, 
+        maxFileSize);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    byte[] buf = new byte[4096];
+    int numRead = limitedStream.read(buf);
+    while (numRead != -1) {
+      outputStream.write(buf, 0, numRead);
+      numRead = limitedStream.read(buf);
+    }
+    // file contents are held until imported, so their total is limited
+    totalSize += outputStream.size();
+    if (totalSize > maxTotalSize) {
+      throw new TotalSizeLimitException();
+    }
+    String itemName = itemName(fileName);
+    ImportItem item = items.get(itemName);
+    if (item == null) {
+      item = new ImportItem(itemName);
+      items.put(itemName, item);
+    }
+    item.addFile(fileName, outputStream.toByteArray());
+  }
+
+  /**
+   * Derives the name of the item to which a file belongs.
+   * @param path normalized path of the file
+   * @return item name
+   */
+  static String itemName(String path) {
+    int slash = path.lastIndexOf('/');
+    if (slash != -1) {
+      return path.substring(0, slash);
+    }
+    int dot = path.lastIndexOf('.');
+    if (dot > 0) {
+      return path.substring(0, dot);
+    }
+    return path;
+  }
+
+  private static String normalize(String path) {
+    path = path.replace('\\', '/');
+    while (path.startsWith("./") || path.startsWith("/")) {
+      path = path.substring(path.indexOf('/') + 1);
+    }
+    return path;
+  }
+  
+  private static boolean isIgnored(String path) {
+    for (String segment : normalize(path).split("/")) {
+      if (segment.startsWith(".") || segment.equals(MAC_OS_X_METADATA)) {
+        return true;
+      }
+    }
+    return false;
+  }
+  
+}
@@ -19,22 +19,22 @@
 package org.soulwing.credo.service.credential;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import javax.annotation.Resource;
 import javax.ejb.ConcurrencyManagement;
 import javax.ejb.ConcurrencyManagementType;
 import javax.ejb.Singleton;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
 import org.soulwing.credo.Credential;
-import org.soulwing.credo.CredentialBuilder;
 import org.soulwing.credo.CredentialBuilderFactory;
-import org.soulwing.credo.CredentialCertificate;
-import org.soulwing.credo.CredentialCertificateBuilder;
 import org.soulwing.credo.CredentialRequest;
 import org.soulwing.credo.Password;
 import org.soulwing.credo.Tag;
@@ -43,13 +43,15 @@ import org.soulwing.credo.repository.CredentialRequestRepository;
 import org.soulwing.credo.security.OwnerAccessControlException;
 import org.soulwing.credo.service.Errors;
 import org.soulwing.credo.service.FileContentModel;
+import org.soulwing.credo.service.FileExpiredException;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.NoContentException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.ProtectionParameters;
 import org.soulwing.credo.service.TagService;
 import org.soulwing.credo.service.UserAccessException;
-import org.soulwing.credo.service.crypto.CertificateWrapper;
+import org.soulwing.credo.service.crypto.CredentialBag;
+import org.soulwing.credo.service.crypto.ObjectLimitException;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
 import org.soulwing.credo.service.group.GroupResolver;
 import org.soulwing.credo.service.group.NoSuchGroupException;
@@ -60,6 +62,11 @@ import org.soulwing.credo.service.protect.CredentialRequestProtectionService;
 
 /**
  * A concrete implementation of {@link ImportService}.
+ * <p>
+ * Uploaded files are parsed directly from their input streams, subject to
+ * limits on the size of each file and the number of objects it contains.
+ * The limits can be configured using the {@code import/maxFileSize} and
+ * {@code import/maxObjectCount} environment entries.
  *
  * @author Carl Harris
  */
@@ -69,6 +76,19 @@ public class ImportServiceBean implements ImportService {
 
   private static final Password EMPTY_PASSPHRASE = new Password(new char[0]);
 
+  static final long MAX_FILE_SIZE = 1048576;
+  
+  static final int MAX_OBJECT_COUNT = 1000;
+  
+  @Resource(name = "import/maxFileSize")
+  protected long maxFileSize = MAX_FILE_SIZE;
+  
+  @Resource(name = "import/maxObjectCount")
+  protected int maxObjectCount = MAX_OBJECT_COUNT;
+  
+  @Inject
+  protected Instance<CredentialBag> bags;
+
   @Inject
   protected CredentialImporterFactory importerFactory;
   
@@ -114,6 +134,7 @@ public class ImportServiceBean implements ImportService {
   public ImportDetails prepareImport(List<FileContentModel> files,
       Password passphrase, Errors errors) 
       throws PassphraseException, ImportException {
+    loadFiles(files, errors);
     CredentialImporter importer = importerFactory.newImporter();
     return prepareImport(importer, files, passphrase, errors);
   }
@@ -126,6 +147,9 @@ public class ImportServiceBean implements ImportService {
       List<FileContentModel> files, ProtectionParameters protection,
       Errors errors) throws PassphraseException, GroupAccessException,
       ImportException {
+    // parse the files before the request's private key might be found
+    // to require a password that the user has not yet entered
+    loadFiles(files, errors);
     try {
       PrivateKeyWrapper privateKey = requestProtectionService.unprotect(
           request, protection);
@@ -169,8 +193,8 @@ public class ImportServiceBean implements ImportService {
     return importer.validateAndImport(passphrase, errors);
   }
 
-  private void importFiles(CredentialImporter importer,
-      List<FileContentModel> files, Errors errors) throws ImportException {
+  private void loadFiles(List<FileContentModel> files, Errors errors)
+      throws ImportException {
     if (files.isEmpty()) {
       errors.addError("importFileRequired");
       throw new ImportException();
@@ -178,11 +202,19 @@ public class ImportServiceBean implements ImportService {
     int i = 0;
     for (FileContentModel file : files) {
       try {
-        importer.loadFile(file.getInputStream());        
+        loadContent(file);
         i++;
       }
-      catch (NoContentException ex) {
-        errors.addError("file" + i, "importNoContent",
+      catch (FileSizeLimitException ex) {
+        errors.addError("file" + i, "importFileTooLarge",
+            file.getName(), maxFileSize);
+      }
+      catch (ObjectLimitException ex) {
+        errors.addError("file" + i, "importTooManyObjects",
+            file.getName(), maxObjectCount);
+      }
+      catch (FileExpiredException ex) {
+        errors.addError("file" + i, "importFileExpired",
             file.getName());
       }
       catch (IOException ex) {
@@ -190,6 +222,49 @@ public class ImportServiceBean implements ImportService {
             file.getName());
       }
     }
+    if (errors.hasErrors()) {
+      throw new ImportException();
+    }
+  }
+
+  private void importFiles(CredentialImporter importer,
+      List<FileContentModel> files, Errors errors) {
+    int i = 0;
+    for (FileContentModel file : files) {
+      try {
+        importer.loadContent(file.getContent());
+        i++;
+      }
+      catch (NoContentException ex) {
+        errors.addError("file" + i, "importNoContent",
+            file.getName());
+      }
+    }
+  }
+
+  /**
+   * Loads the parsed content of the given file, parsing it from the file's
+   * input stream if necessary.
+   * @param file the subject file
+   * @return parsed content
+   * @throws FileSizeLimitException if the file is larger than the 
+   *    configured limit
+   * @throws ObjectLimitException if the file contains more objects than
+   *    the configured limit
+   * @throws IOException
+   */
+  private CredentialBag loadContent(FileContentModel file) 
+      throws IOException {
+    CredentialBag content = file.getContent();
+    if (content == null) {
+      content = bags.get();
+      try (InputStream inputStream = new LimitedInputStream(
+          file.getInputStream(), maxFileSize)) {
+        content.addAllObjects(inputStream, maxObjectCount, maxFileSize);
+      }
+      file.setContent(content);
+    }
+    return content;
   }
 
   /**
@@ -201,7 +276,9 @@ public class ImportServiceBean implements ImportService {
       throws NoSuchGroupException, GroupAccessException, PassphraseException {
 
     try {
-      Credential credential = createCredential(details);    
+      Credential credential = new CredentialAssembler(
+          credentialBuilderFactory).assemble(details,
+              tagService.resolve(details.getTags()));
       credential.setOwner(
           groupResolver.resolveGroup(protection.getGroupName(), errors));
       credentialProtectionService.protect(credential, details.getPrivateKey(), 
@@ -224,39 +301,6 @@ public class ImportServiceBean implements ImportService {
     }
   }
   
-  private Credential createCredential(ImportDetails details) {
-    CredentialBuilder builder = credentialBuilderFactory.newCredentialBuilder()
-        .setName(details.getName())
-        .setIssuer(details.getIssuerCommonName())
-        .setNote(details.getNote())
-        .setTags(tagService.resolve(details.getTags()))
-        .setExpiration(details.getNotAfter())
-        .setPrivateKey(details.getPrivateKey().getContent());
-    
-    for (CertificateWrapper certificate : details.getCertificates()) {
-      builder.addCertificate(createCertificate(certificate));
-    }
-    return builder.build();
-  }
-  
-  private CredentialCertificate createCertificate(
-      CertificateWrapper certificate) {
-    try {
-      CredentialCertificateBuilder builder =
-          credentialBuilderFactory.newCertificateBuilder();
-      builder.setSubject(certificate.getSubject());
-      builder.setIssuer(certificate.getIssuer());
-      builder.setSerialNumber(certificate.getSerialNumber());
-      builder.setNotBefore(certificate.getNotBefore());
-      builder.setNotAfter(certificate.getNotAfter());
-      builder.setContent(certificate.getContent());
-      return builder.build();
-    }
-    catch (IOException ex) {
-      throw new RuntimeException(ex);
-    }
-  }
-
   /**
    * {@inheritDoc}
    */
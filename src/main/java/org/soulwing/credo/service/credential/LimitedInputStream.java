@@ -0,0 +1,108 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An input stream filter that fails once more than a given number of bytes
+ * have been read from the underlying stream.
+ *
+ * @author Carl Harris
+ */
+class LimitedInputStream extends FilterInputStream {
+
+  private final long limit;
+  
+  private long count;
+  
+  private long mark;
+  
+  /**
+   * Constructs a new instance.
+   * @param in the underlying input stream
+   * @param limit maximum number of bytes that may be read
+   */
+  public LimitedInputStream(InputStream in, long limit) {
+    super(in);
+    this.limit = limit;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int read() throws IOException {
+    int c = super.read();
+    if (c != -1) {
+      count(1);
+    }
+    return c;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    int numRead = super.read(b, off, len);
+    if (numRead > 0) {
+      count(numRead);
+    }
+    return numRead;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long skip(long n) throws IOException {
+    long numSkipped = super.skip(n);
+    count(numSkipped);
+    return numSkipped;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void mark(int readlimit) {
+    super.mark(readlimit);
+    mark = count;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void reset() throws IOException {
+    super.reset();
+    count = mark;
+  }
+
+  private void count(long n) throws FileSizeLimitException {
+    count += n;
+    if (count > limit) {
+      throw new FileSizeLimitException();
+    }
+  }
+  
+}
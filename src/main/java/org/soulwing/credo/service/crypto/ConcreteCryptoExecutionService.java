@@ -0,0 +1,474 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedThreadFactory;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
+import javax.inject.Inject;
+
+import org.apache.commons.lang.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soulwing.credo.service.UserContextService;
+
+/**
+ * A {@link CryptoExecutionService} that runs tasks on a fixed pool of
+ * threads created by the container's managed thread factory.
+ * <p>
+ * The global admission limit is the capacity of the pool's queue; the 
+ * per-user limit is the number of operations (calls to {@code execute}
+ * or {@code executeAll}) that a single user may have in progress.  The 
+ * retry hint given when work is rejected is an estimate of the time 
+ * needed to drain the queue, based on the average running time of the
+ * tasks completed so far.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class ConcreteCryptoExecutionService 
+    implements CryptoExecutionService {
+
+  static final int DEFAULT_WORKER_COUNT = 0;
+  static final int DEFAULT_MAX_QUEUE_DEPTH = 32;
+  static final int DEFAULT_MAX_OPERATIONS_PER_USER = 2;
+  static final long MIN_RETRY_AFTER = 1;
+  
+  private static final Logger logger = 
+      LoggerFactory.getLogger(ConcreteCryptoExecutionService.class);
+  
+  private final Map<String, Integer> operations = new HashMap<>();
+  
+  private final AtomicLong completedCount = new AtomicLong();
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private final AtomicLong totalRunTime = new AtomicLong();
+  
+  @Resource(name = "crypto/workerCount")
+  protected int workerCount = DEFAULT_WORKER_COUNT;
+  
+  @Resource(name = "crypto/maxQueueDepth")
+  protected int maxQueueDepth = DEFAULT_MAX_QUEUE_DEPTH;
+  
+  @Resource(name = "crypto/maxOperationsPerUser")
+  protected int maxOperationsPerUser = DEFAULT_MAX_OPERATIONS_PER_USER;
+  
+  @Resource
+  protected ManagedThreadFactory threadFactory;
+  
+  @Inject
+  protected UserContextService userContextService;
+  
+  private ThreadPoolExecutor executor;
+  
+  @PostConstruct
+  public void init() {
+    int workers = workerCount > 0 ? 
+        workerCount : Runtime.getRuntime().availableProcessors();
+    executor = new ThreadPoolExecutor(workers, workers, 
+        0L, TimeUnit.MILLISECONDS, 
+        new ArrayBlockingQueue<Runnable>(maxQueueDepth), threadFactory,
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+  
+  @PreDestroy
+  public void destroy() {
+    executor.shutdownNow();
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> T execute(Callable<T> task) throws ExecutionException {
+    return execute(getUser(), task);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> List<T> executeAll(List<? extends Callable<T>> tasks)
+      throws ExecutionException {
+    return executeAll(getUser(), tasks);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> T execute(String user, Callable<T> task) 
+      throws ExecutionException {
+    return executeAll(user, Collections.singletonList(task)).get(0);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> List<T> executeAll(String user, 
+      List<? extends Callable<T>> tasks) throws ExecutionException {
+    admit(user);
+    try {
+      return awaitAll(submitAll(tasks));
+    }
+    finally {
+      release(user);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> List<T> executeAll(List<? extends Callable<T>> tasks,
+      int maxConcurrency) throws ExecutionException {
+    return executeAll(getUser(), tasks, maxConcurrency);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> List<T> executeAll(String user, 
+      List<? extends Callable<T>> tasks, int maxConcurrency) 
+      throws ExecutionException {
+    Validate.isTrue(maxConcurrency > 0, "maxConcurrency must be positive");
+    admit(user);
+    try {
+      return awaitAll(runWindowed(tasks, maxConcurrency));
+    }
+    finally {
+      release(user);
+    }
+  }
+
+  /**
+   * Runs the given tasks on the executor, keeping no more than the given
+   * number of them submitted and not yet completed.
+   * @param tasks the tasks to run
+   * @param maxConcurrency size of the window of submitted tasks
+   * @return futures for {@code tasks} in the same order, all of which
+   *    are complete
+   * @throws CryptoOverloadException if the executor's queue cannot 
+   *    accept a task
+   * @throws ExecutionException if a task threw a checked exception, or
+   *    the calling thread was interrupted
+   */
+  private <T> List<Future<T>> runWindowed(List<? extends Callable<T>> tasks,
+      int maxConcurrency) throws ExecutionException {
+    CompletionService<T> completionService = 
+        new ExecutorCompletionService<>(executor);
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    Iterator<? extends Callable<T>> i = tasks.iterator();
+    try {
+      while (i.hasNext() && futures.size() < maxConcurrency) {
+        futures.add(completionService.submit(new TimedTask<>(i.next())));
+      }
+      for (int completed = 0; completed < futures.size(); completed++) {
+        // fail fast, rather than submitting the rest of the tasks
+        completionService.take().get();
+        if (i.hasNext()) {
+          futures.add(completionService.submit(new TimedTask<>(i.next())));
+        }
+      }
+      return futures;
+    }
+    catch (RejectedExecutionException ex) {
+      cancelAll(futures);
+      throw reject("queue is full");
+    }
+    catch (InterruptedException ex) {
+      throw interrupted(futures, ex);
+    }
+    catch (ExecutionException ex) {
+      throw failed(futures, ex);
+    }
+  }
+  
+  /**
+   * Submits each of the given tasks to the executor.
+   * <p>
+   * If any task is rejected, those already submitted are cancelled.
+   * @param tasks the tasks to submit
+   * @return futures for {@code tasks} in the same order
+   * @throws CryptoOverloadException if the executor's queue cannot 
+   *    accept all of the tasks
+   */
+  private <T> List<Future<T>> submitAll(List<? extends Callable<T>> tasks) {
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    try {
+      for (Callable<T> task : tasks) {
+        futures.add(executor.submit(new TimedTask<>(task)));
+      }
+      return futures;
+    }
+    catch (RejectedExecutionException ex) {
+      cancelAll(futures);
+      throw reject("queue is full");
+    }
+  }
+
+  /**
+   * Waits for each of the given futures to complete.
+   * @param futures the futures to await
+   * @return results of {@code futures} in the same order
+   * @throws ExecutionException if a task threw a checked exception, or
+   *    the calling thread was interrupted
+   */
+  private <T> List<T> awaitAll(List<Future<T>> futures) 
+      throws ExecutionException {
+    List<T> results = new ArrayList<>(futures.size());
+    try {
+      for (Future<T> future : futures) {
+        results.add(future.get());
+      }
+      return results;
+    }
+    catch (InterruptedException ex) {
+      throw interrupted(futures, ex);
+    }
+    catch (ExecutionException ex) {
+      throw failed(futures, ex);
+    }
+  }
+
+  /**
+   * Cancels the given futures after the calling thread was interrupted
+   * while waiting for them.
+   * @param futures the futures to cancel
+   * @param ex the interruption
+   * @return exception that the caller should throw
+   */
+  private <T> ExecutionException interrupted(List<Future<T>> futures,
+      InterruptedException ex) {
+    cancelAll(futures);
+    Thread.currentThread().interrupt();
+    return new ExecutionException(ex);
+  }
+  
+  /**
+   * Cancels the given futures after one of them failed.
+   * @param futures the futures to cancel
+   * @param ex the failure
+   * @return exception that the caller should throw, if the cause of 
+   *    {@code ex} is a checked exception
+   * @throws RuntimeException the cause of {@code ex}, if it is unchecked
+   * @throws Error the cause of {@code ex}, if it is an error
+   */
+  private <T> ExecutionException failed(List<Future<T>> futures,
+      ExecutionException ex) {
+    cancelAll(futures);
+    Throwable cause = ex.getCause();
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return ex;
+  }
+
+  private <T> void cancelAll(List<Future<T>> futures) {
+    for (Future<T> future : futures) {
+      future.cancel(false);
+    }
+  }
+  
+  /**
+   * Admits an operation for the given user.
+   * @param user login name of the user or {@code null} if there is no 
+   *    logged in user
+   * @throws CryptoOverloadException if {@code user} already has the 
+   *    maximum number of operations in progress
+   */
+  private void admit(String user) {
+    if (user == null) return;
+    synchronized (operations) {
+      Integer count = operations.get(user);
+      if (count == null) {
+        count = 0;
+      }
+      if (count >= maxOperationsPerUser) {
+        throw reject("user " + user 
+            + " has too many operations in progress");
+      }
+      operations.put(user, count + 1);
+    }
+  }
+  
+  /**
+   * Releases an operation admitted for the given user.
+   * @param user login name of the user or {@code null} if there is no 
+   *    logged in user
+   */
+  private void release(String user) {
+    if (user == null) return;
+    synchronized (operations) {
+      int count = operations.get(user) - 1;
+      if (count == 0) {
+        operations.remove(user);
+      }
+      else {
+        operations.put(user, count);
+      }
+    }
+  }
+  
+  /**
+   * Gets the number of users that have operations in progress.
+   * <p>
+   * This method is exposed for unit testing.
+   * @return number of users
+   */
+  int getUserCount() {
+    synchronized (operations) {
+      return operations.size();
+    }
+  }
+
+  /**
+   * Creates an exception that rejects an operation.
+   * @param reason reason for the rejection (for logging)
+   * @return exception that the caller should throw
+   */
+  private CryptoOverloadException reject(String reason) {
+    rejectedCount.incrementAndGet();
+    long retryAfter = getRetryAfter();
+    logger.warn("cryptographic operation rejected: " + reason 
+        + "; queue depth " + getQueueDepth());
+    return new CryptoOverloadException(retryAfter);
+  }
+  
+  /**
+   * Estimates the number of seconds needed for the workers to drain 
+   * the queue.
+   * @return retry delay in seconds
+   */
+  long getRetryAfter() {
+    long completed = completedCount.get();
+    if (completed == 0) return MIN_RETRY_AFTER;
+    long averageRunTime = totalRunTime.get() / completed;
+    long drainTime = averageRunTime * (getQueueDepth() + getWorkerCount())
+        / getWorkerCount();
+    return Math.max(MIN_RETRY_AFTER, 
+        TimeUnit.NANOSECONDS.toSeconds(drainTime) + 1);
+  }
+  
+  /**
+   * Gets the login name of the calling user.
+   * @return login name or {@code null} if there is no logged in user
+   */
+  private String getUser() {
+    try {
+      return userContextService.getLoginName();
+    }
+    catch (IllegalStateException ex) {
+      return null;
+    }
+    catch (ContextNotActiveException ex) {
+      return null;
+    }
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getWorkerCount() {
+    return executor.getCorePoolSize();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getCompletedCount() {
+    return completedCount.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getRejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * A task that accumulates the running time of the task it wraps.
+   */
+  private class TimedTask<T> implements Callable<T> {
+
+    private final Callable<T> delegate;
+    
+    public TimedTask(Callable<T> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public T call() throws Exception {
+      long start = System.nanoTime();
+      try {
+        return delegate.call();
+      }
+      finally {
+        totalRunTime.addAndGet(System.nanoTime() - start);
+        completedCount.incrementAndGet();
+      }
+    }
+    
+  }
+  
+}
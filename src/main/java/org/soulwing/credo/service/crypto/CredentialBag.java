@@ -38,6 +38,56 @@ public interface CredentialBag {
    */
   int addAllObjects(InputStream inputStream) throws IOException;
   
+  /**
+   * Adds all of the credential objects that appear on the given input
+   * stream to the receiver, reading no more than the given number of
+   * objects.
+   * <p>
+   * The stream may contain PEM encoded objects, a sequence of DER encoded
+   * objects, or a PKCS#12 file.  Objects are parsed as the stream is read;
+   * the raw content of the stream is not retained.
+   * @param inputStream the input stream to read
+   * @param limit maximum number of objects to read
+   * @return number of objects that were read from {@code inputStream}
+   * @throws ObjectLimitException if {@code inputStream} contains more than
+   *    {@code limit} objects
+   * @throws IOException
+   */
+  int addAllObjects(InputStream inputStream, int limit) 
+      throws ObjectLimitException, IOException;
+  
+  /**
+   * Adds all of the credential objects that appear on the given input
+   * stream to the receiver, reading no more than the given number of
+   * objects from a stream of no more than the given length.
+   * <p>
+   * The length is used to reject a DER encoded object whose declared 
+   * length exceeds that of the stream, before any storage is allocated 
+   * for its content.
+   * @param inputStream the input stream to read
+   * @param limit maximum number of objects to read
+   * @param maxLength maximum length of the content of 
+   *    {@code inputStream}
+   * @return number of objects that were read from {@code inputStream}
+   * @throws ObjectLimitException if {@code inputStream} contains more than
+   *    {@code limit} objects
+   * @throws IOException if {@code inputStream} cannot be read or if it
+   *    contains a malformed object
+   */
+  int addAllObjects(InputStream inputStream, int limit, long maxLength) 
+      throws ObjectLimitException, IOException;
+  
+  /**
+   * Adds all of the credential objects in the given bag to the receiver.
+   * <p>
+   * The objects are shared with {@code bag}, but subsequently removing an
+   * object from either bag does not affect the other.
+   * @param bag the bag whose objects are to be added; must be of the same 
+   *    type as the receiver
+   * @return number of objects that were added
+   */
+  int addAllObjects(CredentialBag bag);
+  
   /**
    * Attempts to find a private key object in the receiver.
    * @return private key or {@code null} if not found
@@ -0,0 +1,167 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A service that runs CPU-intensive cryptographic operations on a bounded
+ * pool of worker threads.
+ * <p>
+ * The calling thread waits for the submitted work to complete.  Work is
+ * admitted only while the pool's queue has room for it and the calling
+ * user has fewer than the allowed number of operations in progress; 
+ * otherwise it is rejected immediately with a 
+ * {@link CryptoOverloadException}.
+ * <p>
+ * Tasks run on a thread other than the caller's, so they must not use 
+ * request- or session-scoped beans, or the caller's persistence context.
+ *
+ * @author Carl Harris
+ */
+public interface CryptoExecutionService {
+
+  /**
+   * Runs a task on the worker pool, waiting for it to complete.
+   * @param task the task to run
+   * @return the result of {@code task}
+   * @throws CryptoOverloadException if the task is not admitted
+   * @throws ExecutionException if {@code task} throws a checked exception
+   *    (an unchecked exception thrown by {@code task} is rethrown as is)
+   */
+  <T> T execute(Callable<T> task) throws ExecutionException;
+
+  /**
+   * Runs a collection of tasks on the worker pool as a single operation,
+   * waiting for all of them to complete.
+   * @param tasks the tasks to run
+   * @return the results of {@code tasks} in the same order
+   * @throws CryptoOverloadException if the tasks are not admitted
+   * @throws ExecutionException if a task throws a checked exception
+   *    (an unchecked exception thrown by a task is rethrown as is)
+   */
+  <T> List<T> executeAll(List<? extends Callable<T>> tasks) 
+      throws ExecutionException;
+
+  /**
+   * Runs a task on the worker pool on behalf of the given user, waiting 
+   * for it to complete.
+   * <p>
+   * This method is intended for callers that run outside of the user's
+   * request (e.g. on a managed executor), where the calling user cannot
+   * be determined from the context.
+   * @param user login name of the user for whom the task is run, or
+   *    {@code null} if the per-user limit does not apply
+   * @param task the task to run
+   * @return the result of {@code task}
+   * @throws CryptoOverloadException if the task is not admitted
+   * @throws ExecutionException if {@code task} throws a checked exception
+   *    (an unchecked exception thrown by {@code task} is rethrown as is)
+   */
+  <T> T execute(String user, Callable<T> task) throws ExecutionException;
+
+  /**
+   * Runs a collection of tasks on the worker pool as a single operation on
+   * behalf of the given user, waiting for all of them to complete.
+   * @param user login name of the user for whom the tasks are run, or
+   *    {@code null} if the per-user limit does not apply
+   * @param tasks the tasks to run
+   * @return the results of {@code tasks} in the same order
+   * @throws CryptoOverloadException if the tasks are not admitted
+   * @throws ExecutionException if a task throws a checked exception
+   *    (an unchecked exception thrown by a task is rethrown as is)
+   * @see #execute(String, Callable)
+   */
+  <T> List<T> executeAll(String user, List<? extends Callable<T>> tasks) 
+      throws ExecutionException;
+
+  /**
+   * Runs a collection of tasks on the worker pool as a single operation,
+   * with no more than the given number of them in flight at any time, 
+   * waiting for all of them to complete.
+   * <p>
+   * Tasks are submitted in order; as each task completes, the next is
+   * submitted in its place, so a long collection of tasks neither floods
+   * the pool's queue nor waits on the slowest task of each group.  If a
+   * task fails, the tasks that have not yet been submitted are not run.
+   * @param tasks the tasks to run
+   * @param maxConcurrency maximum number of tasks that may be submitted
+   *    and not yet completed at any time
+   * @return the results of {@code tasks} in the same order
+   * @throws CryptoOverloadException if the tasks are not admitted
+   * @throws ExecutionException if a task throws a checked exception
+   *    (an unchecked exception thrown by a task is rethrown as is)
+   */
+  <T> List<T> executeAll(List<? extends Callable<T>> tasks, 
+      int maxConcurrency) throws ExecutionException;
+
+  /**
+   * Runs a collection of tasks on the worker pool as a single operation on
+   * behalf of the given user, with no more than the given number of them
+   * in flight at any time, waiting for all of them to complete.
+   * @param user login name of the user for whom the tasks are run, or
+   *    {@code null} if the per-user limit does not apply
+   * @param tasks the tasks to run
+   * @param maxConcurrency maximum number of tasks that may be submitted
+   *    and not yet completed at any time
+   * @return the results of {@code tasks} in the same order
+   * @throws CryptoOverloadException if the tasks are not admitted
+   * @throws ExecutionException if a task throws a checked exception
+   *    (an unchecked exception thrown by a task is rethrown as is)
+   * @see #execute(String, Callable)
+   * @see #executeAll(List, int)
+   */
+  <T> List<T> executeAll(String user, List<? extends Callable<T>> tasks,
+      int maxConcurrency) throws ExecutionException;
+  
+  /**
+   * Gets the number of worker threads in the pool.
+   * @return worker count
+   */
+  int getWorkerCount();
+  
+  /**
+   * Gets the number of tasks waiting for a worker thread.
+   * @return queue depth
+   */
+  int getQueueDepth();
+  
+  /**
+   * Gets the number of tasks that are currently running.
+   * @return active task count
+   */
+  int getActiveCount();
+  
+  /**
+   * Gets the number of tasks that have completed since the service 
+   * was started.
+   * @return completed task count
+   */
+  long getCompletedCount();
+  
+  /**
+   * Gets the number of operations that have been rejected since the 
+   * service was started.
+   * @return rejected operation count
+   */
+  long getRejectedCount();
+  
+}
@@ -0,0 +1,59 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto;
+
+import javax.ejb.ApplicationException;
+
+/**
+ * An exception thrown when a {@link CryptoExecutionService} has no 
+ * capacity to accept more work.
+ * <p>
+ * This is an application exception, so that it reaches the caller of an
+ * EJB as is, rather than wrapped in an {@code EJBException}.
+ *
+ * @author Carl Harris
+ */
+@ApplicationException(rollback = true)
+public class CryptoOverloadException extends RuntimeException {
+
+  private static final long serialVersionUID = -6147207386385716437L;
+
+  private final long retryAfter;
+  
+  /**
+   * Constructs a new instance.
+   * @param retryAfter number of seconds after which the operation
+   *    could reasonably be attempted again
+   */
+  public CryptoOverloadException(long retryAfter) {
+    super("cryptographic operations are overloaded; retry after " 
+        + retryAfter + " seconds");
+    this.retryAfter = retryAfter;
+  }
+
+  /**
+   * Gets the number of seconds after which the rejected operation could 
+   * reasonably be attempted again.
+   * @return retry delay in seconds
+   */
+  public long getRetryAfter() {
+    return retryAfter;
+  }
+  
+}
@@ -28,11 +28,18 @@ package org.soulwing.credo.service.crypto;
 public interface KeyGeneratorService {
 
   /**
-   * Generates a public/private key pair.
+   * Generates a public/private key pair of the configured default type.
    * @return new key pair
    */
   KeyPairWrapper generateKeyPair();
   
+  /**
+   * Generates a public/private key pair of the given type.
+   * @param type type of key pair to generate
+   * @return new key pair
+   */
+  KeyPairWrapper generateKeyPair(KeyPairType type);
+  
   /**
    * Generates a (symmetric) secret key.
    * @return secret key
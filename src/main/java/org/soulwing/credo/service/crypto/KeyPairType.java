@@ -0,0 +1,74 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto;
+
+/**
+ * An enumeration of the types of public/private key pair that can be
+ * generated.
+ *
+ * @author Carl Harris
+ */
+public enum KeyPairType {
+
+  /** RSA key pair with a 2048-bit modulus */
+  RSA_2048("RSA", 2048, null),
+
+  /** elliptic curve key pair on the NIST P-256 curve */
+  EC_P256("EC", 256, "secp256r1"),
+
+  /** elliptic curve key pair on the NIST P-384 curve */
+  EC_P384("EC", 384, "secp384r1");
+
+  private final String algorithm;
+  private final int keySize;
+  private final String curveName;
+
+  private KeyPairType(String algorithm, int keySize, String curveName) {
+    this.algorithm = algorithm;
+    this.keySize = keySize;
+    this.curveName = curveName;
+  }
+
+  /**
+   * Gets the JCA key algorithm name for this key pair type.
+   * @return algorithm name (e.g. {@code RSA} or {@code EC})
+   */
+  public String getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Gets the key size for this key pair type.
+   * @return key size in bits
+   */
+  public int getKeySize() {
+    return keySize;
+  }
+
+  /**
+   * Gets the standard name of the curve for an elliptic curve key pair
+   * type.
+   * @return curve name or {@code null} if this is not an elliptic curve
+   *    type
+   */
+  public String getCurveName() {
+    return curveName;
+  }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto;
+
+/**
+ * A service that encrypts the private keys of user profiles for storage.
+ * <p>
+ * Unlike the keys produced for export, which must be readable by other 
+ * tools, stored profile keys are encrypted using a configurable scheme
+ * whose cost is tuned for this application.  A key stored using another
+ * scheme (or at a lower cost) remains readable, and should be replaced by
+ * a newly encrypted key the next time its owner unlocks it.
+ *
+ * @author Carl Harris
+ */
+public interface ProfileKeyEncryptionService extends PKCS8EncryptionService {
+
+  /**
+   * Tests whether a stored private key should be encrypted again using
+   * the current scheme.
+   * @param encoded the stored (PEM encoded) encrypted private key
+   * @return {@code true} if {@code encoded} was produced by a scheme other
+   *    than the current scheme or at a lower cost than the current cost
+   */
+  boolean isReencryptionNeeded(String encoded);
+  
+}
@@ -39,7 +39,14 @@ public @interface WrappedWith {
   
   enum Type {
     AES,
-    RSA;
+    RSA,
+    EC,
+    
+    /** 
+     * the public key of a user profile, of any supported algorithm;
+     * the wrapping scheme is chosen according to the algorithm of the key
+     */
+    PUBLIC;
   }
   
   Type value();
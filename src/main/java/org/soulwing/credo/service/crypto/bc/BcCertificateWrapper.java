@@ -27,6 +27,9 @@ import java.util.Date;
 
 import javax.security.auth.x500.X500Principal;
 
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.Extensions;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
 import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
@@ -144,11 +147,39 @@ public class BcCertificateWrapper implements BcWrapper, CertificateWrapper {
         && publicKey.getExponent().equals(privateKey.getPublicExponent());
   }
   
+  /**
+   * Gets the key identifier of this certificate's subject key
+   * identifier extension.
+   * @return key identifier or {@code null} if the certificate has no
+   *    such extension
+   */
+  byte[] getSubjectKeyIdentifier() {
+    Extensions extensions = certificate.getExtensions();
+    if (extensions == null) return null;
+    SubjectKeyIdentifier keyId = SubjectKeyIdentifier.fromExtensions(
+        extensions);
+    return keyId != null ? keyId.getKeyIdentifier() : null;
+  }
+
+  /**
+   * Gets the key identifier of this certificate's authority key
+   * identifier extension.
+   * @return key identifier or {@code null} if the certificate has no
+   *    such extension or the extension does not specify a key identifier
+   */
+  byte[] getAuthorityKeyIdentifier() {
+    Extensions extensions = certificate.getExtensions();
+    if (extensions == null) return null;
+    AuthorityKeyIdentifier keyId = AuthorityKeyIdentifier.fromExtensions(
+        extensions);
+    return keyId != null ? keyId.getKeyIdentifier() : null;
+  }
+
   /**
    * Derives public key parameters from this certificate's subject public key.
    * @return public key parameters
    */
-  private AsymmetricKeyParameter derivePublicKeyParameters() {
+  AsymmetricKeyParameter derivePublicKeyParameters() {
     try {
       return PublicKeyFactory.createKey(certificate.getSubjectPublicKeyInfo());
     }
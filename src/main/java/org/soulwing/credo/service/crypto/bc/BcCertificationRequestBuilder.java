@@ -18,6 +18,9 @@
  */
 package org.soulwing.credo.service.crypto.bc;
 
+import java.security.PrivateKey;
+import java.security.interfaces.ECKey;
+
 import javax.security.auth.x500.X500Principal;
 
 import org.bouncycastle.operator.ContentSigner;
@@ -31,6 +34,7 @@ import org.soulwing.credo.service.crypto.CertificationRequestException;
 import org.soulwing.credo.service.crypto.CertificationRequestWrapper;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
 import org.soulwing.credo.service.crypto.PublicKeyWrapper;
+import org.soulwing.credo.service.crypto.jca.JcaKeyAlgorithms;
 
 /**
  * A {@link CertificationRequestBuilder} that is based on the Bouncy Castle
@@ -71,10 +75,11 @@ public class BcCertificationRequestBuilder
     PKCS10CertificationRequestBuilder builder = 
         new JcaPKCS10CertificationRequestBuilder(subject, 
             publicKey.derive());
+    PrivateKey key = privateKey.derive();
     JcaContentSignerBuilder signerBuilder = 
-        new JcaContentSignerBuilder("SHA1WithRSA");
+        new JcaContentSignerBuilder(getSignatureAlgorithm(key));
     try {
-      ContentSigner signer = signerBuilder.build(privateKey.derive());
+      ContentSigner signer = signerBuilder.build(key);
       PKCS10CertificationRequest csr = builder.build(signer);
       return new BcCertificationRequestWrapper(csr);
     }
@@ -83,4 +88,20 @@ public class BcCertificationRequestBuilder
     }
   }
 
+  /**
+   * Gets the name of the signature algorithm to use with a private key.
+   * <p>
+   * Elliptic curve keys are used with ECDSA and a digest whose size
+   * matches the size of the curve.
+   * @param key the signing key
+   * @return signature algorithm name
+   */
+  private String getSignatureAlgorithm(PrivateKey key) {
+    String algorithm = JcaKeyAlgorithms.forName(key.getAlgorithm());
+    if (!JcaKeyAlgorithms.EC.equals(algorithm)) return "SHA1WithRSA";
+    int fieldSize = ((ECKey) key).getParams().getCurve().getField()
+        .getFieldSize();
+    return fieldSize > 256 ? "SHA384WithECDSA" : "SHA256WithECDSA";
+  }
+
 }
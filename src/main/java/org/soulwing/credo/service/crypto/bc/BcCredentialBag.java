@@ -18,30 +18,76 @@
  */
 package org.soulwing.credo.service.crypto.bc;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import javax.security.auth.x500.X500Principal;
+
+import org.apache.commons.lang.Validate;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.pkcs.ContentInfo;
+import org.bouncycastle.asn1.pkcs.EncryptedPrivateKeyInfo;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.Pfx;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.pkcs.RSAPrivateKey;
+import org.bouncycastle.asn1.pkcs.RSAPublicKey;
+import org.bouncycastle.asn1.sec.ECPrivateKey;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.Certificate;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
 import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA1Digest;
 import org.bouncycastle.crypto.params.AsymmetricKeyParameter;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.params.ECPublicKeyParameters;
+import org.bouncycastle.crypto.params.RSAKeyParameters;
 import org.bouncycastle.crypto.params.RSAPrivateCrtKeyParameters;
 import org.bouncycastle.crypto.util.PrivateKeyFactory;
 import org.bouncycastle.openssl.PEMEncryptedKeyPair;
 import org.bouncycastle.openssl.PEMKeyPair;
 import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.pkcs.PKCS12PfxPdu;
+import org.bouncycastle.pkcs.PKCS12SafeBag;
+import org.bouncycastle.pkcs.PKCS12SafeBagFactory;
 import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.soulwing.credo.service.crypto.CertificateWrapper;
 import org.soulwing.credo.service.crypto.CredentialBag;
+import org.soulwing.credo.service.crypto.ObjectLimitException;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
 import org.soulwing.credo.service.crypto.UnsupportedKeyTypeException;
 import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
 
 /**
  * A {@link CredentialBag} implementation based on Bouncy Castle.
+ * <p>
+ * As certificates are added to the bag, they are indexed by subject name,
+ * by subject key identifier, and by a fingerprint of the subject public 
+ * key (RSA or elliptic curve), so that finding the certificate for a 
+ * private key and building a chain of issuer certificates does not require
+ * a scan of every object in the bag.  Each index entry lists certificates 
+ * in the order in which they were added, and the first suitable 
+ * certificate is always chosen.
+ * <p>
+ * Objects may be read from PEM content, from a sequence of DER encoded
+ * objects, or from the unencrypted content of a PKCS#12 file.
  *
  * @author Carl Harris
  */
@@ -50,8 +96,19 @@ public class BcCredentialBag implements CredentialBag {
   private static final Logger logger = 
       LoggerFactory.getLogger(BcCredentialBag.class);
   
+  private static final int PFX_VERSION = 3;
+  
   private final List<BcWrapper> objects = new ArrayList<>();
   
+  private final Map<X500Principal, List<BcCertificateWrapper>> 
+      subjectIndex = new HashMap<>();
+  
+  private final Map<ByteBuffer, List<BcCertificateWrapper>> 
+      subjectKeyIdIndex = new HashMap<>();
+  
+  private final Map<ByteBuffer, List<BcCertificateWrapper>> 
+      publicKeyIndex = new HashMap<>();
+  
   private final PemObjectBuilderFactory objectBuilderFactory;
   
   /**
@@ -67,33 +124,263 @@ public class BcCredentialBag implements CredentialBag {
    */
   @Override
   public int addAllObjects(InputStream inputStream) throws IOException {
+    return addAllObjects(inputStream, Integer.MAX_VALUE);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int addAllObjects(InputStream inputStream, int limit)
+      throws ObjectLimitException, IOException {
+    return addAllObjects(inputStream, limit, Integer.MAX_VALUE);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int addAllObjects(InputStream inputStream, int limit, 
+      long maxLength) throws ObjectLimitException, IOException {
     List<BcWrapper> objects = new ArrayList<>();
+    InputStream bufferedStream = new BufferedInputStream(inputStream);
+    if (isDerEncoded(bufferedStream)) {
+      readDerObjects(bufferedStream, objects, limit, 
+          (int) Math.min(maxLength, Integer.MAX_VALUE));
+    }
+    else {
+      readPemObjects(bufferedStream, objects, limit);
+    }
+    addAll(objects);
+    return objects.size();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int addAllObjects(CredentialBag bag) {
+    Validate.isTrue(bag instanceof BcCredentialBag, 
+        "requires a " + BcCredentialBag.class.getSimpleName());
+    List<BcWrapper> objects = ((BcCredentialBag) bag).objects;
+    addAll(objects);
+    return objects.size();
+  }
+
+  private void addAll(List<BcWrapper> objects) {
+    for (BcWrapper obj : objects) {
+      if (obj instanceof BcCertificateWrapper) {
+        addToIndexes((BcCertificateWrapper) obj);
+      }
+    }
+    this.objects.addAll(objects);
+  }
+  
+  /**
+   * Tests whether the content of the given stream appears to be DER 
+   * encoded.
+   * <p>
+   * DER encoded content of interest starts with the tag of an ASN.1 
+   * sequence followed by a long form length, which cannot appear at
+   * the beginning of PEM content.
+   * @param inputStream the subject stream, which must support mark/reset
+   * @return {@code true} if the content of {@code inputStream} is DER
+   *    encoded
+   * @throws IOException
+   */
+  private boolean isDerEncoded(InputStream inputStream) throws IOException {
+    inputStream.mark(2);
+    try {
+      return inputStream.read() == 0x30 && inputStream.read() >= 0x80;
+    }
+    finally {
+      inputStream.reset();
+    }
+  }
+  
+  private void readPemObjects(InputStream inputStream, 
+      List<BcWrapper> objects, int limit) throws IOException {
     try (PEMParser parser = new PEMParser(
         new InputStreamReader(inputStream, "UTF-8"))) {
       Object obj = parser.readObject();
       while (obj != null) {
-        if (obj instanceof PKCS8EncryptedPrivateKeyInfo) {
-          objects.add(new BcPrivateKeyWrapper(obj, objectBuilderFactory));          
+        addObject(obj, objects, limit);
+        obj = parser.readObject();
+      }
+    }
+  }
+
+  /**
+   * Reads a sequence of DER encoded objects.
+   * @param inputStream the stream to read
+   * @param objects list to which the objects read will be added
+   * @param limit maximum number of objects to read
+   * @param maxLength maximum length of the stream content; an object 
+   *    whose declared length exceeds this limit is rejected before its
+   *    content is read
+   * @throws IOException
+   */
+  private void readDerObjects(InputStream inputStream, 
+      List<BcWrapper> objects, int limit, int maxLength) 
+      throws IOException {
+    try (ASN1InputStream asn1Stream = 
+        new ASN1InputStream(inputStream, maxLength)) {
+      ASN1Primitive obj = asn1Stream.readObject();
+      while (obj != null) {
+        if (!(obj instanceof ASN1Sequence)) {
+          logger.info("unrecognized DER object of type: {}", 
+              obj.getClass().getName());
         }
-        else if (obj instanceof PEMEncryptedKeyPair) {
-          objects.add(new BcPrivateKeyWrapper(obj, objectBuilderFactory));
+        else if (isPfx((ASN1Sequence) obj)) {
+          for (Object bagValue : decodePkcs12Objects((ASN1Sequence) obj)) {
+            addObject(bagValue, objects, limit);
+          }
         }
-        else if (obj instanceof PEMKeyPair) {
-          objects.add(new BcPrivateKeyWrapper(obj, objectBuilderFactory));          
+        else {
+          addObject(decodeDerObject((ASN1Sequence) obj), objects, limit);
         }
-        else if (obj instanceof X509CertificateHolder) {
-          objects.add(new BcCertificateWrapper((X509CertificateHolder) obj));
+        obj = asn1Stream.readObject();
+      }
+    }
+  }
+
+  /**
+   * Decodes the objects in the unencrypted content of a PKCS#12 PFX 
+   * structure.
+   * @param sequence the PFX sequence
+   * @return list of decoded bag values
+   * @throws IOException if {@code sequence} is malformed
+   */
+  private List<Object> decodePkcs12Objects(ASN1Sequence sequence) 
+      throws IOException {
+    try {
+      List<Object> bagValues = new ArrayList<>();
+      PKCS12PfxPdu pfx = new PKCS12PfxPdu(Pfx.getInstance(sequence));
+      for (ContentInfo info : pfx.getContentInfos()) {
+        if (!PKCSObjectIdentifiers.data.equals(info.getContentType())) {
+          logger.info("skipping encrypted PKCS#12 content of type: {}",
+              info.getContentType());
+          continue;
         }
-        else {
-          logger.info("unrecognized object of type: {}", 
-              obj.getClass().getName());
+        for (PKCS12SafeBag safeBag : 
+            new PKCS12SafeBagFactory(info).getSafeBags()) {
+          bagValues.add(safeBag.getBagValue());
         }
-        obj = parser.readObject();
       }
+      return bagValues;
+    }
+    catch (RuntimeException ex) {
+      throw new IOException("malformed DER object", ex);
     }
-    
-    this.objects.addAll(objects);
-    return objects.size();
+  }
+
+  /**
+   * Tests whether the given sequence is a PKCS#12 PFX structure.
+   * @param sequence the sequence to test
+   * @return {@code true} if {@code sequence} is a PFX
+   */
+  private boolean isPfx(ASN1Sequence sequence) {
+    return sequence.size() >= 2
+        && sequence.getObjectAt(0) instanceof ASN1Integer
+        && ((ASN1Integer) sequence.getObjectAt(0)).getValue().intValue() 
+            == PFX_VERSION
+        && sequence.getObjectAt(1) instanceof ASN1Sequence;
+  }
+  
+  /**
+   * Decodes a DER sequence as one of the credential object types produced
+   * by the PEM parser, based on the shape of the sequence.
+   * @param sequence the sequence to decode
+   * @return decoded object or {@code sequence} if it is not recognized
+   * @throws IOException if {@code sequence} has the shape of a recognized
+   *    type but is malformed
+   */
+  private Object decodeDerObject(ASN1Sequence sequence) throws IOException {
+    try {
+      return decodeDerSequence(sequence);
+    }
+    catch (RuntimeException ex) {
+      throw new IOException("malformed DER object", ex);
+    }
+  }
+  
+  /**
+   * Decodes a DER sequence.
+   * <p>
+   * The Bouncy Castle factory methods used here report a malformed 
+   * structure by throwing an unchecked exception (most often an
+   * {@link IllegalArgumentException}, but also {@link ClassCastException}
+   * or {@link IndexOutOfBoundsException}, depending on where the structure
+   * deviates); the caller translates any of these into an 
+   * {@link IOException}.
+   * @param sequence the sequence to decode
+   * @return decoded object or {@code sequence} if it is not recognized
+   * @throws IOException
+   */
+  private Object decodeDerSequence(ASN1Sequence sequence) 
+      throws IOException {
+    ASN1Encodable first = sequence.getObjectAt(0);
+    if (sequence.size() == 3 && first instanceof ASN1Sequence) {
+      return new X509CertificateHolder(Certificate.getInstance(sequence));
+    }
+    if (sequence.size() == 2 && first instanceof ASN1Sequence
+        && sequence.getObjectAt(1) instanceof ASN1OctetString) {
+      return new PKCS8EncryptedPrivateKeyInfo(
+          EncryptedPrivateKeyInfo.getInstance(sequence));
+    }
+    if (sequence.size() == 9 && first instanceof ASN1Integer) {
+      return new PrivateKeyInfo(new AlgorithmIdentifier(
+          PKCSObjectIdentifiers.rsaEncryption, DERNull.INSTANCE),
+          RSAPrivateKey.getInstance(sequence));
+    }
+    if (sequence.size() >= 3 && first instanceof ASN1Integer
+        && sequence.getObjectAt(1) instanceof ASN1Sequence) {
+      return PrivateKeyInfo.getInstance(sequence);
+    }
+    if (sequence.size() >= 3 && first instanceof ASN1Integer
+        && sequence.getObjectAt(1) instanceof ASN1OctetString) {
+      ECPrivateKey ecKey = ECPrivateKey.getInstance(sequence);
+      if (ecKey.getParameters() != null) {
+        return new PrivateKeyInfo(new AlgorithmIdentifier(
+            X9ObjectIdentifiers.id_ecPublicKey, ecKey.getParameters()), 
+            ecKey);
+      }
+    }
+    return sequence;
+  }
+  
+  private void addObject(Object obj, List<BcWrapper> objects, int limit)
+      throws ObjectLimitException {
+    BcWrapper wrapper = wrap(obj);
+    if (wrapper == null) {
+      logger.info("unrecognized object of type: {}", 
+          obj.getClass().getName());
+      return;
+    }
+    if (objects.size() >= limit) {
+      throw new ObjectLimitException();
+    }
+    objects.add(wrapper);
+  }
+  
+  private BcWrapper wrap(Object obj) {
+    if (obj instanceof PKCS8EncryptedPrivateKeyInfo) {
+      return new BcPrivateKeyWrapper(obj, objectBuilderFactory);          
+    }
+    else if (obj instanceof PEMEncryptedKeyPair) {
+      return new BcPrivateKeyWrapper(obj, objectBuilderFactory);
+    }
+    else if (obj instanceof PEMKeyPair) {
+      return new BcPrivateKeyWrapper(obj, objectBuilderFactory);          
+    }
+    else if (obj instanceof PrivateKeyInfo) {
+      return new BcPrivateKeyWrapper(
+          new PEMKeyPair(null, (PrivateKeyInfo) obj), objectBuilderFactory);
+    }
+    else if (obj instanceof X509CertificateHolder) {
+      return new BcCertificateWrapper((X509CertificateHolder) obj);
+    }
+    return null;
   }
 
   /**
@@ -115,21 +402,18 @@ public class BcCredentialBag implements CredentialBag {
   @Override
   public CertificateWrapper findSubjectCertificate(
       PrivateKeyWrapper privateKey) {
-    RSAPrivateCrtKeyParameters rsaParams = deriveRSAKeyParameters(privateKey);
-    
-    for (BcWrapper obj : objects) {
-      if (obj instanceof BcCertificateWrapper) {
-        BcCertificateWrapper wrapper = (BcCertificateWrapper) obj;
-        if (wrapper.matches(rsaParams)) {
-          return wrapper;
-        }
-      }
-    }
-    
-    return null;
+    AsymmetricKeyParameter publicKey = derivePublicKeyParameters(privateKey);
+    return first(publicKeyIndex.get(fingerprint(publicKey)));
   }
 
-  private RSAPrivateCrtKeyParameters deriveRSAKeyParameters(
+  /**
+   * Derives the public key parameters that correspond to a private key.
+   * @param privateKey the subject private key
+   * @return public key parameters
+   * @throws UnsupportedKeyTypeException if {@code privateKey} is neither
+   *    an RSA nor an elliptic curve key
+   */
+  private AsymmetricKeyParameter derivePublicKeyParameters(
       PrivateKeyWrapper privateKey) {
     try {
       AsymmetricKeyParameter params = null;
@@ -140,11 +424,21 @@ public class BcCredentialBag implements CredentialBag {
         params = PrivateKeyFactory.createKey(privateKey.derive().getEncoded());
       }
       
-      if (!(params instanceof RSAPrivateCrtKeyParameters)) {
-        throw new UnsupportedKeyTypeException();
+      if (params instanceof RSAPrivateCrtKeyParameters) {
+        RSAPrivateCrtKeyParameters rsaParams = 
+            (RSAPrivateCrtKeyParameters) params;
+        return new RSAKeyParameters(false, rsaParams.getModulus(), 
+            rsaParams.getPublicExponent());
+      }
+      
+      if (params instanceof ECPrivateKeyParameters) {
+        ECPrivateKeyParameters ecParams = (ECPrivateKeyParameters) params;
+        ECDomainParameters domain = ecParams.getParameters();
+        return new ECPublicKeyParameters(
+            domain.getG().multiply(ecParams.getD()), domain);
       }
       
-      return (RSAPrivateCrtKeyParameters) params;
+      throw new UnsupportedKeyTypeException();
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
@@ -159,27 +453,47 @@ public class BcCredentialBag implements CredentialBag {
       CertificateWrapper certificate) {
     List<CertificateWrapper> chain = new ArrayList<>();
     CertificateWrapper issuerCert = findIssuerCertificate(certificate);
-    while (issuerCert != null && !issuerCert.isSelfSigned()) {
+    while (issuerCert != null && !issuerCert.isSelfSigned()
+        && !chain.contains(issuerCert)) {
       chain.add(issuerCert);
       issuerCert = findIssuerCertificate(issuerCert);
     }
-    if (issuerCert != null) {
+    if (issuerCert != null && !chain.contains(issuerCert)) {
       chain.add(issuerCert);
     }
     return chain;
   }
 
+  /**
+   * Finds the certificate of the issuer of the given certificate.
+   * <p>
+   * When the subject certificate identifies its authority key, the
+   * first certificate with the issuer's name and a matching subject key
+   * identifier is preferred; otherwise the first certificate with the 
+   * issuer's name is chosen.
+   * @param subjectCert the subject certificate
+   * @return issuer certificate or {@code null} if the bag contains no 
+   *    certificate for the issuer
+   */
   private CertificateWrapper findIssuerCertificate(
       CertificateWrapper subjectCert) {
-    for (BcWrapper obj : objects) {
-      if (obj instanceof BcCertificateWrapper) {
-        BcCertificateWrapper cert = (BcCertificateWrapper) obj;
-        if (cert.getSubject().equals(subjectCert.getIssuer())) {
-          return cert;
+    X500Principal issuer = subjectCert.getIssuer();
+    if (subjectCert instanceof BcCertificateWrapper) {
+      byte[] keyId = 
+          ((BcCertificateWrapper) subjectCert).getAuthorityKeyIdentifier();
+      if (keyId != null) {
+        List<BcCertificateWrapper> candidates = 
+            subjectKeyIdIndex.get(ByteBuffer.wrap(keyId));
+        if (candidates != null) {
+          for (BcCertificateWrapper candidate : candidates) {
+            if (candidate.getSubject().equals(issuer)) {
+              return candidate;
+            }
+          }
         }
       }
     }
-    return null;
+    return first(subjectIndex.get(issuer));
   }
 
   /**
@@ -188,7 +502,11 @@ public class BcCredentialBag implements CredentialBag {
   @Override
   public boolean removeObject(Object obj) {
     if (!(obj instanceof BcWrapper)) return false;
-    return objects.remove(((BcWrapper) obj));
+    boolean removed = objects.remove(((BcWrapper) obj));
+    if (removed && obj instanceof BcCertificateWrapper) {
+      removeFromIndexes((BcCertificateWrapper) obj);
+    }
+    return removed;
   }
 
   /**
@@ -206,5 +524,91 @@ public class BcCredentialBag implements CredentialBag {
     return false;
   }
 
+  private void addToIndexes(BcCertificateWrapper certificate) {
+    put(subjectIndex, certificate.getSubject(), certificate);
+    byte[] keyId = certificate.getSubjectKeyIdentifier();
+    if (keyId != null) {
+      put(subjectKeyIdIndex, ByteBuffer.wrap(keyId), certificate);
+    }
+    ByteBuffer fingerprint = fingerprint(certificate);
+    if (fingerprint != null) {
+      put(publicKeyIndex, fingerprint, certificate);
+    }
+  }
+  
+  private void removeFromIndexes(BcCertificateWrapper certificate) {
+    remove(subjectIndex, certificate.getSubject(), certificate);
+    byte[] keyId = certificate.getSubjectKeyIdentifier();
+    if (keyId != null) {
+      remove(subjectKeyIdIndex, ByteBuffer.wrap(keyId), certificate);
+    }
+    ByteBuffer fingerprint = fingerprint(certificate);
+    if (fingerprint != null) {
+      remove(publicKeyIndex, fingerprint, certificate);
+    }
+  }
+  
+  private static <K> void put(Map<K, List<BcCertificateWrapper>> index,
+      K key, BcCertificateWrapper certificate) {
+    List<BcCertificateWrapper> certificates = index.get(key);
+    if (certificates == null) {
+      certificates = new ArrayList<>(1);
+      index.put(key, certificates);
+    }
+    certificates.add(certificate);
+  }
+
+  private static <K> void remove(Map<K, List<BcCertificateWrapper>> index,
+      K key, BcCertificateWrapper certificate) {
+    List<BcCertificateWrapper> certificates = index.get(key);
+    if (certificates == null) return;
+    certificates.remove(certificate);
+    if (certificates.isEmpty()) {
+      index.remove(key);
+    }
+  }
+  
+  private static BcCertificateWrapper first(
+      List<BcCertificateWrapper> certificates) {
+    if (certificates == null || certificates.isEmpty()) return null;
+    return certificates.get(0);
+  }
   
+  private static ByteBuffer fingerprint(BcCertificateWrapper certificate) {
+    return fingerprint(certificate.derivePublicKeyParameters());
+  }
+
+  /**
+   * Computes the fingerprint of a public key as the SHA-1 digest of 
+   * its encoding; the DER encoding of an RSA key, or the uncompressed
+   * encoding of the public point of an elliptic curve key.
+   * @param key the public key
+   * @return fingerprint or {@code null} if {@code key} is neither an 
+   *    RSA nor an elliptic curve key
+   */
+  private static ByteBuffer fingerprint(AsymmetricKeyParameter key) {
+    try {
+      byte[] encoded = null;
+      if (key instanceof RSAKeyParameters) {
+        RSAKeyParameters publicKey = (RSAKeyParameters) key;
+        encoded = new RSAPublicKey(publicKey.getModulus(), 
+            publicKey.getExponent()).getEncoded();
+      }
+      else if (key instanceof ECPublicKeyParameters) {
+        encoded = ((ECPublicKeyParameters) key).getQ().getEncoded(false);
+      }
+      else {
+        return null;
+      }
+      Digest digest = new SHA1Digest();
+      byte[] fingerprint = new byte[digest.getDigestSize()];
+      digest.update(encoded, 0, encoded.length);
+      digest.doFinal(fingerprint, 0);
+      return ByteBuffer.wrap(fingerprint);
+    }
+    catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
 }
@@ -0,0 +1,135 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.bc;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.openssl.PKCS8Generator;
+import org.bouncycastle.openssl.jcajce.JceOpenSSLPKCS8DecryptorProviderBuilder;
+import org.bouncycastle.openssl.jcajce.JceOpenSSLPKCS8EncryptorBuilder;
+import org.bouncycastle.operator.InputDecryptorProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.OutputEncryptor;
+import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
+import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfoBuilder;
+import org.bouncycastle.pkcs.PKCSException;
+import org.soulwing.credo.service.crypto.IncorrectPassphraseException;
+
+/**
+ * A {@link BcPKCS8EncryptionScheme} that encrypts using PBE-SHA1-3DES, 
+ * as originally used for all stored private keys.
+ * <p>
+ * Decryption is delegated to the Bouncy Castle OpenSSL support, and so
+ * supports any of the schemes that OpenSSL produces.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class BcOpenSSLPKCS8EncryptionScheme 
+    implements BcPKCS8EncryptionScheme {
+
+  public static final String NAME = "PBE-SHA1-3DES";
+  
+  static final int ITERATION_COUNT = 65536;
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isSchemeOf(AlgorithmIdentifier algorithm) {
+    return PKCS8Generator.PBE_SHA1_3DES.equals(algorithm.getAlgorithm());
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This scheme uses a fixed iteration count, so a key encrypted using it
+   * is always current.
+   */
+  @Override
+  public boolean isCurrent(AlgorithmIdentifier algorithm) {
+    return isSchemeOf(algorithm);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * This scheme uses a fixed iteration count.
+   */
+  @Override
+  public void calibrate(long targetLatency) {
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PKCS8EncryptedPrivateKeyInfo encrypt(PrivateKeyInfo keyInfo,
+      char[] password) {
+    return new PKCS8EncryptedPrivateKeyInfoBuilder(keyInfo)
+        .build(createEncryptor(password));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PrivateKeyInfo decrypt(PKCS8EncryptedPrivateKeyInfo keyInfo,
+      char[] password) throws IncorrectPassphraseException {
+    try {
+      return keyInfo.decryptPrivateKeyInfo(createDecryptor(password));
+    }
+    catch (PKCSException ex) {
+      throw new IncorrectPassphraseException();
+    }
+  }
+
+  private OutputEncryptor createEncryptor(char[] password) {
+    try {
+      return new JceOpenSSLPKCS8EncryptorBuilder(
+          PKCS8Generator.PBE_SHA1_3DES)
+          .setPasssword(password)
+          .setIterationCount(ITERATION_COUNT)
+          .build();
+    }
+    catch (OperatorCreationException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  private InputDecryptorProvider createDecryptor(char[] password) {
+    try {
+      return new JceOpenSSLPKCS8DecryptorProviderBuilder().build(password);
+    }
+    catch (OperatorCreationException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+}
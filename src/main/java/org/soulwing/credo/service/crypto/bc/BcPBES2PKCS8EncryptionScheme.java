@@ -0,0 +1,307 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.bc;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.DERNull;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.EncryptedPrivateKeyInfo;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.crypto.InvalidCipherTextException;
+import org.bouncycastle.crypto.PBEParametersGenerator;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.engines.AESFastEngine;
+import org.bouncycastle.crypto.generators.PKCS5S2ParametersGenerator;
+import org.bouncycastle.crypto.modes.GCMBlockCipher;
+import org.bouncycastle.crypto.params.AEADParameters;
+import org.bouncycastle.crypto.params.KeyParameter;
+import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soulwing.credo.service.crypto.IncorrectPassphraseException;
+
+/**
+ * A {@link BcPKCS8EncryptionScheme} that encrypts using PBES2 with 
+ * PBKDF2-HMAC-SHA256 key derivation and AES-256 in GCM mode.
+ * <p>
+ * The encrypted key is a standard PKCS#8 {@code EncryptedPrivateKeyInfo}
+ * whose PBES2 parameters are encoded as described in RFC 8018 and 
+ * RFC 5084.  The Bouncy Castle release in use neither produces nor reads
+ * these parameters, so the structures are encoded here and the 
+ * lightweight primitives are used directly.
+ * <p>
+ * The PBKDF2 iteration count is calibrated so that deriving a key takes
+ * approximately the configured time; a key encrypted with fewer than half
+ * of the calibrated iterations is not considered current.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class BcPBES2PKCS8EncryptionScheme 
+    implements BcPKCS8EncryptionScheme {
+
+  private static final Logger logger = 
+      LoggerFactory.getLogger(BcPBES2PKCS8EncryptionScheme.class);
+  
+  public static final String NAME = "PBES2-SHA256-AES256-GCM";
+  
+  static final int SALT_LENGTH = 16;
+  
+  static final int NONCE_LENGTH = 12;
+  
+  static final int KEY_LENGTH = 32;
+  
+  static final int TAG_LENGTH = 16;
+  
+  static final int DEFAULT_TAG_LENGTH = 12;
+  
+  static final int MIN_ITERATION_COUNT = 65536;
+  
+  static final int MAX_ITERATION_COUNT = 16777216;
+  
+  static final int DEFAULT_ITERATION_COUNT = 310000;
+  
+  static final int PROBE_ITERATION_COUNT = 20000;
+  
+  private final SecureRandom secureRandom = new SecureRandom();
+  
+  volatile int iterationCount = DEFAULT_ITERATION_COUNT;
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isSchemeOf(AlgorithmIdentifier algorithm) {
+    return Parameters.parse(algorithm) != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isCurrent(AlgorithmIdentifier algorithm) {
+    Parameters parameters = Parameters.parse(algorithm);
+    return parameters != null 
+        && parameters.iterationCount >= iterationCount / 2;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void calibrate(long targetLatency) {
+    char[] password = "calibrate".toCharArray();
+    byte[] salt = randomBytes(SALT_LENGTH);
+    deriveKey(password, salt, PROBE_ITERATION_COUNT);
+    long start = System.nanoTime();
+    deriveKey(password, salt, PROBE_ITERATION_COUNT);
+    long elapsed = Math.max(1, System.nanoTime() - start);
+    long count = PROBE_ITERATION_COUNT * targetLatency * 1000000L / elapsed;
+    iterationCount = (int) Math.max(MIN_ITERATION_COUNT, 
+        Math.min(MAX_ITERATION_COUNT, count));
+    logger.info("{} calibrated to {} iterations for {} ms", NAME, 
+        iterationCount, targetLatency);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PKCS8EncryptedPrivateKeyInfo encrypt(PrivateKeyInfo keyInfo,
+      char[] password) {
+    try {
+      Parameters parameters = new Parameters(randomBytes(SALT_LENGTH), 
+          iterationCount, randomBytes(NONCE_LENGTH), TAG_LENGTH);
+      byte[] cipherText = process(true, 
+          deriveKey(password, parameters.salt, parameters.iterationCount),
+          parameters, keyInfo.getEncoded());
+      return new PKCS8EncryptedPrivateKeyInfo(new EncryptedPrivateKeyInfo(
+          parameters.toAlgorithmIdentifier(), cipherText));
+    }
+    catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+    catch (InvalidCipherTextException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PrivateKeyInfo decrypt(PKCS8EncryptedPrivateKeyInfo keyInfo,
+      char[] password) throws IncorrectPassphraseException {
+    Parameters parameters = Parameters.parse(
+        keyInfo.getEncryptionAlgorithm());
+    if (parameters == null) {
+      throw new IllegalArgumentException("unsupported encryption scheme");
+    }
+    try {
+      byte[] content = process(false, 
+          deriveKey(password, parameters.salt, parameters.iterationCount),
+          parameters, keyInfo.getEncryptedData());
+      return PrivateKeyInfo.getInstance(content);
+    }
+    catch (InvalidCipherTextException ex) {
+      throw new IncorrectPassphraseException();
+    }
+  }
+
+  private KeyParameter deriveKey(char[] password, byte[] salt, 
+      int iterationCount) {
+    PKCS5S2ParametersGenerator generator = 
+        new PKCS5S2ParametersGenerator(new SHA256Digest());
+    generator.init(PBEParametersGenerator.PKCS5PasswordToUTF8Bytes(password),
+        salt, iterationCount);
+    return (KeyParameter) generator.generateDerivedParameters(
+        KEY_LENGTH * 8);
+  }
+  
+  private byte[] process(boolean encrypt, KeyParameter key, 
+      Parameters parameters, byte[] input) 
+      throws InvalidCipherTextException {
+    GCMBlockCipher cipher = new GCMBlockCipher(new AESFastEngine());
+    cipher.init(encrypt, new AEADParameters(key, parameters.tagLength * 8, 
+        parameters.nonce));
+    byte[] output = new byte[cipher.getOutputSize(input.length)];
+    int length = cipher.processBytes(input, 0, input.length, output, 0);
+    length += cipher.doFinal(output, length);
+    return length == output.length ? output : Arrays.copyOf(output, length);
+  }
+  
+  private byte[] randomBytes(int length) {
+    byte[] bytes = new byte[length];
+    secureRandom.nextBytes(bytes);
+    return bytes;
+  }
+  
+  /**
+   * The parameters of the PBES2 algorithm identifier.
+   */
+  private static class Parameters {
+    
+    private final byte[] salt;
+    private final int iterationCount;
+    private final byte[] nonce;
+    private final int tagLength;
+    
+    public Parameters(byte[] salt, int iterationCount, byte[] nonce,
+        int tagLength) {
+      this.salt = salt;
+      this.iterationCount = iterationCount;
+      this.nonce = nonce;
+      this.tagLength = tagLength;
+    }
+
+    /**
+     * Parses the parameters of an algorithm identifier.
+     * @param algorithm the subject algorithm identifier
+     * @return parameters or {@code null} if {@code algorithm} does not
+     *    identify PBES2 with PBKDF2-HMAC-SHA256 and AES-256-GCM
+     */
+    public static Parameters parse(AlgorithmIdentifier algorithm) {
+      if (!PKCSObjectIdentifiers.id_PBES2.equals(algorithm.getAlgorithm())) {
+        return null;
+      }
+      ASN1Sequence pbes2 = ASN1Sequence.getInstance(
+          algorithm.getParameters());
+      AlgorithmIdentifier kdf = 
+          AlgorithmIdentifier.getInstance(pbes2.getObjectAt(0));
+      AlgorithmIdentifier scheme = 
+          AlgorithmIdentifier.getInstance(pbes2.getObjectAt(1));
+      if (!PKCSObjectIdentifiers.id_PBKDF2.equals(kdf.getAlgorithm())
+          || !NISTObjectIdentifiers.id_aes256_GCM.equals(
+              scheme.getAlgorithm())) {
+        return null;
+      }
+      
+      ASN1Sequence kdfParams = ASN1Sequence.getInstance(kdf.getParameters());
+      AlgorithmIdentifier prf = null;
+      for (int i = 2; i < kdfParams.size(); i++) {
+        if (kdfParams.getObjectAt(i) instanceof ASN1Sequence) {
+          prf = AlgorithmIdentifier.getInstance(kdfParams.getObjectAt(i));
+        }
+      }
+      if (prf == null || !PKCSObjectIdentifiers.id_hmacWithSHA256.equals(
+          prf.getAlgorithm())) {
+        return null;
+      }
+      
+      ASN1Sequence gcmParams = ASN1Sequence.getInstance(
+          scheme.getParameters());
+      return new Parameters(
+          ASN1OctetString.getInstance(kdfParams.getObjectAt(0)).getOctets(),
+          ASN1Integer.getInstance(kdfParams.getObjectAt(1))
+              .getValue().intValue(),
+          ASN1OctetString.getInstance(gcmParams.getObjectAt(0)).getOctets(),
+          gcmParams.size() > 1 ? ASN1Integer.getInstance(
+              gcmParams.getObjectAt(1)).getValue().intValue() 
+              : DEFAULT_TAG_LENGTH);
+    }
+    
+    /**
+     * Encodes these parameters as a PBES2 algorithm identifier.
+     * @return algorithm identifier
+     */
+    public AlgorithmIdentifier toAlgorithmIdentifier() {
+      AlgorithmIdentifier kdf = new AlgorithmIdentifier(
+          PKCSObjectIdentifiers.id_PBKDF2, new DERSequence(
+              new ASN1Encodable[] {
+                  new DEROctetString(salt),
+                  new ASN1Integer(iterationCount),
+                  new ASN1Integer(KEY_LENGTH),
+                  new AlgorithmIdentifier(
+                      PKCSObjectIdentifiers.id_hmacWithSHA256, 
+                      DERNull.INSTANCE)
+              }));
+      AlgorithmIdentifier scheme = new AlgorithmIdentifier(
+          NISTObjectIdentifiers.id_aes256_GCM, new DERSequence(
+              new ASN1Encodable[] {
+                  new DEROctetString(nonce),
+                  new ASN1Integer(tagLength)
+              }));
+      return new AlgorithmIdentifier(PKCSObjectIdentifiers.id_PBES2,
+          new DERSequence(new ASN1Encodable[] { kdf, scheme }));
+    }
+    
+  }
+  
+}
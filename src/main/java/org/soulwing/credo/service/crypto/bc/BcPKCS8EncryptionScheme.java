@@ -0,0 +1,82 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.bc;
+
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
+import org.soulwing.credo.service.crypto.IncorrectPassphraseException;
+
+/**
+ * A password-based scheme for encrypting a PKCS#8 private key.
+ * <p>
+ * Any implementation of this interface must be thread safe.
+ *
+ * @author Carl Harris
+ */
+public interface BcPKCS8EncryptionScheme {
+
+  /**
+   * Gets the name by which this scheme is selected in the configuration.
+   * @return scheme name
+   */
+  String getName();
+  
+  /**
+   * Tests whether a key was encrypted using this scheme.
+   * @param algorithm encryption algorithm of the subject key
+   * @return {@code true} if this scheme can decrypt the key
+   */
+  boolean isSchemeOf(AlgorithmIdentifier algorithm);
+  
+  /**
+   * Tests whether a key encrypted using this scheme was encrypted at 
+   * (approximately) the current cost.
+   * @param algorithm encryption algorithm of the subject key
+   * @return {@code true} if the key need not be encrypted again
+   */
+  boolean isCurrent(AlgorithmIdentifier algorithm);
+  
+  /**
+   * Adjusts the cost of this scheme so that decrypting a key takes 
+   * approximately the given time on this host.
+   * @param targetLatency target decryption time in milliseconds
+   */
+  void calibrate(long targetLatency);
+  
+  /**
+   * Encrypts a private key.
+   * @param keyInfo the key to encrypt
+   * @param password password from which the encryption key is derived
+   * @return encrypted key
+   */
+  PKCS8EncryptedPrivateKeyInfo encrypt(PrivateKeyInfo keyInfo, 
+      char[] password);
+  
+  /**
+   * Decrypts a private key.
+   * @param keyInfo the key to decrypt
+   * @param password password from which the encryption key is derived
+   * @return decrypted key
+   * @throws IncorrectPassphraseException if {@code password} is incorrect
+   */
+  PrivateKeyInfo decrypt(PKCS8EncryptedPrivateKeyInfo keyInfo,
+      char[] password) throws IncorrectPassphraseException;
+  
+}
@@ -18,10 +18,6 @@
  */
 package org.soulwing.credo.service.crypto.bc;
 
-import java.security.KeyFactory;
-import java.security.NoSuchAlgorithmException;
-
-import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -50,18 +46,6 @@ public class BcPKCS8EncryptionService
   @Inject
   protected PemObjectBuilderFactory objectBuilderFactory;
   
-  private KeyFactory keyFactory;
-  
-  @PostConstruct
-  public void init() {
-    try {
-      keyFactory = KeyFactory.getInstance("RSA");
-    }
-    catch (NoSuchAlgorithmException ex) {
-      throw new RuntimeException(ex);
-    }
-  }
-  
   /**
    * {@inheritDoc}
    */
@@ -72,7 +56,7 @@ public class BcPKCS8EncryptionService
     PKCS8EncryptedPrivateKeyInfo encryptedKeyInfo = 
         new JcaPKCS8EncryptedPrivateKeyInfoBuilder(privateKey.derive())
             .build(createPrivateKeyEncryptor(password));
-    return new BcPKCS8PrivateKeyWrapper(encryptedKeyInfo, keyFactory,
+    return new BcPKCS8PrivateKeyWrapper(encryptedKeyInfo, 
         objectBuilderFactory);
   }
 
@@ -21,6 +21,7 @@ package org.soulwing.credo.service.crypto.bc;
 import java.io.IOException;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
 import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
@@ -48,6 +49,9 @@ public class BcPKCS8PrivateKeyDecoder implements PrivateKeyDecoder {
   @Inject
   private PemObjectBuilderFactory objectBuilderFactory;
   
+  @Inject
+  private Instance<BcPKCS8EncryptionScheme> schemes;
+  
   /**
    * {@inheritDoc}
    */
@@ -55,9 +59,15 @@ public class BcPKCS8PrivateKeyDecoder implements PrivateKeyDecoder {
   public PrivateKeyWrapper decode(String encoded) {
     PemObjectWrapper object = objectFactory.newPemObject(encoded);
     try {
-      return new BcPrivateKeyWrapper(
-          new PKCS8EncryptedPrivateKeyInfo(object.getContent()),
-          objectBuilderFactory);
+      PKCS8EncryptedPrivateKeyInfo keyInfo = 
+          new PKCS8EncryptedPrivateKeyInfo(object.getContent());
+      for (BcPKCS8EncryptionScheme scheme : schemes) {
+        if (scheme.isSchemeOf(keyInfo.getEncryptionAlgorithm())) {
+          return new BcPKCS8PrivateKeyWrapper(keyInfo, scheme, 
+              objectBuilderFactory);
+        }
+      }
+      return new BcPKCS8PrivateKeyWrapper(keyInfo, objectBuilderFactory);
     }
     catch (IOException ex) {
       throw new IllegalArgumentException("invalid PKCS8 private key", ex);
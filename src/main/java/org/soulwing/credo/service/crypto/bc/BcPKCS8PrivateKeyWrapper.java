@@ -19,21 +19,19 @@
 package org.soulwing.credo.service.crypto.bc;
 
 import java.io.IOException;
-import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
 
 import org.apache.commons.lang.Validate;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
-import org.bouncycastle.openssl.jcajce.JceOpenSSLPKCS8DecryptorProviderBuilder;
-import org.bouncycastle.operator.InputDecryptorProvider;
-import org.bouncycastle.operator.OperatorCreationException;
 import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
-import org.bouncycastle.pkcs.PKCSException;
 import org.soulwing.credo.Password;
 import org.soulwing.credo.service.crypto.IncorrectPassphraseException;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.crypto.jca.JcaKeyAlgorithms;
+import org.soulwing.credo.service.crypto.jca.JcaPrimitiveCache;
 import org.soulwing.credo.service.crypto.jca.JcaPrivateKeyWrapper;
 import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
 
@@ -46,21 +44,34 @@ import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
 public class BcPKCS8PrivateKeyWrapper implements PrivateKeyWrapper {
 
   private final PKCS8EncryptedPrivateKeyInfo delegate;
-  private final KeyFactory keyFactory;
+  private final BcPKCS8EncryptionScheme scheme;
   private final PemObjectBuilderFactory objectBuilderFactory;
   
   private Password password;
   
+  /**
+   * Constructs a new instance that decrypts using any of the schemes
+   * supported by OpenSSL.
+   * @param delegate PKCS8 encryptedPrivateKeyInfo
+   * @param objectBuilderFactory PEM object builder factory
+   */
+  public BcPKCS8PrivateKeyWrapper(PKCS8EncryptedPrivateKeyInfo delegate,
+      PemObjectBuilderFactory objectBuilderFactory) {
+    this(delegate, new BcOpenSSLPKCS8EncryptionScheme(), 
+        objectBuilderFactory);
+  }
+
   /**
    * Constructs a new instance.
    * @param delegate PKCS8 encryptedPrivateKeyInfo
-   * @param keyFactory RSA key factory
+   * @param scheme the scheme that will be used to decrypt {@code delegate}
    * @param objectBuilderFactory PEM object builder factory
    */
   public BcPKCS8PrivateKeyWrapper(PKCS8EncryptedPrivateKeyInfo delegate,
-      KeyFactory keyFactory, PemObjectBuilderFactory objectBuilderFactory) {
+      BcPKCS8EncryptionScheme scheme,
+      PemObjectBuilderFactory objectBuilderFactory) {
     this.delegate = delegate;
-    this.keyFactory = keyFactory;
+    this.scheme = scheme;
     this.objectBuilderFactory = objectBuilderFactory;
   }
 
@@ -115,15 +126,16 @@ public class BcPKCS8PrivateKeyWrapper implements PrivateKeyWrapper {
     if (password == null || password.isEmpty()) {
       throw new IncorrectPassphraseException();
     }
-    InputDecryptorProvider decryptor = createPrivateKeyDecryptor();
     try {
-      PrivateKeyInfo keyInfo = delegate.decryptPrivateKeyInfo(decryptor);
+      PrivateKeyInfo keyInfo = scheme.decrypt(delegate, 
+          password.toCharArray());
       PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(
           keyInfo.getEncoded());
-      return keyFactory.generatePrivate(keySpec);
+      return JcaPrimitiveCache.getKeyFactory(JcaKeyAlgorithms.forIdentifier(
+          keyInfo.getPrivateKeyAlgorithm())).generatePrivate(keySpec);
     }
-    catch (PKCSException ex) {
-      throw new IncorrectPassphraseException();
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
     }
     catch (InvalidKeySpecException ex) {
       throw new RuntimeException(ex);
@@ -141,16 +153,4 @@ public class BcPKCS8PrivateKeyWrapper implements PrivateKeyWrapper {
     return new JcaPrivateKeyWrapper(derive(), objectBuilderFactory);
   }
 
-  private InputDecryptorProvider createPrivateKeyDecryptor() {
-    try {
-      InputDecryptorProvider decryptor = 
-          new JceOpenSSLPKCS8DecryptorProviderBuilder().build(
-              password.toCharArray());
-      return decryptor;
-    }
-    catch (OperatorCreationException ex) {
-      throw new RuntimeException(ex);
-    }
-  }
-
 }
@@ -19,7 +19,6 @@
 package org.soulwing.credo.service.crypto.bc;
 
 import java.io.IOException;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.spec.InvalidKeySpecException;
@@ -45,6 +44,8 @@ import org.bouncycastle.pkcs.PKCSException;
 import org.soulwing.credo.Password;
 import org.soulwing.credo.service.crypto.IncorrectPassphraseException;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.crypto.jca.JcaKeyAlgorithms;
+import org.soulwing.credo.service.crypto.jca.JcaPrimitiveCache;
 import org.soulwing.credo.service.crypto.jca.JcaPrivateKeyWrapper;
 import org.soulwing.credo.service.pem.PemObjectBuilder;
 import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
@@ -108,8 +109,7 @@ public class BcPrivateKeyWrapper implements BcWrapper, PrivateKeyWrapper {
       PrivateKeyInfo privateKeyInfo = derivePrivateKeyInfo();
       PemObjectBuilder builder = objectBuilderFactory.newBuilder();
       if (password == null) {
-        builder.setType("RSA PRIVATE KEY");
-        builder.append(privateKeyInfo.getEncoded());
+        JcaKeyAlgorithms.appendPrivateKey(builder, privateKeyInfo);
       }
       else {
         PKCS8Generator generator = new PKCS8Generator(privateKeyInfo, 
@@ -134,8 +134,8 @@ public class BcPrivateKeyWrapper implements BcWrapper, PrivateKeyWrapper {
       PrivateKeyInfo keyInfo = derivePrivateKeyInfo();
       PKCS8EncodedKeySpec keySpec = new PKCS8EncodedKeySpec(
           keyInfo.getEncoded());
-      KeyFactory kf = KeyFactory.getInstance("RSA");
-      return kf.generatePrivate(keySpec);
+      return JcaPrimitiveCache.getKeyFactory(JcaKeyAlgorithms.forIdentifier(
+          keyInfo.getPrivateKeyAlgorithm())).generatePrivate(keySpec);
     }
     catch (NoSuchAlgorithmException ex) {
       throw new RuntimeException(ex);
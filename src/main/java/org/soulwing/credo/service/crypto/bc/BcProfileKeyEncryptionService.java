@@ -0,0 +1,126 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.bc;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.Typed;
+import javax.inject.Inject;
+
+import org.apache.commons.lang.Validate;
+import org.bouncycastle.asn1.pkcs.EncryptedPrivateKeyInfo;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
+import org.soulwing.credo.Password;
+import org.soulwing.credo.service.crypto.PKCS8EncryptionService;
+import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.crypto.ProfileKeyEncryptionService;
+import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
+import org.soulwing.credo.service.pem.PemObjectFactory;
+
+/**
+ * A {@link ProfileKeyEncryptionService} that encrypts using the 
+ * {@link BcPKCS8EncryptionScheme} named by the 
+ * {@code crypto/profileKeyScheme} environment entry.
+ * <p>
+ * When the application starts, the selected scheme is calibrated so that
+ * unlocking a profile key takes approximately the number of milliseconds
+ * given by the {@code crypto/profileKeyUnlockLatency} environment entry.
+ * <p>
+ * The bean types are restricted so that this bean does not satisfy
+ * injection points for the {@link PKCS8EncryptionService} used to 
+ * export keys.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+@Typed(ProfileKeyEncryptionService.class)
+public class BcProfileKeyEncryptionService 
+    implements ProfileKeyEncryptionService {
+
+  static final String DEFAULT_SCHEME = BcPBES2PKCS8EncryptionScheme.NAME;
+  
+  static final long DEFAULT_UNLOCK_LATENCY = 250;
+  
+  @Resource(name = "crypto/profileKeyScheme")
+  protected String schemeName = DEFAULT_SCHEME;
+  
+  @Resource(name = "crypto/profileKeyUnlockLatency")
+  protected long unlockLatency = DEFAULT_UNLOCK_LATENCY;
+  
+  @Inject
+  protected Instance<BcPKCS8EncryptionScheme> schemes;
+  
+  @Inject
+  protected PemObjectFactory objectFactory;
+  
+  @Inject
+  protected PemObjectBuilderFactory objectBuilderFactory;
+  
+  /**
+   * Calibrates the selected scheme when the application starts.
+   * @param event application scope initialization event
+   */
+  public void onStartup(
+      @Observes @Initialized(ApplicationScoped.class) Object event) {
+    getScheme().calibrate(unlockLatency);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PrivateKeyWrapper encrypt(PrivateKeyWrapper privateKey,
+      Password password) {
+    Validate.notNull(password, "passphrase is required");
+    BcPKCS8EncryptionScheme scheme = getScheme();
+    PKCS8EncryptedPrivateKeyInfo keyInfo = scheme.encrypt(
+        PrivateKeyInfo.getInstance(privateKey.derive().getEncoded()), 
+        password.toCharArray());
+    return new BcPKCS8PrivateKeyWrapper(keyInfo, scheme, 
+        objectBuilderFactory);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isReencryptionNeeded(String encoded) {
+    AlgorithmIdentifier algorithm = EncryptedPrivateKeyInfo.getInstance(
+        objectFactory.newPemObject(encoded).getContent())
+            .getEncryptionAlgorithm();
+    BcPKCS8EncryptionScheme scheme = getScheme();
+    return !scheme.isSchemeOf(algorithm) || !scheme.isCurrent(algorithm);
+  }
+
+  private BcPKCS8EncryptionScheme getScheme() {
+    for (BcPKCS8EncryptionScheme scheme : schemes) {
+      if (scheme.getName().equals(schemeName)) {
+        return scheme;
+      }
+    }
+    throw new IllegalStateException("unknown private key encryption scheme: "
+        + schemeName);
+  }
+  
+}
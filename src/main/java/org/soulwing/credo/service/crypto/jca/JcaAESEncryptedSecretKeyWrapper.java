@@ -69,7 +69,7 @@ public class JcaAESEncryptedSecretKeyWrapper
   protected Cipher createCipher() throws NoSuchAlgorithmException,
       NoSuchPaddingException, InvalidKeyException, 
       InvalidParameterSpecException, InvalidAlgorithmParameterException {
-    Cipher cipher = Cipher.getInstance(transform);
+    Cipher cipher = JcaPrimitiveCache.getCipher(transform);
     cipher.init(Cipher.UNWRAP_MODE, getKey(), new IvParameterSpec(iv));
     return cipher;
   }
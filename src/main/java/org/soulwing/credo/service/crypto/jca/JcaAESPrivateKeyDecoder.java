@@ -62,8 +62,9 @@ public class JcaAESPrivateKeyDecoder implements PrivateKeyDecoder {
     String transform = value.substring(0, index);
     byte[] iv = decodeIV(value, index + 1);
     byte[] cipherText = object.getContent();
-    return new JcaEncryptedPrivateKeyWrapper(transform, iv, cipherText, 
-        objectBuilderFactory);
+    String algorithm = JcaKeyAlgorithms.forPemType(object.getType());
+    return new JcaEncryptedPrivateKeyWrapper(algorithm, transform, iv, 
+        cipherText, objectBuilderFactory);
   }
 
   private byte[] decodeIV(String value, int index) {
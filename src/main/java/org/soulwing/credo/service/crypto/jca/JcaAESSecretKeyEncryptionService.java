@@ -79,16 +79,21 @@ public class JcaAESSecretKeyEncryptionService
   public SecretKeyWrapper encrypt(SecretKeyWrapper secretKey,
       Key key) {
     try {
-      Cipher cipher = Cipher.getInstance(TRANSFORM);
-      cipher.init(Cipher.WRAP_MODE, key, 
-          parameterGenerator.generateParameters());
+      Cipher cipher = JcaPrimitiveCache.getCipher(TRANSFORM);
+      try {
+        cipher.init(Cipher.WRAP_MODE, key, 
+            parameterGenerator.generateParameters());
       
-      byte[] iv = cipher.getParameters()
-          .getParameterSpec(IvParameterSpec.class).getIV();        
+        byte[] iv = cipher.getParameters()
+            .getParameterSpec(IvParameterSpec.class).getIV();        
 
-      byte[] cipherText = cipher.wrap(secretKey.derive());
-      return new JcaAESEncryptedSecretKeyWrapper(TRANSFORM, iv, cipherText, 
-          objectBuilderFactory);
+        byte[] cipherText = cipher.wrap(secretKey.derive());
+        return new JcaAESEncryptedSecretKeyWrapper(TRANSFORM, iv, cipherText, 
+            objectBuilderFactory);
+      }
+      finally {
+        JcaPrimitiveCache.release(cipher);
+      }
     }
     catch (NoSuchAlgorithmException ex) {
       throw new RuntimeException(ex);
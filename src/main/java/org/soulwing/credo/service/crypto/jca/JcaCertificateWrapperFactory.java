@@ -21,10 +21,8 @@ package org.soulwing.credo.service.crypto.jca;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.security.cert.CertificateException;
-import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 
-import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -51,21 +49,6 @@ public class JcaCertificateWrapperFactory
   @Inject
   protected PemObjectBuilderFactory objectBuilderFactory;
 
-  protected CertificateFactory certificateFactory;
-  
-  /**
-   * Initializes the receiver.
-   */
-  @PostConstruct
-  public void init() {
-    try {
-      certificateFactory = CertificateFactory.getInstance("X.509");
-    }
-    catch (CertificateException ex) {
-      throw new RuntimeException(ex);
-    }
-  }
-  
   /**
    * {@inheritDoc}
    */
@@ -87,7 +70,8 @@ public class JcaCertificateWrapperFactory
     try (ByteArrayInputStream inputStream = 
         new ByteArrayInputStream(encodedCertificate)) {
       return (X509Certificate) 
-          certificateFactory.generateCertificate(inputStream);
+          JcaPrimitiveCache.getCertificateFactory("X.509")
+              .generateCertificate(inputStream);
     }
     catch (CertificateException ex) {
       throw new RuntimeException(ex);
@@ -0,0 +1,60 @@
+/*
+ * File created on May 10, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * A {@link JcaSecretKeyGeneratorStrategy} that obtains a secret key 
+ * directly from an AES {@link KeyGenerator}, seeded by the platform's 
+ * default {@link SecureRandom}.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class JcaDirectSecretKeyGeneratorStrategy 
+    implements JcaSecretKeyGeneratorStrategy {
+
+  static final String ALGORITHM = "AES";
+  
+  static final int KEY_LENGTH = 256;
+  
+  private final SecureRandom secureRandom = new SecureRandom();
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SecretKey generateSecretKey() {
+    try {
+      KeyGenerator keyGenerator = KeyGenerator.getInstance(ALGORITHM);
+      keyGenerator.init(KEY_LENGTH, secureRandom);
+      return keyGenerator.generateKey();
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+}
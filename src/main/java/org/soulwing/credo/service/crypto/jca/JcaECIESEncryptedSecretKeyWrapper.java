@@ -0,0 +1,99 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
+
+/**
+ * An encrypted secret key that was wrapped using ECIES with an elliptic
+ * curve public key.
+ * <p>
+ * The ECIES cipher does not support the key wrapping modes, so the 
+ * encoded secret key is simply decrypted.
+ *
+ * @author Carl Harris
+ */
+public class JcaECIESEncryptedSecretKeyWrapper 
+    extends JcaEncryptedSecretKeyWrapper {
+
+  /**
+   * Constructs a new instance.
+   * @param transform the cryptographic transform that was applied to 
+   *    encrypt the key
+   * @param cipherText cipher text of secret key's encoding
+   * @param objectBuilderFactory PEM object builder factory
+   */
+  public JcaECIESEncryptedSecretKeyWrapper(String transform,
+      byte[] cipherText, PemObjectBuilderFactory objectBuilderFactory) {
+    super(transform, cipherText, objectBuilderFactory);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SecretKey derive() {
+    try {
+      Cipher cipher = createCipher();
+      try {
+        return new SecretKeySpec(cipher.doFinal(cipherText), "AES");
+      }
+      finally {
+        JcaPrimitiveCache.release(cipher);
+      }
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
+    }
+    catch (NoSuchPaddingException ex) {
+      throw new RuntimeException(ex);
+    }
+    catch (InvalidKeyException ex) {
+      throw new RuntimeException(ex);
+    }
+    catch (IllegalBlockSizeException ex) {
+      throw new RuntimeException(ex);
+    }
+    catch (BadPaddingException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Cipher createCipher() throws NoSuchAlgorithmException,
+      NoSuchPaddingException, InvalidKeyException {
+    Cipher cipher = JcaPrimitiveCache.getCipher(transform);
+    cipher.init(Cipher.DECRYPT_MODE, getKey());
+    return cipher;
+  }
+
+}
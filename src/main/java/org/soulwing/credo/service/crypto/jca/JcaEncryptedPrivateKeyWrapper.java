@@ -40,6 +40,7 @@ import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
  */
 public class JcaEncryptedPrivateKeyWrapper implements PrivateKeyWrapper {
 
+  private final String algorithm;
   private final String transform;
   private final byte[] iv;
   private final byte[] cipherText;  
@@ -49,14 +50,17 @@ public class JcaEncryptedPrivateKeyWrapper implements PrivateKeyWrapper {
   
   /**
    * Constructs a new instance.
+   * @param algorithm JCA algorithm of the encrypted key (e.g. {@code RSA})
    * @param transform the cryptographic transform that was applied to 
    *    encrypt the key
    * @param iv initialization vector
    * @param cipherText cipher text of secret key's DER encoding
    * @param objectBuilderFactory PEM object builder factory
    */
-  public JcaEncryptedPrivateKeyWrapper(String transform, byte[] iv,
-      byte[] cipherText, PemObjectBuilderFactory objectBuilderFactory) {
+  public JcaEncryptedPrivateKeyWrapper(String algorithm, String transform, 
+      byte[] iv, byte[] cipherText, 
+      PemObjectBuilderFactory objectBuilderFactory) {
+    this.algorithm = algorithm;
     this.transform = transform;
     this.iv = iv;
     this.cipherText = cipherText;
@@ -95,7 +99,7 @@ public class JcaEncryptedPrivateKeyWrapper implements PrivateKeyWrapper {
   @Override
   public String getContent() {
     return objectBuilderFactory.newBuilder()
-        .setType("RSA PRIVATE KEY")
+        .setType(JcaKeyAlgorithms.getPemType(algorithm, "PRIVATE KEY"))
         .setHeader("Proc-Type", "4,ENCRYPTED")
         .setHeader("DEK-Info", transform + "," + Hex.encodeHexString(iv))
         .append(cipherText)
@@ -108,10 +112,15 @@ public class JcaEncryptedPrivateKeyWrapper implements PrivateKeyWrapper {
   @Override
   public PrivateKey derive() {
     try {
-      Cipher cipher = Cipher.getInstance(transform);
-      cipher.init(Cipher.UNWRAP_MODE, secretKey, new IvParameterSpec(iv));
-      return (PrivateKey) cipher.unwrap(cipherText, "RSA", 
-          Cipher.PRIVATE_KEY);
+      Cipher cipher = JcaPrimitiveCache.getCipher(transform);
+      try {
+        cipher.init(Cipher.UNWRAP_MODE, secretKey, new IvParameterSpec(iv));
+        return (PrivateKey) cipher.unwrap(cipherText, algorithm, 
+            Cipher.PRIVATE_KEY);
+      }
+      finally {
+        JcaPrimitiveCache.release(cipher);
+      }
     }
     catch (NoSuchAlgorithmException ex) {
       throw new RuntimeException(ex);
@@ -110,8 +110,14 @@ public abstract class JcaEncryptedSecretKeyWrapper
   @Override
   public SecretKey derive() {
     try {
-      return (SecretKey) createCipher().unwrap(cipherText, "AES", 
-          Cipher.SECRET_KEY);
+      Cipher cipher = createCipher();
+      try {
+        return (SecretKey) cipher.unwrap(cipherText, "AES", 
+            Cipher.SECRET_KEY);
+      }
+      finally {
+        JcaPrimitiveCache.release(cipher);
+      }
     }
     catch (NoSuchAlgorithmException ex) {
       throw new RuntimeException(ex);
@@ -132,7 +138,8 @@ public abstract class JcaEncryptedSecretKeyWrapper
 
   /**
    * Creates the cipher needed to decrypt the secret key.
-   * @return cipher
+   * @return cipher, which the caller releases to the 
+   *    {@link JcaPrimitiveCache} after use
    * @throws NoSuchAlgorithmException
    * @throws NoSuchPaddingException
    * @throws InvalidKeyException
@@ -0,0 +1,122 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.io.IOException;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.soulwing.credo.service.crypto.UnsupportedKeyTypeException;
+import org.soulwing.credo.service.pem.PemObjectBuilder;
+
+/**
+ * Static utility methods for the public/private key algorithms that are
+ * supported by the JCA-based services.
+ * <p>
+ * RSA and elliptic curve keys are supported.  RSA private keys are encoded
+ * in the traditional PKCS#1 structure as before; elliptic curve private 
+ * keys are encoded in the PKCS#8 structure, so that the curve parameters
+ * travel with the key.
+ *
+ * @author Carl Harris
+ */
+public final class JcaKeyAlgorithms {
+
+  /** JCA name of the RSA key algorithm */
+  public static final String RSA = "RSA";
+  
+  /** JCA name of the elliptic curve key algorithm */
+  public static final String EC = "EC";
+  
+  private JcaKeyAlgorithms() {
+  }
+
+  /**
+   * Gets the JCA key algorithm name for the given algorithm identifier.
+   * @param algorithmId identifier from a public or private key info 
+   *    structure
+   * @return JCA algorithm name
+   * @throws UnsupportedKeyTypeException if the algorithm is not supported
+   */
+  public static String forIdentifier(AlgorithmIdentifier algorithmId) {
+    ASN1ObjectIdentifier oid = algorithmId.getAlgorithm();
+    if (PKCSObjectIdentifiers.rsaEncryption.equals(oid)) return RSA;
+    if (X9ObjectIdentifiers.id_ecPublicKey.equals(oid)) return EC;
+    throw new UnsupportedKeyTypeException();
+  }
+  
+  /**
+   * Gets the canonical JCA key algorithm name for the algorithm name 
+   * reported by a key.
+   * <p>
+   * Some providers report {@code ECDSA} for elliptic curve keys.
+   * @param algorithm the algorithm name reported by a key
+   * @return canonical algorithm name
+   * @throws UnsupportedKeyTypeException if the algorithm is not supported
+   */
+  public static String forName(String algorithm) {
+    if (RSA.equalsIgnoreCase(algorithm)) return RSA;
+    if (EC.equalsIgnoreCase(algorithm)) return EC;
+    if ("ECDSA".equalsIgnoreCase(algorithm)) return EC;
+    throw new UnsupportedKeyTypeException();
+  }
+  
+  /**
+   * Gets the JCA key algorithm name implied by the type of a PEM object
+   * produced by {@link #getPemType(String, String)}.
+   * @param type PEM object type
+   * @return JCA algorithm name; PEM types that do not name an algorithm
+   *    are assumed to be RSA
+   */
+  public static String forPemType(String type) {
+    return type != null && type.startsWith(EC + " ") ? EC : RSA;
+  }
+  
+  /**
+   * Gets the PEM object type for a key of the given algorithm.
+   * @param algorithm JCA key algorithm
+   * @param suffix type suffix (e.g. {@code PUBLIC KEY})
+   * @return PEM object type (e.g. {@code RSA PUBLIC KEY})
+   */
+  public static String getPemType(String algorithm, String suffix) {
+    return forName(algorithm) + " " + suffix;
+  }
+  
+  /**
+   * Appends the unencrypted encoding of a private key to a PEM object
+   * builder and sets the corresponding object type.
+   * @param builder the subject builder
+   * @param keyInfo private key to append
+   * @return {@code builder}
+   * @throws IOException
+   */
+  public static PemObjectBuilder appendPrivateKey(PemObjectBuilder builder,
+      PrivateKeyInfo keyInfo) throws IOException {
+    String algorithm = forIdentifier(keyInfo.getPrivateKeyAlgorithm());
+    if (RSA.equals(algorithm)) {
+      return builder.setType("RSA PRIVATE KEY").append(
+          keyInfo.parsePrivateKey().toASN1Primitive().getEncoded());
+    }
+    return builder.setType("PRIVATE KEY").append(keyInfo.getEncoded());
+  }
+  
+}
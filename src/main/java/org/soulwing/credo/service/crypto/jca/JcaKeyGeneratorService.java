@@ -18,54 +18,63 @@
  */
 package org.soulwing.credo.service.crypto.jca;
 
+import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.security.spec.InvalidKeySpecException;
+import java.security.spec.ECGenParameterSpec;
 
-import javax.annotation.PostConstruct;
-import javax.crypto.SecretKey;
-import javax.crypto.SecretKeyFactory;
-import javax.crypto.spec.PBEKeySpec;
-import javax.crypto.spec.SecretKeySpec;
+import javax.annotation.Resource;
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Initialized;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import org.soulwing.credo.service.crypto.KeyGeneratorService;
+import org.soulwing.credo.service.crypto.KeyPairType;
 import org.soulwing.credo.service.crypto.KeyPairWrapper;
 import org.soulwing.credo.service.crypto.SecretKeyWrapper;
 import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
 
 /**
  * A {@link KeyGeneratorService} that is based on the JCA.
+ * <p>
+ * RSA key pairs are obtained from a {@link KeyPairPool} so that the expense
+ * of generating them is (usually) not borne by the request thread; elliptic
+ * curve key pairs are cheap enough to generate inline.  The type of key
+ * pair produced by {@link #generateKeyPair()} is given by the 
+ * {@code crypto/keyPairType} environment entry.  Secret keys are generated 
+ * using the configured {@link JcaSecretKeyGeneratorStrategy}.
  *
  * @author Carl Harris
  */
 @ApplicationScoped
 public class JcaKeyGeneratorService implements KeyGeneratorService {
 
-  private static final int PASSPHRASE_LENGTH = 64;
-  private static final int SALT_LENGTH = 16;
-  private static final int ITERATION_COUNT = 65536;
-  private static final int KEY_LENGTH = 256;
+  static final KeyPairType DEFAULT_KEY_PAIR_TYPE = KeyPairType.RSA_2048;
 
+  @Resource(name = "crypto/keyPairType")
+  protected String keyPairType = DEFAULT_KEY_PAIR_TYPE.name();
+  
   @Inject
   protected PemObjectBuilderFactory objectBuilderFactory;
   
-  private SecureRandom secureRandom;
-  private KeyPairGenerator keyPairGenerator;
-  private SecretKeyFactory secretKeyFactory;
+  @Inject
+  protected KeyPairPool keyPairPool;
   
-  @PostConstruct
-  public void init() {
-    try {
-      secureRandom = SecureRandom.getInstance("SHA1PRNG");
-      keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-      secretKeyFactory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
-    }
-    catch (NoSuchAlgorithmException ex) {
-      throw new RuntimeException(ex);
+  @Inject
+  protected JcaSecretKeyGeneratorStrategy secretKeyStrategy;
+  
+  /**
+   * Fills the key pair pool when the application starts, so that the
+   * first requests for key pairs need not generate them inline.
+   * @param event application scope initialization event
+   */
+  public void onStartup(
+      @Observes @Initialized(ApplicationScoped.class) Object event) {
+    KeyPairType type = getDefaultType();
+    if (type.getCurveName() == null) {
+      keyPairPool.replenish(type.getKeySize());
     }
   }
   
@@ -74,7 +83,16 @@ public class JcaKeyGeneratorService implements KeyGeneratorService {
    */
   @Override
   public KeyPairWrapper generateKeyPair() {
-    KeyPair keyPair = keyPairGenerator.generateKeyPair();
+    return generateKeyPair(getDefaultType());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public KeyPairWrapper generateKeyPair(KeyPairType type) {
+    KeyPair keyPair = type.getCurveName() != null ?
+        generateCurveKeyPair(type) : keyPairPool.take(type.getKeySize());
     return new JcaKeyPairWrapper(keyPair, objectBuilderFactory);
   }
 
@@ -83,47 +101,27 @@ public class JcaKeyGeneratorService implements KeyGeneratorService {
    */
   @Override
   public SecretKeyWrapper generateSecretKey() {
-    char[] passphrase = randomPassphrase(PASSPHRASE_LENGTH);
-    byte[] salt = randomSalt(SALT_LENGTH);
-    PBEKeySpec keySpec = new PBEKeySpec(passphrase, salt, ITERATION_COUNT, 
-        KEY_LENGTH);
+    return new JcaSecretKeyWrapper(secretKeyStrategy.generateSecretKey(),
+        objectBuilderFactory);
+  }
+
+  private KeyPair generateCurveKeyPair(KeyPairType type) {
     try {
-      SecretKey intermediate = secretKeyFactory.generateSecret(keySpec);
-      return new JcaSecretKeyWrapper(
-          new SecretKeySpec(intermediate.getEncoded(), "AES"),
-          objectBuilderFactory);
+      KeyPairGenerator generator = 
+          KeyPairGenerator.getInstance(type.getAlgorithm());
+      generator.initialize(new ECGenParameterSpec(type.getCurveName()));
+      return generator.generateKeyPair();
     }
-    catch (InvalidKeySpecException ex) {
+    catch (NoSuchAlgorithmException ex) {
       throw new RuntimeException(ex);
     }
-  }
-  
-  /**
-   * Generates a random passphrase of the specified length.
-   * @param length length of the passphrase to generate
-   * @return passphrase
-   */
-  private char[] randomPassphrase(int length) {
-    char[] passphrase = new char[length];
-    for (int i = 0; i < length; i++) {
-      char c = (char) secureRandom.nextInt(65536);
-      while (!Character.isDefined(c)) {
-        c = (char) secureRandom.nextInt(65536);
-      }
-      passphrase[i] = c;
+    catch (InvalidAlgorithmParameterException ex) {
+      throw new RuntimeException(ex);
     }
-    return passphrase;
   }
-  
-  /**
-   * Generates a random salt of the specified length.
-   * @param length length of the salt to generate
-   * @return salt
-   */
-  private byte[] randomSalt(int length) {
-    byte[] salt = new byte[length];
-    secureRandom.nextBytes(salt);
-    return salt;
+
+  private KeyPairType getDefaultType() {
+    return KeyPairType.valueOf(keyPairType);
   }
 
 }
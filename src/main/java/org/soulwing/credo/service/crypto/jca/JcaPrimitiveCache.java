@@ -0,0 +1,274 @@
+/*
+ * File created on May 11, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.NoSuchPaddingException;
+
+/**
+ * A cache of JCA cryptographic primitives that are confined to the 
+ * calling thread.
+ * <p>
+ * Obtaining a primitive via {@code getInstance} requires a search of the
+ * installed providers, which is relatively expensive when repeated for
+ * every operation.  This cache retains one instance of each primitive per
+ * algorithm per thread.
+ * <p>
+ * A {@link Cipher} or {@link Signature} is initialized with a key by its
+ * user, so it is borrowed from the cache and must be returned using 
+ * {@link #release(Cipher)} or {@link #release(Signature)} (in a 
+ * {@code finally} block) once it is no longer needed.  Releasing the 
+ * instance initializes it again using a throwaway key, so that the cached
+ * instance does not retain the user's key.  Since a borrowed instance is
+ * removed from the cache until it is released, a nested operation on the
+ * same thread that needs the same algorithm simply obtains a new instance.
+ * A {@link KeyFactory} or {@link CertificateFactory} holds no key and may
+ * be used without releasing it.
+ * <p>
+ * Container threads outlive the application, so the cached primitives
+ * of every thread must be released using {@link #clear()} when the 
+ * application is undeployed.
+ *
+ * @author Carl Harris
+ */
+public final class JcaPrimitiveCache {
+
+  private static final String CIPHER = "Cipher.";
+  
+  private static final String SIGNATURE = "Signature.";
+  
+  private static final String KEY_FACTORY = "KeyFactory.";
+  
+  private static final String CERTIFICATE_FACTORY = "CertificateFactory.";
+  
+  /**
+   * Key whose presence marks a cache that is tracked for {@link #clear()}; 
+   * a cache that has been cleared is replaced when next used.
+   */
+  private static final String TRACKED = "tracked";
+
+  private static final ThreadLocal<Map<String, Object>> primitives =
+      new ThreadLocal<>();
+
+  private static final Map<Thread, Map<String, Object>> threads =
+      Collections.synchronizedMap(
+          new WeakHashMap<Thread, Map<String, Object>>());
+
+  private static final ConcurrentMap<String, Key> throwawayKeys =
+      new ConcurrentHashMap<>();
+  
+  private JcaPrimitiveCache() {
+  }
+
+  /**
+   * Borrows a cipher for the given transform.
+   * @param transform cipher transform (e.g. {@code AES/CBC/PKCS5Padding})
+   * @return cipher which must be initialized before use, and returned 
+   *    using {@link #release(Cipher)} after use
+   * @throws NoSuchAlgorithmException
+   * @throws NoSuchPaddingException
+   */
+  public static Cipher getCipher(String transform) 
+      throws NoSuchAlgorithmException, NoSuchPaddingException {
+    Cipher cipher = (Cipher) getCache().remove(CIPHER + transform);
+    if (cipher == null) {
+      cipher = Cipher.getInstance(transform);
+    }
+    return cipher;
+  }
+
+  /**
+   * Returns a cipher obtained from {@link #getCipher(String)} to the cache.
+   * <p>
+   * The cipher is initialized using a throwaway key; if it cannot be 
+   * initialized, it is simply discarded.
+   * @param cipher the cipher to release
+   */
+  public static void release(Cipher cipher) {
+    String transform = cipher.getAlgorithm();
+    try {
+      cipher.init(Cipher.ENCRYPT_MODE, 
+          getThrowawayKey(transform.split("/")[0]));
+      getCache().put(CIPHER + transform, cipher);
+    }
+    catch (GeneralSecurityException|RuntimeException ex) {
+      // the cipher is discarded
+    }
+  }
+
+  /**
+   * Borrows a signature for the given algorithm.
+   * @param algorithm signature algorithm (e.g. {@code SHA256withRSA})
+   * @return signature which must be initialized before use, and returned
+   *    using {@link #release(Signature)} after use
+   * @throws NoSuchAlgorithmException
+   */
+  public static Signature getSignature(String algorithm) 
+      throws NoSuchAlgorithmException {
+    Signature signature = (Signature) getCache().remove(
+        SIGNATURE + algorithm);
+    if (signature == null) {
+      signature = Signature.getInstance(algorithm);
+    }
+    return signature;
+  }
+
+  /**
+   * Returns a signature obtained from {@link #getSignature(String)} to the
+   * cache.
+   * <p>
+   * The signature is initialized for verification using a throwaway key;
+   * if it cannot be initialized, it is simply discarded.
+   * @param signature the signature to release
+   */
+  public static void release(Signature signature) {
+    String algorithm = signature.getAlgorithm();
+    int i = algorithm.toUpperCase().indexOf("WITH");
+    try {
+      Key key = getThrowawayKey(i != -1 ? 
+          algorithm.substring(i + "WITH".length()) : algorithm);
+      signature.initVerify((PublicKey) key);
+      getCache().put(SIGNATURE + algorithm, signature);
+    }
+    catch (GeneralSecurityException|RuntimeException ex) {
+      // the signature is discarded
+    }
+  }
+
+  /**
+   * Gets a key factory for the given algorithm.
+   * @param algorithm key algorithm (e.g. {@code RSA})
+   * @return key factory
+   * @throws NoSuchAlgorithmException
+   */
+  public static KeyFactory getKeyFactory(String algorithm) 
+      throws NoSuchAlgorithmException {
+    String key = KEY_FACTORY + algorithm;
+    Map<String, Object> cache = getCache();
+    KeyFactory keyFactory = (KeyFactory) cache.get(key);
+    if (keyFactory == null) {
+      keyFactory = KeyFactory.getInstance(algorithm);
+      cache.put(key, keyFactory);
+    }
+    return keyFactory;
+  }
+
+  /**
+   * Gets a certificate factory for the given certificate type.
+   * @param type certificate type (e.g. {@code X.509})
+   * @return certificate factory
+   * @throws CertificateException
+   */
+  public static CertificateFactory getCertificateFactory(String type) 
+      throws CertificateException {
+    String key = CERTIFICATE_FACTORY + type;
+    Map<String, Object> cache = getCache();
+    CertificateFactory certificateFactory = 
+        (CertificateFactory) cache.get(key);
+    if (certificateFactory == null) {
+      certificateFactory = CertificateFactory.getInstance(type);
+      cache.put(key, certificateFactory);
+    }
+    return certificateFactory;
+  }
+
+  /**
+   * Discards the primitives cached for every thread.
+   * <p>
+   * The (empty) cache that remains associated with each thread holds no
+   * reference to any class of the application, and is replaced when the
+   * thread next uses this cache.
+   */
+  public static void clear() {
+    List<Map<String, Object>> caches;
+    synchronized (threads) {
+      caches = new ArrayList<>(threads.values());
+      threads.clear();
+    }
+    for (Map<String, Object> cache : caches) {
+      cache.clear();
+    }
+    throwawayKeys.clear();
+    primitives.remove();
+  }
+
+  private static Map<String, Object> getCache() {
+    Map<String, Object> cache = primitives.get();
+    if (cache == null || !cache.containsKey(TRACKED)) {
+      cache = new ConcurrentHashMap<>();
+      cache.put(TRACKED, Boolean.TRUE);
+      primitives.set(cache);
+      threads.put(Thread.currentThread(), cache);
+    }
+    return cache;
+  }
+
+  /**
+   * Gets a throwaway key for the given algorithm, generating it if 
+   * necessary.
+   * <p>
+   * A secret key is generated for a symmetric algorithm; otherwise, the
+   * public key of a generated key pair is used.
+   * @param algorithm key algorithm (e.g. {@code AES} or {@code RSA})
+   * @return key
+   * @throws NoSuchAlgorithmException if no key can be generated for
+   *    {@code algorithm}
+   */
+  private static Key getThrowawayKey(String algorithm) 
+      throws NoSuchAlgorithmException {
+    if (algorithm.startsWith("EC")) {
+      // ECIES and ECDSA both use EC keys
+      algorithm = "EC";
+    }
+    Key key = throwawayKeys.get(algorithm);
+    if (key == null) {
+      try {
+        key = KeyGenerator.getInstance(algorithm).generateKey();
+      }
+      catch (NoSuchAlgorithmException ex) {
+        key = KeyPairGenerator.getInstance(algorithm)
+            .generateKeyPair().getPublic();
+      }
+      Key existing = throwawayKeys.putIfAbsent(algorithm, key);
+      if (existing != null) {
+        key = existing;
+      }
+    }
+    return key;
+  }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * File created on May 11, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+
+/**
+ * A startup bean that clears the {@link JcaPrimitiveCache} when the
+ * application is undeployed, so that container threads do not retain
+ * the cached primitives.
+ *
+ * @author Carl Harris
+ */
+@Startup
+@Singleton
+public class JcaPrimitiveCacheCleaner {
+
+  @PreDestroy
+  public void clearCache() {
+    JcaPrimitiveCache.clear();
+  }
+
+}
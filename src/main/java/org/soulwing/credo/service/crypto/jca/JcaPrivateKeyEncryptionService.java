@@ -20,6 +20,7 @@ package org.soulwing.credo.service.crypto.jca;
 
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
 import java.security.spec.InvalidParameterSpecException;
 
 import javax.crypto.Cipher;
@@ -56,15 +57,22 @@ public class JcaPrivateKeyEncryptionService
   public PrivateKeyWrapper encrypt(PrivateKeyWrapper privateKey,
       SecretKey secretKey) {
     try {
-      Cipher cipher = Cipher.getInstance(TRANSFORM);
-      cipher.init(Cipher.WRAP_MODE, secretKey);
+      Cipher cipher = JcaPrimitiveCache.getCipher(TRANSFORM);
+      try {
+        cipher.init(Cipher.WRAP_MODE, secretKey);
 
-      byte[] iv = cipher.getParameters()
-          .getParameterSpec(IvParameterSpec.class).getIV();
+        byte[] iv = cipher.getParameters()
+            .getParameterSpec(IvParameterSpec.class).getIV();
           
-      byte[] cipherText = cipher.wrap(privateKey.derive());
-      return new JcaEncryptedPrivateKeyWrapper(TRANSFORM, iv, cipherText, 
-          objectBuilderFactory);
+        PrivateKey key = privateKey.derive();
+        byte[] cipherText = cipher.wrap(key);
+        return new JcaEncryptedPrivateKeyWrapper(
+            JcaKeyAlgorithms.forName(key.getAlgorithm()), TRANSFORM, iv, 
+            cipherText, objectBuilderFactory);
+      }
+      finally {
+        JcaPrimitiveCache.release(cipher);
+      }
     }
     catch (NoSuchAlgorithmException ex) {
       throw new RuntimeException(ex);
@@ -77,9 +77,8 @@ public class JcaPrivateKeyWrapper implements PrivateKeyWrapper {
     try {
       PrivateKeyInfo keyInfo = PrivateKeyInfo.getInstance(
           delegate.getEncoded());
-      byte[] content = keyInfo.parsePrivateKey().toASN1Primitive().getEncoded();
-      return objectBuilderFactory.newBuilder().setType("RSA PRIVATE KEY")
-          .append(content).build().getEncoded();
+      return JcaKeyAlgorithms.appendPrivateKey(
+          objectBuilderFactory.newBuilder(), keyInfo).build().getEncoded();
     }
     catch (IOException ex) {
       throw new RuntimeException(ex);
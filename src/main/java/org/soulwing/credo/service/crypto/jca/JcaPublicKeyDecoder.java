@@ -18,17 +18,16 @@
  */
 package org.soulwing.credo.service.crypto.jca;
 
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.KeySpec;
 import java.security.spec.X509EncodedKeySpec;
 
-import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
 import org.soulwing.credo.service.crypto.PublicKeyDecoder;
 import org.soulwing.credo.service.crypto.PublicKeyWrapper;
 import org.soulwing.credo.service.pem.PemObjectBuilderFactory;
@@ -49,29 +48,24 @@ public class JcaPublicKeyDecoder implements PublicKeyDecoder {
   @Inject
   protected PemObjectBuilderFactory objectBuilderFactory;
   
-  private KeyFactory keyFactory;
-  
-  @PostConstruct
-  public void init() {
-    try {
-      keyFactory = KeyFactory.getInstance("RSA");
-    }
-    catch (NoSuchAlgorithmException ex) {
-      throw new RuntimeException(ex);
-    }
-  }
-  
   /**
    * {@inheritDoc}
    */
   @Override
   public PublicKeyWrapper decode(String encoded) {
     PemObjectWrapper object = objectFactory.newPemObject(encoded);
-    KeySpec keySpec = new X509EncodedKeySpec(object.getContent());
+    byte[] content = object.getContent();
+    String algorithm = JcaKeyAlgorithms.forIdentifier(
+        SubjectPublicKeyInfo.getInstance(content).getAlgorithm());
+    KeySpec keySpec = new X509EncodedKeySpec(content);
     try {
-      PublicKey publicKey = keyFactory.generatePublic(keySpec);
+      PublicKey publicKey = JcaPrimitiveCache.getKeyFactory(algorithm)
+          .generatePublic(keySpec);
       return new JcaPublicKeyWrapper(publicKey, objectBuilderFactory);
     }
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
+    }
     catch (InvalidKeySpecException ex) {
       throw new RuntimeException(ex);
     }
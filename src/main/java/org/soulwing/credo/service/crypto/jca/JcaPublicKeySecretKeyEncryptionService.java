@@ -0,0 +1,61 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.Key;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.soulwing.credo.service.crypto.SecretKeyEncryptionService;
+import org.soulwing.credo.service.crypto.SecretKeyWrapper;
+import org.soulwing.credo.service.crypto.WrappedWith;
+import org.soulwing.credo.service.crypto.WrappedWith.Type;
+
+/**
+ * A service that encrypts (wraps) secret keys using a public key of any
+ * supported algorithm, by delegating to the service for the algorithm
+ * of the given key.
+ *
+ * @author Carl Harris
+ */
+@WrappedWith(Type.PUBLIC)
+@ApplicationScoped
+public class JcaPublicKeySecretKeyEncryptionService
+    implements SecretKeyEncryptionService {
+
+  @Inject @WrappedWith(Type.RSA)
+  protected SecretKeyEncryptionService rsaEncryptionService;
+  
+  @Inject @WrappedWith(Type.EC)
+  protected SecretKeyEncryptionService ecEncryptionService;
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SecretKeyWrapper encrypt(SecretKeyWrapper secretKey, Key key) {
+    String algorithm = JcaKeyAlgorithms.forName(key.getAlgorithm());
+    if (JcaKeyAlgorithms.EC.equals(algorithm)) {
+      return ecEncryptionService.encrypt(secretKey, key);
+    }
+    return rsaEncryptionService.encrypt(secretKey, key);
+  }
+
+}
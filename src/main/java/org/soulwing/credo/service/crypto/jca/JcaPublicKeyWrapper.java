@@ -50,7 +50,8 @@ public class JcaPublicKeyWrapper implements PublicKeyWrapper {
   @Override
   public String getContent() {
     return objectBuilderFactory.newBuilder()
-        .setType("RSA PUBLIC KEY")
+        .setType(JcaKeyAlgorithms.getPemType(delegate.getAlgorithm(), 
+            "PUBLIC KEY"))
         .append(delegate.getEncoded()).build().getEncoded();
   }
 
@@ -51,7 +51,7 @@ public class JcaRSAEncryptedSecretKeyWrapper
   @Override
   protected Cipher createCipher() throws NoSuchAlgorithmException,
       NoSuchPaddingException, InvalidKeyException {
-    Cipher cipher = Cipher.getInstance(transform);
+    Cipher cipher = JcaPrimitiveCache.getCipher(transform);
     cipher.init(Cipher.UNWRAP_MODE, getKey());
     return cipher;
   }
@@ -57,11 +57,16 @@ public class JcaRSASecretKeyEncryptionService
   public SecretKeyWrapper encrypt(SecretKeyWrapper secretKey,
       Key key) {
     try {
-      Cipher cipher = Cipher.getInstance(TRANSFORM);
-      cipher.init(Cipher.WRAP_MODE, key);
-      byte[] cipherText = cipher.wrap(secretKey.derive());
-      return new JcaRSAEncryptedSecretKeyWrapper(TRANSFORM, cipherText, 
-          objectBuilderFactory);
+      Cipher cipher = JcaPrimitiveCache.getCipher(TRANSFORM);
+      try {
+        cipher.init(Cipher.WRAP_MODE, key);
+        byte[] cipherText = cipher.wrap(secretKey.derive());
+        return new JcaRSAEncryptedSecretKeyWrapper(TRANSFORM, cipherText, 
+            objectBuilderFactory);
+      }
+      finally {
+        JcaPrimitiveCache.release(cipher);
+      }
     }
     catch (NoSuchAlgorithmException ex) {
       throw new RuntimeException(ex);
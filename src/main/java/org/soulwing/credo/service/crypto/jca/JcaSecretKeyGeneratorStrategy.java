@@ -0,0 +1,41 @@
+/*
+ * File created on May 10, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import javax.crypto.SecretKey;
+
+/**
+ * A strategy for generating a random AES secret key.
+ * <p>
+ * The {@link JcaDirectSecretKeyGeneratorStrategy} is used unless another
+ * strategy is enabled as an alternative in {@code beans.xml}.  Every
+ * strategy produces a raw 256-bit AES key, so keys produced by one 
+ * strategy are interchangeable with those produced by another.
+ *
+ * @author Carl Harris
+ */
+public interface JcaSecretKeyGeneratorStrategy {
+
+  /**
+   * Generates a random secret key.
+   * @return secret key
+   */
+  SecretKey generateSecretKey();
+
+}
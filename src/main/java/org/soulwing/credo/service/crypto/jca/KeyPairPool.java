@@ -0,0 +1,78 @@
+/*
+ * File created on May 5, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.KeyPair;
+
+/**
+ * A pool of pre-generated RSA key pairs.
+ * <p>
+ * Generating an RSA key pair is expensive enough that doing it on a request
+ * thread has a noticeable effect on response time.  An implementation of
+ * this interface keeps a supply of key pairs for each requested key size,
+ * replenishing the supply in the background as it is consumed.
+ * <p>
+ * An implementation must be thread safe.
+ *
+ * @author Carl Harris
+ */
+public interface KeyPairPool {
+
+  /**
+   * Takes a key pair of the given size from the pool.
+   * <p>
+   * If the pool for the given key size is empty, a key pair is generated
+   * on the calling thread.  Either way, the pool is replenished in the
+   * background when its depth falls below the low watermark.
+   * @param keySize key size (modulus length in bits)
+   * @return key pair (never {@code null})
+   */
+  KeyPair take(int keySize);
+
+  /**
+   * Requests that the pool for the given key size be filled to its high
+   * watermark in the background.
+   * <p>
+   * This method returns immediately.  If a refill for the given key size
+   * is already in progress, this method has no effect.
+   * @param keySize key size (modulus length in bits)
+   */
+  void replenish(int keySize);
+
+  /**
+   * Gets the number of key pairs of the given size currently in the pool.
+   * @param keySize key size (modulus length in bits)
+   * @return pool depth
+   */
+  int getDepth(int keySize);
+
+  /**
+   * Gets the number of requests that were satisfied from the pool.
+   * @return hit count
+   */
+  long getHitCount();
+
+  /**
+   * Gets the number of requests that required inline key generation
+   * because the pool was empty.
+   * @return miss count
+   */
+  long getMissCount();
+
+}
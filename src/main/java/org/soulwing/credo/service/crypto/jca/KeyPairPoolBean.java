@@ -0,0 +1,250 @@
+/*
+ * File created on May 5, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link KeyPairPool} that replenishes its supply of key pairs using
+ * the container's managed executor service.
+ * <p>
+ * A separate queue is maintained for each key size.  When a take leaves
+ * the queue below {@link #LOW_WATERMARK}, a single background task is
+ * submitted to refill it up to {@link #HIGH_WATERMARK}.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class KeyPairPoolBean implements KeyPairPool {
+
+  static final String ALGORITHM = "RSA";
+  static final int LOW_WATERMARK = 4;
+  static final int HIGH_WATERMARK = 16;
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(KeyPairPoolBean.class);
+
+  private final ConcurrentMap<Integer, Pool> pools = new ConcurrentHashMap<>();
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  @Resource
+  protected ManagedExecutorService executorService;
+
+  int lowWatermark = LOW_WATERMARK;
+  int highWatermark = HIGH_WATERMARK;
+
+  private SecureRandom secureRandom;
+  private volatile boolean shutdown;
+
+  @PostConstruct
+  public void init() {
+    try {
+      secureRandom = SecureRandom.getInstance("SHA1PRNG");
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  @PreDestroy
+  public void destroy() {
+    shutdown = true;
+    pools.clear();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public KeyPair take(int keySize) {
+    Pool pool = getPool(keySize);
+    KeyPair keyPair = pool.poll();
+    if (keyPair != null) {
+      hitCount.incrementAndGet();
+    }
+    else {
+      missCount.incrementAndGet();
+    }
+    if (pool.depth() < lowWatermark) {
+      replenish(keySize);
+    }
+    if (keyPair == null) {
+      keyPair = generateKeyPair(keySize);
+    }
+    return keyPair;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void replenish(final int keySize) {
+    final Pool pool = getPool(keySize);
+    if (shutdown || !pool.beginRefill()) return;
+    try {
+      executorService.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            refill(keySize);
+          }
+          finally {
+            pool.endRefill();
+          }
+        }
+      });
+    }
+    catch (RejectedExecutionException ex) {
+      pool.endRefill();
+      logger.warn("key pair refill rejected for key size " + keySize);
+    }
+  }
+
+  /**
+   * Fills the pool for the given key size to the high watermark,
+   * generating key pairs on the calling thread.
+   * @param keySize key size (modulus length in bits)
+   */
+  void refill(int keySize) {
+    Pool pool = getPool(keySize);
+    while (!shutdown && pool.depth() < highWatermark) {
+      pool.offer(generateKeyPair(keySize));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getDepth(int keySize) {
+    Pool pool = pools.get(keySize);
+    return pool != null ? pool.depth() : 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * Gets the pool for the given key size, creating it if necessary.
+   * @param keySize the subject key size
+   * @return pool
+   */
+  private Pool getPool(int keySize) {
+    Pool pool = pools.get(keySize);
+    if (pool == null) {
+      pool = new Pool();
+      Pool existing = pools.putIfAbsent(keySize, pool);
+      if (existing != null) {
+        pool = existing;
+      }
+    }
+    return pool;
+  }
+
+  /**
+   * Generates a new key pair of the given size.
+   * @param keySize key size (modulus length in bits)
+   * @return key pair
+   */
+  private KeyPair generateKeyPair(int keySize) {
+    try {
+      KeyPairGenerator generator = KeyPairGenerator.getInstance(ALGORITHM);
+      generator.initialize(keySize, secureRandom);
+      return generator.generateKeyPair();
+    }
+    catch (NoSuchAlgorithmException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+
+  /**
+   * A queue of key pairs of a single size.
+   * <p>
+   * The depth is tracked separately since the size of a concurrent queue
+   * is expensive to compute.
+   */
+  private static class Pool {
+
+    private final Queue<KeyPair> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    public KeyPair poll() {
+      KeyPair keyPair = queue.poll();
+      if (keyPair != null) {
+        depth.decrementAndGet();
+      }
+      return keyPair;
+    }
+
+    public void offer(KeyPair keyPair) {
+      queue.offer(keyPair);
+      depth.incrementAndGet();
+    }
+
+    public int depth() {
+      return depth.get();
+    }
+
+    public boolean beginRefill() {
+      return refilling.compareAndSet(false, true);
+    }
+
+    public void endRefill() {
+      refilling.set(false);
+    }
+
+  }
+
+}
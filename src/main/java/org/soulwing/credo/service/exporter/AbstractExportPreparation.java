@@ -0,0 +1,71 @@
+/*
+ * File created on May 13, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.exporter;
+
+import org.soulwing.credo.service.credential.ExportPreparation;
+
+/**
+ * An abstract base for {@link ExportPreparation} implementations.
+ *
+ * @author Carl Harris
+ */
+public abstract class AbstractExportPreparation implements ExportPreparation {
+
+  private final String fileName;
+  private final String contentType;
+  private final String characterEncoding;
+  
+  /**
+   * Constructs a new instance.
+   * @param fileName
+   * @param contentType
+   * @param characterEncoding
+   */
+  protected AbstractExportPreparation(String fileName, String contentType,
+      String characterEncoding) {
+    this.fileName = fileName;
+    this.contentType = contentType;
+    this.characterEncoding = characterEncoding;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getContentType() {
+    return contentType;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getCharacterEncoding() {
+    return characterEncoding;
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * File created on May 14, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.exporter;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.soulwing.credo.service.credential.BulkExportRequest;
+import org.soulwing.credo.service.credential.ExportFormat;
+import org.soulwing.credo.service.credential.ExportPreparation;
+
+/**
+ * An exporter that combines the exported content of several credentials
+ * into a single archive.
+ *
+ * @author Carl Harris
+ */
+public interface BulkExporter {
+
+  /**
+   * Gets the supported archive variants.
+   * @return archive variants
+   */
+  Collection<ExportFormat.Variant> getVariants();
+  
+  /**
+   * Gets the default archive variant.
+   * @return archive variant
+   */
+  ExportFormat.Variant getDefaultVariant();
+  
+  /**
+   * Combines the given export preparations into an archive.
+   * @param request the subject bulk export request
+   * @param preparations map of archive directory names to the preparation
+   *    whose content is to be placed in each directory; the archive
+   *    entries are written in the iteration order of the map
+   * @return export preparation for the archive
+   */
+  ExportPreparation exportCredentials(BulkExportRequest request,
+      Map<String, ExportPreparation> preparations);
+  
+}
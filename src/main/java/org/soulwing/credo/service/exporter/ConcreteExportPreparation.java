@@ -21,18 +21,17 @@ package org.soulwing.credo.service.exporter;
 import java.io.IOException;
 import java.io.OutputStream;
 
+import org.soulwing.credo.service.archive.ArchiveBuilder;
 import org.soulwing.credo.service.credential.ExportPreparation;
 
 /**
- * A concrete {@link ExportPreparation} implementation.
+ * A concrete {@link ExportPreparation} implementation whose content has
+ * already been produced.
  *
  * @author Carl Harris
  */
-public class ConcreteExportPreparation implements ExportPreparation {
+public class ConcreteExportPreparation extends AbstractExportPreparation {
 
-  private final String fileName;
-  private final String contentType;
-  private final String characterEncoding;
   private final byte[] content;
   
   /**
@@ -55,9 +54,7 @@ public class ConcreteExportPreparation implements ExportPreparation {
    */
   public ConcreteExportPreparation(String fileName, String contentType,
       String characterEncoding, byte[] content) {
-    this.fileName = fileName;
-    this.contentType = contentType;
-    this.characterEncoding = characterEncoding;
+    super(fileName, contentType, characterEncoding);
     this.content = content;
   }
   
@@ -65,32 +62,19 @@ public class ConcreteExportPreparation implements ExportPreparation {
    * {@inheritDoc}
    */
   @Override
-  public String getFileName() {
-    return fileName;
-  }
-
-  /**
-   * {@inheritDoc}
-   */
-  @Override
-  public String getContentType() {
-    return contentType;
-  }
-
-  /**
-   * {@inheritDoc}
-   */
-  @Override
-  public String getCharacterEncoding() {
-    return characterEncoding;
+  public void writeContent(OutputStream outputStream) throws IOException {
+    outputStream.write(content);
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void writeContent(OutputStream outputStream) throws IOException {
-    outputStream.write(content);
+  public void writeEntries(String directory, ArchiveBuilder archiveBuilder)
+      throws IOException {
+    archiveBuilder.beginEntry(directory + "/" + getFileName())
+        .addContent(content)
+        .endEntry();
   }
 
 }
@@ -0,0 +1,72 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.exporter;
+
+import java.util.concurrent.Callable;
+
+import org.soulwing.credo.service.credential.ExportDownload;
+import org.soulwing.credo.service.credential.ExportJob;
+import org.soulwing.credo.service.credential.ExportPreparation;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
+
+/**
+ * A service that runs export jobs in the background, spooling the content
+ * of each to a temporary file until it is downloaded.
+ * <p>
+ * Each job belongs to the user that submitted it, and a user may have only
+ * a limited number of unfinished jobs.  A job and its content 
+ * are discarded once the content has been downloaded, or when the job has
+ * been finished for longer than the configured time to live.
+ *
+ * @author Carl Harris
+ */
+public interface ExportSpool {
+
+  /**
+   * Submits an export job.
+   * @param owner login name of the user that owns the job
+   * @param task a task that produces the export preparation whose
+   *    content will be spooled
+   * @return job
+   * @throws CryptoOverloadException if {@code owner} already has the
+   *    maximum number of unfinished jobs
+   */
+  ExportJob submit(String owner, Callable<ExportPreparation> task);
+  
+  /**
+   * Finds an export job.
+   * @param owner login name of the user that owns the job
+   * @param jobId identifier of the job
+   * @return job or {@code null} if {@code owner} has no job with the
+   *    given identifier
+   */
+  ExportJob findJob(String owner, String jobId);
+  
+  /**
+   * Claims the content of a completed export job for download.
+   * <p>
+   * The token is invalidated, so that the content can be claimed only once.
+   * @param owner login name of the user that owns the job
+   * @param token download token of the job
+   * @return download or {@code null} if {@code token} is not a valid
+   *    download token for a job owned by {@code owner}
+   */
+  ExportDownload claim(String owner, String token);
+  
+}
@@ -0,0 +1,594 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.exporter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Inject;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang.ObjectUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.soulwing.credo.service.TimeOfDayService;
+import org.soulwing.credo.service.credential.ExportDownload;
+import org.soulwing.credo.service.credential.ExportJob;
+import org.soulwing.credo.service.credential.ExportPreparation;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
+
+/**
+ * An {@link ExportSpool} that runs jobs on the container's managed 
+ * executor.
+ * <p>
+ * The content of each job is written to a file in a private temporary 
+ * directory (accessible only to the server's user, on file systems that
+ * support POSIX permissions).  The file is encrypted using an ephemeral
+ * key that is generated for the job and held only in memory, so the 
+ * content of a file cannot be recovered once the job has been discarded
+ * (or after the server stops), even if the file itself remains.
+ * <p>
+ * Each instance holds an exclusive lock on a file in its spool directory
+ * for as long as it is running.  At startup, spool directories left 
+ * behind by an instance that is no longer running (those whose lock file
+ * can be locked) are removed; the directory of any other running instance
+ * (e.g. another deployment or server on the same host) is left alone, as
+ * is any directory that has no lock file.
+ * <p>
+ * A recurring (non-persistent) timer discards jobs that have been 
+ * finished for longer than the time to live.
+ *
+ * @author Carl Harris
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class ExportSpoolBean implements ExportSpool {
+
+  static final long DEFAULT_TIME_TO_LIVE = 600;
+  
+  static final int DEFAULT_MAX_JOBS_PER_USER = 2;
+  
+  static final long JOB_RETRY_AFTER = 5;
+  
+  static final int TOKEN_LENGTH = 20;
+  
+  static final String DIRECTORY_PREFIX = "credo-export";
+  
+  static final String LOCK_FILE = ".lock";
+  
+  private static final String FILE_PREFIX = "export";
+  
+  private static final String CIPHER_ALGORITHM = "AES";
+  
+  private static final String CIPHER_TRANSFORMATION = "AES/CTR/NoPadding";
+  
+  private static final int CIPHER_KEY_SIZE = 128;
+  
+  private static final int CIPHER_BLOCK_SIZE = 16;
+  
+  private static final int BUFFER_SIZE = 8192;
+  
+  private static final Logger logger = 
+      LoggerFactory.getLogger(ExportSpoolBean.class);
+  
+  private final ConcurrentMap<String, SpooledJob> jobs = 
+      new ConcurrentHashMap<>();
+  
+  private final ConcurrentMap<String, SpooledJob> downloads = 
+      new ConcurrentHashMap<>();
+  
+  private final Object submitLock = new Object();
+  
+  private final SecureRandom secureRandom = new SecureRandom();
+  
+  @Resource(name = "export/jobTimeToLive")
+  protected long timeToLive = DEFAULT_TIME_TO_LIVE;
+  
+  @Resource(name = "export/maxJobsPerUser")
+  protected int maxJobsPerUser = DEFAULT_MAX_JOBS_PER_USER;
+  
+  @Resource
+  protected ManagedExecutorService executorService;
+  
+  @Inject
+  protected TimeOfDayService timeOfDayService;
+  
+  private Path directory;
+  
+  private FileChannel lockChannel;
+  
+  @PostConstruct
+  public void init() {
+    removeStaleDirectories();
+    try {
+      // on POSIX file systems, the directory is accessible only to owner
+      directory = Files.createTempDirectory(DIRECTORY_PREFIX);
+      lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), 
+          StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+      lockChannel.lock();
+    }
+    catch (IOException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+  
+  @PreDestroy
+  public void destroy() {
+    for (SpooledJob job : jobs.values()) {
+      job.discard();
+    }
+    jobs.clear();
+    downloads.clear();
+    try {
+      // closing the channel releases the lock
+      lockChannel.close();
+    }
+    catch (IOException ex) {
+      logger.warn("cannot release export spool lock: " + ex);
+    }
+    removeDirectory(directory);
+  }
+  
+  /**
+   * Gets the spool directory.
+   * <p>
+   * This method is exposed for unit testing.
+   * @return spool directory
+   */
+  Path getDirectory() {
+    return directory;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ExportJob submit(String owner, Callable<ExportPreparation> task) {
+    SpooledJob job = new SpooledJob(UUID.randomUUID().toString(), owner);
+    synchronized (submitLock) {
+      if (countUnfinishedJobs(owner) >= maxJobsPerUser) {
+        logger.warn("export job rejected: user " + owner 
+            + " has too many jobs in progress");
+        throw new CryptoOverloadException(JOB_RETRY_AFTER);
+      }
+      jobs.put(job.getId(), job);
+    }
+    try {
+      executorService.execute(new SpoolTask(job, task));
+    }
+    catch (RejectedExecutionException ex) {
+      jobs.remove(job.getId());
+      logger.warn("export job rejected: executor is saturated");
+      throw new CryptoOverloadException(JOB_RETRY_AFTER);
+    }
+    return job;
+  }
+
+  private int countUnfinishedJobs(String owner) {
+    int count = 0;
+    for (SpooledJob job : jobs.values()) {
+      if (ObjectUtils.equals(job.owner, owner) && !job.isFinished()) {
+        count++;
+      }
+    }
+    return count;
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ExportJob findJob(String owner, String jobId) {
+    SpooledJob job = jobs.get(jobId);
+    if (job == null || !ObjectUtils.equals(job.owner, owner)) return null;
+    return job;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ExportDownload claim(String owner, String token) {
+    SpooledJob job = downloads.remove(token);
+    if (job == null) return null;
+    jobs.remove(job.getId());
+    if (!ObjectUtils.equals(job.owner, owner)
+        || job.isExpired(currentTime())) {
+      job.discard();
+      return null;
+    }
+    return job;
+  }
+
+  /**
+   * Discards jobs that have been finished for longer than the time to live.
+   */
+  @Schedule(hour = "*", minute = "*", persistent = false)
+  public void purge() {
+    long now = currentTime();
+    for (Iterator<SpooledJob> i = jobs.values().iterator(); i.hasNext();) {
+      SpooledJob job = i.next();
+      if (job.isExpired(now)) {
+        i.remove();
+        if (job.token != null) {
+          downloads.remove(job.token);
+        }
+        job.discard();
+      }
+    }
+  }
+  
+  /**
+   * Writes the content of the given preparation to a new spool file,
+   * encrypted using the given key.
+   * @param preparation the subject preparation
+   * @param key content encryption key
+   * @param iv initialization vector
+   * @return spool file
+   * @throws IOException
+   */
+  private Path spool(ExportPreparation preparation, SecretKey key, 
+      byte[] iv) throws IOException {
+    Path file = Files.createTempFile(directory, FILE_PREFIX, null);
+    try (OutputStream outputStream = new BufferedOutputStream(
+        new CipherOutputStream(Files.newOutputStream(file),
+            newCipher(Cipher.ENCRYPT_MODE, key, iv)), BUFFER_SIZE)) {
+      preparation.writeContent(outputStream);
+      outputStream.flush();
+    }
+    catch (IOException|RuntimeException ex) {
+      Files.deleteIfExists(file);
+      throw ex;
+    }
+    return file;
+  }
+  
+  /**
+   * Removes spool directories (and their content) left behind by an 
+   * instance that is no longer running.
+   */
+  private void removeStaleDirectories() {
+    Path tmp = Paths.get(System.getProperty("java.io.tmpdir"));
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(tmp,
+        DIRECTORY_PREFIX + "*")) {
+      for (Path stale : stream) {
+        if (Files.isDirectory(stale) && isAbandoned(stale)) {
+          removeDirectory(stale);
+        }
+      }
+    }
+    catch (IOException ex) {
+      logger.warn("cannot scan for stale export spool directories: " + ex);
+    }
+  }
+  
+  /**
+   * Tests whether the given spool directory was abandoned by the instance
+   * that created it.
+   * @param directory the subject directory
+   * @return {@code true} if the directory has a lock file that is not
+   *    locked by a running instance
+   */
+  private static boolean isAbandoned(Path directory) {
+    Path lockFile = directory.resolve(LOCK_FILE);
+    if (!Files.exists(lockFile)) return false;
+    try (FileChannel channel = FileChannel.open(lockFile, 
+        StandardOpenOption.WRITE)) {
+      FileLock lock = channel.tryLock();
+      if (lock == null) return false;
+      lock.release();
+      return true;
+    }
+    catch (OverlappingFileLockException ex) {
+      // locked by another instance in this JVM
+      return false;
+    }
+    catch (IOException ex) {
+      logger.warn("cannot lock export spool directory " + directory
+          + ": " + ex);
+      return false;
+    }
+  }
+  
+  /**
+   * Removes the given spool directory and the files it contains.
+   * @param directory the directory to remove
+   */
+  private static void removeDirectory(Path directory) {
+    try {
+      try (DirectoryStream<Path> stream = 
+          Files.newDirectoryStream(directory)) {
+        for (Path file : stream) {
+          Files.deleteIfExists(file);
+        }
+      }
+      Files.deleteIfExists(directory);
+    }
+    catch (IOException ex) {
+      logger.warn("cannot remove export spool directory " + directory 
+          + ": " + ex);
+    }
+  }
+  
+  private SecretKey newKey() {
+    try {
+      KeyGenerator generator = KeyGenerator.getInstance(CIPHER_ALGORITHM);
+      generator.init(CIPHER_KEY_SIZE, secureRandom);
+      return generator.generateKey();
+    }
+    catch (GeneralSecurityException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+  
+  private byte[] newIv() {
+    byte[] iv = new byte[CIPHER_BLOCK_SIZE];
+    secureRandom.nextBytes(iv);
+    return iv;
+  }
+  
+  private static Cipher newCipher(int mode, SecretKey key, byte[] iv) {
+    try {
+      Cipher cipher = Cipher.getInstance(CIPHER_TRANSFORMATION);
+      cipher.init(mode, key, new IvParameterSpec(iv));
+      return cipher;
+    }
+    catch (GeneralSecurityException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+  
+  private String newToken() {
+    byte[] token = new byte[TOKEN_LENGTH];
+    secureRandom.nextBytes(token);
+    return Hex.encodeHexString(token);
+  }
+  
+  private long expiration() {
+    return currentTime() + timeToLive * 1000;
+  }
+  
+  private long currentTime() {
+    return timeOfDayService.getCurrent().getTime();
+  }
+  
+  /**
+   * A task that runs an export job.
+   */
+  private class SpoolTask implements Runnable {
+
+    private final SpooledJob job;
+    private final Callable<ExportPreparation> task;
+    
+    public SpoolTask(SpooledJob job, Callable<ExportPreparation> task) {
+      this.job = job;
+      this.task = task;
+    }
+
+    @Override
+    public void run() {
+      job.state = ExportJob.State.RUNNING;
+      try {
+        ExportPreparation preparation = task.call();
+        SecretKey key = newKey();
+        byte[] iv = newIv();
+        Path file = spool(preparation, key, iv);
+        String token = newToken();
+        job.complete(preparation, file, key, iv, Files.size(file), token,
+            expiration());
+        downloads.put(token, job);
+      }
+      catch (CryptoOverloadException ex) {
+        logger.warn("export job " + job.getId() + " rejected: " + ex);
+        job.fail(expiration(), ex.getRetryAfter());
+      }
+      catch (Exception ex) {
+        logger.warn("export job " + job.getId() + " failed: " + ex);
+        job.fail(expiration(), 0);
+      }
+    }
+    
+  }
+  
+  /**
+   * An export job whose content is held in an encrypted spool file.
+   */
+  private static class SpooledJob implements ExportJob, ExportDownload {
+    
+    private final String id;
+    private final String owner;
+    
+    private volatile State state = State.PENDING;
+    private volatile long expiration;
+    
+    private String fileName;
+    private String contentType;
+    private String characterEncoding;
+    private Path file;
+    private SecretKey key;
+    private byte[] iv;
+    private long size;
+    private String token;
+    private long retryAfter;
+    
+    public SpooledJob(String id, String owner) {
+      this.id = id;
+      this.owner = owner;
+    }
+
+    @Override
+    public String getId() {
+      return id;
+    }
+
+    @Override
+    public State getState() {
+      return state;
+    }
+
+    @Override
+    public String getDownloadToken() {
+      return state == State.COMPLETE ? token : null;
+    }
+
+    @Override
+    public long getRetryAfter() {
+      return state == State.FAILED ? retryAfter : 0;
+    }
+
+    @Override
+    public String getFileName() {
+      return fileName;
+    }
+
+    @Override
+    public String getContentType() {
+      return contentType;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+      return characterEncoding;
+    }
+
+    @Override
+    public long getSize() {
+      return size;
+    }
+
+    @Override
+    public void writeContent(OutputStream outputStream) throws IOException {
+      try (InputStream inputStream = new CipherInputStream(
+          Files.newInputStream(file), 
+          newCipher(Cipher.DECRYPT_MODE, key, iv))) {
+        byte[] buf = new byte[BUFFER_SIZE];
+        int numRead = inputStream.read(buf);
+        while (numRead != -1) {
+          outputStream.write(buf, 0, numRead);
+          numRead = inputStream.read(buf);
+        }
+        outputStream.flush();
+      }
+      finally {
+        discard();
+      }
+    }
+
+    /**
+     * Marks this job as complete.
+     * <p>
+     * The state is set last, so that the other properties are visible
+     * to any thread that observes the completed state.
+     */
+    public void complete(ExportPreparation preparation, Path file, 
+        SecretKey key, byte[] iv, long size, String token, 
+        long expiration) {
+      this.fileName = preparation.getFileName();
+      this.contentType = preparation.getContentType();
+      this.characterEncoding = preparation.getCharacterEncoding();
+      this.file = file;
+      this.key = key;
+      this.iv = iv;
+      this.size = size;
+      this.token = token;
+      this.expiration = expiration;
+      this.state = State.COMPLETE;
+    }
+    
+    /**
+     * Marks this job as failed.
+     * @param expiration time at which the job expires
+     * @param retryAfter retry hint in seconds, or zero if the job was 
+     *    not rejected for lack of capacity
+     */
+    public void fail(long expiration, long retryAfter) {
+      this.expiration = expiration;
+      this.retryAfter = retryAfter;
+      this.state = State.FAILED;
+    }
+    
+    /**
+     * Tests whether this job is finished.
+     * @return {@code true} if this job is complete or has failed
+     */
+    public boolean isFinished() {
+      State state = this.state;
+      return state == State.COMPLETE || state == State.FAILED;
+    }
+    
+    /**
+     * Tests whether this job has been finished for longer than its time
+     * to live.
+     * @param now current time
+     * @return {@code true} if this job is finished and has expired
+     */
+    public boolean isExpired(long now) {
+      return isFinished() && expiration <= now;
+    }
+    
+    /**
+     * Deletes the spool file (if any) of this job, and discards the key
+     * that was used to encrypt it.
+     */
+    public void discard() {
+      key = null;
+      if (file == null) return;
+      try {
+        Files.deleteIfExists(file);
+      }
+      catch (IOException ex) {
+        logger.warn("cannot remove export spool file " + file + ": " + ex);
+      }
+    }
+    
+  }
+  
+}
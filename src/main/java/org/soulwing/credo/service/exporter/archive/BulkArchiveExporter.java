@@ -0,0 +1,73 @@
+/*
+ * File created on May 14, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.exporter.archive;
+
+import java.util.Collection;
+import java.util.Map;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import org.soulwing.credo.service.credential.BulkExportRequest;
+import org.soulwing.credo.service.credential.ExportFormat.Variant;
+import org.soulwing.credo.service.credential.ExportPreparation;
+import org.soulwing.credo.service.exporter.BulkExporter;
+
+/**
+ * A {@link BulkExporter} that produces the same archive variants as the
+ * {@link PemArchiveExporter}.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class BulkArchiveExporter implements BulkExporter {
+
+  @Inject
+  protected PemArchiveExporter archiveExporter;
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Collection<Variant> getVariants() {
+    return archiveExporter.getVariants();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Variant getDefaultVariant() {
+    return archiveExporter.getDefaultVariant();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ExportPreparation exportCredentials(BulkExportRequest request,
+      Map<String, ExportPreparation> preparations) {
+    PemArchiveVariant variant = archiveExporter.findVariant(
+        request.getArchiveVariant());
+    return new BulkArchivePreparation(
+        request.getSuffixedFileName(variant.getSuffix()), variant, 
+        preparations);
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * File created on May 14, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.exporter.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+import org.soulwing.credo.service.archive.ArchiveBuilder;
+import org.soulwing.credo.service.credential.ExportPreparation;
+import org.soulwing.credo.service.exporter.AbstractExportPreparation;
+
+/**
+ * An {@link ExportPreparation} that writes the content of several other
+ * preparations into separate directories of a single archive.
+ * <p>
+ * Like the {@link PemArchivePreparation}, the archive is written directly
+ * to the output stream given to {@link #writeContent(OutputStream)}.
+ *
+ * @author Carl Harris
+ */
+class BulkArchivePreparation extends AbstractExportPreparation {
+
+  private final PemArchiveVariant variant;
+  
+  private final Map<String, ExportPreparation> preparations;
+  
+  /**
+   * Constructs a new instance.
+   * @param fileName file name for the archive
+   * @param variant archive variant
+   * @param preparations map of directory names to preparations
+   */
+  public BulkArchivePreparation(String fileName, PemArchiveVariant variant,
+      Map<String, ExportPreparation> preparations) {
+    super(fileName, variant.getContentType(), null);
+    this.variant = variant;
+    this.preparations = preparations;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void writeContent(OutputStream outputStream) throws IOException {
+    ArchiveBuilder archiveBuilder = variant.newArchiveBuilder(outputStream);
+    for (Map.Entry<String, ExportPreparation> entry : 
+        preparations.entrySet()) {
+      entry.getValue().writeEntries(entry.getKey(), archiveBuilder);
+    }
+    archiveBuilder.finish();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void writeEntries(String directory, ArchiveBuilder archiveBuilder)
+      throws IOException {
+    for (Map.Entry<String, ExportPreparation> entry : 
+        preparations.entrySet()) {
+      entry.getValue().writeEntries(directory + "/" + entry.getKey(), 
+          archiveBuilder);
+    }
+  }
+
+}
@@ -19,6 +19,8 @@
 package org.soulwing.credo.service.exporter.archive;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -26,7 +28,6 @@ import javax.inject.Inject;
 
 import org.soulwing.credo.CredentialCertificate;
 import org.soulwing.credo.service.PassphraseException;
-import org.soulwing.credo.service.archive.ArchiveBuilder;
 import org.soulwing.credo.service.credential.ExportException;
 import org.soulwing.credo.service.credential.ExportFormat;
 import org.soulwing.credo.service.credential.ExportPreparation;
@@ -34,7 +35,6 @@ import org.soulwing.credo.service.credential.ExportRequest;
 import org.soulwing.credo.service.crypto.PKCS8EncryptionService;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
 import org.soulwing.credo.service.exporter.AbstractVariantExporter;
-import org.soulwing.credo.service.exporter.ConcreteExportPreparation;
 
 /**
  * An exporter that exports in the {@link ExportFormat#PEM_ARCHIVE} format.
@@ -81,30 +81,28 @@ public class PemArchiveExporter
     
     PemArchiveVariant variant = findVariant(request.getVariant());
     
-    ArchiveBuilder archiveBuilder = variant.newArchiveBuilder();
-    archiveBuilder.beginEntry(KEY_ENTRY_NAME, CHARACTER_ENCODING)    
-      .addContent(privateKey.getContent())
-      .endEntry();
+    PemArchivePreparation preparation = new PemArchivePreparation(
+        request.getSuffixedFileName(variant.getSuffix()), variant,
+        CHARACTER_ENCODING);
+    
+    preparation.addEntry(KEY_ENTRY_NAME, 
+        Collections.singletonList(privateKey.getContent()));
 
     List<? extends CredentialCertificate> certificates = 
         request.getCredential().getCertificates();
     if (certificates.size() > 0) {
-      archiveBuilder.beginEntry(CERT_ENTRY_NAME, CHARACTER_ENCODING)
-          .addContent(certificates.get(0).getContent())
-          .endEntry();
+      preparation.addEntry(CERT_ENTRY_NAME,
+          Collections.singletonList(certificates.get(0).getContent()));
       if (certificates.size() > 1) {
-        archiveBuilder.beginEntry(CA_CERTS_ENTRY_NAME, CHARACTER_ENCODING);
+        List<String> authorities = new ArrayList<>();
         for (int i = 1; i < certificates.size(); i++) {
-          archiveBuilder.addContent(certificates.get(i).getContent());
+          authorities.add(certificates.get(i).getContent());
         }
-        archiveBuilder.endEntry();
+        preparation.addEntry(CA_CERTS_ENTRY_NAME, authorities);
       }
     }
 
-    return new ConcreteExportPreparation(
-        request.getSuffixedFileName(variant.getSuffix()), 
-        variant.getContentType(), 
-        CHARACTER_ENCODING, archiveBuilder.build());
+    return preparation;
   }
 
 }
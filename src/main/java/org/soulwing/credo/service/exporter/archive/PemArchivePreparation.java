@@ -0,0 +1,104 @@
+/*
+ * File created on May 13, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.exporter.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.soulwing.credo.service.archive.ArchiveBuilder;
+import org.soulwing.credo.service.credential.ExportPreparation;
+import org.soulwing.credo.service.exporter.AbstractExportPreparation;
+
+/**
+ * An {@link ExportPreparation} that writes a PEM archive directly to the
+ * output stream given to {@link #writeContent(OutputStream)}.
+ * <p>
+ * The PEM encoded content of each entry is retained by the preparation,
+ * but the archive itself is never buffered in memory.
+ *
+ * @author Carl Harris
+ */
+class PemArchivePreparation extends AbstractExportPreparation {
+
+  private final List<Entry> entries = new ArrayList<>();
+  
+  private final PemArchiveVariant variant;
+  
+  /**
+   * Constructs a new instance.
+   * @param fileName file name for the archive
+   * @param variant archive variant
+   * @param characterEncoding character encoding for entry content
+   */
+  public PemArchivePreparation(String fileName, PemArchiveVariant variant,
+      String characterEncoding) {
+    super(fileName, variant.getContentType(), characterEncoding);
+    this.variant = variant;
+  }
+
+  /**
+   * Adds an entry to the receiver.
+   * @param name name of the entry
+   * @param contents PEM encoded objects that comprise the entry's content
+   */
+  public void addEntry(String name, List<String> contents) {
+    entries.add(new Entry(name, contents));
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void writeContent(OutputStream outputStream) throws IOException {
+    ArchiveBuilder archiveBuilder = variant.newArchiveBuilder(outputStream);
+    writeEntries(null, archiveBuilder);
+    archiveBuilder.finish();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void writeEntries(String directory, ArchiveBuilder archiveBuilder)
+      throws IOException {
+    String prefix = directory != null ? directory + "/" : "";
+    for (Entry entry : entries) {
+      archiveBuilder.beginEntry(prefix + entry.name, getCharacterEncoding());
+      for (String content : entry.contents) {
+        archiveBuilder.addContent(content);
+      }
+      archiveBuilder.endEntry();
+    }
+  }
+  
+  private static class Entry {
+    
+    private final String name;
+    private final List<String> contents;
+    
+    public Entry(String name, List<String> contents) {
+      this.name = name;
+      this.contents = contents;
+    }
+    
+  }
+
+}
@@ -18,6 +18,8 @@
  */
 package org.soulwing.credo.service.exporter.archive;
 
+import java.io.OutputStream;
+
 import org.soulwing.credo.service.archive.ArchiveBuilder;
 import org.soulwing.credo.service.credential.ExportFormat;
 
@@ -36,8 +38,9 @@ public interface PemArchiveVariant extends ExportFormat.Variant {
   
   /**
    * Gets the archive builder to use to produce this variant.
+   * @param outputStream the stream to which the archive will be written
    * @return archive builder
    */
-  ArchiveBuilder newArchiveBuilder();
+  ArchiveBuilder newArchiveBuilder(OutputStream outputStream);
   
 }
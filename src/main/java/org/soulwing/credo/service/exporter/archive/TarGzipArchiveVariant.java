@@ -18,6 +18,8 @@
  */
 package org.soulwing.credo.service.exporter.archive;
 
+import java.io.OutputStream;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -64,10 +66,8 @@ public class TarGzipArchiveVariant extends AbstractFormatVariant
    * {@inheritDoc}
    */
   @Override
-  public ArchiveBuilder newArchiveBuilder() {
-    ArchiveBuilder builder = archiveBuilderFactory.newBuilder();
-    System.out.println(builder.getClass().getName());
-    return builder;
+  public ArchiveBuilder newArchiveBuilder(OutputStream outputStream) {
+    return archiveBuilderFactory.newBuilder(outputStream);
   }
 
 }
@@ -18,6 +18,8 @@
  */
 package org.soulwing.credo.service.exporter.archive;
 
+import java.io.OutputStream;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -64,8 +66,8 @@ public class ZipArchiveVariant extends AbstractFormatVariant
    * {@inheritDoc}
    */
   @Override
-  public ArchiveBuilder newArchiveBuilder() {
-    return archiveBuilderFactory.newBuilder();
+  public ArchiveBuilder newArchiveBuilder(OutputStream outputStream) {
+    return archiveBuilderFactory.newBuilder(outputStream);
   }
 
 }
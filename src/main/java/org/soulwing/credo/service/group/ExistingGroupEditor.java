@@ -29,12 +29,14 @@ import javax.persistence.OptimisticLockException;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.UserGroupMember;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
+import org.soulwing.credo.security.MembershipCache;
 import org.soulwing.credo.security.OwnerAccessControlException;
 import org.soulwing.credo.service.Errors;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.MergeConflictException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.UserAccessException;
+import org.soulwing.credo.service.UserContextSnapshot;
 import org.soulwing.credo.service.crypto.SecretKeyWrapper;
 
 /**
@@ -51,6 +53,12 @@ public class ExistingGroupEditor extends AbstractGroupEditor {
   @Inject
   protected UserGroupMemberRepository memberRepository;
 
+  @Inject
+  protected MembershipCache membershipCache;
+
+  @Inject
+  protected UserContextSnapshot userContextSnapshot;
+
   private UserGroup group;
 
   private final Collection<Long> membersBefore = new ArrayList<>();
@@ -175,6 +183,8 @@ public class ExistingGroupEditor extends AbstractGroupEditor {
         memberRepository.remove(member);
       }
     }
+    membershipCache.clear();
+    userContextSnapshot.invalidate();
   }
 
 }
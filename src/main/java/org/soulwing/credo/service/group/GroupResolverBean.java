@@ -28,6 +28,7 @@ import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.MergeConflictException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 
 /**
  * A {@link GroupResolver} implemented as a simple bean.
@@ -45,6 +46,9 @@ public class GroupResolverBean implements GroupResolver {
   
   @Inject
   protected UserContextService userContextService;
+
+  @Inject
+  protected UserContextSnapshot userContextSnapshot;
   
   /**
    * {@inheritDoc}
@@ -72,8 +76,13 @@ public class GroupResolverBean implements GroupResolver {
 
   private UserGroup findGroup(String groupName)
       throws NoSuchGroupException {
-    UserGroup group = groupRepository.findByGroupName(
-        groupName, userContextService.getLoginName());
+    Long groupId = userContextSnapshot.getGroupId(groupName);
+    UserGroup group = groupId != null ? 
+        groupRepository.findById(groupId) : null;
+    if (group == null) {
+      group = groupRepository.findByGroupName(
+          groupName, userContextService.getLoginName());
+    }
     if (group == null) {
       throw new NoSuchGroupException();
     }
@@ -36,12 +36,11 @@ import javax.inject.Inject;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.UserGroupMember;
 import org.soulwing.credo.UserProfile;
-import org.soulwing.credo.repository.CredentialRepository;
-import org.soulwing.credo.repository.CredentialRequestRepository;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
 import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 import org.soulwing.credo.service.UserProfileWrapper;
 
 /**
@@ -53,12 +52,6 @@ import org.soulwing.credo.service.UserProfileWrapper;
 @ConcurrencyManagement(ConcurrencyManagementType.BEAN)
 public class GroupServiceBean implements GroupService {
 
-  @Inject
-  protected CredentialRepository credentialRepository;
-
-  @Inject
-  protected CredentialRequestRepository requestRepository;
-  
   @Inject
   protected UserGroupRepository groupRepository;
   
@@ -67,6 +60,9 @@ public class GroupServiceBean implements GroupService {
   
   @Inject
   protected UserContextService userContextService;
+
+  @Inject
+  protected UserContextSnapshot userContextSnapshot;
   
   /**
    * {@inheritDoc}
@@ -90,6 +86,7 @@ public class GroupServiceBean implements GroupService {
       allDetails.addAll(assembleGroupDetails(descendants));
     }
     
+    resolveGroupsInUse(allDetails);
     return sortedDetails(allDetails);
   }
 
@@ -103,7 +100,6 @@ public class GroupServiceBean implements GroupService {
       if (UserGroup.SELF_GROUP_NAME.equals(groupName)) continue;
       if (wrapper == null || !wrapper.getName().equals(groupName)) {
         wrapper = new UserGroupWrapper(group);
-        wrapper.setInUse(resolveGroupInUse(group));
         details.add(wrapper);
       }
       UserProfile user = member.getUser();
@@ -118,7 +114,6 @@ public class GroupServiceBean implements GroupService {
     Set<GroupDetail> details = new HashSet<>();  
     for (UserGroup group : groups) {
       UserGroupWrapper wrapper = new UserGroupWrapper(group);
-      wrapper.setInUse(resolveGroupInUse(group));
       for (UserGroupMember member : group.getMembers()) {
         wrapper.addMember(new UserProfileWrapper(member.getUser()));
       }
@@ -139,9 +134,16 @@ public class GroupServiceBean implements GroupService {
     return allDetails;
   }
   
-  private boolean resolveGroupInUse(UserGroup group) {
-    return !credentialRepository.findAllByOwnerId(group.getId()).isEmpty()
-        || !requestRepository.findAllByOwnerId(group.getId()).isEmpty();
+  private void resolveGroupsInUse(Set<GroupDetail> details) {
+    List<Long> groupIds = new ArrayList<>(details.size());
+    for (GroupDetail detail : details) {
+      groupIds.add(detail.getId());
+    }
+    Set<Long> inUse = groupRepository.findIdsInUse(groupIds);
+    for (GroupDetail detail : details) {
+      UserGroupWrapper wrapper = (UserGroupWrapper) detail;
+      wrapper.setInUse(wrapper.isInUse() || inUse.contains(detail.getId()));
+    }
   }
 
   /**
@@ -150,6 +152,7 @@ public class GroupServiceBean implements GroupService {
   @Override
   public boolean isExistingGroup(String groupName)
       throws GroupAccessException {
+    if (userContextSnapshot.getGroupId(groupName) != null) return true;
     String loginName = userContextService.getLoginName();
     UserGroup group = groupRepository.findByGroupName(groupName, loginName);
     boolean exists = group != null;
@@ -30,9 +30,11 @@ import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.UserGroupMember;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
 import org.soulwing.credo.repository.UserGroupRepository;
+import org.soulwing.credo.security.MembershipCache;
 import org.soulwing.credo.service.Errors;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 
 /**
  * A {@link RemoveGroupService} implemented as an EJB.
@@ -51,6 +53,12 @@ public class RemoveGroupServiceBean implements RemoveGroupService {
   
   @Inject
   protected UserContextService userContextService;
+
+  @Inject
+  protected MembershipCache membershipCache;
+
+  @Inject
+  protected UserContextSnapshot userContextSnapshot;
   
   /**
    * {@inheritDoc}
@@ -86,6 +94,8 @@ public class RemoveGroupServiceBean implements RemoveGroupService {
     
     try {
       groupRepository.remove(group);
+      membershipCache.clear();
+      userContextSnapshot.invalidate();
     }
     catch (PersistenceException ex) {
       errors.addError("groupInUse", new Object[] { id });
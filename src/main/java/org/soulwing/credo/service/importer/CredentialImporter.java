@@ -18,9 +18,6 @@
  */
 package org.soulwing.credo.service.importer;
 
-import java.io.IOException;
-import java.io.InputStream;
-
 import org.soulwing.credo.Credential;
 import org.soulwing.credo.Password;
 import org.soulwing.credo.service.Errors;
@@ -28,6 +25,7 @@ import org.soulwing.credo.service.NoContentException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.credential.ImportDetails;
 import org.soulwing.credo.service.credential.ImportException;
+import org.soulwing.credo.service.crypto.CredentialBag;
 
 /**
  * A builder for a {@link Credential}.
@@ -37,14 +35,12 @@ import org.soulwing.credo.service.credential.ImportException;
 public interface CredentialImporter {
 
   /**
-   * Loads a file containing content for a credential.
-   * @param inputStream input stream representing the contents of the file
+   * Loads the parsed content of a file containing content for a credential.
+   * @param content the credential objects parsed from the file
    * @throws NoContentException if the file doesn't contain anything
    *   that could be part of a credential
-   * @throws IOException if an I/O error occurs
    */
-  void loadFile(InputStream inputStream) 
-      throws NoContentException, IOException;
+  void loadContent(CredentialBag content) throws NoContentException;
   
   /**
    * Imports the credential content from the loaded files.
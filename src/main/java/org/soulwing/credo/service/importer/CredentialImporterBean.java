@@ -18,8 +18,6 @@
  */
 package org.soulwing.credo.service.importer;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.List;
 
 import javax.enterprise.context.Dependent;
@@ -67,9 +65,8 @@ public class CredentialImporterBean implements ConfigurableCredentialImporter {
    * {@inheritDoc}
    */
   @Override
-  public void loadFile(InputStream inputStream) throws NoContentException,
-      IOException {
-    if (bag.addAllObjects(inputStream) == 0) {
+  public void loadContent(CredentialBag content) throws NoContentException {
+    if (bag.addAllObjects(content) == 0) {
       throw new NoContentException();
     }
   }
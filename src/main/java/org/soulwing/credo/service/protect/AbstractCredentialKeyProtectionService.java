@@ -27,6 +27,7 @@ import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.UserAccessException;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 import org.soulwing.credo.service.crypto.Encoded;
 import org.soulwing.credo.service.crypto.Encoded.Type;
 import org.soulwing.credo.service.crypto.PrivateKeyDecoder;
@@ -47,6 +48,9 @@ public abstract class AbstractCredentialKeyProtectionService {
   @Inject
   protected UserContextService userContextService;
 
+  @Inject
+  protected UserContextSnapshot userContextSnapshot;
+
   @Inject
   protected GroupProtectionService groupProtectionService;
 
@@ -75,13 +79,21 @@ public abstract class AbstractCredentialKeyProtectionService {
 
   /**
    * Finds a group by name.
+   * <p>
+   * A group that is accessible to the logged-in user is found by its ID
+   * in the {@link UserContextSnapshot}; any other group is found by name.
    * @param groupName name of the group to match
    * @return group object
    * @throws NoSuchGroupException if the group does not exist
    */
   protected UserGroup findGroup(String groupName) throws NoSuchGroupException {
-    UserGroup group = groupRepository.findByGroupName(groupName,
-        userContextService.getLoginName());
+    Long groupId = userContextSnapshot.getGroupId(groupName);
+    UserGroup group = groupId != null ? 
+        groupRepository.findById(groupId) : null;
+    if (group == null) {
+      group = groupRepository.findByGroupName(groupName,
+          userContextService.getLoginName());
+    }
     if (group == null) {
       throw new NoSuchGroupException();
     }
@@ -18,7 +18,10 @@
  */
 package org.soulwing.credo.service.protect;
 
+import java.util.List;
+
 import org.soulwing.credo.Credential;
+import org.soulwing.credo.Password;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.ProtectionParameters;
 import org.soulwing.credo.service.UserAccessException;
@@ -58,4 +61,20 @@ public interface CredentialProtectionService {
       ProtectionParameters protection) throws UserAccessException,
       GroupAccessException;
   
+  /**
+   * Removes the cryptographic protection from the private keys of several
+   * credentials.
+   * <p>
+   * The secret key of each distinct owner group is unwrapped only once,
+   * regardless of the number of credentials it owns.
+   * @param credentials the subject credentials
+   * @param password password of the logged-in user
+   * @return unprotected private keys associated with {@code credentials},
+   *    in the same order
+   * @throws UserAccessException
+   * @throws GroupAccessException
+   */
+  List<PrivateKeyWrapper> unprotect(List<? extends Credential> credentials,
+      Password password) throws UserAccessException, GroupAccessException;
+  
 }
@@ -18,11 +18,17 @@
  */
 package org.soulwing.credo.service.protect;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.crypto.SecretKey;
 import javax.enterprise.context.ApplicationScoped;
 
 import org.apache.commons.lang.Validate;
 import org.soulwing.credo.Credential;
+import org.soulwing.credo.Password;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.ProtectionParameters;
@@ -78,5 +84,34 @@ public class CredentialProtectionServiceBean
       throw new RuntimeException(ex);
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<PrivateKeyWrapper> unprotect(
+      List<? extends Credential> credentials, Password password)
+      throws UserAccessException, GroupAccessException {
+    
+    Map<Long, SecretKey> secretKeys = new HashMap<>();
+    List<PrivateKeyWrapper> privateKeys = new ArrayList<>(credentials.size());
+    try {
+      for (Credential credential : credentials) {
+        UserGroup owner = credential.getOwner();
+        SecretKey secretKey = secretKeys.get(owner.getId());
+        if (secretKey == null) {
+          UserGroup group = findGroup(owner.getName());
+          secretKey = getGroupSecretKey(group, password);
+          secretKeys.put(owner.getId(), secretKey);
+        }
+        privateKeys.add(unwrapPrivateKey(
+            credential.getPrivateKey().getContent(), secretKey));
+      }
+      return privateKeys;
+    }
+    catch (NoSuchGroupException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
   
 }
@@ -0,0 +1,46 @@
+/*
+ * File created on May 12, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.protect;
+
+/**
+ * A holder of key material that is discarded after a period of inactivity
+ * by a {@link KeyExpiryService}.
+ *
+ * @author Carl Harris
+ */
+public interface ExpiringKeyHolder {
+
+  /**
+   * Gets the time at which the key material held by the receiver will
+   * expire if it is not accessed again.
+   * @return expiration time in milliseconds since the epoch
+   */
+  long getExpiration();
+
+  /**
+   * Discards the key material held by the receiver, if it has expired.
+   * @param now the current time in milliseconds since the epoch
+   * @return {@code true} if the receiver no longer holds any key material
+   *    and need not be watched further; {@code false} if the receiver has
+   *    been accessed since it was last scheduled and should be rescheduled
+   *    to expire at its current {@link #getExpiration() expiration} time
+   */
+  boolean expire(long now);
+
+}
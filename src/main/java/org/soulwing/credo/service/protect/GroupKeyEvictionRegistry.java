@@ -0,0 +1,76 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.protect;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.ApplicationScoped;
+
+/**
+ * A registry of group key evictions, shared by the {@link GroupKeyHolder}
+ * of every session.
+ * <p>
+ * A key cached by a holder is stamped with the registry's current 
+ * sequence number.  Evicting a group advances the sequence and records
+ * it for the group, so that any key for the group cached (in any session)
+ * before the eviction is recognized as stale on its next access.  The 
+ * registry retains a single number for each group that has been evicted.
+ *
+ * @author Carl Harris
+ */
+@ApplicationScoped
+public class GroupKeyEvictionRegistry {
+
+  private final AtomicLong sequence = new AtomicLong();
+  
+  private final ConcurrentMap<Long, Long> evictions = 
+      new ConcurrentHashMap<>();
+  
+  /**
+   * Gets the current sequence number, with which a newly cached key 
+   * should be stamped.
+   * @return sequence number
+   */
+  public long getSequence() {
+    return sequence.get();
+  }
+  
+  /**
+   * Records an eviction of the keys cached for the given group.
+   * @param groupId ID of the subject group
+   */
+  public void evict(Long groupId) {
+    evictions.put(groupId, sequence.incrementAndGet());
+  }
+  
+  /**
+   * Tests whether a key cached for the given group has been evicted.
+   * @param groupId ID of the subject group
+   * @param stamp the sequence number with which the key was stamped
+   * @return {@code true} if the group has been evicted since the key
+   *    was cached
+   */
+  public boolean isEvicted(Long groupId, long stamp) {
+    Long eviction = evictions.get(groupId);
+    return eviction != null && eviction > stamp;
+  }
+  
+}
@@ -0,0 +1,69 @@
+/*
+ * File created on May 6, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.protect;
+
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.service.crypto.SecretKeyWrapper;
+
+/**
+ * A simple cache for the unwrapped secret keys of the groups a user
+ * has accessed.
+ * <p>
+ * An implementation is typically a session-scoped bean that holds keys
+ * for the same period of inactivity as the {@link PrivateKeyHolder}, so
+ * that repeated operations on credentials owned by the same group need
+ * not unwrap the group key (and the keys of its owner ancestors) each time.
+ * <p>
+ * Entries are identified by group ID and version; a key cached for a group
+ * is not returned once the persistent state of the group has changed.
+ * <p>
+ * Any implementation of this interface must be thread safe.
+ *
+ * @author Carl Harris
+ */
+public interface GroupKeyHolder {
+
+  /**
+   * Gets the cached secret key for the given group, if any.
+   * @param group the subject group
+   * @return secret key or {@code null} if no key is cached for the current
+   *    version of {@code group}
+   */
+  SecretKeyWrapper getSecretKey(UserGroup group);
+
+  /**
+   * Puts the secret key for the given group into the cache.
+   * @param group the subject group
+   * @param secretKey the unwrapped secret key of {@code group}
+   */
+  void putSecretKey(UserGroup group, SecretKeyWrapper secretKey);
+
+  /**
+   * Removes the secret key for the given group (if any) from the cache
+   * of every session.
+   * @param group the subject group
+   */
+  void evict(UserGroup group);
+
+  /**
+   * Removes all secret keys from the cache.
+   */
+  void clear();
+
+}
@@ -0,0 +1,214 @@
+/*
+ * File created on May 6, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.protect;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.SessionScoped;
+import javax.inject.Inject;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.service.TimeOfDayService;
+import org.soulwing.credo.service.crypto.SecretKeyWrapper;
+
+/**
+ * A {@link GroupKeyHolder} implemented as a bean.
+ * <p>
+ * Like {@link PrivateKeyHolderBean}, this implementation uses the 
+ * {@link KeyExpiryService} to discard all cached keys when no key has been
+ * accessed for the same period of inactivity.  Evicting a group is 
+ * recorded in the {@link GroupKeyEvictionRegistry}, so that a key for the 
+ * group cached in any other session is not returned after the eviction.
+ * Keys are never serialized with the session.
+ *
+ * @author Carl Harris
+ */
+@SessionScoped
+public class GroupKeyHolderBean implements GroupKeyHolder, 
+    ExpiringKeyHolder, Serializable {
+
+  private static final long serialVersionUID = -2722413569018454741L;
+
+  static final Long TIMEOUT_DURATION = PrivateKeyHolderBean.TIMEOUT_DURATION;
+
+  private final Lock lock = new ReentrantLock();
+
+  @Inject
+  protected KeyExpiryService keyExpiryService;
+  
+  @Inject
+  protected GroupKeyEvictionRegistry evictionRegistry;
+  
+  @Inject
+  protected TimeOfDayService timeOfDayService;
+
+  private transient Map<Long, Entry> entries;
+
+  private volatile long lastAccess;
+  
+  private transient boolean watched;
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SecretKeyWrapper getSecretKey(UserGroup group) {
+    if (group.getId() == null) return null;
+    lock.lock();
+    try {
+      if (entries == null) return null;
+      long now = currentTime();
+      if (now >= getExpiration()) {
+        // not yet expired by the expiry service
+        entries.clear();
+        return null;
+      }
+      Entry entry = entries.get(group.getId());
+      if (entry == null) return null;
+      if (!ObjectUtils.equals(entry.version, group.getVersion())
+          || evictionRegistry.isEvicted(group.getId(), entry.stamp)) {
+        entries.remove(group.getId());
+        return null;
+      }
+      lastAccess = now;
+      return entry.secretKey;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void putSecretKey(UserGroup group, SecretKeyWrapper secretKey) {
+    if (group.getId() == null) return;
+    lock.lock();
+    try {
+      if (entries == null) {
+        entries = new HashMap<>();
+      }
+      entries.put(group.getId(), new Entry(group.getVersion(), 
+          evictionRegistry.getSequence(), secretKey));
+      lastAccess = currentTime();
+      if (!watched) {
+        keyExpiryService.watch(this);
+        watched = true;
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The key for the group is also evicted from the holder of every other
+   * session.
+   */
+  @Override
+  public void evict(UserGroup group) {
+    if (group.getId() == null) return;
+    evictionRegistry.evict(group.getId());
+    lock.lock();
+    try {
+      if (entries != null) {
+        entries.remove(group.getId());
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @PreDestroy
+  public void clear() {
+    lock.lock();
+    try {
+      if (entries != null) {
+        entries.clear();
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getExpiration() {
+    return lastAccess + TIMEOUT_DURATION;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean expire(long now) {
+    lock.lock();
+    try {
+      if (entries != null && !entries.isEmpty() && now < getExpiration()) {
+        return false;
+      }
+      entries = null;
+      watched = false;
+      return true;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  private long currentTime() {
+    return timeOfDayService.getCurrent().getTime();
+  }
+  
+  /**
+   * A cached secret key, along with the group version to which it 
+   * corresponds and the eviction sequence number at which it was cached.
+   */
+  private static class Entry {
+
+    private final Long version;
+    private final long stamp;
+    private final SecretKeyWrapper secretKey;
+
+    public Entry(Long version, long stamp, SecretKeyWrapper secretKey) {
+      this.version = version;
+      this.stamp = stamp;
+      this.secretKey = secretKey;
+    }
+
+  }
+
+}
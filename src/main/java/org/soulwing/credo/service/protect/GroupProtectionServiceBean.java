@@ -20,7 +20,10 @@ package org.soulwing.credo.service.protect;
 
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
+import javax.crypto.SecretKey;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -30,13 +33,16 @@ import org.soulwing.credo.UserGroupMember;
 import org.soulwing.credo.UserGroupMemberBuilderFactory;
 import org.soulwing.credo.UserProfile;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
+import org.soulwing.credo.security.MembershipCache;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.UserAccessException;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
 import org.soulwing.credo.service.crypto.Encoded;
 import org.soulwing.credo.service.crypto.IncorrectPassphraseException;
 import org.soulwing.credo.service.crypto.PrivateKeyDecoder;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.crypto.ProfileKeyEncryptionService;
 import org.soulwing.credo.service.crypto.PublicKeyDecoder;
 import org.soulwing.credo.service.crypto.SecretKeyDecoder;
 import org.soulwing.credo.service.crypto.SecretKeyEncryptionService;
@@ -61,8 +67,11 @@ public class GroupProtectionServiceBean
   @Inject
   protected SecretKeyDecoder secretKeyDecoder;
 
-  @Inject @WrappedWith(WrappedWith.Type.RSA)
-  protected SecretKeyEncryptionService rsaSecretKeyEncryptionService;
+  @Inject
+  protected ProfileKeyEncryptionService profileKeyEncryptionService;
+
+  @Inject @WrappedWith(WrappedWith.Type.PUBLIC)
+  protected SecretKeyEncryptionService publicKeyEncryptionService;
   
   @Inject
   protected UserGroupMemberBuilderFactory memberBuilderFactory;
@@ -73,9 +82,18 @@ public class GroupProtectionServiceBean
   @Inject
   protected UserContextService userContextService;
   
+  @Inject
+  protected CryptoExecutionService cryptoExecutionService;
+  
   @Inject
   protected PrivateKeyHolder privateKeyHolder;
   
+  @Inject
+  protected GroupKeyHolder groupKeyHolder;
+  
+  @Inject
+  protected MembershipCache membershipCache;
+  
   /**
    * {@inheritDoc}
    */
@@ -85,17 +103,23 @@ public class GroupProtectionServiceBean
     PublicKey publicKey = publicKeyDecoder.decode(profile.getPublicKey())
         .derive();
     SecretKeyWrapper encryptedSecretKey = 
-        rsaSecretKeyEncryptionService.encrypt(secretKey, publicKey);
+        publicKeyEncryptionService.encrypt(secretKey, publicKey);
     UserGroupMember member = memberBuilderFactory.newBuilder()
         .setGroup(group)
         .setUser(profile)
         .setSecretKey(encryptedSecretKey.getContent())
         .build();
     memberRepository.add(member);
+    groupKeyHolder.evict(group);
+    membershipCache.evict(group);
   }
 
   /**
    * {@inheritDoc}
+   * <p>
+   * The user's membership is always verified against the repository;
+   * only the unwrapping of the secret key is avoided when the key for
+   * the group (or one of its owner ancestors) has been cached.
    */
   @Override
   public SecretKeyWrapper unprotect(UserGroup group, Password password) 
@@ -105,7 +129,7 @@ public class GroupProtectionServiceBean
     if (member == null) {
       throw new GroupAccessException(group.getName());
     }
-    return unwrapSecretKey(group, member, unwrapPrivateKey(member, password));        
+    return unwrapSecretKey(group, member, password);
   }
 
   /**
@@ -116,24 +140,20 @@ public class GroupProtectionServiceBean
    * 
    * @param group the group to search 
    * @param loginName subject user login name
-   * @return group member entity
-   * @throws GroupAccessException if the user is not a member of the group or
-   *    any of its owner ancestors
+   * @return group member entity or {@code null} if the user is not a member
+   *    of the group or any of its owner ancestors
    */
   private UserGroupMember findGroupMember(UserGroup group,
       String loginName) {
-    UserGroupMember groupMember = memberRepository
-        .findByGroupNameAndLoginName(group.getName(), loginName);
-    if (groupMember == null && group.getOwner() != null) {
-      return findGroupMember(group.getOwner(), loginName);
-    }
-    return groupMember;   
+    return memberRepository.findByGroupAndLoginName(group, loginName);
   }
   
-  
-  
   /**
    * Unwraps (decrypts) the private key of a group member.
+   * <p>
+   * If the user's private key is stored using an obsolete encryption 
+   * scheme, it is encrypted again using the current scheme once it has
+   * been successfully unwrapped.
    * @param member the subject group member
    * @param password password provided by the subject user
    * @return unwrapped private key
@@ -145,46 +165,94 @@ public class GroupProtectionServiceBean
     
     PrivateKey privateKey = privateKeyHolder.getPrivateKey();
     if (privateKey == null) {
-      PrivateKeyWrapper encryptedPrivateKey = pkcs8Decoder.decode(
-          member.getUser().getPrivateKey());
+      UserProfile user = member.getUser();
+      String encoded = user.getPrivateKey();
+      PrivateKeyWrapper encryptedPrivateKey = pkcs8Decoder.decode(encoded);
       
       encryptedPrivateKey.setProtectionParameter(password);
       
+      PrivateKeyWrapper decryptedPrivateKey = null;
       try {
-        privateKey = encryptedPrivateKey.derive();
+        decryptedPrivateKey = decryptPrivateKey(encryptedPrivateKey);
+        privateKey = decryptedPrivateKey.derive();
         privateKeyHolder.setPrivateKey(privateKey);
       }
       catch (IncorrectPassphraseException ex) {
         throw new UserAccessException(ex);
       }
+      
+      if (profileKeyEncryptionService.isReencryptionNeeded(encoded)) {
+        user.setPrivateKey(profileKeyEncryptionService.encrypt(
+            decryptedPrivateKey, password).getContent());
+      }
     }
     
     return privateKey;
 
   }
 
+  /**
+   * Decrypts a private key using the crypto execution service.
+   * @param encryptedPrivateKey the key to decrypt; its protection parameter
+   *    must be set
+   * @return decrypted private key
+   * @throws IncorrectPassphraseException if the protection parameter
+   *    of {@code encryptedPrivateKey} is incorrect
+   */
+  private PrivateKeyWrapper decryptPrivateKey(
+      final PrivateKeyWrapper encryptedPrivateKey) {
+    try {
+      return cryptoExecutionService.execute(
+          new Callable<PrivateKeyWrapper>() {
+            @Override
+            public PrivateKeyWrapper call() {
+              return encryptedPrivateKey.deriveWrapper();
+            }
+          });
+    }
+    catch (ExecutionException ex) {
+      throw new RuntimeException(ex.getCause());
+    }
+  }
+
   /**
    * Unwraps (decrypts) the secret key for a given group.
+   * <p>
+   * The unwrapped key for {@code group} and for each of the owner
+   * ancestors that must be unwrapped to obtain it is put into the
+   * group key cache.
    * @param group the subject group
    * @param member a member of group or one of its owner ancestors
-   * @param privateKey (unwrapped) private key of {@code member} 
+   * @param password password provided by the subject user 
    * @return unwrapped secret key
+   * @throws UserAccessException if the private key of {@code member} is
+   *    needed and could not be unwrapped using the given password
    */
   private SecretKeyWrapper unwrapSecretKey(UserGroup group,
-      UserGroupMember member, PrivateKey privateKey) {
+      UserGroupMember member, Password password) 
+      throws UserAccessException {
+    
+    SecretKeyWrapper secretKey = groupKeyHolder.getSecretKey(group);
+    if (secretKey != null) {
+      return secretKey;
+    }
     
     SecretKeyWrapper encryptedSecretKey = null;
     if (group.equals(member.getGroup())) {
+      PrivateKey privateKey = unwrapPrivateKey(member, password);
       encryptedSecretKey = secretKeyDecoder.decode(member.getSecretKey());      
       encryptedSecretKey.setKey(privateKey);
     }
     else {
+      SecretKey ownerKey = 
+          unwrapSecretKey(group.getOwner(), member, password).derive();
       encryptedSecretKey = secretKeyDecoder.decode(group.getSecretKey());           
-      encryptedSecretKey.setKey(
-          unwrapSecretKey(group.getOwner(), member, privateKey).derive());
+      encryptedSecretKey.setKey(ownerKey);
     }
     
-    return encryptedSecretKey.deriveWrapper();
+    secretKey = encryptedSecretKey.deriveWrapper();
+    groupKeyHolder.putSecretKey(group, secretKey);
+    return secretKey;
   }
 
 }
@@ -0,0 +1,59 @@
+/*
+ * File created on May 12, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.protect;
+
+/**
+ * A service that discards the key material held by
+ * {@link ExpiringKeyHolder} objects after a period of inactivity.
+ * <p>
+ * A holder is watched from the time it is passed to {@link #watch} until
+ * its {@link ExpiringKeyHolder#expire(long) expire} method reports that
+ * it no longer holds any key material.  Accessing the key held by a watched
+ * holder need only update the holder's expiration time; the service 
+ * reschedules the holder when the original expiration time is reached.
+ * <p>
+ * Any implementation of this interface must be thread safe.
+ *
+ * @author Carl Harris
+ */
+public interface KeyExpiryService {
+
+  /**
+   * Begins watching the given key holder for expiration.
+   * <p>
+   * The caller is responsible for ensuring that a holder is watched
+   * at most once at any given time.
+   * @param holder the holder to watch
+   */
+  void watch(ExpiringKeyHolder holder);
+
+  /**
+   * Gets the number of key holders currently being watched.
+   * @return live holder count
+   */
+  int getLiveCount();
+
+  /**
+   * Gets the number of key holders that have been expired by the
+   * receiver.
+   * @return expired holder count
+   */
+  long getExpiredCount();
+
+}
@@ -0,0 +1,181 @@
+/*
+ * File created on May 12, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.protect;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+
+import org.soulwing.credo.service.TimeOfDayService;
+
+/**
+ * A {@link KeyExpiryService} implemented as a timing wheel.
+ * <p>
+ * The wheel is an array of {@link #SLOT_COUNT} slots, each spanning
+ * {@link #TICK_DURATION} milliseconds.  A watched holder is placed in the
+ * slot corresponding to its expiration time, along with the number of 
+ * full revolutions of the wheel that must pass before it is due.  A single
+ * recurring (non-persistent) timer advances the wheel; as each slot is
+ * reached, its due holders are either expired or rescheduled according to
+ * their current expiration time.  Watching a holder and advancing the wheel
+ * by one slot are both constant time operations, regardless of the number
+ * of holders being watched.
+ *
+ * @author Carl Harris
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class KeyExpiryServiceBean implements KeyExpiryService {
+
+  static final long TICK_DURATION = 1000L;
+  static final int SLOT_COUNT = 512;
+
+  private final AtomicInteger liveCount = new AtomicInteger();
+  private final AtomicLong expiredCount = new AtomicLong();
+
+  private final List<List<Entry>> slots = new ArrayList<>(SLOT_COUNT);
+
+  @Inject
+  protected TimeOfDayService timeOfDayService;
+
+  private long currentTick;
+
+  @PostConstruct
+  public void init() {
+    for (int i = 0; i < SLOT_COUNT; i++) {
+      slots.add(new LinkedList<Entry>());
+    }
+    currentTick = currentTime() / TICK_DURATION;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void watch(ExpiringKeyHolder holder) {
+    schedule(holder);
+    liveCount.incrementAndGet();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getLiveCount() {
+    return liveCount.get();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getExpiredCount() {
+    return expiredCount.get();
+  }
+
+  /**
+   * Advances the wheel to the current time, processing each slot passed
+   * along the way.
+   */
+  @Schedule(hour = "*", minute = "*", second = "*", persistent = false)
+  public void advance() {
+    long now = currentTime();
+    for (Entry entry : takeDueEntries(now / TICK_DURATION)) {
+      if (entry.holder.expire(now)) {
+        liveCount.decrementAndGet();
+        expiredCount.incrementAndGet();
+      }
+      else {
+        schedule(entry.holder);
+      }
+    }
+  }
+
+  /**
+   * Places the given holder in the slot corresponding to its expiration
+   * time.
+   * @param holder the subject holder
+   */
+  private void schedule(ExpiringKeyHolder holder) {
+    long tick = holder.getExpiration() / TICK_DURATION;
+    synchronized (slots) {
+      long ticks = Math.max(tick - currentTick, 1);
+      int slot = (int) ((currentTick + ticks) % SLOT_COUNT);
+      slots.get(slot).add(new Entry(holder, (ticks - 1) / SLOT_COUNT));
+    }
+  }
+
+  /**
+   * Moves the wheel forward to the given tick, removing the entries that
+   * are due in each slot passed.
+   * <p>
+   * The due entries are processed by the caller after the wheel's lock
+   * has been released, so that a holder's own lock is never acquired
+   * while holding the wheel's lock.
+   * @param tick the target tick
+   * @return entries that are due
+   */
+  private List<Entry> takeDueEntries(long tick) {
+    List<Entry> due = new ArrayList<>();
+    synchronized (slots) {
+      while (currentTick < tick) {
+        currentTick++;
+        List<Entry> slot = slots.get((int) (currentTick % SLOT_COUNT));
+        for (Iterator<Entry> i = slot.iterator(); i.hasNext();) {
+          Entry entry = i.next();
+          if (entry.rounds-- == 0) {
+            i.remove();
+            due.add(entry);
+          }
+        }
+      }
+    }
+    return due;
+  }
+
+  private long currentTime() {
+    return timeOfDayService.getCurrent().getTime();
+  }
+
+  /**
+   * A holder placed in a slot of the wheel.
+   */
+  private static class Entry {
+
+    private final ExpiringKeyHolder holder;
+    private long rounds;
+
+    public Entry(ExpiringKeyHolder holder, long rounds) {
+      this.holder = holder;
+      this.rounds = rounds;
+    }
+
+  }
+
+}
@@ -23,25 +23,26 @@ import java.security.PrivateKey;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
-import javax.ejb.Timer;
-import javax.ejb.TimerService;
 import javax.enterprise.context.SessionScoped;
 import javax.inject.Inject;
+import javax.security.auth.DestroyFailedException;
+import javax.security.auth.Destroyable;
 
-import org.soulwing.credo.service.TimerDelegate;
-import org.soulwing.credo.service.TimerServiceManager;
+import org.soulwing.credo.service.TimeOfDayService;
 
 /**
  * A {@link PrivateKeyHolder} implemented as a bean.
  * <p>
- * This implementation uses the {@link TimerService} to schedule a timer
- * that will discard the cached key after a period of inactivity.
+ * This implementation uses the {@link KeyExpiryService} to discard the 
+ * cached key after a period of inactivity.  Accessing the key only records
+ * the time of access; the holder is watched by the expiry service from
+ * the time a key is set until the key is discarded.
  *
  * @author Carl Harris
  */
 @SessionScoped
 public class PrivateKeyHolderBean implements PrivateKeyHolder, 
-    TimerDelegate, Serializable {
+    ExpiringKeyHolder, Serializable {
 
   private static final long serialVersionUID = 1487939620990626627L;
 
@@ -50,10 +51,17 @@ public class PrivateKeyHolderBean implements PrivateKeyHolder,
   private final Lock lock = new ReentrantLock();
   
   @Inject
-  protected TimerServiceManager timerServiceManager;
+  protected KeyExpiryService keyExpiryService;
+  
+  @Inject
+  protected TimeOfDayService timeOfDayService;
   
   private PrivateKey privateKey;
   
+  private volatile long lastAccess;
+  
+  private boolean watched;
+  
   /**
    * {@inheritDoc}
    */
@@ -61,7 +69,9 @@ public class PrivateKeyHolderBean implements PrivateKeyHolder,
   public PrivateKey getPrivateKey() {
     lock.lock();
     try {
-      scheduleTimeout();
+      if (privateKey != null) {
+        lastAccess = currentTime();
+      }
       return privateKey;
     }
     finally {
@@ -76,8 +86,17 @@ public class PrivateKeyHolderBean implements PrivateKeyHolder,
   public void setPrivateKey(PrivateKey privateKey) {
     lock.lock();
     try {
+      if (this.privateKey != privateKey) {
+        destroy(this.privateKey);
+      }
       this.privateKey = privateKey;
-      scheduleTimeout();
+      if (privateKey != null) {
+        lastAccess = currentTime();
+        if (!watched) {
+          keyExpiryService.watch(this);
+          watched = true;
+        }
+      }
     }
     finally {
       lock.unlock();
@@ -85,23 +104,51 @@ public class PrivateKeyHolderBean implements PrivateKeyHolder,
   }
   
   /**
-   * Schedules the timer that will discard the cached private key after a
-   * period of inactivity.
+   * {@inheritDoc}
    */
-  private void scheduleTimeout() {
-    timerServiceManager.cancel(this);
-    if (privateKey != null) {
-      timerServiceManager.createTimer(TIMEOUT_DURATION, this);
-    }
+  @Override
+  public long getExpiration() {
+    return lastAccess + TIMEOUT_DURATION;
   }
-  
+
   /**
-   * Notifies the recipient that the key holding timer has expired.
-   * @param timer the subject timer
+   * {@inheritDoc}
    */
   @Override
-  public void timeout(Timer timer) {
-    setPrivateKey(null);
+  public boolean expire(long now) {
+    lock.lock();
+    try {
+      if (privateKey != null && now < getExpiration()) return false;
+      destroy(privateKey);
+      privateKey = null;
+      watched = false;
+      return true;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Destroys the key material of the given private key, if the key 
+   * supports it.
+   * @param privateKey the key to destroy (may be {@code null})
+   */
+  private void destroy(PrivateKey privateKey) {
+    if (!(privateKey instanceof Destroyable)) return;
+    Destroyable destroyable = (Destroyable) privateKey;
+    if (destroyable.isDestroyed()) return;
+    try {
+      destroyable.destroy();
+    }
+    catch (DestroyFailedException ex) {
+      // not all providers support destroying a key
+      assert true;
+    }
+  }
+
+  private long currentTime() {
+    return timeOfDayService.getCurrent().getTime();
   }
   
 }
@@ -19,9 +19,12 @@
 package org.soulwing.credo.service.request;
 
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import javax.security.auth.x500.X500Principal;
 
 import org.soulwing.credo.CredentialRequest;
 import org.soulwing.credo.CredentialRequestBuilderFactory;
@@ -32,6 +35,8 @@ import org.soulwing.credo.service.UserAccessException;
 import org.soulwing.credo.service.crypto.CertificationRequestBuilderFactory;
 import org.soulwing.credo.service.crypto.CertificationRequestException;
 import org.soulwing.credo.service.crypto.CertificationRequestWrapper;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
 import org.soulwing.credo.service.crypto.KeyGeneratorService;
 import org.soulwing.credo.service.crypto.KeyPairWrapper;
 import org.soulwing.credo.service.group.GroupResolver;
@@ -40,6 +45,9 @@ import org.soulwing.credo.service.protect.CredentialRequestProtectionService;
 
 /**
  * A concrete {@link CredentialRequestGenerator} implementation.
+ * <p>
+ * The key pair and certification request are generated using the 
+ * {@link CryptoExecutionService}.
  * 
  * @author Carl Harris
  */
@@ -62,20 +70,27 @@ public class CredentialRequestGeneratorBean
   @Inject
   protected CredentialRequestProtectionService protectionService;
 
+  @Inject
+  protected CryptoExecutionService cryptoExecutionService;
+
   @Override
   public CredentialRequest generate(CredentialRequestEditor editor,
       ProtectionParameters protection, Errors errors)
       throws NoSuchGroupException, GroupAccessException, UserAccessException,
       CredentialRequestException {
     
-    KeyPairWrapper keyPair = keyGeneratorService.generateKeyPair();
+    final X500Principal subject = editor.getSubject();
     try {
+      SigningRequest signingRequest = cryptoExecutionService.execute(
+          new Callable<SigningRequest>() {
+            @Override
+            public SigningRequest call() 
+                throws CertificationRequestException {
+              return newSigningRequest(subject);
+            }
+          });
       
-      CertificationRequestWrapper csr = csrBuilderFactory.newBuilder()
-          .setPublicKey(keyPair.getPublic())
-          .setSubject(editor.getSubject())
-          .build(keyPair.getPrivate());
-      
+      CertificationRequestWrapper csr = signingRequest.csr;
       CredentialRequest request = requestBuilderFactory.newBuilder()
           .setSubject(csr.getSubject())
           .setCertificationRequest(csr.getContent())
@@ -83,15 +98,55 @@ public class CredentialRequestGeneratorBean
       
       request.setOwner(groupResolver.resolveGroup(
           protection.getGroupName(), errors));
-      protectionService.protect(request, keyPair.getPrivate(), protection);
+      protectionService.protect(request, 
+          signingRequest.keyPair.getPrivate(), protection);
       return request;
     }
-    catch (CertificationRequestException ex) {
+    catch (CryptoOverloadException ex) {
+      errors.addError("cryptoBusy", ex.getRetryAfter());
       throw new CredentialRequestException();
     }
+    catch (ExecutionException ex) {
+      if (ex.getCause() instanceof CertificationRequestException) {
+        throw new CredentialRequestException();
+      }
+      throw new RuntimeException(ex.getCause());
+    }
     catch (IOException ex) {
       throw new RuntimeException(ex);
     }
   }
 
+  /**
+   * Generates a key pair and a certification request signed using it.
+   * @param subject subject for the certification request
+   * @return signing request
+   * @throws CertificationRequestException
+   */
+  private SigningRequest newSigningRequest(X500Principal subject)
+      throws CertificationRequestException {
+    KeyPairWrapper keyPair = keyGeneratorService.generateKeyPair();
+    CertificationRequestWrapper csr = csrBuilderFactory.newBuilder()
+        .setPublicKey(keyPair.getPublic())
+        .setSubject(subject)
+        .build(keyPair.getPrivate());
+    return new SigningRequest(keyPair, csr);
+  }
+
+  /**
+   * A generated key pair and the certification request signed using it.
+   */
+  private static class SigningRequest {
+
+    private final KeyPairWrapper keyPair;
+    private final CertificationRequestWrapper csr;
+
+    public SigningRequest(KeyPairWrapper keyPair, 
+        CertificationRequestWrapper csr) {
+      this.keyPair = keyPair;
+      this.csr = csr;
+    }
+
+  }
+
 }
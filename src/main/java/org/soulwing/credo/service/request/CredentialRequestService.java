@@ -23,6 +23,8 @@ import java.util.List;
 import javax.ejb.Local;
 
 import org.soulwing.credo.CredentialRequest;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
 
 
 /**
@@ -38,5 +40,12 @@ public interface CredentialRequestService {
    * @return list of requests
    */
   List<CredentialRequest> findAllRequests();
+
+  /**
+   * Finds a page of the credential requests accessible to the logged-in user.
+   * @param request page request
+   * @return page of requests
+   */
+  Page<CredentialRequest> findRequests(PageRequest request);
   
 }
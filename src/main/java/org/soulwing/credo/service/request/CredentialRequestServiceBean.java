@@ -18,7 +18,6 @@
  */
 package org.soulwing.credo.service.request;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import javax.ejb.ConcurrencyManagement;
@@ -29,9 +28,9 @@ import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 
 import org.soulwing.credo.CredentialRequest;
-import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
 import org.soulwing.credo.repository.CredentialRequestRepository;
-import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.service.UserContextService;
 
 /**
@@ -47,9 +46,6 @@ public class CredentialRequestServiceBean
   @Inject
   protected CredentialRequestRepository requestRepository;
 
-  @Inject
-  protected UserGroupRepository groupRepository;
-  
   @Inject
   protected UserContextService userContextService;
   
@@ -59,14 +55,18 @@ public class CredentialRequestServiceBean
   @Override
   @TransactionAttribute(TransactionAttributeType.REQUIRED)
   public List<CredentialRequest> findAllRequests() {
-    List<UserGroup> allGroups = new ArrayList<>();
-    List<UserGroup> groups = groupRepository.findByLoginName(
+    return requestRepository.findAllByLoginName(
         userContextService.getLoginName());
-    allGroups.addAll(groups);
-    for (UserGroup group : groups) {
-      allGroups.addAll(groupRepository.findDescendants(group));
-    }
-    return requestRepository.findAllByOwners(allGroups);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  @TransactionAttribute(TransactionAttributeType.REQUIRED)
+  public Page<CredentialRequest> findRequests(PageRequest request) {
+    return requestRepository.findPageByLoginName(
+        userContextService.getLoginName(), request);
   }
 
 }
@@ -46,27 +46,29 @@ $(document).ready(function() {
 	    sortField: [{field: 'text', direction: 'asc'}],
 	    maxOptions: 5,
 	    create: function(input) { return { value: input, text: input }; },
-	    onChange: function(value) { tagsSelector[0].selectize.close(); }
+	    onChange: function(value) { tagsSelector[0].selectize.close(); },
+	    // fetch only the tags that begin with the query as the user types
+	    load: function(query, callback) {
+	    	if (!query.length) return callback();
+	    	$.ajax({
+	    		url: $tags.parent().data("autocomplete-url"),
+	    		type: "GET",
+	    		dataType: "json",
+	    		data: { prefix: query, limit: 5 },
+	    		success: function(tags) {
+	    			// the data is returned as an array of string tags
+	    			// convert to an array of name/value pair objects
+	    			callback($.map(tags, function(tag) { 
+	    				return { value: tag, text: tag };
+	    			}));
+	    		},
+	    		error: function() {
+	    			callback();
+	    		}
+	    	});
+	    }
 	});
 
-	tagsSelector[0].selectize.load(function(callback) { 
-		$.ajax({
-			url: $tags.parent().data("autocomplete-url"),
-			type: "GET",
-			dataType: "json",
-			success: function(tags) {
-				// the data is returned as an array of string tags
-				// convert to an array of name/value pair objects
-				callback($.map(tags, function(tag) { 
-					return { value: tag, text: tag };
-				}));
-			},
-			error: function() {
-				callback();
-			}
-		});
-	});
-	
 	var hideFeedback = function() {
 		$inputGroup.removeClass("has-error has-warning");
 		$feedback.removeClass("glyphicon glyphicon-warning-sign glyphicon-exclamation-sign");
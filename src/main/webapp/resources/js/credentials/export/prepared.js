@@ -1,12 +1,38 @@
 $(document).ready(function() {
 
-	var href = $("#downloadLink").attr("href");
-	var detailAnchor = $("#detail > a");
-	detailAnchor.attr("href", href);
-	setTimeout(function() {
+	var download = $("#download");
+	var statusUrl = download.data("status-url");
+	var downloadUrl = download.data("download-url");
+	var failureUrl = download.data("failure-url");
+
+	function ready(token) {
+		var href = downloadUrl + token;
+		$("#downloadLink").attr("href", href);
+		$("#detail > a").attr("href", href);
 		$("#downloadFrame").attr("src", href);
-	}, 1500);
-	
+	}
+
+	function poll() {
+		$.getJSON(statusUrl)
+			.done(function(job) {
+				if (job.state === "COMPLETE") {
+					ready(job.token);
+				}
+				else if (job.state === "FAILED") {
+					window.location.href = job.retryAfter ?
+						failureUrl + "&retryAfter=" + job.retryAfter : failureUrl;
+				}
+				else {
+					setTimeout(poll, 1000);
+				}
+			})
+			.fail(function() {
+				window.location.href = failureUrl;
+			});
+	}
+
+	setTimeout(poll, 500);
+
 	$("#returnToCredentials").trigger("focus");
-	
-});
\ No newline at end of file
+
+});
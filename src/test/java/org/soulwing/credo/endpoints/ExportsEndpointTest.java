@@ -0,0 +1,169 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.endpoints;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.service.credential.ExportDownload;
+import org.soulwing.credo.service.credential.ExportJob;
+import org.soulwing.credo.service.credential.ExportService;
+
+/**
+ * Unit tests for {@link ExportsEndpoint}.
+ *
+ * @author Carl Harris
+ */
+public class ExportsEndpointTest {
+
+  private static final String JOB_ID = "someJobId";
+  
+  private static final String TOKEN = "someToken";
+  
+  private static final String FILE_NAME = "someFileName";
+  
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+  
+  @Mock
+  private ExportService exportService;
+  
+  @Mock
+  private ExportJob job;
+  
+  @Mock
+  private ExportDownload download;
+  
+  private ExportsEndpoint endpoint = new ExportsEndpoint();
+  
+  @Before
+  public void setUp() throws Exception {
+    endpoint.exportService = exportService;
+  }
+  
+  @Test
+  public void testGetJob() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(exportService).findExportJob(JOB_ID);
+      will(returnValue(job));
+      allowing(job).getId();
+      will(returnValue(JOB_ID));
+      allowing(job).getState();
+      will(returnValue(ExportJob.State.COMPLETE));
+      allowing(job).getDownloadToken();
+      will(returnValue(TOKEN));
+      allowing(job).getRetryAfter();
+      will(returnValue(0L));
+    } });
+    
+    Response response = endpoint.getJob(JOB_ID);
+    assertThat(response.getStatus(), is(equalTo(200)));
+    @SuppressWarnings("unchecked")
+    Map<String, Object> status = (Map<String, Object>) response.getEntity();
+    assertThat(status, hasEntry("state", (Object) "COMPLETE"));
+    assertThat(status, hasEntry("token", (Object) TOKEN));
+    assertThat(status, not(hasKey("retryAfter")));
+  }
+
+  @Test
+  public void testGetJobWhenOverloaded() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(exportService).findExportJob(JOB_ID);
+      will(returnValue(job));
+      allowing(job).getId();
+      will(returnValue(JOB_ID));
+      allowing(job).getState();
+      will(returnValue(ExportJob.State.FAILED));
+      allowing(job).getDownloadToken();
+      will(returnValue(null));
+      allowing(job).getRetryAfter();
+      will(returnValue(5L));
+    } });
+    
+    Response response = endpoint.getJob(JOB_ID);
+    @SuppressWarnings("unchecked")
+    Map<String, Object> status = (Map<String, Object>) response.getEntity();
+    assertThat(status, hasEntry("state", (Object) "FAILED"));
+    assertThat(status, hasEntry("retryAfter", (Object) 5L));
+  }
+
+  @Test
+  public void testGetJobNotFound() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(exportService).findExportJob(JOB_ID);
+      will(returnValue(null));
+    } });
+    
+    assertThat(endpoint.getJob(JOB_ID).getStatus(), is(equalTo(404)));
+  }
+
+  @Test
+  public void testDownload() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(exportService).claimExportDownload(TOKEN);
+      will(returnValue(download));
+      allowing(download).getContentType();
+      will(returnValue("text/plain"));
+      allowing(download).getCharacterEncoding();
+      will(returnValue("UTF-8"));
+      allowing(download).getFileName();
+      will(returnValue(FILE_NAME));
+      allowing(download).getSize();
+      will(returnValue(0L));
+      oneOf(download).writeContent(with(any(OutputStream.class)));
+    } });
+    
+    Response response = endpoint.download(TOKEN);
+    assertThat(response.getStatus(), is(equalTo(200)));
+    assertThat(response.getMetadata().getFirst(
+        ExportsEndpoint.CONTENT_DISPOSITION_HEADER).toString(), 
+        containsString(FILE_NAME));
+    ((StreamingOutput) response.getEntity()).write(
+        new ByteArrayOutputStream());
+  }
+
+  @Test
+  public void testDownloadNotFound() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(exportService).claimExportDownload(TOKEN);
+      will(returnValue(null));
+    } });
+    
+    assertThat(endpoint.download(TOKEN).getStatus(), is(equalTo(404)));
+  }
+
+}
@@ -19,9 +19,20 @@
 package org.soulwing.credo.endpoints;
 
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
@@ -29,7 +40,6 @@ import org.jmock.integration.junit4.JUnitRuleMockery;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
-import org.soulwing.credo.Tag;
 import org.soulwing.credo.service.TagService;
 
 /**
@@ -41,6 +51,11 @@ public class TagsEndpointTest {
 
   private static final String TAG_TEXT = "tagText";
 
+  private static final String PREFIX = "tag";
+
+  private static final List<String> TAG_TEXTS = 
+      Collections.singletonList(TAG_TEXT);
+
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleMockery();
   
@@ -48,7 +63,7 @@ public class TagsEndpointTest {
   private TagService tagService;
   
   @Mock
-  private Tag tag;
+  private Request request;
   
   private TagsEndpoint endpoint = new TagsEndpoint();
   
@@ -60,12 +75,77 @@ public class TagsEndpointTest {
   @Test
   public void testGetTags() throws Exception {
     context.checking(new Expectations() { { 
-      oneOf(tagService).findAllTags();
-      will(returnValue(Collections.singleton(tag)));
-      oneOf(tag).getText();
-      will(returnValue(TAG_TEXT));
+      oneOf(tagService).findTagsByPrefix("", Integer.MAX_VALUE);
+      will(returnValue(TAG_TEXTS));
+      oneOf(request).evaluatePreconditions(with(any(EntityTag.class)));
+      will(returnValue(null));
+    } });
+    
+    Response response = endpoint.getTags(null, null, request);
+    assertThat(response.getStatus(), is(equalTo(200)));
+    assertThat(response.getEntity(), is(equalTo((Object) TAG_TEXTS)));
+    assertThat(response.getEntityTag(), is(notNullValue()));
+  }
+
+  @Test
+  public void testGetTagsWithPrefix() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(tagService).findTagsByPrefix(PREFIX, TagsEndpoint.DEFAULT_LIMIT);
+      will(returnValue(TAG_TEXTS));
+      oneOf(request).evaluatePreconditions(with(any(EntityTag.class)));
+      will(returnValue(null));
+    } });
+    
+    Response response = endpoint.getTags(PREFIX, null, request);
+    assertThat(response.getStatus(), is(equalTo(200)));
+    assertThat((List<?>) response.getEntity(), contains((Object) TAG_TEXT));
+    CacheControl cacheControl = (CacheControl) 
+        response.getMetadata().getFirst(HttpHeaders.CACHE_CONTROL);
+    assertThat(cacheControl.getMaxAge(), is(equalTo(TagsEndpoint.MAX_AGE)));
+    assertThat(cacheControl.isPrivate(), is(true));
+  }
+
+  @Test
+  public void testGetTagsWithLimit() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(tagService).findTagsByPrefix(PREFIX, TagsEndpoint.MAX_LIMIT);
+      will(returnValue(TAG_TEXTS));
+      oneOf(request).evaluatePreconditions(with(any(EntityTag.class)));
+      will(returnValue(null));
+    } });
+    
+    endpoint.getTags(PREFIX, TagsEndpoint.MAX_LIMIT + 1, request);
+  }
+
+  @Test
+  public void testGetTagsWhenNotModified() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(tagService).findTagsByPrefix(PREFIX, TagsEndpoint.DEFAULT_LIMIT);
+      will(returnValue(TAG_TEXTS));
+      oneOf(request).evaluatePreconditions(with(any(EntityTag.class)));
+      will(returnValue(Response.notModified()));
     } });
     
-    assertThat(endpoint.getTags(), contains(TAG_TEXT));
+    Response response = endpoint.getTags(PREFIX, null, request);
+    assertThat(response.getStatus(), is(equalTo(304)));
+    assertThat(response.getEntity(), is(nullValue()));
+    assertThat(response.getEntityTag(), is(notNullValue()));
   }
+
+  @Test
+  public void testEntityTagDependsOnContent() throws Exception {
+    context.checking(new Expectations() { { 
+      exactly(2).of(tagService).findTagsByPrefix("", Integer.MAX_VALUE);
+      will(onConsecutiveCalls(returnValue(TAG_TEXTS), 
+          returnValue(Collections.emptyList())));
+      exactly(2).of(request).evaluatePreconditions(
+          with(any(EntityTag.class)));
+      will(returnValue(null));
+    } });
+    
+    EntityTag first = endpoint.getTags(null, null, request).getEntityTag();
+    EntityTag second = endpoint.getTags(null, null, request).getEntityTag();
+    assertThat(first.equals(second), is(false));
+  }
+
 }
@@ -0,0 +1,211 @@
+/*
+ * File created on May 14, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.facelets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyArray;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.enterprise.context.Conversation;
+import javax.faces.context.ExternalContext;
+import javax.faces.context.FacesContext;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.service.Errors;
+import org.soulwing.credo.service.PassphraseException;
+import org.soulwing.credo.service.credential.BulkExportRequest;
+import org.soulwing.credo.service.credential.ExportFormat;
+import org.soulwing.credo.service.credential.ExportJob;
+import org.soulwing.credo.service.credential.ExportService;
+import org.soulwing.credo.service.credential.NoSuchCredentialException;
+import org.soulwing.credo.testing.JUnitRuleClassImposterizingMockery;
+
+/**
+ * Unit tests for {@link BulkExportBean}.
+ *
+ * @author Carl Harris
+ */
+public class BulkExportBeanTest {
+
+  private static final String FORMAT_ID = "formatId";
+
+  private static final String VARIANT_ID = "variantId";
+
+  private static final String ARCHIVE_VARIANT_ID = "archiveVariantId";
+
+  @Rule
+  public final JUnitRuleMockery context = 
+      new JUnitRuleClassImposterizingMockery();
+  
+  @Mock
+  private Conversation conversation;
+  
+  @Mock
+  private ExportService exportService;
+  
+  @Mock
+  private Errors errors;
+  
+  @Mock
+  private BulkExportRequest request;
+  
+  @Mock
+  private ExportJob job;
+  
+  @Mock
+  private FacesContext facesContext;
+  
+  @Mock
+  private ExternalContext externalContext;
+
+  @Mock
+  private ExportFormat format;
+  
+  @Mock
+  private ExportFormat.Variant variant;
+  
+  @Mock
+  private ExportFormat.Variant archiveVariant;
+  
+  private BulkExportBean bean = new BulkExportBean();
+  
+  @Before
+  public void setUp() throws Exception {
+    bean.conversation = conversation;
+    bean.exportService = exportService;
+    bean.facesContext = facesContext;
+    bean.errors = errors;
+    bean.passwordEditor = new PasswordFormEditor();
+  }
+  
+  @Test
+  public void testCreateExportRequest() throws Exception {
+    context.checking(idParameterExpectations("-1", "-2"));
+    context.checking(new Expectations() { { 
+      oneOf(exportService).newBulkExportRequest(
+          with(equalTo(Arrays.asList(-1L, -2L))));
+      will(returnValue(request));
+      oneOf(request).setProtectionParameters(
+          with(same(bean.getPasswordEditor())));
+      allowing(exportService).getDefaultFormat();
+      will(returnValue(format));
+      allowing(format).getDefaultVariant();
+      will(returnValue(variant));
+      oneOf(format).getId();
+      will(returnValue(FORMAT_ID));
+      oneOf(request).setFormat(FORMAT_ID);
+      oneOf(variant).getId();
+      will(returnValue(VARIANT_ID));
+      oneOf(request).setVariant(VARIANT_ID);
+      oneOf(exportService).getDefaultArchiveVariant();
+      will(returnValue(archiveVariant));
+      oneOf(archiveVariant).getId();
+      will(returnValue(ARCHIVE_VARIANT_ID));
+      oneOf(request).setArchiveVariant(ARCHIVE_VARIANT_ID);
+      oneOf(conversation).isTransient();
+      will(returnValue(true));
+      oneOf(conversation).begin();
+    } });
+    
+    assertThat(bean.createExportRequest(), is(nullValue()));
+    assertThat(bean.getExportRequest(), is(sameInstance(request)));
+  }
+
+  @Test
+  public void testCreateExportRequestNotFound() throws Exception {
+    context.checking(idParameterExpectations("-1"));
+    context.checking(new Expectations() { { 
+      oneOf(exportService).newBulkExportRequest(
+          with(equalTo(Arrays.asList(-1L))));
+      will(throwException(new NoSuchCredentialException()));
+      oneOf(errors).addError(with(containsString("NotFound")),
+          (Object[]) with(arrayContaining("-1")));
+    } });
+    
+    assertThat(bean.createExportRequest(), is(nullValue()));
+    assertThat(bean.getExportRequest(), is(nullValue()));
+  }
+
+  @Test
+  public void testCreateExportRequestWithoutIds() throws Exception {
+    context.checking(idParameterExpectations());
+    context.checking(new Expectations() { { 
+      oneOf(errors).addError(with(equalTo("id")), 
+          with(containsString("Required")),
+          (Object[]) with(emptyArray()));
+    } });
+    
+    assertThat(bean.createExportRequest(), is(nullValue()));
+    assertThat(bean.getExportRequest(), is(nullValue()));
+  }
+
+  @Test
+  public void testPrepareDownload() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(exportService).submitBulkExport(with(same(request)), 
+          with(same(errors)));
+      will(returnValue(job));
+    } });
+    
+    bean.setExportRequest(request);
+    assertThat(bean.prepareDownload(), 
+        is(equalTo(BulkExportBean.PREPARED_OUTCOME_ID)));
+    assertThat(bean.getExportJob(), is(sameInstance(job)));
+  }
+
+  @Test
+  public void testPrepareDownloadIncorrectPassphrase() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(exportService).submitBulkExport(with(same(request)), 
+          with(same(errors)));
+      will(throwException(new PassphraseException()));
+    } });
+
+    bean.setExportRequest(request);
+    assertThat(bean.prepareDownload(), 
+        is(equalTo(BulkExportBean.PASSWORD_OUTCOME_ID)));
+  }
+
+  private Expectations idParameterExpectations(final String... ids) {
+    final Map<String, String[]> parameters = ids.length > 0 ?
+        Collections.singletonMap(BulkExportBean.ID_PARAMETER, ids)
+        : Collections.<String, String[]>emptyMap();
+    return new Expectations() { { 
+      oneOf(facesContext).getExternalContext();
+      will(returnValue(externalContext));
+      oneOf(externalContext).getRequestParameterValuesMap();
+      will(returnValue(parameters));
+    } };
+  }
+  
+}
@@ -20,7 +20,9 @@ package org.soulwing.credo.facelets;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 
 import javax.faces.context.ExternalContext;
@@ -33,8 +35,10 @@ import org.jmock.lib.legacy.ClassImposteriser;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.soulwing.credo.service.Errors;
 import org.soulwing.credo.service.UserProfilePreparation;
 import org.soulwing.credo.service.UserProfileService;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
 import org.soulwing.credo.testing.JUnitRuleClassImposterizingMockery;
 
 /**
@@ -59,12 +63,16 @@ public class CreateUserProfileBeanTest {
   @Mock
   private UserProfilePreparation preparation;
   
+  @Mock
+  private Errors errors;
+  
   private CreateUserProfileBean bean = new CreateUserProfileBean();
  
   @Before
   public void setUp() throws Exception {
     bean.facesContext = facesContext;
     bean.userProfileService = userProfileService;
+    bean.errors = errors;
   }
   
   @Test
@@ -105,6 +113,19 @@ public class CreateUserProfileBeanTest {
     bean.createProfile();
   }
 
+  @Test
+  public void testCreateProfileWhenOverloaded() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(userProfileService).createProfile(with(same(preparation)));
+      will(throwException(new CryptoOverloadException(5)));
+      oneOf(errors).addError(with(equalTo("cryptoBusy")), 
+          (Object[]) with(arrayContaining(5L)));
+    } });
+    
+    bean.setPreparation(preparation);
+    assertThat(bean.createProfile(), is(nullValue()));
+  }
+
   @Test
   public void testCancel() throws Exception {
     assertThat(bean.cancel(), is(
@@ -19,7 +19,12 @@
 package org.soulwing.credo.facelets;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.sameInstance;
 
@@ -34,6 +39,9 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.soulwing.credo.CredentialRequest;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.service.request.CredentialRequestService;
 import org.soulwing.credo.testing.JUnitRuleClassImposterizingMockery;
 
@@ -44,6 +52,12 @@ import org.soulwing.credo.testing.JUnitRuleClassImposterizingMockery;
  */
 public class CredentialRequestTableBeanTest {
 
+  private static final String FILTER = "filter";
+
+  private static final Long CURSOR = -1L;
+
+  private static final Long NEXT_CURSOR = -2L;
+
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleClassImposterizingMockery();
   
@@ -63,13 +77,54 @@ public class CredentialRequestTableBeanTest {
   @Test
   public void testGetRequests() throws Exception {
     context.checking(new Expectations() { {
-      oneOf(requestService).findAllRequests();
-      will(returnValue(Collections.singletonList(request)));
+      oneOf(requestService).findRequests(with(any(PageRequest.class)));
+      will(returnValue(
+          new Page<>(Collections.singletonList(request), null)));
     } });
     
     List<CredentialRequest> credentials = bean.getRequests();
     assertThat(credentials, not(empty()));
     assertThat(credentials.get(0), sameInstance(request));
   }
-  
+
+  @Test
+  public void testGetPageWithSortAndCursor() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(requestService).findRequests((PageRequest) with(allOf(
+          hasProperty("sortKey", equalTo(SortKey.DATE_CREATED)),
+          hasProperty("descending", equalTo(true)),
+          hasProperty("filter", equalTo(FILTER)),
+          hasProperty("cursor", equalTo(CURSOR)))));
+      will(returnValue(new Page<>(Collections.singletonList(request), 
+          NEXT_CURSOR)));
+    } });
+
+    bean.setSort("created");
+    bean.setOrder(PagedTableBean.DESCENDING);
+    bean.setFilter(FILTER);
+    bean.setAfter(CURSOR);
+    assertThat(bean.getRequests(), contains(request));
+    assertThat(bean.getNextCursor(), is(equalTo(NEXT_CURSOR)));
+    assertThat(bean.isFirstPage(), is(false));
+    assertThat(bean.nextOrder("created"), 
+        is(equalTo(PagedTableBean.ASCENDING)));
+    assertThat(bean.nextOrder("name"), 
+        is(equalTo(PagedTableBean.ASCENDING)));
+  }
+
+  @Test
+  public void testGetPageWithUnsupportedSort() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(requestService).findRequests((PageRequest) with(
+          hasProperty("sortKey", equalTo(SortKey.NAME))));
+      will(returnValue(new Page<>(Collections.emptyList(), null)));
+    } });
+
+    bean.setSort("unsupported");
+    assertThat(bean.getRequests(), is(empty()));
+    assertThat(bean.getSortColumn(), is(equalTo("name")));
+    assertThat(bean.nextOrder("name"), 
+        is(equalTo(PagedTableBean.DESCENDING)));
+  }
+
 }
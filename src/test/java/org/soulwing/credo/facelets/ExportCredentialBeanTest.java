@@ -26,13 +26,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
-
 import javax.enterprise.context.Conversation;
-import javax.faces.context.ExternalContext;
-import javax.faces.context.FacesContext;
 import javax.faces.event.ValueChangeEvent;
 
 import org.jmock.Expectations;
@@ -50,7 +44,7 @@ import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.credential.ExportException;
 import org.soulwing.credo.service.credential.ExportFormat;
-import org.soulwing.credo.service.credential.ExportPreparation;
+import org.soulwing.credo.service.credential.ExportJob;
 import org.soulwing.credo.service.credential.ExportRequest;
 import org.soulwing.credo.service.credential.ExportService;
 import org.soulwing.credo.service.credential.NoSuchCredentialException;
@@ -89,13 +83,7 @@ public class ExportCredentialBeanTest {
   private ExportRequest request;
   
   @Mock
-  private ExportPreparation preparation;
-  
-  @Mock
-  private FacesContext facesContext;
-  
-  @Mock
-  private ExternalContext externalContext;
+  private ExportJob job;
 
   @Mock
   private ValueChangeEvent event;
@@ -112,7 +100,6 @@ public class ExportCredentialBeanTest {
   public void setUp() throws Exception {
     bean.conversation = conversation;
     bean.exportService = exportService;
-    bean.facesContext = facesContext;
     bean.errors = errors;
     bean.passwordEditor = new PasswordFormEditor();
   }
@@ -169,21 +156,21 @@ public class ExportCredentialBeanTest {
   @Test
   public void testPrepareDownload() throws Exception {
     context.checking(new Expectations() { {
-      oneOf(exportService).prepareExport(with(same(request)), 
+      oneOf(exportService).submitExport(with(same(request)), 
           with(same(errors)));
-      will(returnValue(preparation));
+      will(returnValue(job));
     } });
     
     bean.setExportRequest(request);
     assertThat(bean.prepareDownload(), 
         is(equalTo(ExportCredentialBean.PREPARED_OUTCOME_ID)));
-    assertThat(bean.getExportPreparation(), is(sameInstance(preparation)));
+    assertThat(bean.getExportJob(), is(sameInstance(job)));
   }
 
   @Test
   public void testPrepareDownloadIncorrectPassphrase() throws Exception {
     context.checking(new Expectations() { {
-      oneOf(exportService).prepareExport(with(same(request)), 
+      oneOf(exportService).submitExport(with(same(request)), 
           with(same(errors)));
       will(throwException(new PassphraseException()));
     } });
@@ -195,7 +182,7 @@ public class ExportCredentialBeanTest {
   @Test
   public void testPrepareDownloadAccessDenied() throws Exception {
     context.checking(new Expectations() { {
-      oneOf(exportService).prepareExport(with(same(request)), 
+      oneOf(exportService).submitExport(with(same(request)), 
           with(same(errors)));
       will(throwException(new GroupAccessException(GROUP_NAME)));
     } });
@@ -208,7 +195,7 @@ public class ExportCredentialBeanTest {
   @Test
   public void testPrepareDownloadError() throws Exception {
     context.checking(new Expectations() { {
-      oneOf(exportService).prepareExport(with(same(request)), 
+      oneOf(exportService).submitExport(with(same(request)), 
           with(same(errors)));
       will(throwException(new ExportException()));
     } });
@@ -218,78 +205,6 @@ public class ExportCredentialBeanTest {
         is(equalTo(ExportCredentialBean.FAILURE_OUTCOME_ID)));
   }
 
-  @Test
-  public void testDownload() throws Exception {
-    final String encoding = null;
-    final OutputStream outputStream = new ByteArrayOutputStream();
-    
-    context.checking(newDownloadExpectations(encoding, outputStream));
-    context.checking(new Expectations() { { 
-      oneOf(preparation).writeContent(with(same(outputStream)));
-      oneOf(facesContext).responseComplete();
-      oneOf(conversation).setTimeout(with(any(Long.class)));
-    } });
-    
-    bean.setExportPreparation(preparation);
-    bean.download();
-  }
-
-  @Test
-  public void testDownloadText() throws Exception {
-    final String encoding = "someEncoding";
-    final OutputStream outputStream = new ByteArrayOutputStream();
-    
-    context.checking(newDownloadExpectations(encoding, outputStream));
-    context.checking(new Expectations() { { 
-      oneOf(externalContext).setResponseCharacterEncoding(with(encoding));
-      oneOf(preparation).writeContent(with(same(outputStream)));
-      oneOf(facesContext).responseComplete();
-      oneOf(conversation).setTimeout(with(any(Long.class)));
-    } });
-       
-    bean.setExportPreparation(preparation);
-    bean.download();
-  }
-
-  @Test(expected = RuntimeException.class)
-  public void testDownloadError() throws Exception {
-    final String encoding = null;
-    final OutputStream outputStream = new ByteArrayOutputStream();
-    
-    context.checking(newDownloadExpectations(encoding, outputStream));
-    context.checking(new Expectations() { { 
-      oneOf(preparation).writeContent(with(same(outputStream)));
-      will(throwException(new IOException()));
-      oneOf(conversation).end();
-    } });
-       
-    bean.setExportPreparation(preparation);
-    bean.download();
-  }
-
-  private Expectations newDownloadExpectations(final String encoding,
-      final OutputStream outputStream) throws IOException {
-    final String contentType = "someContentType";
-    final String fileName = "someFilename";
-    return new Expectations() { { 
-      oneOf(facesContext).getExternalContext();
-      will(returnValue(externalContext));
-      oneOf(preparation).getContentType();
-      will(returnValue(contentType));
-      oneOf(preparation).getCharacterEncoding();
-      will(returnValue(encoding));
-      oneOf(preparation).getFileName();
-      will(returnValue(fileName));
-      oneOf(externalContext).setResponseContentType(
-          with(same(contentType)));
-      oneOf(externalContext).setResponseHeader(
-          with(ExportCredentialBean.CONTENT_DISPOSITION_HEADER),
-          with(containsString(fileName)));
-      oneOf(externalContext).getResponseOutputStream();
-      will(returnValue(outputStream));
-    } };
-  }
-
   @Test
   public void testCancel() throws Exception {
     context.checking(new Expectations() { { 
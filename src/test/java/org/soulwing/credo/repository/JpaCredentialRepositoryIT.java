@@ -26,6 +26,7 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -44,6 +45,9 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.soulwing.credo.Credential;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.domain.CredentialCertificateEntity;
 import org.soulwing.credo.domain.CredentialEntity;
@@ -276,6 +280,126 @@ public class JpaCredentialRepositoryIT {
     assertThat(actual.getName(), is(equalTo(credential.getName())));
   }
 
+  @Test
+  public void testFindAllByLoginNameIncludingDescendants() throws Exception {
+    final String loginName = "someUser";
+    UserProfileEntity user = EntityUtil.newUser(loginName);
+    UserGroupEntity group = EntityUtil.newGroup("someGroup");
+    UserGroupEntity child = EntityUtil.newGroup("someChild");
+    UserGroupEntity grandchild = EntityUtil.newGroup("someGrandchild");
+    UserGroupMemberEntity groupMember = EntityUtil.newGroupMember(user, group);
+    CredentialEntity credential = EntityUtil.newCredential(grandchild, 
+        EntityUtil.newPrivateKey());
+    entityManager.persist(user);
+    entityManager.persist(group);
+    child.setOwner(group);
+    entityManager.persist(child);
+    grandchild.setOwner(child);
+    entityManager.persist(grandchild);
+    entityManager.persist(groupMember);
+    entityManager.persist(credential);
+    entityManager.flush();
+    entityManager.clear();
+    List<Credential> credentials = repository.findAllByLoginName(loginName);
+    assertThat(credentials.size(), is(equalTo(1)));
+    assertThat(credentials.get(0).getOwner().getName(), 
+        is(equalTo(grandchild.getName())));
+  }
+
+  @Test
+  public void testFindPageByLoginName() throws Exception {
+    final String loginName = "someUser";
+    UserProfileEntity user = EntityUtil.newUser(loginName);
+    UserGroupEntity group = EntityUtil.newGroup("someGroup");
+    UserGroupMemberEntity groupMember = EntityUtil.newGroupMember(user, group);
+    entityManager.persist(user);
+    entityManager.persist(group);
+    entityManager.persist(groupMember);
+    TagEntity tag = new TagEntity("someTag");
+    entityManager.persist(tag);
+    for (String name : Arrays.asList("c", "a", "b")) {
+      CredentialEntity credential = EntityUtil.newCredential(group, 
+          EntityUtil.newPrivateKey());
+      credential.setName(name);
+      if (!name.equals("b")) {
+        credential.addTag(tag);
+      }
+      entityManager.persist(credential);
+    }
+    entityManager.flush();
+    entityManager.clear();
+    
+    Page<Credential> page = repository.findPageByLoginName(loginName,
+        new PageRequest(SortKey.NAME, false, null, null, 2));
+    assertThat(page.getItems().size(), is(equalTo(2)));
+    assertThat(page.getItems().get(0).getName(), is(equalTo("a")));
+    assertThat(page.getItems().get(0).getTags().size(), is(equalTo(1)));
+    assertThat(page.getItems().get(1).getName(), is(equalTo("b")));
+    assertThat(page.getNextCursor(), 
+        is(equalTo(page.getItems().get(1).getId())));
+
+    page = repository.findPageByLoginName(loginName,
+        new PageRequest(SortKey.NAME, false, null, page.getNextCursor(), 2));
+    assertThat(page.getItems().size(), is(equalTo(1)));
+    assertThat(page.getItems().get(0).getName(), is(equalTo("c")));
+    assertThat(page.getNextCursor(), is(nullValue()));
+
+    page = repository.findPageByLoginName(loginName,
+        new PageRequest(SortKey.NAME, true, "SOMETAG", null, 2));
+    assertThat(page.getItems().size(), is(equalTo(2)));
+    assertThat(page.getItems().get(0).getName(), is(equalTo("c")));
+    assertThat(page.getItems().get(1).getName(), is(equalTo("a")));
+    assertThat(page.getNextCursor(), is(nullValue()));
+  }
+
+  @Test
+  public void testFindPageExpiringByLoginName() throws Exception {
+    final String loginName = "someUser";
+    final long now = System.currentTimeMillis();
+    final long day = 24L * 60 * 60 * 1000;
+    UserProfileEntity user = EntityUtil.newUser(loginName);
+    UserGroupEntity group = EntityUtil.newGroup("someGroup");
+    UserGroupMemberEntity groupMember = EntityUtil.newGroupMember(user, group);
+    entityManager.persist(user);
+    entityManager.persist(group);
+    entityManager.persist(groupMember);
+    for (int days : Arrays.asList(-1, 10, 20, 40)) {
+      CredentialEntity credential = EntityUtil.newCredential(group, 
+          EntityUtil.newPrivateKey());
+      credential.setName("expires" + days);
+      credential.setExpiration(new Date(now + days * day));
+      entityManager.persist(credential);
+    }
+    entityManager.flush();
+    entityManager.clear();
+    
+    Page<Credential> page = repository.findPageExpiringByLoginName(loginName,
+        new Date(now), new Date(now + 30 * day),
+        new PageRequest(SortKey.EXPIRATION, false, null, null, 1));
+    assertThat(page.getItems().size(), is(equalTo(1)));
+    assertThat(page.getItems().get(0).getName(), is(equalTo("expires10")));
+    
+    page = repository.findPageExpiringByLoginName(loginName,
+        new Date(now), new Date(now + 30 * day),
+        new PageRequest(SortKey.EXPIRATION, false, null, 
+            page.getNextCursor(), 1));
+    assertThat(page.getItems().size(), is(equalTo(1)));
+    assertThat(page.getItems().get(0).getName(), is(equalTo("expires20")));
+    assertThat(page.getNextCursor(), is(nullValue()));
+    
+    List<Date> expirations = repository.findExpirationsByLoginName(
+        loginName, new Date(now), new Date(now + 30 * day));
+    assertThat(expirations.size(), is(equalTo(2)));
+    assertThat(expirations.get(0).getTime(), is(equalTo(now + 10 * day)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFindPageByLoginNameWithUnsupportedSortKey() 
+      throws Exception {
+    repository.findPageByLoginName("someUser",
+        new PageRequest(SortKey.DATE_CREATED, false, null, null, 1));
+  }
+
   @Test
   public void testFindById() throws Exception {
     UserGroupEntity group = EntityUtil.newGroup("someGroup");
@@ -19,13 +19,18 @@
 package org.soulwing.credo.repository;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
@@ -116,4 +121,44 @@ public class JpaTagRepositoryIT {
     assertThat(tag, is(nullValue()));    
   }
 
+  @Test
+  public void testFindAllByTagText() throws Exception {
+    entityManager.persist(tagRepository.newTag("a-tag"));
+    entityManager.persist(tagRepository.newTag("b-tag"));
+    entityManager.persist(tagRepository.newTag("c-tag"));
+    entityManager.flush();
+    entityManager.clear();
+    
+    Collection<Tag> tags = tagRepository.findAllByTagText(
+        Arrays.asList("a-tag", "c-tag", "d-tag"));
+    assertThat(texts(tags), containsInAnyOrder("a-tag", "c-tag"));
+  }
+  
+  @Test
+  public void testAttachAll() throws Exception {
+    Tag existing = tagRepository.newTag("a-tag");
+    entityManager.persist(existing);
+    entityManager.flush();
+    entityManager.clear();
+    
+    Set<Tag> tags = tagRepository.attachAll(Arrays.asList(
+        existing, tagRepository.newTag("b-tag")));
+    Iterator<Tag> i = tags.iterator();
+    Tag tag = i.next();
+    assertThat(tag.getText(), is(equalTo("a-tag")));
+    assertThat(entityManager.contains(tag), is(true));
+    tag = i.next();
+    assertThat(tag.getText(), is(equalTo("b-tag")));
+    assertThat(entityManager.contains(tag), is(true));
+    assertThat(i.hasNext(), is(false));
+  }
+  
+  private List<String> texts(Collection<Tag> tags) {
+    List<String> texts = new ArrayList<>();
+    for (Tag tag : tags) {
+      texts.add(tag.getText());
+    }
+    return texts;
+  }
+
 }
@@ -27,7 +27,9 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
@@ -46,6 +48,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.UserGroupMember;
+import org.soulwing.credo.domain.CredentialEntity;
 import org.soulwing.credo.domain.UserGroupEntity;
 import org.soulwing.credo.domain.UserGroupMemberEntity;
 import org.soulwing.credo.domain.UserProfileEntity;
@@ -284,6 +287,125 @@ public class JpaUserGroupRepositoryIT {
 
   }
 
+  @Test
+  public void testFindDescendantsAfterOwnerChanged() throws Exception {
+    UserGroupEntity parent = EntityUtil.newGroup("parent");
+    UserGroupEntity otherParent = EntityUtil.newGroup("otherParent");
+    UserGroupEntity child = EntityUtil.newGroup("child");
+    UserGroupEntity grandchild = EntityUtil.newGroup("grandchild");
+
+    entityManager.persist(parent);
+    entityManager.persist(otherParent);
+
+    child.setOwner(parent);
+    entityManager.persist(child);
+
+    grandchild.setOwner(child);
+    entityManager.persist(grandchild);
+
+    entityManager.flush();
+    entityManager.clear();
+
+    UserGroupEntity movedChild = entityManager.find(UserGroupEntity.class, 
+        child.getId());
+    movedChild.setOwner(entityManager.find(UserGroupEntity.class, 
+        otherParent.getId()));
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(repository.findDescendants(parent).isEmpty(), is(true));
+
+    List<UserGroup> groups = repository.findDescendants(otherParent);
+    assertThat(groups.size(), is(equalTo(2)));
+
+    assertThat(groups.get(0).getName(), is(equalTo("child")));
+    assertThat(groups.get(1).getName(), is(equalTo("grandchild")));
+    assertThat(groups.get(1).getAncestryPath(), 
+        is(equalTo(makePath(otherParent.getId(), child.getId()))));    
+    assertThat(groups.get(1).getAncestorCount(), is(equalTo(2)));
+  }
+
+  @Test
+  public void testOwnerChangedTwiceInSameContext() throws Exception {
+    UserGroupEntity parent = EntityUtil.newGroup("parent");
+    UserGroupEntity otherParent = EntityUtil.newGroup("otherParent");
+    UserGroupEntity child = EntityUtil.newGroup("child");
+    UserGroupEntity grandchild = EntityUtil.newGroup("grandchild");
+
+    entityManager.persist(parent);
+    entityManager.persist(otherParent);
+
+    child.setOwner(parent);
+    entityManager.persist(child);
+
+    grandchild.setOwner(child);
+    entityManager.persist(grandchild);
+
+    entityManager.flush();
+    entityManager.clear();
+
+    UserGroupEntity movedChild = entityManager.find(UserGroupEntity.class, 
+        child.getId());
+    UserGroupEntity newParent = entityManager.find(UserGroupEntity.class, 
+        otherParent.getId());
+    movedChild.setOwner(newParent);
+    movedChild.setOwner(entityManager.find(UserGroupEntity.class, 
+        parent.getId()));
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(repository.findDescendants(otherParent).isEmpty(), is(true));
+
+    List<UserGroup> groups = repository.findDescendants(parent);
+    assertThat(groups.size(), is(equalTo(2)));
+    assertThat(groups.get(0).getName(), is(equalTo("child")));
+    assertThat(groups.get(1).getName(), is(equalTo("grandchild")));
+    assertThat(groups.get(1).getAncestryPath(), 
+        is(equalTo(makePath(parent.getId(), child.getId()))));    
+    assertThat(groups.get(1).getAncestorCount(), is(equalTo(2)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOwnerChangedToDescendantInSameContext() 
+      throws Exception {
+    UserGroupEntity parent = EntityUtil.newGroup("parent");
+    UserGroupEntity otherParent = EntityUtil.newGroup("otherParent");
+    UserGroupEntity child = EntityUtil.newGroup("child");
+
+    entityManager.persist(parent);
+    entityManager.persist(otherParent);
+
+    child.setOwner(parent);
+    entityManager.persist(child);
+
+    entityManager.flush();
+    entityManager.clear();
+
+    UserGroupEntity movedChild = entityManager.find(UserGroupEntity.class, 
+        child.getId());
+    UserGroupEntity newParent = entityManager.find(UserGroupEntity.class, 
+        otherParent.getId());
+    movedChild.setOwner(newParent);
+    newParent.setOwner(movedChild);
+  }
+
+  @Test
+  public void testFindIdsInUse() throws Exception {
+    UserGroupEntity group = EntityUtil.newGroup("someGroup");
+    UserGroupEntity otherGroup = EntityUtil.newGroup("someOtherGroup");
+    CredentialEntity credential = EntityUtil.newCredential(group, 
+        EntityUtil.newPrivateKey());
+    entityManager.persist(group);
+    entityManager.persist(otherGroup);
+    entityManager.persist(credential);
+    entityManager.flush();
+    entityManager.clear();
+
+    Set<Long> inUse = repository.findIdsInUse(
+        Arrays.asList(group.getId(), otherGroup.getId()));
+    assertThat(inUse, contains(group.getId()));
+  }
+
   private String makePath(Long... ids) {
     StringBuilder sb = new StringBuilder();
     sb.append(UserGroup.PATH_DELIMITER);
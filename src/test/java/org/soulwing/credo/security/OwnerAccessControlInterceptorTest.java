@@ -0,0 +1,161 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.security;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import javax.interceptor.InvocationContext;
+import javax.persistence.EntityManager;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.soulwing.credo.Owned;
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.UserGroupMember;
+import org.soulwing.credo.repository.UserGroupMemberRepository;
+import org.soulwing.credo.service.UserContextService;
+
+/**
+ * Unit tests for {@link OwnerAccessControlInterceptor}.
+ *
+ * @author Carl Harris
+ */
+public class OwnerAccessControlInterceptorTest {
+
+  private static final String LOGIN_NAME = "someUser";
+
+  private static final String GROUP_NAME = "someGroup";
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private Logger logger;
+
+  @Mock
+  private UserContextService userContextService;
+
+  @Mock
+  private UserGroupMemberRepository memberRepository;
+
+  @Mock
+  private MembershipCache membershipCache;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private InvocationContext invocationContext;
+
+  @Mock
+  private Owned owned;
+
+  @Mock
+  private UserGroup owner;
+
+  @Mock
+  private UserGroup managedOwner;
+
+  @Mock
+  private UserGroupMember member;
+
+  private OwnerAccessControlInterceptor interceptor = 
+      new OwnerAccessControlInterceptor();
+
+  @Before
+  public void setUp() throws Exception {
+    interceptor.logger = logger;
+    interceptor.userContextService = userContextService;
+    interceptor.memberRepository = memberRepository;
+    interceptor.membershipCache = membershipCache;
+    interceptor.entityManager = entityManager;
+    context.checking(new Expectations() { {
+      allowing(logger).isTraceEnabled();
+      will(returnValue(false));
+      allowing(userContextService).getLoginName();
+      will(returnValue(LOGIN_NAME));
+      allowing(owned).getOwner();
+      will(returnValue(owner));
+      oneOf(invocationContext).getParameters();
+      will(returnValue(new Object[] { owned }));
+    } });
+  }
+
+  @Test
+  public void testWhenMembershipCached() throws Exception {
+    final Object result = new Object();
+    context.checking(new Expectations() { {
+      oneOf(membershipCache).isMember(LOGIN_NAME, owner);
+      will(returnValue(true));
+      oneOf(invocationContext).proceed();
+      will(returnValue(result));
+    } });
+
+    assertThat(interceptor.validateAccessAllowed(invocationContext), 
+        is(sameInstance(result)));
+  }
+
+  @Test
+  public void testWhenMembershipNotCached() throws Exception {
+    final Object result = new Object();
+    context.checking(new Expectations() { {
+      oneOf(membershipCache).isMember(LOGIN_NAME, owner);
+      will(returnValue(false));
+      oneOf(entityManager).merge(owner);
+      will(returnValue(managedOwner));
+      allowing(managedOwner).getName();
+      will(returnValue(GROUP_NAME));
+      oneOf(memberRepository).findByGroupAndLoginName(managedOwner, 
+          LOGIN_NAME);
+      will(returnValue(member));
+      oneOf(membershipCache).putMember(LOGIN_NAME, managedOwner);
+      oneOf(invocationContext).proceed();
+      will(returnValue(result));
+    } });
+
+    assertThat(interceptor.validateAccessAllowed(invocationContext), 
+        is(sameInstance(result)));
+  }
+
+  @Test(expected = OwnerAccessControlException.class)
+  public void testWhenNotMember() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(membershipCache).isMember(LOGIN_NAME, owner);
+      will(returnValue(false));
+      oneOf(entityManager).merge(owner);
+      will(returnValue(managedOwner));
+      allowing(managedOwner).getName();
+      will(returnValue(GROUP_NAME));
+      oneOf(memberRepository).findByGroupAndLoginName(managedOwner, 
+          LOGIN_NAME);
+      will(returnValue(null));
+      oneOf(logger).error(with(any(String.class)));
+    } });
+
+    interceptor.validateAccessAllowed(invocationContext);
+  }
+
+}
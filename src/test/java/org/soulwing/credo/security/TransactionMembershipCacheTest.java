@@ -0,0 +1,133 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.security;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Date;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.service.TimeOfDayService;
+
+/**
+ * Unit tests for {@link TransactionMembershipCache}.
+ *
+ * @author Carl Harris
+ */
+public class TransactionMembershipCacheTest {
+
+  private static final Long GROUP_ID = -1L;
+
+  private static final Long VERSION = 1L;
+
+  private static final String LOGIN_NAME = "someUser";
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private TimeOfDayService timeOfDayService;
+
+  @Mock
+  private UserGroup group;
+
+  private TransactionMembershipCache cache = 
+      new TransactionMembershipCache();
+
+  @Before
+  public void setUp() throws Exception {
+    cache.timeOfDayService = timeOfDayService;
+    context.checking(new Expectations() { {
+      allowing(group).getId();
+      will(returnValue(GROUP_ID));
+    } });
+  }
+
+  @Test
+  public void testPutMemberAndIsMember() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(versionExpectations(VERSION));
+    cache.putMember(LOGIN_NAME, group);
+    assertThat(cache.isMember(LOGIN_NAME, group), is(true));
+    assertThat(cache.isMember("otherUser", group), is(false));
+  }
+
+  @Test
+  public void testIsMemberWhenVersionChanged() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(new Expectations() { {
+      allowing(group).getVersion();
+      will(onConsecutiveCalls(returnValue(VERSION),
+          returnValue(VERSION + 1)));
+    } });
+    cache.putMember(LOGIN_NAME, group);
+    assertThat(cache.isMember(LOGIN_NAME, group), is(false));
+  }
+
+  @Test
+  public void testIsMemberAfterMaxAge() throws Exception {
+    context.checking(timeExpectations(0, 
+        TransactionMembershipCache.MAX_AGE));
+    context.checking(versionExpectations(VERSION));
+    cache.putMember(LOGIN_NAME, group);
+    assertThat(cache.isMember(LOGIN_NAME, group), is(false));
+  }
+
+  @Test
+  public void testEvict() throws Exception {
+    context.checking(timeExpectations(0));
+    context.checking(versionExpectations(VERSION));
+    cache.putMember(LOGIN_NAME, group);
+    cache.evict(group);
+    assertThat(cache.isMember(LOGIN_NAME, group), is(false));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    context.checking(timeExpectations(0));
+    context.checking(versionExpectations(VERSION));
+    cache.putMember(LOGIN_NAME, group);
+    cache.clear();
+    assertThat(cache.isMember(LOGIN_NAME, group), is(false));
+  }
+
+  private Expectations versionExpectations(final Long version) {
+    return new Expectations() { {
+      allowing(group).getVersion();
+      will(returnValue(version));
+    } };
+  }
+
+  private Expectations timeExpectations(final long... times) {
+    return new Expectations() { {
+      for (long time : times) {
+        oneOf(timeOfDayService).getCurrent();
+        will(returnValue(new Date(time)));
+      }
+    } };
+  }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.repository.TagRepository;
+
+/**
+ * Unit tests for {@link ConcreteTagIndex}.
+ *
+ * @author Carl Harris
+ */
+public class ConcreteTagIndexTest {
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private TagRepository tagRepository;
+
+  @Mock
+  private TimeOfDayService timeOfDayService;
+
+  private ConcreteTagIndex index = new ConcreteTagIndex();
+
+  private int tagCount;
+
+  @Before
+  public void setUp() throws Exception {
+    index.tagRepository = tagRepository;
+    index.timeOfDayService = timeOfDayService;
+  }
+
+  @Test
+  public void testFindByPrefix() throws Exception {
+    context.checking(timeExpectations(0, 1, 2, 3));
+    context.checking(loadExpectations("beta", "Alpha", "alphabet", 
+        "ALPINE", "gamma"));
+
+    assertThat(index.findByPrefix("alp", 10), 
+        contains("Alpha", "alphabet", "ALPINE"));
+    assertThat(index.findByPrefix("ALPHA", 10), 
+        contains("Alpha", "alphabet"));
+    assertThat(index.findByPrefix("delta", 10), is(empty()));
+    assertThat(index.findByPrefix("", 10), 
+        contains("Alpha", "alphabet", "ALPINE", "beta", "gamma"));
+  }
+
+  @Test
+  public void testFindByPrefixWithLimit() throws Exception {
+    context.checking(timeExpectations(0));
+    context.checking(loadExpectations("alpha", "alphabet", "alpine"));
+
+    assertThat(index.findByPrefix("al", 2), contains("alpha", "alphabet"));
+  }
+
+  @Test
+  public void testAddAll() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(loadExpectations("alpha", "gamma"));
+
+    assertThat(index.findByPrefix("", 10), contains("alpha", "gamma"));
+    index.addAll(Arrays.asList("beta", "alpha", "Beta"));
+    assertThat(index.findByPrefix("", 10), 
+        contains("alpha", "Beta", "beta", "gamma"));
+  }
+
+  @Test
+  public void testAddAllBeforeLoaded() throws Exception {
+    context.checking(timeExpectations(0));
+    context.checking(loadExpectations("alpha"));
+
+    index.addAll(Arrays.asList("beta"));
+    assertThat(index.findByPrefix("", 10), contains("alpha"));
+  }
+
+  @Test
+  public void testReloadAfterInterval() throws Exception {
+    context.checking(timeExpectations(0, ConcreteTagIndex.RELOAD_INTERVAL));
+    context.checking(loadExpectations("alpha"));
+    context.checking(loadExpectations("alpha", "beta"));
+
+    assertThat(index.findByPrefix("", 10), contains("alpha"));
+    assertThat(index.findByPrefix("", 10), contains("alpha", "beta"));
+  }
+
+  @Test
+  public void testReload() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(loadExpectations("alpha"));
+    context.checking(loadExpectations("beta"));
+
+    assertThat(index.findByPrefix("", 10), contains("alpha"));
+    index.reload();
+    assertThat(index.findByPrefix("", 10), contains("beta"));
+  }
+
+  private Expectations loadExpectations(String... texts) {
+    final Collection<Tag> tags = new ArrayList<>();
+    for (String text : texts) {
+      tags.add(newTag(text));
+    }
+    return new Expectations() { {
+      oneOf(tagRepository).findAll();
+      will(returnValue(tags));
+    } };
+  }
+
+  private Tag newTag(final String text) {
+    final Tag tag = context.mock(Tag.class,
+        "tag" + tagCount++);
+    context.checking(new Expectations() { {
+      allowing(tag).getText();
+      will(returnValue(text));
+    } });
+    return tag;
+  }
+
+  private Expectations timeExpectations(final long... times) {
+    return new Expectations() { {
+      for (long time : times) {
+        oneOf(timeOfDayService).getCurrent();
+        will(returnValue(new Date(time)));
+      }
+    } };
+  }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+import javax.enterprise.concurrent.ManagedExecutorService;
+import javax.inject.Inject;
+import javax.transaction.Status;
+import javax.transaction.UserTransaction;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.EmptyAsset;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.domain.TagEntity;
+import org.soulwing.credo.repository.TagRepository;
+
+/**
+ * Integration tests for {@link ConcreteTagService}.
+ *
+ * @author Carl Harris
+ */
+@RunWith(Arquillian.class)
+public class ConcreteTagServiceIT {
+
+  private static final int ROUNDS = 10;
+
+  private static final long TIMEOUT = 30;
+
+  @Deployment
+  public static Archive<?> createDeployment() {
+      return ShrinkWrap.create(WebArchive.class)
+          .addPackage(Tag.class.getPackage())
+          .addPackage(TagEntity.class.getPackage())
+          .addPackage(TagRepository.class.getPackage())
+          .addClasses(TagService.class, ConcreteTagService.class, 
+              TagWriter.class, ConcreteTagWriter.class, 
+              TagIndex.class, ConcreteTagIndex.class, 
+              TagIndexUpdater.class, TagsAddedEvent.class, 
+              TimeOfDayService.class, ConcreteTimeOfDayService.class)
+          .addAsResource("persistence-test.xml", "META-INF/persistence.xml")
+          .addAsResource("META-INF/orm.xml", "META-INF/orm.xml")
+          .addAsWebInfResource(EmptyAsset.INSTANCE, "beans.xml");
+  }
+
+  @Inject
+  private TagService tagService;
+
+  @Inject
+  private TagIndex tagIndex;
+
+  @Inject
+  private TagRepository tagRepository;
+
+  @Inject
+  private UserTransaction tx;
+
+  @Resource
+  private ManagedExecutorService executorService;
+
+  @Test
+  public void testResolveInConcurrentTransactions() throws Exception {
+    for (int i = 0; i < ROUNDS; i++) {
+      String text = "concurrent-" + System.nanoTime();
+      CyclicBarrier barrier = new CyclicBarrier(2);
+      Future<Long> first = executorService.submit(
+          newResolveTask(text, barrier));
+      Future<Long> second = executorService.submit(
+          newResolveTask(text, barrier));
+      Long id = first.get(TIMEOUT, TimeUnit.SECONDS);
+      assertThat(id, is(notNullValue()));
+      assertThat(second.get(TIMEOUT, TimeUnit.SECONDS), is(equalTo(id)));
+      assertThat(tagRepository.findAllByTagText(
+          Collections.singleton(text)).size(), is(equalTo(1)));
+    }
+  }
+
+  @Test
+  public void testIndexUpdatedOnlyAfterCommit() throws Exception {
+    // make sure the index is loaded before any tag is added
+    tagIndex.findByPrefix("", 1);
+    String rolledBack = "rolled-back-" + System.nanoTime();
+    String committed = "committed-" + System.nanoTime();
+
+    tx.begin();
+    tagService.resolve(new String[] { rolledBack });
+    tx.rollback();
+    assertThat(tagIndex.findByPrefix(rolledBack, 1), is(empty()));
+
+    tx.begin();
+    tagService.resolve(new String[] { committed });
+    tx.commit();
+    assertThat(tagIndex.findByPrefix(committed, 1), contains(committed));
+  }
+
+  /**
+   * Creates a task that resolves a tag in a transaction of its own.
+   * <p>
+   * Each task waits at the barrier both before resolving the tag and 
+   * before committing, so that both transactions are in progress while
+   * the tag is added.
+   * @param text text of the subject tag
+   * @param barrier barrier shared by the concurrent tasks
+   * @return task whose result is the identifier of the resolved tag
+   */
+  private Callable<Long> newResolveTask(final String text,
+      final CyclicBarrier barrier) {
+    return new Callable<Long>() {
+      @Override
+      public Long call() throws Exception {
+        tx.begin();
+        try {
+          barrier.await(TIMEOUT, TimeUnit.SECONDS);
+          Tag tag = tagService.resolve(new String[] { text })
+              .iterator().next();
+          barrier.await(TIMEOUT, TimeUnit.SECONDS);
+          tx.commit();
+          return ((TagEntity) tag).getId();
+        }
+        catch (Exception ex) {
+          if (tx.getStatus() != Status.STATUS_NO_TRANSACTION) {
+            tx.rollback();
+          }
+          throw ex;
+        }
+      }
+    };
+  }
+
+}
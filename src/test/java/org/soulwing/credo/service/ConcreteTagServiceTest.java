@@ -20,9 +20,15 @@ package org.soulwing.credo.service;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 
+import javax.enterprise.event.Event;
+
+import org.hamcrest.Matchers;
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
 import org.jmock.integration.junit4.JUnitRuleMockery;
@@ -41,12 +47,28 @@ public class ConcreteTagServiceTest {
 
   private static final String TAG_TEXT = "tagText";
   
+  private static final String PREFIX = "tag";
+
+  private static final int LIMIT = 10;
+
+  private static final Set<String> TAG_TEXTS = 
+      Collections.singleton(TAG_TEXT);
+  
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleMockery();
   
   @Mock
   private TagRepository tagRepository;
   
+  @Mock
+  private TagWriter tagWriter;
+  
+  @Mock
+  private TagIndex tagIndex;
+
+  @Mock
+  private Event<TagsAddedEvent> tagsAddedEvent;
+
   @Mock
   private Tag tag;
   
@@ -55,6 +77,13 @@ public class ConcreteTagServiceTest {
   @Before
   public void setUp() throws Exception {
     service.tagRepository = tagRepository;
+    service.tagWriter = tagWriter;
+    service.tagIndex = tagIndex;
+    service.tagsAddedEvent = tagsAddedEvent;
+    context.checking(new Expectations() { {
+      allowing(tag).getText();
+      will(returnValue(TAG_TEXT));
+    } });
   }
   
   @Test
@@ -66,28 +95,72 @@ public class ConcreteTagServiceTest {
     
     assertThat(service.findAllTags(), contains(tag));
   }
+
+  @Test
+  public void testFindTagsByPrefix() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(tagIndex).findByPrefix(PREFIX, LIMIT);
+      will(returnValue(Collections.singletonList(TAG_TEXT)));
+    } });
+    
+    assertThat(service.findTagsByPrefix(PREFIX, LIMIT), contains(TAG_TEXT));
+  }
   
   @Test
   public void testResolveWithExistingTag() throws Exception {
     context.checking(new Expectations() { { 
-      oneOf(tagRepository).findByTagText(TAG_TEXT);
-      will(returnValue(tag));
+      oneOf(tagRepository).findAllByTagText(with(equalTo(TAG_TEXTS)));
+      will(returnValue(Collections.singleton(tag)));
     } });
     
-    assertThat(service.resolve(new String[] { TAG_TEXT }), contains(tag));
+    assertThat(service.resolve(new String[] { TAG_TEXT, TAG_TEXT }), 
+        contains(tag));
   }
   
   @Test
   public void testResolveWithNewTag() throws Exception {
     context.checking(new Expectations() { { 
-      oneOf(tagRepository).findByTagText(TAG_TEXT);
-      will(returnValue(null));
-      oneOf(tagRepository).newTag(TAG_TEXT);
-      will(returnValue(tag));
+      exactly(2).of(tagRepository).findAllByTagText(
+          with(equalTo(TAG_TEXTS)));
+      will(onConsecutiveCalls(returnValue(Collections.emptyList()),
+          returnValue(Collections.singleton(tag))));
+      oneOf(tagWriter).addAllIfAbsent(with(equalTo(TAG_TEXTS)));
+      will(returnValue(true));
+      oneOf(tagsAddedEvent).fire(with(Matchers.<TagsAddedEvent>hasProperty(
+          "texts", equalTo(TAG_TEXTS))));
     } });
     
     assertThat(service.resolve(new String[] { TAG_TEXT }), contains(tag));
   }
   
+  @Test
+  public void testResolveWithTagAddedConcurrently() throws Exception {
+    context.checking(new Expectations() { { 
+      exactly(2).of(tagRepository).findAllByTagText(
+          with(equalTo(TAG_TEXTS)));
+      will(onConsecutiveCalls(returnValue(Collections.emptyList()),
+          returnValue(Collections.singleton(tag))));
+      oneOf(tagWriter).addAllIfAbsent(with(equalTo(TAG_TEXTS)));
+      will(returnValue(false));
+      oneOf(tagsAddedEvent).fire(with(Matchers.<TagsAddedEvent>hasProperty(
+          "texts", equalTo(TAG_TEXTS))));
+    } });
+    
+    assertThat(service.resolve(new String[] { TAG_TEXT }), contains(tag));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testResolveWhenTagCannotBeAdded() throws Exception {
+    final List<Tag> noTags = Collections.emptyList();
+    context.checking(new Expectations() { { 
+      allowing(tagRepository).findAllByTagText(with(equalTo(TAG_TEXTS)));
+      will(returnValue(noTags));
+      exactly(ConcreteTagService.MAX_ATTEMPTS).of(tagWriter).addAllIfAbsent(
+          with(equalTo(TAG_TEXTS)));
+      will(returnValue(false));
+    } });
+    
+    service.resolve(new String[] { TAG_TEXT });
+  }
 
 }
@@ -0,0 +1,107 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ejb.SessionContext;
+import javax.persistence.PersistenceException;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.repository.TagRepository;
+
+/**
+ * Unit tests for {@link ConcreteTagWriter}.
+ *
+ * @author Carl Harris
+ */
+public class ConcreteTagWriterTest {
+
+  private static final String TAG_TEXT = "tagText";
+  
+  private static final String OTHER_TAG_TEXT = "otherTagText";
+  
+  private static final List<String> TAG_TEXTS = 
+      Arrays.asList(TAG_TEXT, OTHER_TAG_TEXT);
+  
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+  
+  @Mock
+  private TagRepository tagRepository;
+  
+  @Mock
+  private SessionContext sessionContext;
+  
+  @Mock
+  private Tag tag;
+  
+  @Mock
+  private Tag otherTag;
+  
+  private ConcreteTagWriter writer = new ConcreteTagWriter();
+  
+  @Before
+  public void setUp() throws Exception {
+    writer.tagRepository = tagRepository;
+    writer.sessionContext = sessionContext;
+    context.checking(new Expectations() { {
+      allowing(tag).getText();
+      will(returnValue(TAG_TEXT));
+      oneOf(tagRepository).findAllByTagText(
+          with(equalTo(TAG_TEXTS)));
+      will(returnValue(Collections.singleton(tag)));
+      oneOf(tagRepository).newTag(OTHER_TAG_TEXT);
+      will(returnValue(otherTag));
+    } });
+  }
+  
+  @Test
+  public void testAddAllIfAbsent() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(tagRepository).addAll(with(equalTo(Collections.singletonList(otherTag))));
+    } });
+    
+    assertThat(writer.addAllIfAbsent(TAG_TEXTS), is(true));
+  }
+  
+  @Test
+  public void testAddAllIfAbsentWhenAddedConcurrently() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(tagRepository).addAll(with(equalTo(Collections.singletonList(otherTag))));
+      will(throwException(new PersistenceException()));
+      oneOf(sessionContext).setRollbackOnly();
+    } });
+    
+    assertThat(writer.addAllIfAbsent(TAG_TEXTS), is(false));
+  }
+  
+}
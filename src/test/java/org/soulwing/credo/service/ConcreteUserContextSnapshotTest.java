@@ -0,0 +1,146 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Arrays;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.UserProfile;
+import org.soulwing.credo.repository.UserGroupRepository;
+import org.soulwing.credo.repository.UserProfileRepository;
+
+/**
+ * Unit tests for {@link ConcreteUserContextSnapshot}.
+ *
+ * @author Carl Harris
+ */
+public class ConcreteUserContextSnapshotTest {
+
+  private static final String LOGIN_NAME = "someUser";
+
+  private static final String GROUP_NAME = "someGroup";
+
+  private static final Long PROFILE_ID = -1L;
+
+  private static final Long SELF_GROUP_ID = -2L;
+
+  private static final Long GROUP_ID = -3L;
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private UserContextService userContextService;
+
+  @Mock
+  private UserProfileRepository profileRepository;
+
+  @Mock
+  private UserGroupRepository groupRepository;
+
+  @Mock
+  private UserProfile profile;
+
+  @Mock
+  private UserGroup selfGroup;
+
+  @Mock
+  private UserGroup group;
+
+  private ConcreteUserContextSnapshot snapshot = 
+      new ConcreteUserContextSnapshot();
+
+  @Before
+  public void setUp() throws Exception {
+    snapshot.userContextService = userContextService;
+    snapshot.profileRepository = profileRepository;
+    snapshot.groupRepository = groupRepository;
+    context.checking(new Expectations() { {
+      allowing(userContextService).getLoginName();
+      will(returnValue(LOGIN_NAME));
+      allowing(profile).getId();
+      will(returnValue(PROFILE_ID));
+      allowing(selfGroup).getName();
+      will(returnValue(UserGroup.SELF_GROUP_NAME));
+      allowing(selfGroup).getId();
+      will(returnValue(SELF_GROUP_ID));
+      allowing(group).getName();
+      will(returnValue(GROUP_NAME));
+      allowing(group).getId();
+      will(returnValue(GROUP_ID));
+    } });
+  }
+
+  @Test
+  public void testSnapshotTakenOnce() throws Exception {
+    context.checking(loadExpectations());
+
+    assertThat(snapshot.getProfileId(), is(equalTo(PROFILE_ID)));
+    assertThat(snapshot.getGroupId(UserGroup.SELF_GROUP_NAME), 
+        is(equalTo(SELF_GROUP_ID)));
+    assertThat(snapshot.getGroupId(GROUP_NAME), is(equalTo(GROUP_ID)));
+    assertThat(snapshot.getGroupId("otherGroup"), is(nullValue()));
+    assertThat(snapshot.getGroupIds(), 
+        containsInAnyOrder(SELF_GROUP_ID, GROUP_ID));
+  }
+
+  @Test
+  public void testSnapshotWhenNewUser() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(profileRepository).findByLoginName(LOGIN_NAME);
+      will(returnValue(null));
+    } });
+
+    assertThat(snapshot.getProfileId(), is(nullValue()));
+    assertThat(snapshot.getGroupIds(), is(empty()));
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    context.checking(loadExpectations());
+    context.checking(loadExpectations());
+
+    assertThat(snapshot.getProfileId(), is(equalTo(PROFILE_ID)));
+    snapshot.invalidate();
+    assertThat(snapshot.getProfileId(), is(equalTo(PROFILE_ID)));
+  }
+
+  private Expectations loadExpectations() {
+    return new Expectations() { {
+      oneOf(profileRepository).findByLoginName(LOGIN_NAME);
+      will(returnValue(profile));
+      oneOf(groupRepository).findAccessibleByLoginName(LOGIN_NAME);
+      will(returnValue(Arrays.asList(selfGroup, group)));
+    } };
+  }
+
+}
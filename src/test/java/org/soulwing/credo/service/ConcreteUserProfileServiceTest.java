@@ -24,8 +24,11 @@ import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.soulwing.credo.testing.RunTaskAction.runTask;
 
 import java.security.PublicKey;
+import java.util.concurrent.Callable;
 
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
@@ -44,11 +47,12 @@ import org.soulwing.credo.UserProfileBuilderFactory;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
 import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.repository.UserProfileRepository;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
 import org.soulwing.credo.service.crypto.KeyGeneratorService;
 import org.soulwing.credo.service.crypto.KeyPairWrapper;
-import org.soulwing.credo.service.crypto.PKCS8EncryptionService;
 import org.soulwing.credo.service.crypto.PasswordEncryptionService;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.crypto.ProfileKeyEncryptionService;
 import org.soulwing.credo.service.crypto.PublicKeyWrapper;
 import org.soulwing.credo.service.crypto.SecretKeyEncryptionService;
 import org.soulwing.credo.service.crypto.SecretKeyWrapper;
@@ -62,6 +66,8 @@ public class ConcreteUserProfileServiceTest {
 
   private static final String LOGIN_NAME = "someUser";
 
+  private static final Long PROFILE_ID = -1L;
+
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleMockery();
 
@@ -95,13 +101,19 @@ public class ConcreteUserProfileServiceTest {
   private PasswordEncryptionService passwordEncryptionService;
   
   @Mock
-  private PKCS8EncryptionService privateKeyEncryptionService;
+  private ProfileKeyEncryptionService privateKeyEncryptionService;
   
   @Mock
   private SecretKeyEncryptionService secretKeyEncryptionService;
   
   @Mock
   private UserContextService userContextService;
+
+  @Mock
+  private CryptoExecutionService cryptoExecutionService;
+
+  @Mock
+  private UserContextSnapshot userContextSnapshot;
   
   @Mock
   private KeyPairWrapper keyPair;
@@ -156,14 +168,14 @@ public class ConcreteUserProfileServiceTest {
     service.privateKeyEncryptionService = privateKeyEncryptionService;
     service.secretKeyEncryptionService = secretKeyEncryptionService;
     service.userContextService = userContextService;
+    service.userContextSnapshot = userContextSnapshot;
+    service.cryptoExecutionService = cryptoExecutionService;
   }
   
   @Test
   public void testIsNewUserWithNewUser() throws Exception {
     context.checking(new Expectations() { {
-      oneOf(userContextService).getLoginName();
-      will(returnValue(LOGIN_NAME));
-      oneOf(profileRepository).findByLoginName(with(same(LOGIN_NAME)));
+      oneOf(userContextSnapshot).getProfileId();
       will(returnValue(null));
     } });
     
@@ -172,15 +184,37 @@ public class ConcreteUserProfileServiceTest {
 
   @Test
   public void testIsNewUserWithExistingUser() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(userContextSnapshot).getProfileId();
+      will(returnValue(PROFILE_ID));
+    } });
+    
+    assertThat(service.isNewUser(), is(false));
+  }
+
+  @Test
+  public void testGetLoggedInUserProfile() throws Exception {
     final UserProfile profile = context.mock(UserProfile.class);
     context.checking(new Expectations() { { 
+      oneOf(userContextSnapshot).getProfileId();
+      will(returnValue(PROFILE_ID));
+      oneOf(profileRepository).findById(PROFILE_ID);
+      will(returnValue(profile));
+    } });
+    
+    assertThat(service.getLoggedInUserProfile(), is(sameInstance(profile)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testGetLoggedInUserProfileWhenNewUser() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(userContextSnapshot).getProfileId();
+      will(returnValue(null));
       oneOf(userContextService).getLoginName();
       will(returnValue(LOGIN_NAME));
-      oneOf(profileRepository).findByLoginName(with(same(LOGIN_NAME)));
-      will(returnValue(profile));
     } });
     
-    assertThat(service.isNewUser(), is(false));
+    service.getLoggedInUserProfile();
   }
   
 
@@ -216,6 +250,8 @@ public class ConcreteUserProfileServiceTest {
 
   private Expectations keyGenerationExpectations() {
     return new Expectations() { {
+      oneOf(cryptoExecutionService).execute(with(any(Callable.class)));
+      will(runTask());
       oneOf(keyGeneratorService).generateKeyPair();
       will(returnValue(keyPair));
       oneOf(keyPair).getPublic();
@@ -294,6 +330,7 @@ public class ConcreteUserProfileServiceTest {
       oneOf(profileRepository).add(with(same(user)));
       oneOf(groupRepository).add(with(same(group)));
       oneOf(groupMemberRepository).add(with(same(groupMember)));
+      oneOf(userContextSnapshot).invalidate();
     } };
   }
   
@@ -0,0 +1,62 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link TagIndexUpdater}.
+ *
+ * @author Carl Harris
+ */
+public class TagIndexUpdaterTest {
+
+  private static final Collection<String> TAG_TEXTS =
+      Collections.singleton("tagText");
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private TagIndex tagIndex;
+
+  private TagIndexUpdater updater = new TagIndexUpdater();
+
+  @Before
+  public void setUp() throws Exception {
+    updater.tagIndex = tagIndex;
+  }
+
+  @Test
+  public void testOnTagsAdded() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(tagIndex).addAll(TAG_TEXTS);
+    } });
+    updater.onTagsAdded(new TagsAddedEvent(TAG_TEXTS));
+  }
+
+}
@@ -1,5 +1,5 @@
 /*
- * File created on Feb 26, 2014 
+ * File created on May 13, 2014
  *
  * Copyright (c) 2014 Virginia Polytechnic Institute and State University
  *
@@ -24,11 +24,9 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
+import java.io.InputStream;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
@@ -36,93 +34,61 @@ import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
 import org.junit.Test;
 
 /**
- * Tests for {@link ZipArchiveBuilder}.
+ * Unit tests for {@link TarGzipArchiveBuilder}.
  *
  * @author Carl Harris
  */
 public class TarGzipArchiveBuilderTest {
 
-  private TarGzipArchiveBuilder builder = new TarGzipArchiveBuilder();
-  
-  @Test(expected = IllegalStateException.class)
-  public void testAddContentWithoutBeginEntry() throws Exception {
-    builder.addContent(new StringReader("content"));
-  }
-  
-  @Test(expected = IllegalStateException.class)
-  public void testEndEntryWithoutBeginEntry() throws Exception {
-    builder.endEntry();
-  }
-
-  @Test(expected = IllegalStateException.class)
-  public void testBeginEntryWithoutEndEntry() throws Exception {
-    builder.beginEntry("name", "charset");
-    builder.beginEntry("name", "charset");
-  }
-
-  @Test(expected = IllegalStateException.class)
-  public void testBuildWithoutEndEntry() throws Exception {
-    builder.beginEntry("name", "charset");
-    builder.build();
-  }
-
-  @Test
-  public void testBuildArchiveWithSingleEntry() throws Exception {
-    byte[] archive = builder.beginEntry("file.txt", "UTF-8")
-        .addContent(new StringReader("content"))
-        .endEntry().build();
-    TarArchiveInputStream tis = new TarArchiveInputStream(
-        new GzipCompressorInputStream(new ByteArrayInputStream(archive)));
-    TarArchiveEntry entry = tis.getNextTarEntry();
-    assertThat(entry.getMode(), is(equalTo(0100400)));
-    assertThat(entry.getName(), is(equalTo("file.txt")));
-    assertThat(readContent(tis), is(equalTo("content")));
-    assertThat(tis.getNextEntry(), is(nullValue()));
-  }
+  private static final String CHARSET = "UTF-8";
 
   @Test
-  public void testBuildArchiveWithMultipleEntries() throws Exception {
-    byte[] archive = builder
-        .beginEntry("file1.txt", "UTF-8")
-        .addContent(new StringReader("content1"))
+  public void testBuildArchive() throws Exception {
+    MockOutputStream outputStream = new MockOutputStream();
+    new TarGzipArchiveBuilder(outputStream)
+        .beginEntry("a", CHARSET).addContent("one").addContent("two")
         .endEntry()
-        .beginEntry("file2.txt", "UTF-8")
-        .addContent(new StringReader("content2"))
+        .beginEntry("b", CHARSET).addContent("three")
         .endEntry()
-        .build();
+        .finish();
+
+    // finishing the archive must not close the target stream
+    assertThat(outputStream.closed, is(false));
+
     TarArchiveInputStream tis = new TarArchiveInputStream(
-        new GzipCompressorInputStream(new ByteArrayInputStream(archive)));
+        new GzipCompressorInputStream(
+            new ByteArrayInputStream(outputStream.toByteArray())));
     TarArchiveEntry entry = tis.getNextTarEntry();
-    assertThat(entry.getName(), is(equalTo("file1.txt")));
-    assertThat(readContent(tis), is(equalTo("content1")));
+    assertThat(entry.getName(), is(equalTo("a")));
+    assertThat(entry.getSize(), is(equalTo(6L)));
+    assertThat(contentOf(tis), is(equalTo("onetwo")));
     entry = tis.getNextTarEntry();
-    assertThat(entry.getName(), is(equalTo("file2.txt")));
-    assertThat(readContent(tis), is(equalTo("content2")));
-    assertThat(tis.getNextEntry(), is(nullValue()));
+    assertThat(entry.getName(), is(equalTo("b")));
+    assertThat(contentOf(tis), is(equalTo("three")));
+    assertThat(tis.getNextTarEntry(), is(nullValue()));
   }
 
-  @Test
-  public void testBuildArchiveEntryWithMultipleContent() throws Exception {
-    byte[] archive = builder
-        .beginEntry("file.txt", "UTF-8")
-        .addContent(new StringReader("content1"))
-        .addContent(new StringReader("content2"))
-        .endEntry()
-        .build();
-    TarArchiveInputStream tis = new TarArchiveInputStream(
-        new GzipCompressorInputStream(new ByteArrayInputStream(archive)));
-    TarArchiveEntry entry = tis.getNextTarEntry();
-    assertThat(entry.getName(), is(equalTo("file.txt")));
-    assertThat(readContent(tis), is(equalTo("content1content2")));
-    assertThat(tis.getNextEntry(), is(nullValue()));
+  private static String contentOf(InputStream inputStream)
+      throws IOException {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    byte[] buf = new byte[1024];
+    int numRead = inputStream.read(buf);
+    while (numRead != -1) {
+      content.write(buf, 0, numRead);
+      numRead = inputStream.read(buf);
+    }
+    return content.toString(CHARSET);
   }
 
-  private String readContent(TarArchiveInputStream zis)
-      throws UnsupportedEncodingException, IOException {
-    Reader reader = new InputStreamReader(zis, "UTF-8");
-    char[] buf = new char[8192];
-    int numRead = reader.read(buf);
-    return new String(buf, 0, numRead);
+  private static class MockOutputStream extends ByteArrayOutputStream {
+
+    private boolean closed;
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+    }
+
   }
-  
+
 }
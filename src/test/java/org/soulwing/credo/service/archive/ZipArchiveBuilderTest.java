@@ -1,5 +1,5 @@
 /*
- * File created on Feb 26, 2014 
+ * File created on May 13, 2014
  *
  * Copyright (c) 2014 Virginia Polytechnic Institute and State University
  *
@@ -24,100 +24,61 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
+import java.io.InputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import org.junit.Test;
 
 /**
- * Tests for {@link ZipArchiveBuilder}.
+ * Unit tests for {@link ZipArchiveBuilder}.
  *
  * @author Carl Harris
  */
 public class ZipArchiveBuilderTest {
 
-  private ZipArchiveBuilder builder = new ZipArchiveBuilder();
-  
-  @Test(expected = IllegalStateException.class)
-  public void testAddContentWithoutBeginEntry() throws Exception {
-    builder.addContent(new StringReader("content"));
-  }
-  
-  @Test(expected = IllegalStateException.class)
-  public void testEndEntryWithoutBeginEntry() throws Exception {
-    builder.endEntry();
-  }
-
-  @Test(expected = IllegalStateException.class)
-  public void testBeginEntryWithoutEndEntry() throws Exception {
-    builder.beginEntry("name", "charset");
-    builder.beginEntry("name", "charset");
-  }
-
-  @Test(expected = IllegalStateException.class)
-  public void testBuildWithoutEndEntry() throws Exception {
-    builder.beginEntry("name", "charset");
-    builder.build();
-  }
-
-  @Test
-  public void testBuildArchiveWithSingleEntry() throws Exception {
-    byte[] archive = builder.beginEntry("file.txt", "UTF-8")
-        .addContent(new StringReader("content"))
-        .endEntry().build();
-    ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive));
-    ZipEntry entry = zis.getNextEntry();
-    assertThat(entry.getName(), is(equalTo("file.txt")));
-    assertThat(readContent(zis), is(equalTo("content")));
-    assertThat(zis.getNextEntry(), is(nullValue()));
-  }
+  private static final String CHARSET = "UTF-8";
 
   @Test
-  public void testBuildArchiveWithMultipleEntries() throws Exception {
-    byte[] archive = builder
-        .beginEntry("file1.txt", "UTF-8")
-        .addContent(new StringReader("content1"))
+  public void testBuildArchive() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    new ZipArchiveBuilder(outputStream)
+        .beginEntry("a", CHARSET).addContent("one").addContent("two")
         .endEntry()
-        .beginEntry("file2.txt", "UTF-8")
-        .addContent(new StringReader("content2"))
+        .beginEntry("b", CHARSET).addContent("three")
         .endEntry()
-        .build();
-    ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive));
+        .finish();
+
+    ZipInputStream zis = new ZipInputStream(
+        new ByteArrayInputStream(outputStream.toByteArray()));
     ZipEntry entry = zis.getNextEntry();
-    assertThat(entry.getName(), is(equalTo("file1.txt")));
-    assertThat(readContent(zis), is(equalTo("content1")));
+    assertThat(entry.getName(), is(equalTo("a")));
+    assertThat(contentOf(zis), is(equalTo("onetwo")));
     entry = zis.getNextEntry();
-    assertThat(entry.getName(), is(equalTo("file2.txt")));
-    assertThat(readContent(zis), is(equalTo("content2")));
+    assertThat(entry.getName(), is(equalTo("b")));
+    assertThat(contentOf(zis), is(equalTo("three")));
     assertThat(zis.getNextEntry(), is(nullValue()));
   }
 
-  @Test
-  public void testBuildArchiveEntryWithMultipleContent() throws Exception {
-    byte[] archive = builder
-        .beginEntry("file.txt", "UTF-8")
-        .addContent(new StringReader("content1"))
-        .addContent(new StringReader("content2"))
-        .endEntry()
-        .build();
-    ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(archive));
-    ZipEntry entry = zis.getNextEntry();
-    assertThat(entry.getName(), is(equalTo("file.txt")));
-    assertThat(readContent(zis), is(equalTo("content1content2")));
-    assertThat(zis.getNextEntry(), is(nullValue()));
+  @Test(expected = IllegalStateException.class)
+  public void testFinishWithEntryInProgress() throws Exception {
+    new ZipArchiveBuilder(new ByteArrayOutputStream())
+        .beginEntry("a", CHARSET)
+        .finish();
   }
 
-  private String readContent(ZipInputStream zis)
-      throws UnsupportedEncodingException, IOException {
-    Reader reader = new InputStreamReader(zis, "UTF-8");
-    char[] buf = new char[8192];
-    int numRead = reader.read(buf);
-    return new String(buf, 0, numRead);
+  private static String contentOf(InputStream inputStream)
+      throws IOException {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    byte[] buf = new byte[1024];
+    int numRead = inputStream.read(buf);
+    while (numRead != -1) {
+      content.write(buf, 0, numRead);
+      numRead = inputStream.read(buf);
+    }
+    return content.toString(CHARSET);
   }
-  
+
 }
@@ -0,0 +1,237 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.soulwing.credo.testing.RunTaskAction.runTasks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.enterprise.inject.Instance;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.Credential;
+import org.soulwing.credo.Password;
+import org.soulwing.credo.Tag;
+import org.soulwing.credo.service.Errors;
+import org.soulwing.credo.service.ProtectionParameters;
+import org.soulwing.credo.service.TagService;
+import org.soulwing.credo.service.credential.BulkImportResult.Status;
+import org.soulwing.credo.service.crypto.CredentialBag;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
+import org.soulwing.credo.service.importer.CredentialImporter;
+import org.soulwing.credo.service.importer.CredentialImporterFactory;
+
+/**
+ * Unit tests for {@link BulkImportServiceBean}.
+ *
+ * @author Carl Harris
+ */
+public class BulkImportServiceBeanTest {
+
+  private static final String ARCHIVE_NAME = "credentials.zip";
+  
+  private static final String ITEM_NAME = "www";
+
+  private static final String CREDENTIAL_NAME = "credentialName";
+
+  private static final String NOTE = "note";
+  
+  private static final String[] TAGS = { "tag" };
+  
+  private static final Password PASSPHRASE = new Password(new char[0]);
+  
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+  
+  @Mock
+  private Instance<CredentialBag> bags;
+  
+  @Mock
+  private CredentialBag bag;
+  
+  @Mock
+  private CredentialImporterFactory importerFactory;
+  
+  @Mock
+  private CredentialImporter importer;
+  
+  @Mock
+  private TagService tagService;
+  
+  @Mock
+  private BulkImportWriter writer;
+  
+  @Mock
+  private CryptoExecutionService cryptoExecutionService;
+  
+  @Mock
+  private ProtectionParameters protection;
+  
+  @Mock
+  private ImportDetails details;
+  
+  @Mock
+  private Credential credential;
+  
+  @Mock
+  private Errors errors;
+  
+  private final Set<? extends Tag> tags = Collections.emptySet();
+  
+  private BulkImportRequest request = new BulkImportRequest();
+  
+  private BulkImportServiceBean service = new BulkImportServiceBean();
+  
+  @Before
+  public void setUp() throws Exception {
+    service.bags = bags;
+    service.importerFactory = importerFactory;
+    service.tagService = tagService;
+    service.writer = writer;
+    service.cryptoExecutionService = cryptoExecutionService;
+    request.setPassphrase(PASSPHRASE);
+    request.setNote(NOTE);
+    request.setTags(TAGS);
+    request.setProtectionParameters(protection);
+  }
+
+  @Test(expected = ImportException.class)
+  public void testImportUnsupportedArchive() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(errors).addError(with(equalTo("bulkImportUnsupportedArchive")), 
+          with(equalTo(new Object[] { "credentials.rar" })));
+    } });
+    
+    service.importArchive("credentials.rar", 
+        new ByteArrayInputStream(new byte[0]), request, errors);
+  }
+  
+  @Test
+  public void testImportArchive() throws Exception {
+    context.checking(parseItemExpectations());
+    context.checking(new Expectations() { {
+      oneOf(importer).validateAndImport(with(same(PASSPHRASE)), 
+          with(any(Errors.class)));
+      will(returnValue(details));
+      oneOf(details).setNote(NOTE);
+      oneOf(writer).saveCredentials(with(equalTo(Collections.singletonList(details))), 
+          with(same(tags)), with(same(protection)), with(same(errors)));
+      will(returnValue(Collections.singletonList(credential)));
+      allowing(credential).getName();
+      will(returnValue(CREDENTIAL_NAME));
+    } });
+    
+    BulkImportReport report = service.importArchive(ARCHIVE_NAME, 
+        newArchive(), request, errors);
+    assertThat(report.getImportedCount(), is(equalTo(1)));
+    assertThat(report.getFailedCount(), is(equalTo(0)));
+    BulkImportResult result = report.getResults().get(0);
+    assertThat(result.getItemName(), is(equalTo(ITEM_NAME)));
+    assertThat(result.getStatus(), is(equalTo(Status.IMPORTED)));
+    assertThat(result.getCredentialName(), is(equalTo(CREDENTIAL_NAME)));
+  }
+
+  @Test
+  public void testImportArchiveWithInvalidItem() throws Exception {
+    context.checking(parseItemExpectations());
+    context.checking(new Expectations() { {
+      oneOf(importer).validateAndImport(with(same(PASSPHRASE)), 
+          with(any(Errors.class)));
+      will(throwException(new ImportException()));
+    } });
+    
+    BulkImportReport report = service.importArchive(ARCHIVE_NAME, 
+        newArchive(), request, errors);
+    assertThat(report.getImportedCount(), is(equalTo(0)));
+    assertThat(report.getFailedCount(), is(equalTo(1)));
+    BulkImportResult result = report.getResults().get(0);
+    assertThat(result.getStatus(), is(equalTo(Status.FAILED)));
+    assertThat(result.getCredentialName(), is(nullValue()));
+    assertThat(result.getMessage(), is(equalTo("bulkImportInvalidItem")));
+  }
+
+  @Test(expected = ImportException.class)
+  public void testImportArchiveWhenOverloaded() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(tagService).resolve(TAGS);
+      will(returnValue(tags));
+      oneOf(bags).get();
+      will(returnValue(bag));
+      oneOf(importerFactory).newImporter();
+      will(returnValue(importer));
+      oneOf(cryptoExecutionService).executeAll(with(any(List.class)),
+          with(equalTo(BulkImportServiceBean.MAX_CONCURRENT_IMPORTS)));
+      will(throwException(new CryptoOverloadException(5)));
+      oneOf(errors).addError(with(equalTo("cryptoBusy")), 
+          (Object[]) with(arrayContaining(5L)));
+    } });
+    
+    service.importArchive(ARCHIVE_NAME, newArchive(), request, errors);
+  }
+
+  private Expectations parseItemExpectations() throws Exception {
+    return new Expectations() { {
+      oneOf(tagService).resolve(TAGS);
+      will(returnValue(tags));
+      oneOf(bags).get();
+      will(returnValue(bag));
+      oneOf(importerFactory).newImporter();
+      will(returnValue(importer));
+      oneOf(cryptoExecutionService).executeAll(with(any(List.class)),
+          with(equalTo(BulkImportServiceBean.MAX_CONCURRENT_IMPORTS)));
+      will(runTasks());
+      exactly(2).of(bag).addAllObjects(with(any(InputStream.class)), 
+          with(equalTo(ImportServiceBean.MAX_OBJECT_COUNT)),
+          with(equalTo(ImportServiceBean.MAX_FILE_SIZE)));
+      oneOf(importer).loadContent(bag);
+    } };
+  }
+  
+  private InputStream newArchive() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (ZipArchiveOutputStream archive = 
+        new ZipArchiveOutputStream(outputStream)) {
+      for (String fileName : new String[] { "www.key", "www.crt" }) {
+        archive.putArchiveEntry(new ZipArchiveEntry(fileName));
+        archive.write(new byte[] { 0 });
+        archive.closeArchiveEntry();
+      }
+    }
+    return new ByteArrayInputStream(outputStream.toByteArray());
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.repository.CredentialChangeEvent;
+import org.soulwing.credo.repository.CredentialRepository;
+import org.soulwing.credo.service.TimeOfDayService;
+
+/**
+ * Unit tests for {@link ConcreteExpirationSummaryCache}.
+ *
+ * @author Carl Harris
+ */
+public class ConcreteExpirationSummaryCacheTest {
+
+  private static final String LOGIN_NAME = "someUser";
+  
+  private static final long DAY = 24L * 60 * 60 * 1000;
+  
+  private static final long TIME_TO_LIVE = 60;
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private CredentialRepository credentialRepository;
+
+  @Mock
+  private TimeOfDayService timeOfDayService;
+
+  private ConcreteExpirationSummaryCache cache = 
+      new ConcreteExpirationSummaryCache();
+
+  @Before
+  public void setUp() throws Exception {
+    cache.credentialRepository = credentialRepository;
+    cache.timeOfDayService = timeOfDayService;
+    cache.timeToLive = TIME_TO_LIVE;
+  }
+
+  @Test
+  public void testGetSummary() throws Exception {
+    final Date now = new Date(0);
+    context.checking(timeExpectations(now));
+    context.checking(queryExpectations(now, Arrays.asList(
+        new Date(1), new Date(20 * DAY), new Date(45 * DAY), 
+        new Date(89 * DAY))));
+
+    ExpirationSummary summary = cache.getSummary(LOGIN_NAME);
+    assertThat(summary.getDateComputed(), is(sameInstance(now)));
+    assertThat(summary.getCount(ExpirationWindow.DAYS_15), is(equalTo(1)));
+    assertThat(summary.getCount(ExpirationWindow.DAYS_30), is(equalTo(2)));
+    assertThat(summary.getCount(ExpirationWindow.DAYS_60), is(equalTo(3)));
+    assertThat(summary.getCount(ExpirationWindow.DAYS_90), is(equalTo(4)));
+  }
+
+  @Test
+  public void testGetCachedSummary() throws Exception {
+    final Date now = new Date(0);
+    context.checking(timeExpectations(now, new Date(1)));
+    context.checking(queryExpectations(now, Arrays.<Date>asList()));
+    
+    ExpirationSummary summary = cache.getSummary(LOGIN_NAME);
+    assertThat(cache.getSummary(LOGIN_NAME), is(sameInstance(summary)));
+  }
+
+  @Test
+  public void testGetSummaryAfterTimeToLive() throws Exception {
+    final Date now = new Date(0);
+    final Date later = new Date(TIME_TO_LIVE * 1000);
+    context.checking(timeExpectations(now, later));
+    context.checking(queryExpectations(now, Arrays.<Date>asList()));
+    context.checking(queryExpectations(later, Arrays.<Date>asList()));
+    
+    ExpirationSummary summary = cache.getSummary(LOGIN_NAME);
+    assertThat(cache.getSummary(LOGIN_NAME), 
+        is(not(sameInstance(summary))));
+  }
+
+  @Test
+  public void testGetSummaryAfterCredentialChange() throws Exception {
+    final Date now = new Date(0);
+    context.checking(timeExpectations(now, now));
+    context.checking(new Expectations() { { 
+      exactly(2).of(credentialRepository).findExpirationsByLoginName(
+          LOGIN_NAME, now, ExpirationWindow.longest().getEnd(now));
+      will(returnValue(Arrays.<Date>asList()));
+    } });
+    
+    ExpirationSummary summary = cache.getSummary(LOGIN_NAME);
+    cache.onCredentialChange(new CredentialChangeEvent(
+        CredentialChangeEvent.Type.ADDED, null));
+    assertThat(cache.getSummary(LOGIN_NAME), 
+        is(not(sameInstance(summary))));
+  }
+
+  private Expectations timeExpectations(final Date... times) {
+    return new Expectations() { { 
+      for (Date time : times) {
+        oneOf(timeOfDayService).getCurrent();
+        will(returnValue(time));
+      }
+    } };
+  }
+  
+  private Expectations queryExpectations(final Date now, 
+      final List<Date> expirations) {
+    return new Expectations() { { 
+      oneOf(credentialRepository).findExpirationsByLoginName(LOGIN_NAME, 
+          now, ExpirationWindow.longest().getEnd(now));
+      will(returnValue(expirations));
+    } };
+  }
+  
+}
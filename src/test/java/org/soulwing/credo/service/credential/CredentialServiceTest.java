@@ -19,14 +19,14 @@
 package org.soulwing.credo.service.credential;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.sameInstance;
 
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import org.jmock.Expectations;
@@ -36,9 +36,11 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.soulwing.credo.Credential;
-import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.repository.CredentialRepository;
-import org.soulwing.credo.repository.UserGroupRepository;
+import org.soulwing.credo.service.TimeOfDayService;
 import org.soulwing.credo.service.UserContextService;
 import org.soulwing.credo.service.credential.CredentialServiceBean;
 
@@ -60,39 +62,31 @@ public class CredentialServiceTest {
   @Mock
   private CredentialRepository credentialRepository;
   
-  @Mock
-  private UserGroupRepository groupRepository;
-  
   @Mock
   private UserContextService userContextService;
   
   @Mock
-  private UserGroup group1;
-
+  private TimeOfDayService timeOfDayService;
+  
   @Mock
-  private UserGroup group2;
-
+  private ExpirationSummaryCache expirationSummaryCache;
+  
   private CredentialServiceBean service = new CredentialServiceBean();
   
   @Before
   public void setUp() throws Exception {
     service.credentialRepository = credentialRepository;
-    service.groupRepository = groupRepository;
     service.userContextService = userContextService;
+    service.timeOfDayService = timeOfDayService;
+    service.expirationSummaryCache = expirationSummaryCache;
   }
   
   @Test
-  @SuppressWarnings("unchecked")
   public void testFindAllCredentials() throws Exception {
     context.checking(new Expectations() { {
       oneOf(userContextService).getLoginName();
       will(returnValue(LOGIN_NAME));
-      oneOf(groupRepository).findByLoginName(with(LOGIN_NAME));
-      will(returnValue(Collections.singletonList(group1)));
-      oneOf(groupRepository).findDescendants(with(same(group1)));
-      will(returnValue(Collections.singletonList(group2)));
-      oneOf(credentialRepository).findAllByOwners(
-          (Collection<UserGroup>) with(contains(group1, group2)));
+      oneOf(credentialRepository).findAllByLoginName(with(LOGIN_NAME));
       will(returnValue(Collections.singletonList(credential)));
     } });
     
@@ -100,5 +94,59 @@ public class CredentialServiceTest {
     assertThat(credentials, is(not(empty())));
     assertThat(credentials.get(0), is(sameInstance(credential)));
   }
-  
+
+  @Test
+  public void testFindCredentials() throws Exception {
+    final PageRequest pageRequest = 
+        new PageRequest(SortKey.NAME, false, null, null, 1);
+    final Page<Credential> page = 
+        new Page<>(Collections.singletonList(credential), null);
+    context.checking(new Expectations() { {
+      oneOf(userContextService).getLoginName();
+      will(returnValue(LOGIN_NAME));
+      oneOf(credentialRepository).findPageByLoginName(with(LOGIN_NAME),
+          with(same(pageRequest)));
+      will(returnValue(page));
+    } });
+
+    assertThat(service.findCredentials(pageRequest), is(sameInstance(page)));
+  }
+
+  @Test
+  public void testFindExpiringCredentials() throws Exception {
+    final Date now = new Date();
+    final PageRequest pageRequest = 
+        new PageRequest(SortKey.EXPIRATION, false, null, null, 1);
+    final Page<Credential> page = 
+        new Page<>(Collections.singletonList(credential), null);
+    context.checking(new Expectations() { {
+      oneOf(userContextService).getLoginName();
+      will(returnValue(LOGIN_NAME));
+      oneOf(timeOfDayService).getCurrent();
+      will(returnValue(now));
+      oneOf(credentialRepository).findPageExpiringByLoginName(
+          with(LOGIN_NAME), with(same(now)), 
+          with(equalTo(ExpirationWindow.DAYS_30.getEnd(now))),
+          with(same(pageRequest)));
+      will(returnValue(page));
+    } });
+
+    assertThat(service.findExpiringCredentials(ExpirationWindow.DAYS_30,
+        pageRequest), is(sameInstance(page)));
+  }
+
+  @Test
+  public void testGetExpirationSummary() throws Exception {
+    final ExpirationSummary summary = new ExpirationSummary(new Date(),
+        Collections.<Date>emptyList());
+    context.checking(new Expectations() { {
+      oneOf(userContextService).getLoginName();
+      will(returnValue(LOGIN_NAME));
+      oneOf(expirationSummaryCache).getSummary(LOGIN_NAME);
+      will(returnValue(summary));
+    } });
+
+    assertThat(service.getExpirationSummary(), is(sameInstance(summary)));
+  }
+
 }
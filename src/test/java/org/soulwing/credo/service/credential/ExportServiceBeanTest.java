@@ -30,17 +30,29 @@ import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.jmock.Expectations.returnValue;
 import static org.jmock.Expectations.throwException;
+import static org.soulwing.credo.testing.RunTaskAction.runTask;
+import static org.soulwing.credo.testing.RunTaskAction.runTasks;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
+import org.hamcrest.Matcher;
 import org.jmock.Expectations;
 import org.jmock.api.Action;
+import org.jmock.api.Invocation;
 import org.jmock.auto.Mock;
 import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.jmock.lib.action.CustomAction;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.soulwing.credo.Credential;
+import org.soulwing.credo.CredentialCertificate;
 import org.soulwing.credo.Password;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.repository.CredentialRepository;
@@ -49,10 +61,15 @@ import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.ProtectionParameters;
 import org.soulwing.credo.service.UserAccessException;
+import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
 import org.soulwing.credo.service.crypto.PasswordGenerator;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.exporter.BulkExporter;
 import org.soulwing.credo.service.exporter.CredentialExporter;
 import org.soulwing.credo.service.exporter.CredentialExporterRegistry;
+import org.soulwing.credo.service.exporter.ExportSpool;
 import org.soulwing.credo.service.protect.CredentialProtectionService;
 
 /**
@@ -64,6 +81,13 @@ public class ExportServiceBeanTest {
 
   private static final String GROUP_NAME = "someGroup";
 
+  private static final String CREDENTIAL_NAME = "someCredential";
+
+  private static final String LOGIN_NAME = "someUser";
+  
+  private static final Password PASSWORD = 
+      new Password("password".toCharArray());
+
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleMockery();
   
@@ -100,6 +124,36 @@ public class ExportServiceBeanTest {
   @Mock
   private Errors errors;
   
+  @Mock
+  private BulkExporter bulkExporter;
+  
+  @Mock
+  private CryptoExecutionService cryptoExecutionService;
+  
+  @Mock
+  private Credential otherCredential;
+
+  @Mock
+  private PrivateKeyWrapper otherPrivateKey;
+  
+  @Mock
+  private ExportPreparation otherPreparation;
+  
+  @Mock
+  private ExportPreparation bulkPreparation;
+  
+  @Mock
+  private ExportSpool exportSpool;
+  
+  @Mock
+  private UserContextService userContextService;
+  
+  @Mock
+  private ExportJob job;
+  
+  @Mock
+  private ExportDownload download;
+  
   private ExportServiceBean exportService = new ExportServiceBean();
   
   @Before
@@ -108,6 +162,14 @@ public class ExportServiceBeanTest {
     exportService.exporterRegistry = exporterRegistry;
     exportService.protectionService = protectionService;
     exportService.passwordGenerator = passwordGenerator;
+    exportService.bulkExporter = bulkExporter;
+    exportService.cryptoExecutionService = cryptoExecutionService;
+    exportService.exportSpool = exportSpool;
+    exportService.userContextService = userContextService;
+    context.checking(new Expectations() { {
+      allowing(userContextService).getLoginName();
+      will(returnValue(LOGIN_NAME));
+    } });
   }
   
   @Test
@@ -139,6 +201,7 @@ public class ExportServiceBeanTest {
     context.checking(unprotectCredentialExpectations(
         returnValue(credentialPrivateKey)));
     context.checking(findExporterExpectations(returnValue(exporter)));
+    context.checking(exportTaskExpectations(runTask()));
     context.checking(new Expectations() { { 
       oneOf(exporter).exportCredential(with(same(request)), 
           with(same(credentialPrivateKey)));
@@ -153,6 +216,7 @@ public class ExportServiceBeanTest {
     context.checking(unprotectCredentialExpectations(
         returnValue(credentialPrivateKey)));
     context.checking(findExporterExpectations(returnValue(exporter)));
+    context.checking(exportTaskExpectations(runTask()));
     context.checking(new Expectations() { { 
       oneOf(exporter).exportCredential(with(same(request)), 
           with(credentialPrivateKey));
@@ -162,6 +226,21 @@ public class ExportServiceBeanTest {
     exportService.prepareExport(request, errors); 
   }
   
+  @Test(expected = ExportException.class)
+  public void testPrepareExportWhenOverloaded() throws Exception {
+    context.checking(unprotectCredentialExpectations(
+        returnValue(credentialPrivateKey)));
+    context.checking(findExporterExpectations(returnValue(exporter)));
+    context.checking(exportTaskExpectations(
+        throwException(new CryptoOverloadException(5))));
+    context.checking(new Expectations() { { 
+      oneOf(errors).addError(with(equalTo("cryptoBusy")), 
+          (Object[]) with(arrayContaining(5L)));
+    } });
+    
+    exportService.prepareExport(request, errors); 
+  }
+  
   @Test(expected = PassphraseException.class)
   public void testPrepareExportWhenIncorrectPassword() throws Exception {
     context.checking(unprotectCredentialExpectations(
@@ -185,6 +264,183 @@ public class ExportServiceBeanTest {
     exportService.prepareExport(request, errors);
   }
 
+  @Test
+  public void testSubmitExport() throws Exception {
+    context.checking(unprotectCredentialExpectations(
+        returnValue(credentialPrivateKey)));
+    context.checking(findExporterExpectations(returnValue(exporter)));
+    context.checking(exportTaskExpectations(runTask()));
+    context.checking(new Expectations() { { 
+      oneOf(exportSpool).submit(with(equalTo(LOGIN_NAME)), 
+          with(any(Callable.class)));
+      will(runSpoolTask(sameInstance((Object) preparation)));
+      oneOf(exporter).exportCredential(with(same(request)), 
+          with(same(credentialPrivateKey)));
+      will(returnValue(preparation));
+    } });
+    assertThat(exportService.submitExport(request, errors), 
+        is(sameInstance(job)));
+  }
+
+  @Test(expected = ExportException.class)
+  public void testSubmitExportWhenTooManyJobs() throws Exception {
+    context.checking(unprotectCredentialExpectations(
+        returnValue(credentialPrivateKey)));
+    context.checking(findExporterExpectations(returnValue(exporter)));
+    context.checking(new Expectations() { { 
+      oneOf(exportSpool).submit(with(equalTo(LOGIN_NAME)), 
+          with(any(Callable.class)));
+      will(throwException(new CryptoOverloadException(5)));
+      oneOf(errors).addError(with(equalTo("cryptoBusy")), 
+          (Object[]) with(arrayContaining(5L)));
+    } });
+    exportService.submitExport(request, errors);
+  }
+
+  @Test(expected = PassphraseException.class)
+  public void testSubmitExportWhenIncorrectPassword() throws Exception {
+    context.checking(unprotectCredentialExpectations(
+        throwException(new UserAccessException(new Exception()))));
+    context.checking(new Expectations() { { 
+      oneOf(errors).addError(with(equalTo("password")), 
+          with(containsString("Incorrect")),
+          with(emptyArray()));
+    } });
+    exportService.submitExport(request, errors);
+  }
+
+  @Test
+  public void testFindExportJob() throws Exception {
+    final String jobId = "someJobId";
+    context.checking(new Expectations() { { 
+      oneOf(exportSpool).findJob(LOGIN_NAME, jobId);
+      will(returnValue(job));
+    } });
+    assertThat(exportService.findExportJob(jobId), is(sameInstance(job)));
+  }
+
+  @Test
+  public void testClaimExportDownload() throws Exception {
+    final String token = "someToken";
+    context.checking(new Expectations() { { 
+      oneOf(exportSpool).claim(LOGIN_NAME, token);
+      will(returnValue(download));
+    } });
+    assertThat(exportService.claimExportDownload(token), 
+        is(sameInstance(download)));
+  }
+
+  @Test
+  public void testCreateBulkExportRequest() throws Exception {
+    final List<CredentialCertificate> certificates = new ArrayList<>();
+    context.checking(new Expectations() { {
+      oneOf(credentialRepository).findById(with(1L));
+      will(returnValue(credential));
+      oneOf(credentialRepository).findById(with(2L));
+      will(returnValue(otherCredential));
+      allowing(credential).getCertificates();
+      will(returnValue(certificates));
+      allowing(otherCredential).getCertificates();
+      will(returnValue(certificates));
+    } });
+    
+    BulkExportRequest request = 
+        exportService.newBulkExportRequest(Arrays.asList(1L, 2L));
+    assertThat(request.getCredentials(), 
+        is(equalTo(Arrays.asList(credential, otherCredential))));
+  }
+
+  @Test(expected = NoSuchCredentialException.class)
+  public void testCreateBulkExportRequestNotFound() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(credentialRepository).findById(with(1L));
+      will(returnValue(null));
+    } });
+    
+    exportService.newBulkExportRequest(Arrays.asList(1L, 2L));
+  }
+
+  @Test
+  public void testPrepareBulkExport() throws Exception {
+    final BulkExportRequest request = newBulkExportRequest();
+    final Map<String, ExportPreparation> preparations = 
+        new LinkedHashMap<>();
+    preparations.put(CREDENTIAL_NAME, preparation);
+    // credentials with the same name are placed in distinct directories
+    preparations.put(CREDENTIAL_NAME + "-2", otherPreparation);
+    
+    context.checking(new Expectations() { {
+      oneOf(protectionService).unprotect(
+          with(equalTo(request.getCredentials())), with(same(PASSWORD)));
+      will(returnValue(Arrays.asList(credentialPrivateKey, 
+          otherPrivateKey)));
+      exactly(2).of(exporterRegistry).findExporter(
+          with(any(ExportRequest.class)));
+      will(returnValue(exporter));
+      oneOf(cryptoExecutionService).executeAll(with(equalTo(LOGIN_NAME)),
+          with(any(List.class)), 
+          with(equalTo(ExportServiceBean.MAX_CONCURRENT_EXPORTS)));
+      will(runTasks());
+      oneOf(exporter).exportCredential(
+          with(any(ExportRequest.class)), with(same(credentialPrivateKey)));
+      will(returnValue(preparation));
+      oneOf(exporter).exportCredential(
+          with(any(ExportRequest.class)), with(same(otherPrivateKey)));
+      will(returnValue(otherPreparation));
+      oneOf(bulkExporter).exportCredentials(with(same(request)), 
+          with(equalTo(preparations)));
+      will(returnValue(bulkPreparation));
+    } });
+    
+    assertThat(exportService.prepareBulkExport(request, errors),
+        is(sameInstance(bulkPreparation)));
+  }
+
+  @Test
+  public void testSubmitBulkExport() throws Exception {
+    final BulkExportRequest request = newBulkExportRequest();
+    context.checking(new Expectations() { {
+      oneOf(protectionService).unprotect(
+          with(equalTo(request.getCredentials())), with(same(PASSWORD)));
+      will(returnValue(Arrays.asList(credentialPrivateKey, 
+          otherPrivateKey)));
+      exactly(2).of(exporterRegistry).findExporter(
+          with(any(ExportRequest.class)));
+      will(returnValue(exporter));
+      oneOf(exportSpool).submit(with(equalTo(LOGIN_NAME)), 
+          with(any(Callable.class)));
+      will(runSpoolTask(sameInstance((Object) bulkPreparation)));
+      oneOf(cryptoExecutionService).executeAll(with(equalTo(LOGIN_NAME)),
+          with(any(List.class)), 
+          with(equalTo(ExportServiceBean.MAX_CONCURRENT_EXPORTS)));
+      will(runTasks());
+      allowing(exporter).exportCredential(
+          with(any(ExportRequest.class)), with(any(PrivateKeyWrapper.class)));
+      will(returnValue(preparation));
+      oneOf(bulkExporter).exportCredentials(with(same(request)), 
+          with(any(Map.class)));
+      will(returnValue(bulkPreparation));
+    } });
+    
+    assertThat(exportService.submitBulkExport(request, errors),
+        is(sameInstance(job)));
+  }
+
+  @Test(expected = PassphraseException.class)
+  public void testPrepareBulkExportWhenIncorrectPassword() throws Exception {
+    final BulkExportRequest request = newBulkExportRequest();
+    context.checking(new Expectations() { {
+      oneOf(protectionService).unprotect(
+          with(equalTo(request.getCredentials())), with(same(PASSWORD)));
+      will(throwException(new UserAccessException(new Exception())));
+      oneOf(errors).addError(with(equalTo("password")), 
+          with(containsString("Incorrect")),
+          with(emptyArray()));
+    } });
+    
+    exportService.prepareBulkExport(request, errors);
+  }
+
   @Test
   public void testGeneratePassword() throws Exception {
     final Password password = Password.EMPTY;
@@ -197,6 +453,51 @@ public class ExportServiceBeanTest {
     assertThat(exportService.generatePassphrase(), is(sameInstance(password)));
   }
   
+  private BulkExportRequest newBulkExportRequest() {
+    context.checking(new Expectations() { {
+      allowing(credential).getName();
+      will(returnValue(CREDENTIAL_NAME));
+      allowing(otherCredential).getName();
+      will(returnValue(CREDENTIAL_NAME));
+      allowing(otherCredential).getId();
+      will(returnValue(2L));
+      allowing(protection).getPassword();
+      will(returnValue(PASSWORD));
+    } });
+    BulkExportRequest request = new BulkExportRequestBean(
+        Arrays.asList(credential, otherCredential));
+    request.setProtectionParameters(protection);
+    return request;
+  }
+  
+  /**
+   * Creates an action that runs the task passed to the export spool, 
+   * verifies its result, and returns the mock job.
+   * @param matcher matcher for the task result
+   * @return action
+   */
+  private Action runSpoolTask(final Matcher<Object> matcher) {
+    return new CustomAction("run spool task") {
+      @Override
+      public Object invoke(Invocation invocation) throws Throwable {
+        Callable<?> task = (Callable<?>) invocation.getParameter(1);
+        assertThat(task.call(), matcher);
+        return job;
+      }
+    };
+  }
+  
+  private Expectations exportTaskExpectations(final Action outcome) {
+    final List<CredentialCertificate> certificates = new ArrayList<>();
+    return new Expectations() { {
+      allowing(credential).getCertificates();
+      will(returnValue(certificates));
+      oneOf(cryptoExecutionService).execute(with(equalTo(LOGIN_NAME)),
+          with(any(Callable.class)));
+      will(outcome);
+    } };
+  }
+  
   private Expectations findExporterExpectations(final Action outcome) {
     return new Expectations() { { 
       oneOf(exporterRegistry).findExporter(request);
@@ -0,0 +1,226 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.Test;
+import org.soulwing.credo.service.crypto.ObjectLimitException;
+
+/**
+ * Unit tests for {@link ImportItemReader}.
+ *
+ * @author Carl Harris
+ */
+public class ImportItemReaderTest {
+
+  private static final String[] FILE_NAMES = {
+    "www.key", "www.crt", "mail/key.pem", "mail/cert.pem", 
+    ".hidden", "__MACOSX/._www.key"
+  };
+  
+  private static final byte[] CONTENT = { 0, 1, 2, 3 };
+  
+  private static final long MAX_TOTAL_SIZE = 1024;
+  
+  @Test
+  public void testIsSupportedArchive() throws Exception {
+    assertThat(ImportItemReader.isSupportedArchive("a.zip"), is(true));
+    assertThat(ImportItemReader.isSupportedArchive("a.TAR"), is(true));
+    assertThat(ImportItemReader.isSupportedArchive("a.tar.gz"), is(true));
+    assertThat(ImportItemReader.isSupportedArchive("a.tgz"), is(true));
+    assertThat(ImportItemReader.isSupportedArchive("a.pem"), is(false));
+    assertThat(ImportItemReader.isSupportedArchive(null), is(false));
+  }
+  
+  @Test
+  public void testItemName() throws Exception {
+    assertThat(ImportItemReader.itemName("www.example.com.crt"), 
+        is(equalTo("www.example.com")));
+    assertThat(ImportItemReader.itemName("a/b/key.pem"), 
+        is(equalTo("a/b")));
+    assertThat(ImportItemReader.itemName("README"), 
+        is(equalTo("README")));
+  }
+  
+  @Test
+  public void testReadZipArchive() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (ZipArchiveOutputStream archive = 
+        new ZipArchiveOutputStream(outputStream)) {
+      for (String fileName : FILE_NAMES) {
+        putEntry(archive, new ZipArchiveEntry(fileName));
+      }
+    }
+    ImportItemReader reader = new ImportItemReader(CONTENT.length, 10, 
+        MAX_TOTAL_SIZE);
+    reader.readArchive("credentials.zip", 
+        new ByteArrayInputStream(outputStream.toByteArray()));
+    assertExpectedItems(reader);
+  }
+
+  @Test
+  public void testReadTarGzipArchive() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream archive = new TarArchiveOutputStream(
+        new GzipCompressorOutputStream(outputStream))) {
+      for (String fileName : FILE_NAMES) {
+        TarArchiveEntry entry = new TarArchiveEntry(fileName);
+        entry.setSize(CONTENT.length);
+        putEntry(archive, entry);
+      }
+    }
+    ImportItemReader reader = new ImportItemReader(CONTENT.length, 10, 
+        MAX_TOTAL_SIZE);
+    reader.readArchive("credentials.tar.gz", 
+        new ByteArrayInputStream(outputStream.toByteArray()));
+    assertExpectedItems(reader);
+  }
+
+  @Test
+  public void testReadDirectory() throws Exception {
+    Path directory = Files.createTempDirectory("credo");
+    try {
+      for (String fileName : FILE_NAMES) {
+        Path file = directory.resolve(fileName);
+        Files.createDirectories(file.getParent());
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+          outputStream.write(CONTENT);
+        }
+      }
+      ImportItemReader reader = new ImportItemReader(CONTENT.length, 10, 
+          MAX_TOTAL_SIZE);
+      reader.readDirectory(directory.toFile());
+      List<String> names = new ArrayList<>();
+      for (ImportItem item : reader.getItems()) {
+        names.add(item.getName());
+        assertThat(item.getFileNames().size(), is(equalTo(2)));
+      }
+      // directory traversal order is not specified
+      assertThat(names.size(), is(equalTo(2)));
+      assertThat(names.contains("www"), is(true));
+      assertThat(names.contains("mail"), is(true));
+    }
+    finally {
+      delete(directory.toFile());
+    }
+  }
+
+  @Test
+  public void testReadWhenFileTooLarge() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (ZipArchiveOutputStream archive = 
+        new ZipArchiveOutputStream(outputStream)) {
+      putEntry(archive, new ZipArchiveEntry(FILE_NAMES[0]));
+    }
+    ImportItemReader reader = new ImportItemReader(CONTENT.length - 1, 10, 
+        MAX_TOTAL_SIZE);
+    try {
+      reader.readArchive("credentials.zip", 
+          new ByteArrayInputStream(outputStream.toByteArray()));
+      fail("expected FileSizeLimitException");
+    }
+    catch (FileSizeLimitException ex) {
+      assertThat(reader.getFileName(), is(equalTo(FILE_NAMES[0])));
+    }
+  }
+
+  @Test(expected = ObjectLimitException.class)
+  public void testReadWhenTooManyFiles() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (ZipArchiveOutputStream archive = 
+        new ZipArchiveOutputStream(outputStream)) {
+      for (String fileName : FILE_NAMES) {
+        putEntry(archive, new ZipArchiveEntry(fileName));
+      }
+    }
+    ImportItemReader reader = new ImportItemReader(CONTENT.length, 3, 
+        MAX_TOTAL_SIZE);
+    reader.readArchive("credentials.zip", 
+        new ByteArrayInputStream(outputStream.toByteArray()));
+  }
+
+  @Test(expected = TotalSizeLimitException.class)
+  public void testReadWhenTotalSizeTooLarge() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try (ZipArchiveOutputStream archive = 
+        new ZipArchiveOutputStream(outputStream)) {
+      for (String fileName : FILE_NAMES) {
+        putEntry(archive, new ZipArchiveEntry(fileName));
+      }
+    }
+    ImportItemReader reader = new ImportItemReader(CONTENT.length, 10, 
+        3 * CONTENT.length);
+    reader.readArchive("credentials.zip", 
+        new ByteArrayInputStream(outputStream.toByteArray()));
+  }
+
+  private void assertExpectedItems(ImportItemReader reader) {
+    Iterator<ImportItem> i = reader.getItems().iterator();
+    ImportItem item = i.next();
+    assertThat(item.getName(), is(equalTo("www")));
+    assertThat(item.getFileNames(), contains("www.key", "www.crt"));
+    assertThat(item.getContents().get(0), is(equalTo(CONTENT)));
+    item = i.next();
+    assertThat(item.getName(), is(equalTo("mail")));
+    assertThat(item.getFileNames(), 
+        contains("mail/key.pem", "mail/cert.pem"));
+    assertThat(i.hasNext(), is(false));
+  }
+
+  private void putEntry(ArchiveOutputStream archive, ArchiveEntry entry) 
+      throws IOException {
+    archive.putArchiveEntry(entry);
+    archive.write(CONTENT);
+    archive.closeArchiveEntry();
+  }
+
+  private void delete(File file) {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+  
+}
@@ -64,6 +64,7 @@ import org.soulwing.credo.service.credential.ImportServiceBean;
 import org.soulwing.credo.service.credential.CredentialService;
 import org.soulwing.credo.service.credential.ImportDetails;
 import org.soulwing.credo.service.credential.ImportService;
+import org.soulwing.credo.service.crypto.CredentialBag;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
 import org.soulwing.credo.service.crypto.bc.BcPrivateKeyWrapper;
 import org.soulwing.credo.service.crypto.jca.JcaPrivateKeyWrapper;
@@ -263,6 +264,8 @@ public class ImportServiceBeanIT {
 
     private final URL url;
     
+    private CredentialBag content;
+    
     /**
      * Constructs a new instance.
      * @param url
@@ -280,6 +283,16 @@ public class ImportServiceBeanIT {
     public InputStream getInputStream() throws IOException {
       return url.openStream();        
     }
+
+    @Override
+    public CredentialBag getContent() {
+      return content;
+    }
+
+    @Override
+    public void setContent(CredentialBag content) {
+      this.content = content;
+    }
     
   }
   
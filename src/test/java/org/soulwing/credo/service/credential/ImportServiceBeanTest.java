@@ -38,6 +38,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Set;
 
+import javax.enterprise.inject.Instance;
 import javax.security.auth.x500.X500Principal;
 
 import org.jmock.Expectations;
@@ -63,6 +64,7 @@ import org.soulwing.credo.repository.CredentialRequestRepository;
 import org.soulwing.credo.security.OwnerAccessControlException;
 import org.soulwing.credo.service.Errors;
 import org.soulwing.credo.service.FileContentModel;
+import org.soulwing.credo.service.FileExpiredException;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.NoContentException;
 import org.soulwing.credo.service.PassphraseException;
@@ -70,6 +72,8 @@ import org.soulwing.credo.service.ProtectionParameters;
 import org.soulwing.credo.service.TagService;
 import org.soulwing.credo.service.UserAccessException;
 import org.soulwing.credo.service.crypto.CertificateWrapper;
+import org.soulwing.credo.service.crypto.CredentialBag;
+import org.soulwing.credo.service.crypto.ObjectLimitException;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
 import org.soulwing.credo.service.group.GroupResolver;
 import org.soulwing.credo.service.importer.CredentialImporter;
@@ -131,6 +135,12 @@ public class ImportServiceBeanTest {
   @Mock
   private CredentialImporter importer;
   
+  @Mock
+  private Instance<CredentialBag> bags;
+  
+  @Mock
+  private CredentialBag content;
+  
   @Mock
   private CredentialBuilderFactory credentialBuilderFactory;
   
@@ -197,6 +207,7 @@ public class ImportServiceBeanTest {
   @Before
   public void setUp() throws Exception {
     importService.importerFactory = importerFactory;
+    importService.bags = bags;
     importService.credentialRepository = credentialRepository;
     importService.requestRepository = requestRepository;
     importService.credentialBuilderFactory = credentialBuilderFactory;
@@ -230,8 +241,6 @@ public class ImportServiceBeanTest {
   @Test(expected = ImportException.class)
   public void testPrepareImportWithNoFiles() throws Exception {
     context.checking(new Expectations() { {
-      oneOf(importerFactory).newImporter();
-      will(returnValue(importer));
       oneOf(errors).addError(
           with(containsString("Required")),
           with(emptyArray()));
@@ -244,17 +253,12 @@ public class ImportServiceBeanTest {
   @Test(expected = ImportException.class)
   public void testPrepareImportWhenFileReadError() throws Exception {
     final FileContentModel file = context.mock(FileContentModel.class);
-    final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
     final String name = "someFileName";
+    context.checking(parseFileExpectations(file, 
+        throwException(new IOException())));
     context.checking(new Expectations() { {
-      oneOf(file).getInputStream();
-      will(returnValue(inputStream));
       oneOf(file).getName();
       will(returnValue(name));
-      oneOf(importerFactory).newImporter();
-      will(returnValue(importer));
-      oneOf(importer).loadFile(with(same(inputStream)));
-      will(throwException(new IOException()));
       oneOf(errors).addError(with("file0"),
           with(containsString("Error")),
           (Object[]) with(arrayContaining(name)));
@@ -267,30 +271,110 @@ public class ImportServiceBeanTest {
   }
   
   @Test(expected = ImportException.class)
-  public void testPrepareImportWithEmptyFile() throws Exception {
+  public void testPrepareImportWhenFileTooLarge() throws Exception {
+    final FileContentModel file = context.mock(FileContentModel.class);
+    final String name = "someFileName";
+    context.checking(parseFileExpectations(file, 
+        throwException(new FileSizeLimitException())));
+    context.checking(new Expectations() { {
+      oneOf(file).getName();
+      will(returnValue(name));
+      oneOf(errors).addError(with("file0"),
+          with(containsString("TooLarge")),
+          (Object[]) with(arrayContaining((Object) name, 
+              ImportServiceBean.MAX_FILE_SIZE)));
+      oneOf(errors).hasErrors();
+      will(returnValue(true));
+    } });
+    
+    List<FileContentModel> files = Collections.singletonList(file);
+    importService.prepareImport(files, PASSPHRASE, errors);
+  }
+  
+  @Test(expected = ImportException.class)
+  public void testPrepareImportWhenFileExpired() throws Exception {
     final FileContentModel file = context.mock(FileContentModel.class);
-    final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
     final String name = "someFileName";
     context.checking(new Expectations() { {
+      oneOf(file).getContent();
+      will(returnValue(null));
+      oneOf(bags).get();
+      will(returnValue(content));
       oneOf(file).getInputStream();
-      will(returnValue(inputStream));
+      will(throwException(new FileExpiredException()));
+      oneOf(file).getName();
+      will(returnValue(name));
+      oneOf(errors).addError(with("file0"),
+          with(containsString("Expired")),
+          (Object[]) with(arrayContaining(name)));
+      oneOf(errors).hasErrors();
+      will(returnValue(true));
+    } });
+    
+    List<FileContentModel> files = Collections.singletonList(file);
+    importService.prepareImport(files, PASSPHRASE, errors);
+  }
+  
+  @Test(expected = ImportException.class)
+  public void testPrepareImportWhenTooManyObjects() throws Exception {
+    final FileContentModel file = context.mock(FileContentModel.class);
+    final String name = "someFileName";
+    context.checking(parseFileExpectations(file, 
+        throwException(new ObjectLimitException())));
+    context.checking(new Expectations() { {
+      oneOf(file).getName();
+      will(returnValue(name));
+      oneOf(errors).addError(with("file0"),
+          with(containsString("TooMany")),
+          (Object[]) with(arrayContaining((Object) name, 
+              ImportServiceBean.MAX_OBJECT_COUNT)));
+      oneOf(errors).hasErrors();
+      will(returnValue(true));
+    } });
+    
+    List<FileContentModel> files = Collections.singletonList(file);
+    importService.prepareImport(files, PASSPHRASE, errors);
+  }
+  
+  @Test(expected = ImportException.class)
+  public void testPrepareImportWithEmptyFile() throws Exception {
+    final FileContentModel file = context.mock(FileContentModel.class);
+    final String name = "someFileName";
+    context.checking(loadedFileExpectations(file));
+    context.checking(new Expectations() { {
       oneOf(file).getName();
       will(returnValue(name));
       oneOf(importerFactory).newImporter();
       will(returnValue(importer));
-      oneOf(importer).loadFile(with(same(inputStream)));
+      oneOf(importer).loadContent(with(same(content)));
       will(throwException(new NoContentException()));
       oneOf(errors).addError(with("file0"),
           with(containsString("Content")),
           (Object[]) with(arrayContaining(name)));
-      oneOf(errors).hasErrors();
-      will(returnValue(true));
+      exactly(2).of(errors).hasErrors();
+      will(onConsecutiveCalls(returnValue(false), returnValue(true)));
     } });
     
     List<FileContentModel> files = Collections.singletonList(file);
     importService.prepareImport(files, PASSPHRASE, errors);
   }
 
+  @Test
+  public void testPrepareImportParsesFile() throws Exception {
+    FileContentModel file = context.mock(FileContentModel.class);
+    List<FileContentModel> files = Collections.singletonList(file);
+    context.checking(parseFileExpectations(file, returnValue(1)));
+    context.checking(new Expectations() { { 
+      oneOf(importerFactory).newImporter();
+      will(returnValue(importer));
+      oneOf(importer).loadContent(with(same(content)));
+      exactly(2).of(errors).hasErrors();
+      will(returnValue(false));
+      oneOf(importer).validateAndImport(with(PASSPHRASE), with(same(errors)));
+    } });
+    importService.prepareImport(files, PASSPHRASE, errors);
+  }
+
   @Test
   public void testPrepareImportSuccess() throws Exception {
     FileContentModel file = context.mock(FileContentModel.class);
@@ -332,20 +416,48 @@ public class ImportServiceBeanTest {
 
   private Expectations prepareImportExpectations(final FileContentModel file,
       final Password passphrase) throws Exception {
-    final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
     return new Expectations() { {
-      oneOf(file).getInputStream();
-      will(returnValue(inputStream));
-      oneOf(importer).loadFile(with(same(inputStream)));
-      oneOf(errors).hasErrors();
+      allowing(file).getContent();
+      will(returnValue(content));
+      oneOf(importer).loadContent(with(same(content)));
+      exactly(2).of(errors).hasErrors();
       will(returnValue(false));
       oneOf(importer).validateAndImport(with(passphrase), with(same(errors)));
     } };    
   }
 
+  private Expectations loadedFileExpectations(final FileContentModel file) {
+    return new Expectations() { {
+      allowing(file).getContent();
+      will(returnValue(content));
+    } };
+  }
+
+  private Expectations parseFileExpectations(final FileContentModel file,
+      final Action outcome) throws Exception {
+    final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+    return new Expectations() { {
+      allowing(file).getContent();
+      will(onConsecutiveCalls(returnValue(null), returnValue(content)));
+      oneOf(bags).get();
+      will(returnValue(content));
+      oneOf(file).getInputStream();
+      will(returnValue(inputStream));
+      oneOf(content).addAllObjects(with(any(InputStream.class)), 
+          with(ImportServiceBean.MAX_OBJECT_COUNT),
+          with(ImportServiceBean.MAX_FILE_SIZE));
+      will(outcome);
+      allowing(file).setContent(content);
+    } };
+  }
+
   @Test(expected = GroupAccessException.class)
   public void testPrepareImportUsingRequestWhenNotGroupMember() throws Exception {
+    FileContentModel file = context.mock(FileContentModel.class);
+    context.checking(loadedFileExpectations(file));
     context.checking(new Expectations() { {
+      oneOf(errors).hasErrors();
+      will(returnValue(false));
       oneOf(requestProtectionService).unprotect(
           with(request), with(protection));
       will(throwException(new GroupAccessException(GROUP_NAME)));
@@ -355,7 +467,6 @@ public class ImportServiceBeanTest {
           (Object[]) with(arrayContaining(GROUP_NAME)));
     } });
     
-    FileContentModel file = context.mock(FileContentModel.class);
     List<FileContentModel> files = Collections.singletonList(file);
     importService.prepareImport(request, files, protection, errors);
   }
@@ -363,7 +474,11 @@ public class ImportServiceBeanTest {
   @Test(expected = PassphraseException.class)
   public void testPrepareImportUsingRequestWhenWrongPassword() 
       throws Exception {
+    FileContentModel file = context.mock(FileContentModel.class);
+    context.checking(loadedFileExpectations(file));
     context.checking(new Expectations() { {
+      oneOf(errors).hasErrors();
+      will(returnValue(false));
       oneOf(requestProtectionService).unprotect(
           with(request), with(protection));
       will(throwException(new UserAccessException(new Exception())));
@@ -371,7 +486,6 @@ public class ImportServiceBeanTest {
           with(emptyArray()));
     } });
     
-    FileContentModel file = context.mock(FileContentModel.class);
     List<FileContentModel> files = Collections.singletonList(file);
     importService.prepareImport(request, files, protection, errors);
   }
@@ -0,0 +1,66 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.credential;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link LimitedInputStream}.
+ *
+ * @author Carl Harris
+ */
+public class LimitedInputStreamTest {
+
+  private static final int LIMIT = 4;
+  
+  @Test
+  public void testReadWithinLimit() throws Exception {
+    InputStream inputStream = new LimitedInputStream(
+        new ByteArrayInputStream(new byte[LIMIT]), LIMIT);
+    byte[] buf = new byte[LIMIT + 1];
+    assertThat(inputStream.read(buf), is(equalTo(LIMIT)));
+    assertThat(inputStream.read(), is(equalTo(-1)));
+  }
+  
+  @Test(expected = FileSizeLimitException.class)
+  public void testReadBeyondLimit() throws Exception {
+    InputStream inputStream = new LimitedInputStream(
+        new ByteArrayInputStream(new byte[LIMIT + 1]), LIMIT);
+    byte[] buf = new byte[LIMIT + 1];
+    inputStream.read(buf);
+  }
+
+  @Test
+  public void testResetRestoresCount() throws Exception {
+    InputStream inputStream = new LimitedInputStream(
+        new ByteArrayInputStream(new byte[LIMIT]), LIMIT);
+    inputStream.mark(LIMIT);
+    inputStream.read(new byte[LIMIT]);
+    inputStream.reset();
+    assertThat(inputStream.read(new byte[LIMIT]), is(equalTo(LIMIT)));
+  }
+
+}
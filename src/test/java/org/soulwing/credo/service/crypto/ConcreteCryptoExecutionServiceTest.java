@@ -0,0 +1,280 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.concurrent.ManagedThreadFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.soulwing.credo.service.MockUserContextService;
+
+/**
+ * Unit tests for {@link ConcreteCryptoExecutionService}.
+ *
+ * @author Carl Harris
+ */
+public class ConcreteCryptoExecutionServiceTest {
+
+  private static final String LOGIN_NAME = "someUser";
+  
+  private static final long TIMEOUT = 5000;
+  
+  private final CountDownLatch started = new CountDownLatch(1);
+  
+  private final CountDownLatch release = new CountDownLatch(1);
+  
+  private MockUserContextService userContextService = 
+      new MockUserContextService();
+  
+  private ExecutorService callers = Executors.newCachedThreadPool();
+  
+  private ConcreteCryptoExecutionService service = 
+      new ConcreteCryptoExecutionService();
+  
+  @Before
+  public void setUp() throws Exception {
+    service.userContextService = userContextService;
+    service.threadFactory = new ManagedThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        return new Thread(r);
+      }
+    };
+    service.workerCount = 1;
+    service.maxQueueDepth = 1;
+    service.maxOperationsPerUser = 1;
+    service.init();
+  }
+  
+  @After
+  public void tearDown() throws Exception {
+    release.countDown();
+    callers.shutdownNow();
+    service.destroy();
+  }
+  
+  @Test
+  public void testExecute() throws Exception {
+    assertThat(service.execute(new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        return LOGIN_NAME;
+      }
+    }), is(equalTo(LOGIN_NAME)));
+    assertThat(service.getCompletedCount(), is(equalTo(1L)));
+  }
+
+  @Test
+  public void testExecuteAll() throws Exception {
+    List<Callable<Integer>> tasks = Arrays.asList(
+        new ValueTask(1), new ValueTask(2));
+    assertThat(service.executeAll(tasks), 
+        is(equalTo(Arrays.asList(1, 2))));
+  }
+  
+  @Test
+  public void testExecuteAllWithMaxConcurrency() throws Exception {
+    // more tasks than the worker and queue together can hold
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    List<Integer> values = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      tasks.add(new ValueTask(i));
+      values.add(i);
+    }
+    assertThat(service.executeAll(tasks, 2), is(equalTo(values)));
+    assertThat(service.getCompletedCount(), is(equalTo(10L)));
+    assertThat(service.getRejectedCount(), is(equalTo(0L)));
+  }
+  
+  @Test
+  public void testExecuteAllWithMaxConcurrencyWhenTaskFails() 
+      throws Exception {
+    final AtomicInteger count = new AtomicInteger();
+    Callable<Integer> task = new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        if (count.incrementAndGet() == 2) {
+          throw new IllegalArgumentException();
+        }
+        return 0;
+      }
+    };
+    try {
+      service.executeAll(Arrays.asList(task, task, task, task), 1);
+      fail("expected IllegalArgumentException");
+    }
+    catch (IllegalArgumentException ex) {
+      // tasks after the one that failed are not submitted
+      assertThat(count.get(), is(equalTo(2)));
+    }
+  }
+  
+  @Test(expected = IllegalArgumentException.class)
+  public void testExecuteWhenUncheckedException() throws Exception {
+    service.execute(new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        throw new IllegalArgumentException();
+      }
+    });
+  }
+
+  @Test
+  public void testExecuteWhenCheckedException() throws Exception {
+    try {
+      service.execute(new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          throw new CertificationRequestException("some message");
+        }
+      });
+      fail("expected ExecutionException");
+    }
+    catch (ExecutionException ex) {
+      assertThat(ex.getCause(), 
+          is(instanceOf(CertificationRequestException.class)));
+    }
+  }
+  
+  @Test
+  public void testExecuteWhenQueueFull() throws Exception {
+    Future<?> running = callers.submit(new BlockingCaller());
+    assertThat(started.await(TIMEOUT, TimeUnit.MILLISECONDS), is(true));
+    Future<?> queued = callers.submit(new BlockingCaller());
+    awaitQueueDepth(1);
+    
+    try {
+      service.execute(new ValueTask(1));
+      fail("expected CryptoOverloadException");
+    }
+    catch (CryptoOverloadException ex) {
+      assertThat(ex.getRetryAfter(), is(greaterThanOrEqualTo(
+          ConcreteCryptoExecutionService.MIN_RETRY_AFTER)));
+    }
+    assertThat(service.getRejectedCount(), is(equalTo(1L)));
+    
+    release.countDown();
+    running.get(TIMEOUT, TimeUnit.MILLISECONDS);
+    queued.get(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertThat(service.execute(new ValueTask(1)), is(equalTo(1)));
+  }
+  
+  @Test
+  public void testExecuteWhenUserLimitReached() throws Exception {
+    userContextService.setLoginName(LOGIN_NAME);
+    Future<?> running = callers.submit(new BlockingCaller());
+    assertThat(started.await(TIMEOUT, TimeUnit.MILLISECONDS), is(true));
+    
+    try {
+      service.execute(new ValueTask(1));
+      fail("expected CryptoOverloadException");
+    }
+    catch (CryptoOverloadException ex) {
+      assertThat(service.getRejectedCount(), is(equalTo(1L)));
+    }
+    
+    release.countDown();
+    running.get(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertThat(service.execute(new ValueTask(1)), is(equalTo(1)));
+    assertThat(service.getUserCount(), is(equalTo(0)));
+  }
+  
+  @Test
+  public void testExecuteForOwnerWhenUserLimitReached() throws Exception {
+    userContextService.setLoginName(LOGIN_NAME);
+    Future<?> running = callers.submit(new BlockingCaller());
+    assertThat(started.await(TIMEOUT, TimeUnit.MILLISECONDS), is(true));
+    
+    // as on a thread with no user context (e.g. an export spool thread)
+    userContextService.setLoginName(null);
+    try {
+      service.execute(LOGIN_NAME, new ValueTask(1));
+      fail("expected CryptoOverloadException");
+    }
+    catch (CryptoOverloadException ex) {
+      assertThat(service.getRejectedCount(), is(equalTo(1L)));
+    }
+    
+    release.countDown();
+    running.get(TIMEOUT, TimeUnit.MILLISECONDS);
+    assertThat(service.execute(LOGIN_NAME, new ValueTask(1)), 
+        is(equalTo(1)));
+    assertThat(service.getUserCount(), is(equalTo(0)));
+  }
+  
+  private void awaitQueueDepth(int depth) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (service.getQueueDepth() < depth 
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(service.getQueueDepth(), is(equalTo(depth)));
+  }
+  
+  private static class ValueTask implements Callable<Integer> {
+    
+    private final int value;
+    
+    public ValueTask(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public Integer call() throws Exception {
+      return value;
+    }
+    
+  }
+  
+  private class BlockingCaller implements Callable<Object> {
+
+    @Override
+    public Object call() throws Exception {
+      return service.execute(new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          started.countDown();
+          return release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+      });
+    }
+    
+  }
+  
+}
@@ -0,0 +1,345 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.bc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.interfaces.RSAPrivateKey;
+import java.util.Date;
+import java.util.List;
+
+import javax.security.auth.x500.X500Principal;
+
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AuthorityKeyIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.SubjectKeyIdentifier;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.X509v3CertificateBuilder;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.pkcs.PKCS12PfxPduBuilder;
+import org.bouncycastle.pkcs.PKCS12SafeBagBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.soulwing.credo.service.crypto.CertificateWrapper;
+import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+
+/**
+ * Unit tests for {@link BcCredentialBag}.
+ *
+ * @author Carl Harris
+ */
+public class BcCredentialBagTest {
+
+  private static final String CA_NAME = "CN=Some CA";
+  
+  private static final String OTHER_CA_NAME = "CN=Some Other CA";
+  
+  private static final String SUBJECT_NAME = "CN=Some Subject";
+  
+  private static final int MAX_LENGTH = 65536;
+  
+  private static KeyPair caKeys;
+  
+  private static KeyPair otherCaKeys;
+  
+  private static KeyPair subjectKeys;
+  
+  private static long serial;
+  
+  private BcCredentialBag bag = new BcCredentialBag(null);
+  
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    caKeys = newKeyPair();
+    otherCaKeys = newKeyPair();
+    subjectKeys = newKeyPair();
+  }
+  
+  @Test
+  public void testAddDerObjects() throws Exception {
+    X509CertificateHolder caCert = newCertificate(CA_NAME, caKeys, 
+        CA_NAME, caKeys);
+    X509CertificateHolder subjectCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys);
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    content.write(subjectKeys.getPrivate().getEncoded());
+    content.write(subjectCert.getEncoded());
+    content.write(caCert.getEncoded());
+    
+    assertThat(addAll(content.toByteArray()), is(equalTo(3)));
+    assertSubjectAndAuthority();
+  }
+  
+  @Test
+  public void testAddUnencryptedPkcs8() throws Exception {
+    assertThat(addAll(subjectKeys.getPrivate().getEncoded()), 
+        is(equalTo(1)));
+    PrivateKeyWrapper privateKey = bag.findPrivateKey();
+    assertThat(privateKey, is(notNullValue()));
+    assertThat(bag.isPassphraseRequired(), is(false));
+    assertThat(((RSAPrivateKey) privateKey.derive()).getModulus(), 
+        is(equalTo(((RSAPrivateKey) subjectKeys.getPrivate())
+            .getModulus())));
+  }
+
+  @Test
+  public void testAddPkcs12() throws Exception {
+    X509CertificateHolder caCert = newCertificate(CA_NAME, caKeys, 
+        CA_NAME, caKeys);
+    X509CertificateHolder subjectCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys);
+    PKCS12PfxPduBuilder builder = new PKCS12PfxPduBuilder();
+    builder.addData(new PKCS12SafeBagBuilder(PrivateKeyInfo.getInstance(
+        subjectKeys.getPrivate().getEncoded())).build());
+    builder.addData(new PKCS12SafeBagBuilder(subjectCert).build());
+    builder.addData(new PKCS12SafeBagBuilder(caCert).build());
+    
+    assertThat(addAll(builder.build(null, null).getEncoded()), 
+        is(equalTo(3)));
+    assertSubjectAndAuthority();
+  }
+
+  @Test(expected = IOException.class)
+  public void testAddMalformedCertificate() throws Exception {
+    addAll(newSequence(new DERSequence(), new DERSequence(),
+        new DEROctetString(new byte[200])));
+  }
+
+  @Test(expected = IOException.class)
+  public void testAddMalformedRsaPrivateKey() throws Exception {
+    ASN1Encodable[] elements = new ASN1Encodable[9];
+    elements[0] = new ASN1Integer(0);
+    for (int i = 1; i < elements.length; i++) {
+      elements[i] = new DEROctetString(new byte[20]);
+    }
+    addAll(newSequence(elements));
+  }
+
+  @Test(expected = IOException.class)
+  public void testAddMalformedPkcs12() throws Exception {
+    addAll(newSequence(new ASN1Integer(3), new DERSequence(),
+        new DEROctetString(new byte[200])));
+  }
+
+  @Test(expected = IOException.class)
+  public void testAddWhenDeclaredLengthExceedsLimit() throws Exception {
+    // a sequence that declares a length of almost 2 GB
+    byte[] content = new byte[] { 0x30, (byte) 0x84, 0x7f, -1, -1, -1, 
+        0x02, 0x01, 0x00 };
+    addAll(content);
+  }
+
+  @Test
+  public void testKeyIdentifiersWithoutExtensions() throws Exception {
+    BcCertificateWrapper certificate = new BcCertificateWrapper(
+        newCertificate(SUBJECT_NAME, subjectKeys, CA_NAME, caKeys, false));
+    assertThat(certificate.getSubjectKeyIdentifier(), is(nullValue()));
+    assertThat(certificate.getAuthorityKeyIdentifier(), is(nullValue()));
+  }
+
+  @Test
+  public void testFindCertificatesWithoutExtensions() throws Exception {
+    X509CertificateHolder caCert = newCertificate(CA_NAME, caKeys, 
+        CA_NAME, caKeys, false);
+    X509CertificateHolder subjectCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys, false);
+    
+    assertThat(addAll(subjectKeys.getPrivate().getEncoded(), 
+        subjectCert.getEncoded(), caCert.getEncoded()), is(equalTo(3)));
+    assertSubjectAndAuthority();
+  }
+
+  @Test
+  public void testFindSubjectCertificateByFingerprint() throws Exception {
+    X509CertificateHolder caCert = newCertificate(CA_NAME, caKeys, 
+        CA_NAME, caKeys);
+    X509CertificateHolder subjectCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys);
+    addAll(caCert.getEncoded(), subjectCert.getEncoded(), 
+        subjectKeys.getPrivate().getEncoded());
+    
+    CertificateWrapper certificate = bag.findSubjectCertificate(
+        bag.findPrivateKey());
+    assertThat(certificate.getSerialNumber(), 
+        is(equalTo(subjectCert.getSerialNumber())));
+  }
+
+  @Test
+  public void testFindSubjectCertificateWithDuplicates() throws Exception {
+    X509CertificateHolder subjectCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys);
+    X509CertificateHolder duplicateCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys);
+    addAll(subjectKeys.getPrivate().getEncoded(), 
+        subjectCert.getEncoded(), duplicateCert.getEncoded());
+    
+    PrivateKeyWrapper privateKey = bag.findPrivateKey();
+    CertificateWrapper certificate = bag.findSubjectCertificate(privateKey);
+    assertThat(certificate.getSerialNumber(), 
+        is(equalTo(subjectCert.getSerialNumber())));
+    assertThat(bag.removeObject(certificate), is(true));
+    assertThat(bag.findSubjectCertificate(privateKey).getSerialNumber(),
+        is(equalTo(duplicateCert.getSerialNumber())));
+    assertThat(bag.removeObject(bag.findSubjectCertificate(privateKey)), 
+        is(true));
+    assertThat(bag.findSubjectCertificate(privateKey), is(nullValue()));
+  }
+
+  @Test
+  public void testFindIssuerByAuthorityKeyIdentifier() throws Exception {
+    // a certificate with the issuer's name but a different key is first
+    X509CertificateHolder otherCaCert = newCertificate(CA_NAME, 
+        otherCaKeys, CA_NAME, otherCaKeys);
+    X509CertificateHolder caCert = newCertificate(CA_NAME, caKeys, 
+        CA_NAME, caKeys);
+    X509CertificateHolder subjectCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys);
+    addAll(subjectKeys.getPrivate().getEncoded(), subjectCert.getEncoded(),
+        otherCaCert.getEncoded(), caCert.getEncoded());
+    
+    List<CertificateWrapper> chain = bag.findAuthorityCertificates(
+        bag.findSubjectCertificate(bag.findPrivateKey()));
+    assertThat(chain.size(), is(equalTo(1)));
+    assertThat(chain.get(0).getSerialNumber(), 
+        is(equalTo(caCert.getSerialNumber())));
+  }
+
+  @Test
+  public void testFindIssuerBySubjectNameInOrderAdded() throws Exception {
+    X509CertificateHolder otherCaCert = newCertificate(CA_NAME, 
+        otherCaKeys, CA_NAME, otherCaKeys, false);
+    X509CertificateHolder caCert = newCertificate(CA_NAME, caKeys, 
+        CA_NAME, caKeys, false);
+    X509CertificateHolder subjectCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys, false);
+    addAll(subjectKeys.getPrivate().getEncoded(), subjectCert.getEncoded(),
+        otherCaCert.getEncoded(), caCert.getEncoded());
+    
+    List<CertificateWrapper> chain = bag.findAuthorityCertificates(
+        bag.findSubjectCertificate(bag.findPrivateKey()));
+    assertThat(chain.size(), is(equalTo(1)));
+    assertThat(chain.get(0).getSerialNumber(), 
+        is(equalTo(otherCaCert.getSerialNumber())));
+  }
+
+  @Test
+  public void testFindAuthorityCertificatesWhenCrossSigned() 
+      throws Exception {
+    // each CA certificate is issued by the other, so neither is self-signed
+    X509CertificateHolder caCert = newCertificate(CA_NAME, caKeys, 
+        OTHER_CA_NAME, otherCaKeys);
+    X509CertificateHolder otherCaCert = newCertificate(OTHER_CA_NAME, 
+        otherCaKeys, CA_NAME, caKeys);
+    X509CertificateHolder subjectCert = newCertificate(SUBJECT_NAME, 
+        subjectKeys, CA_NAME, caKeys);
+    addAll(subjectKeys.getPrivate().getEncoded(), subjectCert.getEncoded(),
+        caCert.getEncoded(), otherCaCert.getEncoded());
+    
+    List<CertificateWrapper> chain = bag.findAuthorityCertificates(
+        bag.findSubjectCertificate(bag.findPrivateKey()));
+    assertThat(chain.size(), is(equalTo(2)));
+    assertThat(chain.get(0).getSerialNumber(), 
+        is(equalTo(caCert.getSerialNumber())));
+    assertThat(chain.get(1).getSerialNumber(), 
+        is(equalTo(otherCaCert.getSerialNumber())));
+  }
+
+  private void assertSubjectAndAuthority() {
+    PrivateKeyWrapper privateKey = bag.findPrivateKey();
+    assertThat(privateKey, is(notNullValue()));
+    CertificateWrapper subjectCert = bag.findSubjectCertificate(privateKey);
+    assertThat(subjectCert, is(notNullValue()));
+    assertThat(subjectCert.getSubject(), 
+        is(equalTo(new X500Principal(SUBJECT_NAME))));
+    assertThat(bag.findAuthorityCertificates(subjectCert).size(), 
+        is(equalTo(1)));
+  }
+  
+  private int addAll(byte[] content) throws IOException {
+    return bag.addAllObjects(new ByteArrayInputStream(content), 
+        Integer.MAX_VALUE, MAX_LENGTH);
+  }
+  
+  private int addAll(byte[]... objects) throws IOException {
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    for (byte[] obj : objects) {
+      content.write(obj);
+    }
+    return addAll(content.toByteArray());
+  }
+  
+  private static byte[] newSequence(ASN1Encodable... elements)
+      throws IOException {
+    return new DERSequence(elements).getEncoded();
+  }
+  
+  private static KeyPair newKeyPair() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(1024);
+    return generator.generateKeyPair();
+  }
+  
+  private static X509CertificateHolder newCertificate(String subject, 
+      KeyPair subjectKeys, String issuer, KeyPair issuerKeys) 
+      throws Exception {
+    return newCertificate(subject, subjectKeys, issuer, issuerKeys, true);
+  }
+  
+  private static X509CertificateHolder newCertificate(String subject, 
+      KeyPair subjectKeys, String issuer, KeyPair issuerKeys, 
+      boolean keyIdentifiers) throws Exception {
+    Date notBefore = new Date();
+    Date notAfter = new Date(notBefore.getTime() + 86400000L);
+    X509v3CertificateBuilder builder = new JcaX509v3CertificateBuilder(
+        new X500Name(issuer), BigInteger.valueOf(++serial), notBefore, 
+        notAfter, new X500Name(subject), subjectKeys.getPublic());
+    if (keyIdentifiers) {
+      builder.addExtension(Extension.subjectKeyIdentifier, false, 
+          new SubjectKeyIdentifier(keyIdentifier(subjectKeys)));
+      builder.addExtension(Extension.authorityKeyIdentifier, false, 
+          new AuthorityKeyIdentifier(keyIdentifier(issuerKeys)));
+    }
+    return builder.build(new JcaContentSignerBuilder("SHA256withRSA")
+        .build(issuerKeys.getPrivate()));
+  }
+  
+  private static byte[] keyIdentifier(KeyPair keys) throws Exception {
+    return MessageDigest.getInstance("SHA-1").digest(
+        keys.getPublic().getEncoded());
+  }
+  
+}
@@ -0,0 +1,108 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.bc;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.security.KeyPairGenerator;
+
+import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
+import org.bouncycastle.pkcs.PKCS8EncryptedPrivateKeyInfo;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.soulwing.credo.service.crypto.IncorrectPassphraseException;
+
+/**
+ * Unit tests for {@link BcPBES2PKCS8EncryptionScheme}.
+ *
+ * @author Carl Harris
+ */
+public class BcPBES2PKCS8EncryptionSchemeTest {
+
+  private static final char[] PASSWORD = "password".toCharArray();
+
+  private static PrivateKeyInfo keyInfo;
+
+  private BcPBES2PKCS8EncryptionScheme scheme = 
+      new BcPBES2PKCS8EncryptionScheme();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(512);
+    keyInfo = PrivateKeyInfo.getInstance(
+        generator.generateKeyPair().getPrivate().getEncoded());
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    scheme.iterationCount = 1000;
+  }
+
+  @Test
+  public void testEncryptAndDecrypt() throws Exception {
+    PKCS8EncryptedPrivateKeyInfo encrypted = 
+        scheme.encrypt(keyInfo, PASSWORD);
+    assertThat(scheme.isSchemeOf(encrypted.getEncryptionAlgorithm()),
+        is(true));
+    assertThat(scheme.decrypt(encrypted, PASSWORD).getEncoded(),
+        is(equalTo(keyInfo.getEncoded())));
+  }
+
+  @Test(expected = IncorrectPassphraseException.class)
+  public void testDecryptWithIncorrectPassword() throws Exception {
+    PKCS8EncryptedPrivateKeyInfo encrypted = 
+        scheme.encrypt(keyInfo, PASSWORD);
+    scheme.decrypt(encrypted, "incorrect".toCharArray());
+  }
+
+  @Test
+  public void testIsCurrent() throws Exception {
+    PKCS8EncryptedPrivateKeyInfo encrypted = 
+        scheme.encrypt(keyInfo, PASSWORD);
+    assertThat(scheme.isCurrent(encrypted.getEncryptionAlgorithm()), 
+        is(true));
+    scheme.iterationCount = 4000;
+    assertThat(scheme.isCurrent(encrypted.getEncryptionAlgorithm()), 
+        is(false));
+  }
+
+  @Test
+  public void testIsSchemeOfLegacyScheme() throws Exception {
+    PKCS8EncryptedPrivateKeyInfo encrypted = 
+        new BcOpenSSLPKCS8EncryptionScheme().encrypt(keyInfo, PASSWORD);
+    assertThat(scheme.isSchemeOf(encrypted.getEncryptionAlgorithm()),
+        is(false));
+  }
+
+  @Test
+  public void testCalibrate() throws Exception {
+    scheme.calibrate(1);
+    assertThat(scheme.iterationCount, is(greaterThanOrEqualTo(
+        BcPBES2PKCS8EncryptionScheme.MIN_ITERATION_COUNT)));
+    assertThat(scheme.iterationCount, is(lessThanOrEqualTo(
+        BcPBES2PKCS8EncryptionScheme.MAX_ITERATION_COUNT)));
+  }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * File created on May 10, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import javax.crypto.SecretKey;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JcaDirectSecretKeyGeneratorStrategy}.
+ *
+ * @author Carl Harris
+ */
+public class JcaDirectSecretKeyGeneratorStrategyTest {
+
+  private JcaDirectSecretKeyGeneratorStrategy strategy = 
+      new JcaDirectSecretKeyGeneratorStrategy();
+
+  @Test
+  public void testGenerateSecretKey() throws Exception {
+    SecretKey key = strategy.generateSecretKey();
+    assertThat(key.getAlgorithm(), is(equalTo("AES")));
+    assertThat(key.getEncoded().length, is(equalTo(32)));
+    assertThat(strategy.generateSecretKey().getEncoded(), 
+        is(not(equalTo(key.getEncoded()))));
+  }
+
+}
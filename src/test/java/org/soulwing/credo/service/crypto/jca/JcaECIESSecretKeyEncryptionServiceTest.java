@@ -0,0 +1,67 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Security;
+import java.security.spec.ECGenParameterSpec;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.soulwing.credo.service.crypto.SecretKeyWrapper;
+
+/**
+ * Unit tests for {@link JcaECIESSecretKeyEncryptionService}.
+ *
+ * @author Carl Harris
+ */
+public class JcaECIESSecretKeyEncryptionServiceTest {
+
+  private JcaECIESSecretKeyEncryptionService service = 
+      new JcaECIESSecretKeyEncryptionService();
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    Security.addProvider(new BouncyCastleProvider());
+  }
+
+  @Test
+  public void testEncryptAndDerive() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"));
+    KeyPair keyPair = generator.generateKeyPair();
+    SecretKey secretKey = KeyGenerator.getInstance("AES").generateKey();
+
+    SecretKeyWrapper encrypted = service.encrypt(
+        new JcaSecretKeyWrapper(secretKey, null), keyPair.getPublic());
+    encrypted.setKey(keyPair.getPrivate());
+    assertThat(encrypted.derive().getEncoded(), 
+        is(equalTo(secretKey.getEncoded())));
+  }
+
+}
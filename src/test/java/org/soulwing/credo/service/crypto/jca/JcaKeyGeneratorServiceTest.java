@@ -0,0 +1,112 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.service.crypto.KeyPairType;
+import org.soulwing.credo.service.crypto.KeyPairWrapper;
+
+/**
+ * Unit tests for {@link JcaKeyGeneratorService}.
+ *
+ * @author Carl Harris
+ */
+public class JcaKeyGeneratorServiceTest {
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private KeyPairPool keyPairPool;
+
+  private JcaKeyGeneratorService service = new JcaKeyGeneratorService();
+
+  @Before
+  public void setUp() throws Exception {
+    service.keyPairPool = keyPairPool;
+  }
+
+  @Test
+  public void testGenerateRSAKeyPair() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(512);
+    final KeyPair keyPair = generator.generateKeyPair();
+    context.checking(new Expectations() { {
+      oneOf(keyPairPool).take(KeyPairType.RSA_2048.getKeySize());
+      will(returnValue(keyPair));
+    } });
+
+    KeyPairWrapper result = service.generateKeyPair(KeyPairType.RSA_2048);
+    assertThat(result.getPublic().derive(), 
+        is(sameInstance(keyPair.getPublic())));
+  }
+
+  @Test
+  public void testGenerateP256KeyPair() throws Exception {
+    assertFieldSize(service.generateKeyPair(KeyPairType.EC_P256), 256);
+  }
+
+  @Test
+  public void testGenerateP384KeyPair() throws Exception {
+    assertFieldSize(service.generateKeyPair(KeyPairType.EC_P384), 384);
+  }
+
+  @Test
+  public void testGenerateDefaultKeyPair() throws Exception {
+    service.keyPairType = KeyPairType.EC_P256.name();
+    assertFieldSize(service.generateKeyPair(), 256);
+  }
+
+  @Test
+  public void testStartupWhenDefaultIsCurveType() throws Exception {
+    service.keyPairType = KeyPairType.EC_P384.name();
+    service.onStartup(new Object());
+  }
+
+  @Test
+  public void testStartupWhenDefaultIsRSA() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(keyPairPool).replenish(KeyPairType.RSA_2048.getKeySize());
+    } });
+    service.onStartup(new Object());
+  }
+
+  private void assertFieldSize(KeyPairWrapper keyPair, int fieldSize) {
+    PublicKey publicKey = keyPair.getPublic().derive();
+    assertThat(publicKey.getAlgorithm(), is(equalTo("EC")));
+    assertThat(((ECPublicKey) publicKey).getParams().getCurve().getField()
+        .getFieldSize(), is(equalTo(fieldSize)));
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * File created on May 11, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.security.KeyFactory;
+import java.security.Signature;
+import java.util.Arrays;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link JcaPrimitiveCache}.
+ *
+ * @author Carl Harris
+ */
+public class JcaPrimitiveCacheTest {
+
+  private static final String TRANSFORM = "AES/CTR/NoPadding";
+
+  private static final byte[] PLAINTEXT = "plaintext".getBytes();
+
+  @Test
+  public void testGetCipherAfterRelease() throws Exception {
+    Cipher cipher = JcaPrimitiveCache.getCipher(TRANSFORM);
+    JcaPrimitiveCache.release(cipher);
+    Cipher other = JcaPrimitiveCache.getCipher(TRANSFORM);
+    assertThat(other, is(sameInstance(cipher)));
+    JcaPrimitiveCache.release(other);
+  }
+
+  @Test
+  public void testGetCipherWhileBorrowed() throws Exception {
+    Cipher cipher = JcaPrimitiveCache.getCipher(TRANSFORM);
+    Cipher other = JcaPrimitiveCache.getCipher(TRANSFORM);
+    assertThat(other, is(not(sameInstance(cipher))));
+    JcaPrimitiveCache.release(other);
+    JcaPrimitiveCache.release(cipher);
+  }
+
+  @Test
+  public void testReleaseDiscardsKey() throws Exception {
+    SecretKey key = KeyGenerator.getInstance("AES").generateKey();
+    Cipher cipher = JcaPrimitiveCache.getCipher(TRANSFORM);
+    cipher.init(Cipher.ENCRYPT_MODE, key);
+    byte[] iv = cipher.getIV();
+    JcaPrimitiveCache.release(cipher);
+
+    // the released cipher no longer encrypts using the caller's key
+    cipher = JcaPrimitiveCache.getCipher(TRANSFORM);
+    byte[] cipherText = cipher.doFinal(PLAINTEXT);
+    JcaPrimitiveCache.release(cipher);
+    Cipher decipher = Cipher.getInstance(TRANSFORM);
+    decipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+    assertThat(Arrays.equals(decipher.doFinal(cipherText), PLAINTEXT),
+        is(false));
+  }
+
+  @Test
+  public void testGetSignatureAfterRelease() throws Exception {
+    Signature signature = JcaPrimitiveCache.getSignature("SHA256withRSA");
+    JcaPrimitiveCache.release(signature);
+    Signature other = JcaPrimitiveCache.getSignature("SHA256withRSA");
+    assertThat(other, is(sameInstance(signature)));
+    JcaPrimitiveCache.release(other);
+  }
+
+  @Test
+  public void testGetKeyFactory() throws Exception {
+    assertThat(JcaPrimitiveCache.getKeyFactory("RSA"),
+        is(sameInstance(JcaPrimitiveCache.getKeyFactory("RSA"))));
+  }
+
+  @Test
+  public void testGetKeyFactoryOnOtherThread() throws Exception {
+    final AtomicReference<KeyFactory> other = new AtomicReference<>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          other.set(JcaPrimitiveCache.getKeyFactory("RSA"));
+        }
+        catch (Exception ex) {
+          throw new RuntimeException(ex);
+        }
+      }
+    };
+    thread.start();
+    thread.join();
+    assertThat(JcaPrimitiveCache.getKeyFactory("RSA"),
+        is(not(sameInstance(other.get()))));
+  }
+
+  @Test
+  public void testGetCertificateFactory() throws Exception {
+    assertThat(JcaPrimitiveCache.getCertificateFactory("X.509"),
+        is(sameInstance(JcaPrimitiveCache.getCertificateFactory("X.509"))));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    KeyFactory keyFactory = JcaPrimitiveCache.getKeyFactory("RSA");
+    JcaPrimitiveCache.clear();
+    KeyFactory other = JcaPrimitiveCache.getKeyFactory("RSA");
+    assertThat(other, is(not(sameInstance(keyFactory))));
+    // the cache is used again after it has been cleared
+    assertThat(JcaPrimitiveCache.getKeyFactory("RSA"),
+        is(sameInstance(other)));
+  }
+
+  @Test
+  public void testClearOtherThread() throws Exception {
+    final AtomicReference<KeyFactory> before = new AtomicReference<>();
+    final AtomicReference<KeyFactory> after = new AtomicReference<>();
+    final CyclicBarrier barrier = new CyclicBarrier(2);
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          before.set(JcaPrimitiveCache.getKeyFactory("RSA"));
+          barrier.await();
+          barrier.await();
+          after.set(JcaPrimitiveCache.getKeyFactory("RSA"));
+        }
+        catch (Exception ex) {
+          throw new RuntimeException(ex);
+        }
+      }
+    };
+    thread.start();
+    barrier.await();
+    JcaPrimitiveCache.clear();
+    barrier.await();
+    thread.join();
+    assertThat(after.get(), is(not(sameInstance(before.get()))));
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.security.Key;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.service.crypto.SecretKeyEncryptionService;
+import org.soulwing.credo.service.crypto.SecretKeyWrapper;
+import org.soulwing.credo.service.crypto.UnsupportedKeyTypeException;
+
+/**
+ * Unit tests for {@link JcaPublicKeySecretKeyEncryptionService}.
+ *
+ * @author Carl Harris
+ */
+public class JcaPublicKeySecretKeyEncryptionServiceTest {
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private SecretKeyEncryptionService rsaEncryptionService;
+
+  @Mock
+  private SecretKeyEncryptionService ecEncryptionService;
+
+  @Mock
+  private SecretKeyWrapper secretKey;
+
+  @Mock
+  private SecretKeyWrapper encryptedKey;
+
+  @Mock
+  private Key key;
+
+  private JcaPublicKeySecretKeyEncryptionService service =
+      new JcaPublicKeySecretKeyEncryptionService();
+
+  @Before
+  public void setUp() throws Exception {
+    service.rsaEncryptionService = rsaEncryptionService;
+    service.ecEncryptionService = ecEncryptionService;
+  }
+
+  @Test
+  public void testEncryptWithRSAKey() throws Exception {
+    context.checking(algorithmExpectations("RSA"));
+    context.checking(new Expectations() { {
+      oneOf(rsaEncryptionService).encrypt(secretKey, key);
+      will(returnValue(encryptedKey));
+    } });
+    assertThat(service.encrypt(secretKey, key), 
+        is(sameInstance(encryptedKey)));
+  }
+
+  @Test
+  public void testEncryptWithECKey() throws Exception {
+    context.checking(algorithmExpectations("EC"));
+    context.checking(new Expectations() { {
+      oneOf(ecEncryptionService).encrypt(secretKey, key);
+      will(returnValue(encryptedKey));
+    } });
+    assertThat(service.encrypt(secretKey, key), 
+        is(sameInstance(encryptedKey)));
+  }
+
+  @Test(expected = UnsupportedKeyTypeException.class)
+  public void testEncryptWithUnsupportedKey() throws Exception {
+    context.checking(algorithmExpectations("DSA"));
+    service.encrypt(secretKey, key);
+  }
+
+  private Expectations algorithmExpectations(final String algorithm) {
+    return new Expectations() { {
+      allowing(key).getAlgorithm();
+      will(returnValue(algorithm));
+    } };
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * File created on May 5, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.crypto.jca;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link KeyPairPoolBean}.
+ *
+ * @author Carl Harris
+ */
+public class KeyPairPoolBeanTest {
+
+  private static final int KEY_SIZE = 512;
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private ManagedExecutorService executorService;
+
+  private KeyPairPoolBean pool = new KeyPairPoolBean();
+
+  @Before
+  public void setUp() throws Exception {
+    pool.executorService = executorService;
+    pool.lowWatermark = 1;
+    pool.highWatermark = 2;
+    pool.init();
+  }
+
+  @Test
+  public void testTakeWhenEmpty() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(executorService).execute(with(any(Runnable.class)));
+    } });
+
+    assertThat(pool.take(KEY_SIZE), is(notNullValue()));
+    assertThat(pool.getMissCount(), is(equalTo(1L)));
+    assertThat(pool.getHitCount(), is(equalTo(0L)));
+  }
+
+  @Test
+  public void testTakeAfterRefill() throws Exception {
+    pool.refill(KEY_SIZE);
+    assertThat(pool.getDepth(KEY_SIZE), is(equalTo(2)));
+
+    assertThat(pool.take(KEY_SIZE), is(notNullValue()));
+    assertThat(pool.getDepth(KEY_SIZE), is(equalTo(1)));
+    assertThat(pool.getHitCount(), is(equalTo(1L)));
+    assertThat(pool.getMissCount(), is(equalTo(0L)));
+  }
+
+  @Test
+  public void testReplenishWhileRefillInProgress() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(executorService).execute(with(any(Runnable.class)));
+    } });
+
+    pool.replenish(KEY_SIZE);
+    pool.replenish(KEY_SIZE);
+  }
+
+  @Test
+  public void testReplenishWhenRejected() throws Exception {
+    context.checking(new Expectations() { {
+      exactly(2).of(executorService).execute(with(any(Runnable.class)));
+      will(throwException(new RejectedExecutionException()));
+    } });
+
+    pool.replenish(KEY_SIZE);
+    pool.replenish(KEY_SIZE);
+  }
+
+}
@@ -0,0 +1,341 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.exporter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.enterprise.concurrent.ManagedExecutorService;
+
+import org.jmock.Expectations;
+import org.jmock.api.Invocation;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.jmock.lib.action.CustomAction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.service.TimeOfDayService;
+import org.soulwing.credo.service.credential.ExportDownload;
+import org.soulwing.credo.service.credential.ExportJob;
+import org.soulwing.credo.service.credential.ExportPreparation;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
+
+/**
+ * Unit tests for {@link ExportSpoolBean}.
+ *
+ * @author Carl Harris
+ */
+public class ExportSpoolBeanTest {
+
+  private static final String OWNER = "someUser";
+  
+  private static final String OTHER_OWNER = "otherUser";
+  
+  private static final byte[] CONTENT = "someContent".getBytes();
+  
+  private static final long TIME_TO_LIVE = 60;
+  
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+  
+  @Mock
+  private ManagedExecutorService executorService;
+  
+  @Mock
+  private TimeOfDayService timeOfDayService;
+  
+  @Mock
+  private ExportPreparation preparation;
+  
+  @Mock
+  private Callable<ExportPreparation> task;
+  
+  private final List<Runnable> deferredTasks = new ArrayList<>();
+  
+  private boolean deferTasks;
+  
+  private boolean rejectTasks;
+  
+  private long now;
+  
+  private ExportSpoolBean spool = new ExportSpoolBean();
+  
+  @Before
+  public void setUp() throws Exception {
+    spool.executorService = executorService;
+    spool.timeOfDayService = timeOfDayService;
+    spool.timeToLive = TIME_TO_LIVE;
+    spool.init();
+    context.checking(new Expectations() { { 
+      allowing(timeOfDayService).getCurrent();
+      will(new CustomAction("current time") {
+        @Override
+        public Object invoke(Invocation invocation) throws Throwable {
+          return new Date(now);
+        }
+      });
+      allowing(executorService).execute(with(any(Runnable.class)));
+      will(new CustomAction("run task") {
+        @Override
+        public Object invoke(Invocation invocation) throws Throwable {
+          Runnable runnable = (Runnable) invocation.getParameter(0);
+          if (rejectTasks) {
+            throw new RejectedExecutionException();
+          }
+          if (deferTasks) {
+            deferredTasks.add(runnable);
+          }
+          else {
+            runnable.run();
+          }
+          return null;
+        }
+      });
+    } });
+  }
+  
+  @After
+  public void tearDown() throws Exception {
+    spool.destroy();
+  }
+  
+  @Test
+  public void testSubmitAndDownload() throws Exception {
+    context.checking(preparationExpectations());
+    ExportJob job = spool.submit(OWNER, task);
+    assertThat(spool.findJob(OWNER, job.getId()), is(sameInstance(job)));
+    assertThat(job.getState(), is(equalTo(ExportJob.State.COMPLETE)));
+    assertThat(job.getDownloadToken(), is(notNullValue()));
+    
+    ExportDownload download = spool.claim(OWNER, job.getDownloadToken());
+    assertThat(download, is(notNullValue()));
+    assertThat(download.getFileName(), is(equalTo("someFileName")));
+    assertThat(download.getSize(), is(equalTo((long) CONTENT.length)));
+    
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    download.writeContent(outputStream);
+    assertThat(outputStream.toByteArray(), is(equalTo(CONTENT)));
+    assertThat(spool.findJob(OWNER, job.getId()), is(nullValue()));
+  }
+  
+  @Test
+  public void testSpoolFileIsEncrypted() throws Exception {
+    context.checking(preparationExpectations());
+    spool.submit(OWNER, task);
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = 
+        Files.newDirectoryStream(spool.getDirectory())) {
+      for (Path file : stream) {
+        files.add(file);
+      }
+    }
+    assertThat(files.size(), is(equalTo(1)));
+    byte[] content = Files.readAllBytes(files.get(0));
+    assertThat(content.length, is(equalTo(CONTENT.length)));
+    assertThat(content, is(not(equalTo(CONTENT))));
+  }
+  
+  @Test
+  public void testWriteContentDiscardsFile() throws Exception {
+    context.checking(preparationExpectations());
+    ExportJob job = spool.submit(OWNER, task);
+    ExportDownload download = spool.claim(OWNER, job.getDownloadToken());
+    download.writeContent(new ByteArrayOutputStream());
+    try (DirectoryStream<Path> stream = 
+        Files.newDirectoryStream(spool.getDirectory())) {
+      assertThat(stream.iterator().hasNext(), is(false));
+    }
+  }
+  
+  @Test
+  public void testInitRemovesStaleDirectories() throws Exception {
+    Path stale = Files.createTempDirectory(ExportSpoolBean.DIRECTORY_PREFIX);
+    Files.createFile(stale.resolve(ExportSpoolBean.LOCK_FILE));
+    Files.createTempFile(stale, "export", null);
+    ExportSpoolBean other = new ExportSpoolBean();
+    other.init();
+    try {
+      assertThat(Files.exists(stale), is(false));
+    }
+    finally {
+      other.destroy();
+    }
+  }
+  
+  @Test
+  public void testInitKeepsDirectoriesInUse() throws Exception {
+    // a directory without a lock file was not created by a spool
+    Path unknown = Files.createTempDirectory(
+        ExportSpoolBean.DIRECTORY_PREFIX);
+    ExportSpoolBean other = new ExportSpoolBean();
+    other.init();
+    try {
+      assertThat(Files.exists(spool.getDirectory()), is(true));
+      assertThat(Files.exists(unknown), is(true));
+    }
+    finally {
+      other.destroy();
+      Files.delete(unknown);
+    }
+  }
+  
+  @Test
+  public void testSubmitWhenExecutorRejectsTask() throws Exception {
+    spool.maxJobsPerUser = 1;
+    rejectTasks = true;
+    try {
+      spool.submit(OWNER, task);
+      throw new AssertionError("expected CryptoOverloadException");
+    }
+    catch (CryptoOverloadException ex) {
+      assertThat(ex.getRetryAfter(), 
+          is(equalTo(ExportSpoolBean.JOB_RETRY_AFTER)));
+    }
+    // the rejected job does not count against the limit
+    rejectTasks = false;
+    deferTasks = true;
+    assertThat(spool.submit(OWNER, task), is(notNullValue()));
+  }
+  
+  @Test
+  public void testSubmitWhenTooManyJobs() throws Exception {
+    spool.maxJobsPerUser = 1;
+    deferTasks = true;
+    spool.submit(OWNER, task);
+    try {
+      spool.submit(OWNER, task);
+      throw new AssertionError("expected CryptoOverloadException");
+    }
+    catch (CryptoOverloadException ex) {
+      assertThat(ex.getRetryAfter(), 
+          is(equalTo(ExportSpoolBean.JOB_RETRY_AFTER)));
+    }
+    // the limit applies to each owner separately
+    spool.submit(OTHER_OWNER, task);
+    
+    context.checking(preparationExpectations());
+    context.checking(preparationExpectations());
+    for (Runnable runnable : deferredTasks) {
+      runnable.run();
+    }
+    // a finished job no longer counts against the limit
+    assertThat(spool.submit(OWNER, task), is(notNullValue()));
+  }
+  
+  @Test
+  public void testClaimTwice() throws Exception {
+    context.checking(preparationExpectations());
+    ExportJob job = spool.submit(OWNER, task);
+    String token = job.getDownloadToken();
+    assertThat(spool.claim(OWNER, token), is(notNullValue()));
+    assertThat(spool.claim(OWNER, token), is(nullValue()));
+  }
+  
+  @Test
+  public void testOtherOwner() throws Exception {
+    context.checking(preparationExpectations());
+    ExportJob job = spool.submit(OWNER, task);
+    assertThat(spool.findJob(OTHER_OWNER, job.getId()), is(nullValue()));
+    assertThat(spool.claim(OTHER_OWNER, job.getDownloadToken()), 
+        is(nullValue()));
+  }
+  
+  @Test
+  public void testClaimAfterTimeToLive() throws Exception {
+    context.checking(preparationExpectations());
+    ExportJob job = spool.submit(OWNER, task);
+    now += TIME_TO_LIVE * 1000;
+    assertThat(spool.claim(OWNER, job.getDownloadToken()), is(nullValue()));
+  }
+  
+  @Test
+  public void testTaskFailure() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(task).call();
+      will(throwException(new IOException()));
+    } });
+    ExportJob job = spool.submit(OWNER, task);
+    assertThat(job.getState(), is(equalTo(ExportJob.State.FAILED)));
+    assertThat(job.getDownloadToken(), is(nullValue()));
+    assertThat(job.getRetryAfter(), is(equalTo(0L)));
+  }
+  
+  @Test
+  public void testTaskOverload() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(task).call();
+      will(throwException(new CryptoOverloadException(5)));
+    } });
+    ExportJob job = spool.submit(OWNER, task);
+    assertThat(job.getState(), is(equalTo(ExportJob.State.FAILED)));
+    assertThat(job.getRetryAfter(), is(equalTo(5L)));
+  }
+  
+  @Test
+  public void testPurge() throws Exception {
+    context.checking(preparationExpectations());
+    ExportJob job = spool.submit(OWNER, task);
+    spool.purge();
+    assertThat(spool.findJob(OWNER, job.getId()), is(sameInstance(job)));
+    now += TIME_TO_LIVE * 1000;
+    spool.purge();
+    assertThat(spool.findJob(OWNER, job.getId()), is(nullValue()));
+  }
+  
+  private Expectations preparationExpectations() throws Exception {
+    return new Expectations() { { 
+      oneOf(task).call();
+      will(returnValue(preparation));
+      oneOf(preparation).writeContent(with(any(OutputStream.class)));
+      will(new CustomAction("write content") {
+        @Override
+        public Object invoke(Invocation invocation) throws Throwable {
+          ((OutputStream) invocation.getParameter(0)).write(CONTENT);
+          return null;
+        }
+      });
+      allowing(preparation).getFileName();
+      will(returnValue("someFileName"));
+      allowing(preparation).getContentType();
+      will(returnValue("application/octet-stream"));
+      allowing(preparation).getCharacterEncoding();
+      will(returnValue(null));
+    } };
+  }
+  
+}
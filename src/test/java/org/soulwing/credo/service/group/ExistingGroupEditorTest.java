@@ -34,11 +34,13 @@ import org.jmock.auto.Mock;
 import org.junit.Test;
 import org.soulwing.credo.UserGroupMember;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
+import org.soulwing.credo.security.MembershipCache;
 import org.soulwing.credo.security.OwnerAccessControlException;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.MergeConflictException;
 import org.soulwing.credo.service.PassphraseException;
 import org.soulwing.credo.service.UserAccessException;
+import org.soulwing.credo.service.UserContextSnapshot;
 
 /**
  * Unit tests for {@link ExistingGroupEditor}.
@@ -55,6 +57,12 @@ public class ExistingGroupEditorTest
   
   @Mock
   private UserGroupMember member;
+
+  @Mock
+  private MembershipCache membershipCache;
+
+  @Mock
+  private UserContextSnapshot userContextSnapshot;
   
   /**
    * {@inheritDoc}
@@ -73,6 +81,8 @@ public class ExistingGroupEditorTest
     editor.setGroup(group);
     editor.setPassword(PASSWORD);
     editor.memberRepository = memberRepository;
+    editor.membershipCache = membershipCache;
+    editor.userContextSnapshot = userContextSnapshot;
   }
 
   @Test(expected = PassphraseException.class)
@@ -155,6 +165,8 @@ public class ExistingGroupEditorTest
           with(PROFILE_ID));
       will(returnValue(member));
       oneOf(memberRepository).remove(member);
+      oneOf(membershipCache).clear();
+      oneOf(userContextSnapshot).invalidate();
     } };
   }
 
@@ -34,6 +34,7 @@ import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.service.Errors;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 
 /**
  * Unit tests for {@link GroupResolverBean}.
@@ -45,6 +46,8 @@ public class GroupResolverBeanTest {
   private static final String GROUP_NAME = "someGroup";
   
   private static final String LOGIN_NAME = "someUser";
+
+  private static final Long GROUP_ID = -1L;
   
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleMockery();
@@ -58,6 +61,9 @@ public class GroupResolverBeanTest {
   @Mock
   private UserContextService userContextService;
 
+  @Mock
+  private UserContextSnapshot userContextSnapshot;
+
   @Mock
   private GroupEditor editor;
   
@@ -74,6 +80,7 @@ public class GroupResolverBeanTest {
     bean.groupRepository = groupRepository;
     bean.groupService = groupService;
     bean.userContextService = userContextService;
+    bean.userContextSnapshot = userContextSnapshot;
   }
 
   @Test
@@ -82,6 +89,17 @@ public class GroupResolverBeanTest {
     assertThat(bean.resolveGroup(GROUP_NAME, errors), is(sameInstance(group)));
   }
   
+  @Test
+  public void testResolveWhenGroupInSnapshot() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(userContextSnapshot).getGroupId(GROUP_NAME);
+      will(returnValue(GROUP_ID));
+      oneOf(groupRepository).findById(GROUP_ID);
+      will(returnValue(group));
+    } });
+    assertThat(bean.resolveGroup(GROUP_NAME, errors), is(sameInstance(group)));
+  }
+
   @Test
   public void testResolveWhenGroupNotFound() throws Exception {
     context.checking(findGroupExpectations(returnValue(null)));
@@ -93,6 +111,8 @@ public class GroupResolverBeanTest {
   private Expectations findGroupExpectations(final Action outcome) 
       throws Exception {
     return new Expectations() { {
+      oneOf(userContextSnapshot).getGroupId(GROUP_NAME);
+      will(returnValue(null));
       oneOf(userContextService).getLoginName();
       will(returnValue(LOGIN_NAME));
       oneOf(groupRepository).findByGroupName(with(GROUP_NAME), 
@@ -20,11 +20,13 @@ package org.soulwing.credo.service.group;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 
@@ -34,16 +36,14 @@ import org.jmock.integration.junit4.JUnitRuleMockery;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
-import org.soulwing.credo.Credential;
 import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.UserGroupMember;
 import org.soulwing.credo.UserProfile;
-import org.soulwing.credo.repository.CredentialRepository;
-import org.soulwing.credo.repository.CredentialRequestRepository;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
 import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 import org.soulwing.credo.service.UserDetail;
 
 /**
@@ -68,12 +68,6 @@ public class GroupServiceBeanTest {
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleMockery();
   
-  @Mock
-  private CredentialRepository credentialRepository;
-  
-  @Mock
-  private CredentialRequestRepository requestRepository;
-  
   @Mock
   private UserGroupRepository groupRepository;
   
@@ -82,9 +76,9 @@ public class GroupServiceBeanTest {
   
   @Mock
   private UserContextService userContextService;
-  
+
   @Mock
-  private Credential credential;
+  private UserContextSnapshot userContextSnapshot;
   
   @Mock
   private UserGroup group1;
@@ -109,11 +103,10 @@ public class GroupServiceBeanTest {
   
   @Before
   public void setUp() throws Exception {
-    service.credentialRepository = credentialRepository;
-    service.requestRepository = requestRepository;
     service.groupRepository = groupRepository;
     service.memberRepository = memberRepository;
     service.userContextService = userContextService;    
+    service.userContextSnapshot = userContextSnapshot;
   }
   
   @Test
@@ -150,6 +143,7 @@ public class GroupServiceBeanTest {
     assertThat(i.hasNext(), is(true));
     GroupDetail group = i.next();
     assertThat(group.getName(), is(equalTo(GROUP_NAME1)));
+    assertThat(group.isInUse(), is(false));
     
     Iterator<UserDetail> j = group.getMembers().iterator();
     assertThat(j.hasNext(), is(true));
@@ -189,13 +183,13 @@ public class GroupServiceBeanTest {
       will(returnValue(LOGIN_NAME2));
     } });
     
-    context.checking(resolveInUseExpectations());
+    context.checking(resolveInUseExpectations(GROUP_ID2));
     Collection<GroupDetail> groups = service.findAllGroups();
-    System.out.println(groups);
     Iterator<GroupDetail> i = groups.iterator();
     assertThat(i.hasNext(), is(true));
     GroupDetail group = i.next();
     assertThat(group.getName(), is(equalTo(GROUP_NAME1)));
+    assertThat(group.isInUse(), is(true));
     
     Iterator<UserDetail> j = group.getMembers().iterator();
     assertThat(j.hasNext(), is(true));
@@ -206,6 +200,7 @@ public class GroupServiceBeanTest {
     assertThat(i.hasNext(), is(true));
     group = i.next();
     assertThat(group.getName(), is(equalTo(GROUP_NAME2)));
+    assertThat(group.isInUse(), is(true));
     
     j = group.getMembers().iterator();
     assertThat(j.hasNext(), is(true));
@@ -216,30 +211,25 @@ public class GroupServiceBeanTest {
     assertThat(i.hasNext(), is(false));
   }
   
-  private Expectations resolveInUseExpectations() throws Exception {
+  @SuppressWarnings("unchecked")
+  private Expectations resolveInUseExpectations(final Long... inUse) 
+      throws Exception {
     return new Expectations() { { 
       allowing(group1).getId();
       will(returnValue(GROUP_ID1));
-      allowing(credentialRepository).findAllByOwnerId(with(GROUP_ID1));
-      will(returnValue(Collections.emptyList()));
       allowing(group2).getId();
       will(returnValue(GROUP_ID2));
-      allowing(credentialRepository).findAllByOwnerId(with(GROUP_ID2));
-      will(returnValue(Collections.emptyList()));
-      allowing(group1).getId();
-      will(returnValue(GROUP_ID1));
-      allowing(requestRepository).findAllByOwnerId(with(GROUP_ID1));
-      will(returnValue(Collections.emptyList()));
-      allowing(group2).getId();
-      will(returnValue(GROUP_ID2));
-      allowing(requestRepository).findAllByOwnerId(with(GROUP_ID2));
-      will(returnValue(Collections.emptyList()));
+      oneOf(groupRepository).findIdsInUse(
+          (Collection<Long>) with(hasItem(GROUP_ID1)));
+      will(returnValue(new HashSet<>(Arrays.asList(inUse))));
     } };
   }
   
   @Test
   public void testGroupIsExistingGroup() throws Exception {
     context.checking(new Expectations() { {
+      oneOf(userContextSnapshot).getGroupId(GROUP_NAME1);
+      will(returnValue(null));
       oneOf(userContextService).getLoginName();
       will(returnValue(LOGIN_NAME1));
       oneOf(groupRepository).findByGroupName(with(GROUP_NAME1), 
@@ -253,9 +243,21 @@ public class GroupServiceBeanTest {
     assertThat(service.isExistingGroup(GROUP_NAME1), is(true));
   }
 
+  @Test
+  public void testGroupIsExistingGroupInSnapshot() throws Exception {
+    context.checking(new Expectations() { {
+      oneOf(userContextSnapshot).getGroupId(GROUP_NAME1);
+      will(returnValue(-1L));
+    } });
+    
+    assertThat(service.isExistingGroup(GROUP_NAME1), is(true));
+  }
+
   @Test
   public void testGroupIsNotExistingGroup() throws Exception {
     context.checking(new Expectations() { {
+      oneOf(userContextSnapshot).getGroupId(GROUP_NAME1);
+      will(returnValue(null));
       oneOf(userContextService).getLoginName();
       will(returnValue(LOGIN_NAME1));
       oneOf(groupRepository).findByGroupName(with(GROUP_NAME1), 
@@ -269,6 +271,8 @@ public class GroupServiceBeanTest {
   @Test(expected = GroupAccessException.class)
   public void testGroupIsExistingGroupAndUserIsNotMember() throws Exception {
     context.checking(new Expectations() { {
+      oneOf(userContextSnapshot).getGroupId(GROUP_NAME1);
+      will(returnValue(null));
       oneOf(userContextService).getLoginName();
       will(returnValue(LOGIN_NAME1));
       oneOf(groupRepository).findByGroupName(with(GROUP_NAME1), 
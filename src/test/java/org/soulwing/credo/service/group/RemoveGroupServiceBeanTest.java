@@ -39,9 +39,11 @@ import org.soulwing.credo.UserGroup;
 import org.soulwing.credo.UserGroupMember;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
 import org.soulwing.credo.repository.UserGroupRepository;
+import org.soulwing.credo.security.MembershipCache;
 import org.soulwing.credo.service.Errors;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 
 /**
  * Unit tests for {@link RemoveGroupServiceBean}.
@@ -68,6 +70,12 @@ public class RemoveGroupServiceBeanTest {
   @Mock
   private UserContextService userContextService;
   
+  @Mock
+  private MembershipCache membershipCache;
+
+  @Mock
+  private UserContextSnapshot userContextSnapshot;
+
   @Mock
   private UserGroup group;
   
@@ -84,6 +92,8 @@ public class RemoveGroupServiceBeanTest {
     service.groupRepository = groupRepository;
     service.memberRepository = memberRepository;
     service.userContextService = userContextService;    
+    service.membershipCache = membershipCache;
+    service.userContextSnapshot = userContextSnapshot;
   }
   
   @Test
@@ -103,6 +113,10 @@ public class RemoveGroupServiceBeanTest {
     context.checking(findGroupExpectations(returnValue(group)));
     context.checking(findMemberExpectations(returnValue(member)));
     context.checking(removeGroupExpectations(returnValue(null)));
+    context.checking(new Expectations() { { 
+      oneOf(membershipCache).clear();
+      oneOf(userContextSnapshot).invalidate();
+    } });
     service.removeGroup(GROUP_ID, errors);
   }
 
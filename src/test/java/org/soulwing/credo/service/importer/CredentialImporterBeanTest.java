@@ -21,9 +21,6 @@ package org.soulwing.credo.service.importer;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.emptyArray;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigInteger;
 import java.util.Collections;
 import java.util.Date;
@@ -85,36 +82,27 @@ public class CredentialImporterBeanTest {
   }
   
   @Test
-  public void testLoadFile() throws Exception {
-    final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+  public void testLoadContent() throws Exception {
+    final CredentialBag content = context.mock(CredentialBag.class, 
+        "content");
     context.checking(new Expectations() { { 
-      oneOf(bag).addAllObjects(inputStream);
+      oneOf(bag).addAllObjects(content);
       will(returnValue(1));
     } });
     
-    importer.loadFile(inputStream);    
+    importer.loadContent(content);    
   }
   
-  @Test(expected = IOException.class)
-  public void testLoadFileThrowsIOException() throws Exception {
-    final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
-    context.checking(new Expectations() { { 
-      oneOf(bag).addAllObjects(inputStream);
-      will(throwException(new IOException()));
-    } });
-    
-    importer.loadFile(inputStream);
-  }
-
   @Test(expected = NoContentException.class)
-  public void testLoadFileWithNoContent() throws Exception {
-    final InputStream inputStream = new ByteArrayInputStream(new byte[0]);
+  public void testLoadContentWithNoContent() throws Exception {
+    final CredentialBag content = context.mock(CredentialBag.class, 
+        "content");
     context.checking(new Expectations() { { 
-      oneOf(bag).addAllObjects(inputStream);
+      oneOf(bag).addAllObjects(content);
       will(returnValue(0));
     } });
     
-    importer.loadFile(inputStream);
+    importer.loadContent(content);
   }
   
   @Test(expected = ImportException.class)
@@ -18,9 +18,12 @@
  */
 package org.soulwing.credo.service.protect;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.jmock.Expectations.returnValue;
 
 import java.security.PrivateKey;
+import java.util.Arrays;
 
 import javax.crypto.SecretKey;
 
@@ -40,6 +43,7 @@ import org.soulwing.credo.UserProfile;
 import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.service.ProtectionParameters;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 import org.soulwing.credo.service.crypto.PrivateKeyDecoder;
 import org.soulwing.credo.service.crypto.PrivateKeyEncryptionService;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
@@ -75,6 +79,9 @@ public class CredentialProtectionServiceBeanTest {
   
   @Mock
   private UserContextService userContextService;
+
+  @Mock
+  private UserContextSnapshot userContextSnapshot;
   
   @Mock
   private PrivateKeyEncryptionService privateKeyEncryptionService;
@@ -122,6 +129,11 @@ public class CredentialProtectionServiceBeanTest {
     service.aesDecoder = aesDecoder;
     service.userContextService = userContextService;
     service.privateKeyEncryptionService = privateKeyEncryptionService;
+    service.userContextSnapshot = userContextSnapshot;
+    context.checking(new Expectations() { {
+      allowing(userContextSnapshot).getGroupId(with(any(String.class)));
+      will(returnValue(null));
+    } });
   }
 
   @Test
@@ -154,6 +166,33 @@ public class CredentialProtectionServiceBeanTest {
     service.unprotect(credential, protection);
   }
   
+  @Test
+  public void testUnprotectAllUnwrapsGroupKeyOnce() throws Exception {
+    context.checking(new Expectations() { {
+      allowing(userContextService).getLoginName();
+      will(returnValue(LOGIN_NAME));
+      exactly(2).of(credential).getOwner();
+      will(returnValue(group));
+      allowing(group).getId();
+      will(returnValue(-1L));
+      allowing(group).getName();
+      will(returnValue(GROUP_NAME));
+      oneOf(groupRepository).findByGroupName(
+          with(same(GROUP_NAME)), with(same(LOGIN_NAME)));
+      will(returnValue(group));
+      oneOf(groupProtectionService).unprotect(with(same(group)), 
+          with(same(PASSWORD)));
+      will(returnValue(groupSecretKeyWrapper));
+      oneOf(groupSecretKeyWrapper).derive();
+      will(returnValue(groupSecretKey));
+    } });
+    context.checking(unwrapCredentialPrivateKeyExpectations());
+    context.checking(unwrapCredentialPrivateKeyExpectations());
+    
+    assertThat(service.unprotect(Arrays.asList(credential, credential), 
+        PASSWORD), contains(credentialPrivateKey, credentialPrivateKey));
+  }
+  
   private Expectations groupExpectations(final Action outcome) {
     return new Expectations() { {
       allowing(userContextService).getLoginName();
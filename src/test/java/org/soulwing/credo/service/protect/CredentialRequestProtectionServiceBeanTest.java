@@ -40,6 +40,7 @@ import org.soulwing.credo.UserProfile;
 import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.service.ProtectionParameters;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.UserContextSnapshot;
 import org.soulwing.credo.service.crypto.PrivateKeyDecoder;
 import org.soulwing.credo.service.crypto.PrivateKeyEncryptionService;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
@@ -75,6 +76,9 @@ public class CredentialRequestProtectionServiceBeanTest {
   
   @Mock
   private UserContextService userContextService;
+
+  @Mock
+  private UserContextSnapshot userContextSnapshot;
   
   @Mock
   private PrivateKeyEncryptionService privateKeyEncryptionService;
@@ -122,6 +126,11 @@ public class CredentialRequestProtectionServiceBeanTest {
     service.aesDecoder = aesDecoder;
     service.userContextService = userContextService;
     service.privateKeyEncryptionService = privateKeyEncryptionService;
+    service.userContextSnapshot = userContextSnapshot;
+    context.checking(new Expectations() { {
+      allowing(userContextSnapshot).getGroupId(with(any(String.class)));
+      will(returnValue(null));
+    } });
   }
 
   @Test
@@ -0,0 +1,193 @@
+/*
+ * File created on May 6, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.protect;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Date;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.service.TimeOfDayService;
+import org.soulwing.credo.service.crypto.SecretKeyWrapper;
+
+/**
+ * Unit tests for {@link GroupKeyHolderBean}.
+ *
+ * @author Carl Harris
+ */
+public class GroupKeyHolderBeanTest {
+
+  private static final Long GROUP_ID = -1L;
+
+  private static final Long VERSION = 1L;
+
+  private static final long TIMEOUT = GroupKeyHolderBean.TIMEOUT_DURATION;
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private KeyExpiryService keyExpiryService;
+  
+  @Mock
+  private TimeOfDayService timeOfDayService;
+
+  @Mock
+  private UserGroup group;
+
+  @Mock
+  private SecretKeyWrapper secretKey;
+
+  private GroupKeyEvictionRegistry evictionRegistry = 
+      new GroupKeyEvictionRegistry();
+  
+  private GroupKeyHolderBean bean;
+
+  @Before
+  public void setUp() throws Exception {
+    bean = newBean();
+    context.checking(new Expectations() { {
+      allowing(group).getId();
+      will(returnValue(GROUP_ID));
+      allowing(keyExpiryService).watch(with(any(ExpiringKeyHolder.class)));
+    } });
+  }
+
+  @Test
+  public void testPutAndGetSecretKey() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(versionExpectations(VERSION));
+    bean.putSecretKey(group, secretKey);
+    assertThat(bean.getSecretKey(group), is(sameInstance(secretKey)));
+  }
+
+  @Test
+  public void testGetSecretKeyWhenVersionChanged() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(new Expectations() { {
+      allowing(group).getVersion();
+      will(onConsecutiveCalls(returnValue(VERSION),
+          returnValue(VERSION + 1)));
+    } });
+    bean.putSecretKey(group, secretKey);
+    assertThat(bean.getSecretKey(group), is(nullValue()));
+  }
+
+  @Test
+  public void testGetSecretKeyAfterTimeout() throws Exception {
+    context.checking(timeExpectations(0,
+        GroupKeyHolderBean.TIMEOUT_DURATION));
+    context.checking(versionExpectations(VERSION));
+    bean.putSecretKey(group, secretKey);
+    assertThat(bean.getSecretKey(group), is(nullValue()));
+  }
+
+  @Test
+  public void testEvict() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(versionExpectations(VERSION));
+    bean.putSecretKey(group, secretKey);
+    bean.evict(group);
+    assertThat(bean.getSecretKey(group), is(nullValue()));
+  }
+
+  @Test
+  public void testEvictInOtherSession() throws Exception {
+    GroupKeyHolderBean other = newBean();
+    context.checking(timeExpectations(0, 0, 1, 2, 3));
+    context.checking(versionExpectations(VERSION));
+    bean.putSecretKey(group, secretKey);
+    other.putSecretKey(group, secretKey);
+    other.evict(group);
+    assertThat(bean.getSecretKey(group), is(nullValue()));
+    // a key cached after the eviction is not affected by it
+    bean.putSecretKey(group, secretKey);
+    assertThat(bean.getSecretKey(group), is(sameInstance(secretKey)));
+  }
+
+  @Test
+  public void testWatchedOnce() throws Exception {
+    final GroupKeyHolderBean holder = newBean();
+    holder.keyExpiryService = context.mock(KeyExpiryService.class, 
+        "otherKeyExpiryService");
+    context.checking(timeExpectations(0, 1));
+    context.checking(versionExpectations(VERSION));
+    context.checking(new Expectations() { {
+      oneOf(holder.keyExpiryService).watch(holder);
+    } });
+    holder.putSecretKey(group, secretKey);
+    holder.putSecretKey(group, secretKey);
+  }
+  
+  @Test
+  public void testExpire() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(versionExpectations(VERSION));
+    bean.putSecretKey(group, secretKey);
+    assertThat(bean.getSecretKey(group), is(sameInstance(secretKey)));
+    assertThat(bean.getExpiration(), is(equalTo(1 + TIMEOUT)));
+    assertThat(bean.expire(TIMEOUT), is(false));
+    assertThat(bean.expire(1 + TIMEOUT), is(true));
+    assertThat(bean.getSecretKey(group), is(nullValue()));
+  }
+
+  @Test
+  public void testClear() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(versionExpectations(VERSION));
+    bean.putSecretKey(group, secretKey);
+    bean.clear();
+    assertThat(bean.getSecretKey(group), is(nullValue()));
+  }
+
+  private GroupKeyHolderBean newBean() {
+    GroupKeyHolderBean bean = new GroupKeyHolderBean();
+    bean.keyExpiryService = keyExpiryService;
+    bean.evictionRegistry = evictionRegistry;
+    bean.timeOfDayService = timeOfDayService;
+    return bean;
+  }
+  
+  private Expectations versionExpectations(final Long version) {
+    return new Expectations() { {
+      allowing(group).getVersion();
+      will(returnValue(version));
+    } };
+  }
+
+  private Expectations timeExpectations(final long... times) {
+    return new Expectations() { {
+      for (long time : times) {
+        oneOf(timeOfDayService).getCurrent();
+        will(returnValue(new Date(time)));
+      }
+    } };
+  }
+
+}
@@ -21,12 +21,13 @@ package org.soulwing.credo.service.protect;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
-import static org.jmock.Expectations.onConsecutiveCalls;
 import static org.jmock.Expectations.returnValue;
 import static org.jmock.Expectations.throwException;
+import static org.soulwing.credo.testing.RunTaskAction.runTask;
 
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.util.concurrent.Callable;
 
 import javax.crypto.SecretKey;
 
@@ -44,12 +45,15 @@ import org.soulwing.credo.UserGroupMemberBuilder;
 import org.soulwing.credo.UserGroupMemberBuilderFactory;
 import org.soulwing.credo.UserProfile;
 import org.soulwing.credo.repository.UserGroupMemberRepository;
+import org.soulwing.credo.security.MembershipCache;
 import org.soulwing.credo.service.GroupAccessException;
 import org.soulwing.credo.service.UserAccessException;
 import org.soulwing.credo.service.UserContextService;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
 import org.soulwing.credo.service.crypto.IncorrectPassphraseException;
 import org.soulwing.credo.service.crypto.PrivateKeyDecoder;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
+import org.soulwing.credo.service.crypto.ProfileKeyEncryptionService;
 import org.soulwing.credo.service.crypto.PublicKeyDecoder;
 import org.soulwing.credo.service.crypto.PublicKeyWrapper;
 import org.soulwing.credo.service.crypto.SecretKeyDecoder;
@@ -86,6 +90,9 @@ public class GroupProtectionServiceBeanTest {
   @Mock
   private SecretKeyEncryptionService secretKeyEncryptionService;
   
+  @Mock
+  private ProfileKeyEncryptionService profileKeyEncryptionService;
+  
   @Mock
   private UserGroupMemberBuilderFactory memberBuilderFactory;
   
@@ -98,6 +105,12 @@ public class GroupProtectionServiceBeanTest {
   @Mock
   private PrivateKeyHolder privateKeyHolder;
   
+  @Mock
+  private GroupKeyHolder groupKeyHolder;
+
+  @Mock
+  private MembershipCache membershipCache;
+  
   @Mock
   private UserGroup group;
   
@@ -122,6 +135,12 @@ public class GroupProtectionServiceBeanTest {
   @Mock
   private PrivateKeyWrapper privateKeyWrapper;
   
+  @Mock
+  private PrivateKeyWrapper decryptedKeyWrapper;
+  
+  @Mock
+  private PrivateKeyWrapper reencryptedKeyWrapper;
+  
   @Mock
   private PublicKey publicKey;
   
@@ -131,6 +150,9 @@ public class GroupProtectionServiceBeanTest {
   @Mock
   private SecretKey secretKey;
 
+  @Mock
+  private CryptoExecutionService cryptoExecutionService;
+
   private GroupProtectionServiceBean service = 
       new GroupProtectionServiceBean();
   
@@ -139,11 +161,15 @@ public class GroupProtectionServiceBeanTest {
     service.publicKeyDecoder = publicKeyDecoder;
     service.pkcs8Decoder = pkcs8Decoder;
     service.secretKeyDecoder = secretKeyDecoder;
-    service.rsaSecretKeyEncryptionService = secretKeyEncryptionService;
+    service.profileKeyEncryptionService = profileKeyEncryptionService;
+    service.publicKeyEncryptionService = secretKeyEncryptionService;
     service.memberBuilderFactory = memberBuilderFactory;
     service.memberRepository = memberRepository;
     service.userContextService = userContextService;
     service.privateKeyHolder = privateKeyHolder;
+    service.groupKeyHolder = groupKeyHolder;
+    service.membershipCache = membershipCache;
+    service.cryptoExecutionService = cryptoExecutionService;
   }
   
   @Test
@@ -154,11 +180,37 @@ public class GroupProtectionServiceBeanTest {
     service.protect(group, secretKeyWrapper, profile);
   }
   
+  @Test
+  public void testUnprotectWhenSecretKeyCached() throws Exception {
+    context.checking(memberExpectationsOnUnprotect(group, returnValue(member)));
+    context.checking(groupExpectationsOnUnprotect(returnValue(null)));
+    context.checking(new Expectations() { { 
+      oneOf(groupKeyHolder).getSecretKey(with(same(group)));
+      will(returnValue(secretKeyWrapper));
+    } });
+    assertThat(service.unprotect(group, PASSWORD), 
+        is(sameInstance(secretKeyWrapper)));
+  }
+  
   @Test
   public void testUnprotectSelfOwnedGroup() throws Exception {
     context.checking(memberExpectationsOnUnprotect(group, returnValue(member)));
     context.checking(groupExpectationsOnUnprotect(returnValue(null)));
-    context.checking(privateKeyExpectations(returnValue(privateKey)));
+    context.checking(privateKeyExpectations(
+        returnValue(decryptedKeyWrapper)));
+    context.checking(reencryptionExpectations(false));
+    context.checking(secretKeyExpectationsOnUnprotect());
+    assertThat(service.unprotect(group, PASSWORD), 
+        is(sameInstance(secretKeyWrapper)));
+  }
+
+  @Test
+  public void testUnprotectWhenPrivateKeyObsolete() throws Exception {
+    context.checking(memberExpectationsOnUnprotect(group, returnValue(member)));
+    context.checking(groupExpectationsOnUnprotect(returnValue(null)));
+    context.checking(privateKeyExpectations(
+        returnValue(decryptedKeyWrapper)));
+    context.checking(reencryptionExpectations(true));
     context.checking(secretKeyExpectationsOnUnprotect());
     assertThat(service.unprotect(group, PASSWORD), 
         is(sameInstance(secretKeyWrapper)));
@@ -166,10 +218,12 @@ public class GroupProtectionServiceBeanTest {
 
   @Test
   public void testUnprotectGroupOwnedByOtherGroup() throws Exception {
-    context.checking(memberExpectationsOnUnprotect(owner,
-        onConsecutiveCalls(returnValue(null), returnValue(member))));
+    context.checking(memberExpectationsOnUnprotect(owner, 
+        returnValue(member)));
     context.checking(groupExpectationsOnUnprotect(returnValue(owner)));
-    context.checking(privateKeyExpectations(returnValue(privateKey)));
+    context.checking(privateKeyExpectations(
+        returnValue(decryptedKeyWrapper)));
+    context.checking(reencryptionExpectations(false));
     context.checking(secretKeyExpectationsOnUnprotect());
     assertThat(service.unprotect(group, PASSWORD), 
         is(sameInstance(secretKeyWrapper)));
@@ -229,12 +283,16 @@ public class GroupProtectionServiceBeanTest {
       oneOf(memberBuilder).build();
       will(returnValue(member));
       oneOf(memberRepository).add(member);
+      oneOf(groupKeyHolder).evict(with(same(group)));
+      oneOf(membershipCache).evict(with(same(group)));
     } };
   }
    
   private Expectations privateKeyExpectations(final Action outcome) {
     final String encodedPrivateKey = ENCODED_SECRET_KEY;
     return new Expectations() { {
+      allowing(groupKeyHolder).getSecretKey(with(any(UserGroup.class)));
+      will(returnValue(null));
       oneOf(privateKeyHolder).getPrivateKey();
       will(returnValue(null));
       oneOf(member).getUser();
@@ -244,12 +302,34 @@ public class GroupProtectionServiceBeanTest {
       oneOf(pkcs8Decoder).decode(with(same(encodedPrivateKey)));
       will(returnValue(privateKeyWrapper));
       oneOf(privateKeyWrapper).setProtectionParameter(with(same(PASSWORD)));
-      oneOf(privateKeyWrapper).derive();      
+      oneOf(cryptoExecutionService).execute(with(any(Callable.class)));
+      will(runTask());
+      oneOf(privateKeyWrapper).deriveWrapper();      
       will(outcome);
+      allowing(decryptedKeyWrapper).derive();
+      will(returnValue(privateKey));
       allowing(privateKeyHolder).setPrivateKey(with(privateKey));
     } };
   }
   
+  private Expectations reencryptionExpectations(final boolean needed) {
+    final String encodedPrivateKey = ENCODED_SECRET_KEY;
+    final String reencryptedPrivateKey = "reencrypted";
+    return new Expectations() { {
+      oneOf(profileKeyEncryptionService).isReencryptionNeeded(
+          with(same(encodedPrivateKey)));
+      will(returnValue(needed));
+      if (needed) {
+        oneOf(profileKeyEncryptionService).encrypt(
+            with(same(decryptedKeyWrapper)), with(same(PASSWORD)));
+        will(returnValue(reencryptedKeyWrapper));
+        oneOf(reencryptedKeyWrapper).getContent();
+        will(returnValue(reencryptedPrivateKey));
+        oneOf(profile).setPrivateKey(with(same(reencryptedPrivateKey)));
+      }
+    } };
+  }
+  
   private Expectations secretKeyExpectationsOnUnprotect() {
     return new Expectations() { { 
       oneOf(member).getSecretKey();
@@ -264,6 +344,8 @@ public class GroupProtectionServiceBeanTest {
       will(returnValue(secretKey));
       allowing(group).getSecretKey();
       will(returnValue(ENCODED_SECRET_KEY));
+      atLeast(1).of(groupKeyHolder).putSecretKey(with(any(UserGroup.class)), 
+          with(same(secretKeyWrapper)));
     } };
   }
   
@@ -274,8 +356,9 @@ public class GroupProtectionServiceBeanTest {
       will(returnValue(group));
       allowing(userContextService).getLoginName();
       will(returnValue(LOGIN_NAME));
-      allowing(memberRepository).findByGroupNameAndLoginName(
-          with(same(GROUP_NAME)), with(same(LOGIN_NAME)));
+      allowing(memberRepository).findByGroupAndLoginName(
+          with(same(GroupProtectionServiceBeanTest.this.group)), 
+          with(same(LOGIN_NAME)));
       will(outcome);
     } };
   }
@@ -0,0 +1,138 @@
+/*
+ * File created on May 12, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.service.protect;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Date;
+
+import org.jmock.Expectations;
+import org.jmock.auto.Mock;
+import org.jmock.integration.junit4.JUnitRuleMockery;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.soulwing.credo.service.TimeOfDayService;
+
+/**
+ * Unit tests for {@link KeyExpiryServiceBean}.
+ *
+ * @author Carl Harris
+ */
+public class KeyExpiryServiceBeanTest {
+
+  private static final long TICK = KeyExpiryServiceBean.TICK_DURATION;
+
+  private static final long WHEEL = TICK * KeyExpiryServiceBean.SLOT_COUNT;
+
+  @Rule
+  public final JUnitRuleMockery context = new JUnitRuleMockery();
+
+  @Mock
+  private ExpiringKeyHolder holder;
+
+  private long now;
+
+  private KeyExpiryServiceBean service = new KeyExpiryServiceBean();
+
+  @Before
+  public void setUp() throws Exception {
+    service.timeOfDayService = new TimeOfDayService() {
+      @Override
+      public Date getCurrent() {
+        return new Date(now);
+      }
+    };
+    service.init();
+  }
+
+  @Test
+  public void testWatchAndExpire() throws Exception {
+    context.checking(expirationExpectations(10 * TICK));
+    service.watch(holder);
+    assertThat(service.getLiveCount(), is(equalTo(1)));
+
+    advanceTo(10 * TICK - 1);
+
+    context.checking(new Expectations() { {
+      oneOf(holder).expire(10 * TICK);
+      will(returnValue(true));
+    } });
+
+    advanceTo(10 * TICK);
+    assertThat(service.getLiveCount(), is(equalTo(0)));
+    assertThat(service.getExpiredCount(), is(equalTo(1L)));
+  }
+
+  @Test
+  public void testRescheduleWhenAccessed() throws Exception {
+    context.checking(expirationExpectations(10 * TICK));
+    service.watch(holder);
+
+    context.checking(new Expectations() { {
+      oneOf(holder).expire(10 * TICK);
+      will(returnValue(false));
+    } });
+    context.checking(expirationExpectations(20 * TICK));
+
+    advanceTo(10 * TICK);
+    assertThat(service.getLiveCount(), is(equalTo(1)));
+
+    context.checking(new Expectations() { {
+      oneOf(holder).expire(20 * TICK);
+      will(returnValue(true));
+    } });
+
+    advanceTo(20 * TICK);
+    assertThat(service.getLiveCount(), is(equalTo(0)));
+  }
+
+  @Test
+  public void testExpireAfterMoreThanOneRevolution() throws Exception {
+    final long expiration = WHEEL + 10 * TICK;
+    context.checking(expirationExpectations(expiration));
+    service.watch(holder);
+
+    advanceTo(10 * TICK);
+    advanceTo(expiration - 1);
+
+    context.checking(new Expectations() { {
+      oneOf(holder).expire(expiration);
+      will(returnValue(true));
+    } });
+
+    advanceTo(expiration);
+    assertThat(service.getExpiredCount(), is(equalTo(1L)));
+  }
+
+  private void advanceTo(long time) {
+    now = time;
+    service.advance();
+  }
+
+  private Expectations expirationExpectations(final long expiration) {
+    return new Expectations() { {
+      oneOf(holder).getExpiration();
+      will(returnValue(expiration));
+    } };
+  }
+
+}
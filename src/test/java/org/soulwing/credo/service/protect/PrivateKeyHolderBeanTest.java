@@ -19,13 +19,15 @@
 package org.soulwing.credo.service.protect;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 
 import java.security.PrivateKey;
+import java.util.Date;
 
-import javax.ejb.Timer;
+import javax.security.auth.Destroyable;
 
 import org.jmock.Expectations;
 import org.jmock.auto.Mock;
@@ -33,7 +35,7 @@ import org.jmock.integration.junit4.JUnitRuleMockery;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
-import org.soulwing.credo.service.TimerServiceManager;
+import org.soulwing.credo.service.TimeOfDayService;
 
 /**
  * Unit tests for {@link PrivateKeyHolderBean}.
@@ -42,53 +44,61 @@ import org.soulwing.credo.service.TimerServiceManager;
  */
 public class PrivateKeyHolderBeanTest {
 
+  private static final long TIMEOUT = PrivateKeyHolderBean.TIMEOUT_DURATION;
+
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleMockery();
   
   @Mock
-  private TimerServiceManager timerServiceManager;
+  private KeyExpiryService keyExpiryService;
   
   @Mock
-  private Timer timer;
+  private TimeOfDayService timeOfDayService;
   
   @Mock
-  private PrivateKey privateKey;
+  private DestroyablePrivateKey privateKey;
   
   private PrivateKeyHolderBean bean = new PrivateKeyHolderBean();
   
   @Before
   public void setUp() throws Exception {
-    bean.timerServiceManager = timerServiceManager;
+    bean.keyExpiryService = keyExpiryService;
+    bean.timeOfDayService = timeOfDayService;
   }
   
   @Test
   public void testGetAndSetPrivateKey() throws Exception {
+    context.checking(timeExpectations(0, 1));
     context.checking(new Expectations() { { 
-      // each call to getPrivateKey or setPrivateKey when key is not null
-      // should schedule the timer
-      exactly(2).of(timerServiceManager).createTimer(
-          with(PrivateKeyHolderBean.TIMEOUT_DURATION),
-          with(same(bean)));
-      will(returnValue(timer));
-      // if the timer is rescheduled when already set, the existing timer
-      // must be canceled
-      atLeast(1).of(timerServiceManager).cancel(with(same(bean)));
+      oneOf(keyExpiryService).watch(with(same(bean)));
     } });
     
     bean.setPrivateKey(privateKey);
     assertThat(bean.getPrivateKey(), is(sameInstance(privateKey)));
+    assertThat(bean.getExpiration(), is(equalTo(1 + TIMEOUT)));
+  }
+  
+  @Test
+  public void testSetPrivateKeyWhenWatched() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(new Expectations() { { 
+      // the holder must be watched only once
+      oneOf(keyExpiryService).watch(with(same(bean)));
+    } });
+    
+    bean.setPrivateKey(privateKey);
+    bean.setPrivateKey(privateKey);
   }
   
   @Test
   public void testSetPrivateKeyToNull() throws Exception {
+    context.checking(timeExpectations(0));
     context.checking(new Expectations() { {
-      // setting key to non-null must schedule the timer
-      oneOf(timerServiceManager).createTimer(
-          with(PrivateKeyHolderBean.TIMEOUT_DURATION),
-          with(same(bean)));
-      will(returnValue(timer));      
-      // setting key to null must cancel the timer and not reschedule it
-      atLeast(1).of(timerServiceManager).cancel(with(same(bean)));
+      oneOf(keyExpiryService).watch(with(same(bean)));
+      // replacing the key must destroy it
+      oneOf(privateKey).isDestroyed();
+      will(returnValue(false));
+      oneOf(privateKey).destroy();
     } });
     
     bean.setPrivateKey(privateKey);
@@ -98,10 +108,48 @@ public class PrivateKeyHolderBeanTest {
 
   @Test
   public void testGetPrivateKeyWhenNull() throws Exception {
+    assertThat(bean.getPrivateKey(), is(nullValue()));
+  }
+
+  @Test
+  public void testExpireBeforeTimeout() throws Exception {
+    context.checking(timeExpectations(0, 1));
+    context.checking(new Expectations() { {
+      oneOf(keyExpiryService).watch(with(same(bean)));
+    } });
+
+    bean.setPrivateKey(privateKey);
+    assertThat(bean.expire(TIMEOUT - 1), is(false));
+    assertThat(bean.getPrivateKey(), is(sameInstance(privateKey)));
+  }
+
+  @Test
+  public void testExpireAfterTimeout() throws Exception {
+    context.checking(timeExpectations(0, TIMEOUT + 1));
     context.checking(new Expectations() { {
-      allowing(timerServiceManager).cancel(with(same(bean)));
+      // the holder must be watched again after it has expired
+      exactly(2).of(keyExpiryService).watch(with(same(bean)));
+      oneOf(privateKey).isDestroyed();
+      will(returnValue(false));
+      oneOf(privateKey).destroy();
     } });
+
+    bean.setPrivateKey(privateKey);
+    assertThat(bean.expire(TIMEOUT), is(true));
     assertThat(bean.getPrivateKey(), is(nullValue()));
+    bean.setPrivateKey(privateKey);
+  }
+
+  private Expectations timeExpectations(final long... times) {
+    return new Expectations() { {
+      for (long time : times) {
+        oneOf(timeOfDayService).getCurrent();
+        will(returnValue(new Date(time)));
+      }
+    } };
+  }
+
+  interface DestroyablePrivateKey extends PrivateKey, Destroyable {
   }
 
 }
@@ -19,10 +19,15 @@
 package org.soulwing.credo.service.request;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.jmock.Expectations.returnValue;
 import static org.jmock.Expectations.throwException;
+import static org.soulwing.credo.testing.RunTaskAction.runTask;
+
+import java.util.concurrent.Callable;
 
 import javax.security.auth.x500.X500Principal;
 
@@ -43,6 +48,8 @@ import org.soulwing.credo.service.crypto.CertificationRequestBuilder;
 import org.soulwing.credo.service.crypto.CertificationRequestBuilderFactory;
 import org.soulwing.credo.service.crypto.CertificationRequestException;
 import org.soulwing.credo.service.crypto.CertificationRequestWrapper;
+import org.soulwing.credo.service.crypto.CryptoExecutionService;
+import org.soulwing.credo.service.crypto.CryptoOverloadException;
 import org.soulwing.credo.service.crypto.KeyGeneratorService;
 import org.soulwing.credo.service.crypto.KeyPairWrapper;
 import org.soulwing.credo.service.crypto.PrivateKeyWrapper;
@@ -114,6 +121,9 @@ public class CredentialRequestGeneratorBeanTest {
   @Mock
   private Errors errors;
   
+  @Mock
+  private CryptoExecutionService cryptoExecutionService;
+  
   private CredentialRequestGeneratorBean generator =
       new CredentialRequestGeneratorBean();
   
@@ -124,6 +134,7 @@ public class CredentialRequestGeneratorBeanTest {
     generator.groupResolver = groupResolver;
     generator.requestBuilderFactory = requestBuilderFactory;
     generator.protectionService = protectionService;
+    generator.cryptoExecutionService = cryptoExecutionService;
   }
   
   @Test
@@ -145,8 +156,24 @@ public class CredentialRequestGeneratorBeanTest {
     generator.generate(editor, protection, errors);
   }
   
+  @Test(expected = CredentialRequestException.class)
+  public void testGenerateWhenOverloaded() throws Exception {
+    context.checking(new Expectations() { { 
+      oneOf(editor).getSubject();
+      will(returnValue(SUBJECT));
+      oneOf(cryptoExecutionService).execute(with(any(Callable.class)));
+      will(throwException(new CryptoOverloadException(5)));
+      oneOf(errors).addError(with(equalTo("cryptoBusy")), 
+          (Object[]) with(arrayContaining(5L)));
+    } });
+
+    generator.generate(editor, protection, errors);
+  }
+  
   private Expectations keyPairExpectations() throws Exception {
     return new Expectations() { { 
+      oneOf(cryptoExecutionService).execute(with(any(Callable.class)));
+      will(runTask());
       oneOf(keyGeneratorService).generateKeyPair();
       will(returnValue(keyPair));
       allowing(keyPair).getPublic();
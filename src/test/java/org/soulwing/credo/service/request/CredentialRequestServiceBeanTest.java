@@ -20,8 +20,9 @@ package org.soulwing.credo.service.request;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
-import java.util.Collection;
 import java.util.Collections;
 
 import org.jmock.Expectations;
@@ -31,9 +32,10 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.soulwing.credo.CredentialRequest;
-import org.soulwing.credo.UserGroup;
+import org.soulwing.credo.Page;
+import org.soulwing.credo.PageRequest;
+import org.soulwing.credo.PageRequest.SortKey;
 import org.soulwing.credo.repository.CredentialRequestRepository;
-import org.soulwing.credo.repository.UserGroupRepository;
 import org.soulwing.credo.service.UserContextService;
 
 /**
@@ -48,9 +50,6 @@ public class CredentialRequestServiceBeanTest {
   @Rule
   public final JUnitRuleMockery context = new JUnitRuleMockery();
   
-  @Mock
-  private UserGroupRepository groupRepository;
-  
   @Mock
   private CredentialRequestRepository requestRepository;
   
@@ -60,38 +59,42 @@ public class CredentialRequestServiceBeanTest {
   @Mock
   private CredentialRequest request;
   
-  @Mock
-  private UserGroup group1;
-  
-  @Mock
-  private UserGroup group2;
-  
   private CredentialRequestServiceBean service =
       new CredentialRequestServiceBean();
   
   @Before
   public void setUp() throws Exception {
-    service.groupRepository = groupRepository;
     service.requestRepository = requestRepository;
     service.userContextService = userContextService;
   }
   
   @Test
-  @SuppressWarnings("unchecked")
   public void testFindAllRequests() throws Exception {
     context.checking(new Expectations() { {
       oneOf(userContextService).getLoginName();
       will(returnValue(LOGIN_NAME));
-      oneOf(groupRepository).findByLoginName(with(LOGIN_NAME));
-      will(returnValue(Collections.singletonList(group1)));
-      oneOf(groupRepository).findDescendants(with(same(group1)));
-      will(returnValue(Collections.singletonList(group2)));
-      oneOf(requestRepository).findAllByOwners(
-          (Collection<UserGroup>) with(contains(group1, group2)));
+      oneOf(requestRepository).findAllByLoginName(with(LOGIN_NAME));
       will(returnValue(Collections.singletonList(request)));
     } });
     
     assertThat(service.findAllRequests(), contains(request));
   }
-  
+
+  @Test
+  public void testFindRequests() throws Exception {
+    final PageRequest pageRequest = 
+        new PageRequest(SortKey.DATE_CREATED, false, null, null, 1);
+    final Page<CredentialRequest> page = 
+        new Page<>(Collections.singletonList(request), null);
+    context.checking(new Expectations() { {
+      oneOf(userContextService).getLoginName();
+      will(returnValue(LOGIN_NAME));
+      oneOf(requestRepository).findPageByLoginName(with(LOGIN_NAME),
+          with(same(pageRequest)));
+      will(returnValue(page));
+    } });
+
+    assertThat(service.findRequests(pageRequest), is(sameInstance(page)));
+  }
+
 }
@@ -0,0 +1,110 @@
+/*
+ * File created on May 15, 2014
+ *
+ * Copyright (c) 2014 Virginia Polytechnic Institute and State University
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.soulwing.credo.testing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.jmock.api.Action;
+import org.jmock.api.Invocation;
+import org.jmock.lib.action.CustomAction;
+
+/**
+ * An action that runs the task(s) passed to a mock 
+ * {@link org.soulwing.credo.service.crypto.CryptoExecutionService} on the
+ * calling thread.
+ * <p>
+ * As with the real service, an unchecked exception thrown by a task is 
+ * rethrown as is, while a checked exception is wrapped in an 
+ * {@link ExecutionException}.
+ *
+ * @author Carl Harris
+ */
+public class RunTaskAction extends CustomAction {
+
+  private final boolean all;
+  
+  private RunTaskAction(boolean all) {
+    super(all ? "run tasks" : "run task");
+    this.all = all;
+  }
+  
+  /**
+   * Creates an action that runs the single task passed to 
+   * {@code execute}.
+   * @return action
+   */
+  public static Action runTask() {
+    return new RunTaskAction(false);
+  }
+
+  /**
+   * Creates an action that runs the list of tasks passed to 
+   * {@code executeAll}.
+   * @return action
+   */
+  public static Action runTasks() {
+    return new RunTaskAction(true);
+  }
+  
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object invoke(Invocation invocation) throws Throwable {
+    // other parameters (e.g. the user or the concurrency limit) are ignored
+    Object tasks = findParameter(invocation, 
+        all ? Collection.class : Callable.class);
+    if (!all) {
+      return call((Callable<?>) tasks);
+    }
+    List<Object> results = new ArrayList<>();
+    for (Object task : (Collection<?>) tasks) {
+      results.add(call((Callable<?>) task));
+    }
+    return results;
+  }
+
+  private static Object findParameter(Invocation invocation, 
+      Class<?> type) {
+    for (int i = 0; i < invocation.getParameterCount(); i++) {
+      if (type.isInstance(invocation.getParameter(i))) {
+        return invocation.getParameter(i);
+      }
+    }
+    throw new IllegalArgumentException("no parameter of type " 
+        + type.getSimpleName());
+  }
+
+  private static Object call(Callable<?> task) throws Exception {
+    try {
+      return task.call();
+    }
+    catch (RuntimeException ex) {
+      throw ex;
+    }
+    catch (Exception ex) {
+      throw new ExecutionException(ex);
+    }
+  }
+  
+}